@@ -0,0 +1,88 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Erfassen von Transaktionen in einen bereits gefüllten Ledger. Jede
+ * Messiteration fügt {@link #BATCH} Transaktionen in einen frisch aufgebauten
+ * Ledger der angegebenen Größe ein, damit das Wachstum während der Messung die
+ * Ledgergröße nicht verfälscht. Gemessen wird die Zeit für den ganzen Block.
+ * <p>
+ * {@code dated=latest} bucht auf den letzten Tag (normaler Betrieb),
+ * {@code dated=random} auf zufällige Tage der Historie (rückdatierte Buchungen
+ * durch Admins).
+ * </p>
+ * <p>
+ * {@link #addTransactions()} erfasst denselben Block mit einem einzigen
+ * Aufruf von {@link Ledger#addTransactions(java.util.Collection)}; die Werte
+ * beider Methoden sind damit direkt vergleichbar.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = AddTransactionBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = AddTransactionBenchmark.BATCH)
+@Fork(1)
+public class AddTransactionBenchmark {
+
+	/** Anzahl der je Iteration erfassten Transaktionen. */
+	static final int BATCH = 1000;
+
+	@Param({ "1000", "100000", "1000000", "10000000" })
+	public int transactions;
+
+	@Param({ "3", "100", "10000" })
+	public int members;
+
+	@Param({ "latest", "random" })
+	public String dated;
+
+	private List<Transaction> history;
+	private List<Transaction> additions;
+	private Ledger ledger;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		List<Member> all = SyntheticData.members(members);
+		history = SyntheticData.transactions(all, transactions);
+		Random random = new Random(SyntheticData.SEED + 2);
+		additions = new ArrayList<>(BATCH);
+		LocalDate last = SyntheticData.START.plusDays(SyntheticData.DAYS);
+		for (int i = 0; i < BATCH; i++) {
+			LocalDate date = "random".equals(dated) ? SyntheticData.START.plusDays(random.nextInt(SyntheticData.DAYS))
+					: last;
+			additions.add(SyntheticData.transaction(random, all, date));
+		}
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		ledger = SyntheticData.ledger(history);
+		next = 0;
+	}
+
+	@Benchmark
+	public Ledger addTransaction() throws Exception {
+		ledger.addTransaction(additions.get(next++ % BATCH));
+		return ledger;
+	}
+
+	@Benchmark
+	@Warmup(iterations = 5, batchSize = 1)
+	@Measurement(iterations = 10, batchSize = 1)
+	public Ledger addTransactions() throws Exception {
+		ledger.addTransactions(additions);
+		return ledger;
+	}
+}
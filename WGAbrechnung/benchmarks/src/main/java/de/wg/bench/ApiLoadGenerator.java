@@ -0,0 +1,174 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.RuleSet;
+import de.wg.model.Transaction;
+import de.wg.server.ApiServer;
+import de.wg.service.Ledger;
+import de.wg.service.LoginManager;
+import de.wg.service.MemberManager;
+import de.wg.service.TransactionImportExport;
+import de.wg.service.TransactionImportExport.Format;
+import de.wg.service.UserManager;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lastgenerator für den {@link ApiServer}. Mehrere Clients buchen über eine
+ * feste Dauer so schnell wie möglich Transaktionen per
+ * {@code POST /api/transactions}; am Ende werden Durchsatz und Latenzen
+ * ausgegeben.
+ * <p>
+ * Ohne URL wird ein Server auf localhost mit synthetischen Daten gestartet;
+ * der Ledger schreibt dabei wie im Betrieb ein Journal in ein temporäres
+ * Verzeichnis. Ein fremder Server muss die Mitglieder "Mitglied 0" bis
+ * "Mitglied 19" kennen; Benutzer und Passwort kommen aus den Properties
+ * {@code wg.user} und {@code wg.password}.
+ * </p>
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar de.wg.bench.ApiLoadGenerator [clients] [transaktionenJeAnfrage] [sekunden] [url]
+ * </pre>
+ */
+public final class ApiLoadGenerator {
+
+	/** Anzahl der synthetischen Mitglieder. */
+	private static final int MEMBERS = 20;
+
+	/** Anzahl der vorab erzeugten Anfragetexte, reihum verwendet. */
+	private static final int BODIES = 64;
+
+	private ApiLoadGenerator() {
+	}
+
+	/**
+	 * Startet den Lasttest.
+	 *
+	 * @param args Anzahl der Clients (Standard 32), Transaktionen je Anfrage
+	 *             (Standard 1), Dauer in Sekunden (Standard 10) und optional
+	 *             die Basis-URL eines laufenden Servers
+	 * @throws Exception bei Start- oder Verbindungsfehlern
+	 */
+	public static void main(String[] args) throws Exception {
+		int clients = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+		int perRequest = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		String url = args.length > 3 ? args[3] : null;
+
+		List<Member> members = SyntheticData.members(MEMBERS);
+		String user = System.getProperty("wg.user", members.get(0).getName());
+		String password = System.getProperty("wg.password", "password");
+
+		ApiServer server = null;
+		Path dir = null;
+		Ledger ledger = null;
+		if (url == null) {
+			dir = Files.createTempDirectory("wg-last");
+			ledger = new Ledger();
+			ledger.saveToFile(dir.resolve("ledger.bin").toString());
+			MemberManager memberManager = SyntheticData.memberManager(members);
+			UserManager userManager = SyntheticData.userManager(members);
+			ledger.bindAccounts(memberManager);
+			server = new ApiServer(ledger, memberManager, userManager, new LoginManager(new RuleSet()),
+					new InetSocketAddress("localhost", 0), 2 * Runtime.getRuntime().availableProcessors());
+			server.start();
+			url = "http://localhost:" + server.getPort();
+		}
+
+		// Anfragetexte vorab erzeugen, damit der Generator selbst kaum Last erzeugt
+		List<Transaction> pool = SyntheticData.transactions(members, BODIES * perRequest);
+		String[] bodies = new String[BODIES];
+		for (int i = 0; i < BODIES; i++) {
+			StringWriter out = new StringWriter();
+			TransactionImportExport.exportTransactions(pool.subList(i * perRequest, (i + 1) * perRequest), out,
+					Format.JSON);
+			bodies[i] = out.toString();
+		}
+
+		String auth = "Basic " + Base64.getEncoder()
+				.encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+		URI target = URI.create(url + "/api/transactions");
+		HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+		System.out.println("Lasttest gegen " + url + ": " + clients + " Clients, " + perRequest
+				+ " Transaktionen je Anfrage, " + seconds + " s");
+		AtomicLong failures = new AtomicLong();
+		long end = System.nanoTime() + seconds * 1_000_000_000L;
+		ExecutorService executor = Executors.newFixedThreadPool(clients);
+		List<Future<long[]>> results = new ArrayList<>();
+		for (int c = 0; c < clients; c++) {
+			int offset = c;
+			results.add(executor.submit(() -> {
+				long[] latencies = new long[1024];
+				int count = 0;
+				for (int i = offset; System.nanoTime() < end; i++) {
+					HttpRequest request = HttpRequest.newBuilder(target).header("Authorization", auth)
+							.header("Content-Type", "application/x-ndjson")
+							.POST(HttpRequest.BodyPublishers.ofString(bodies[i % BODIES])).build();
+					long start = System.nanoTime();
+					HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+					long nanos = System.nanoTime() - start;
+					if (response.statusCode() != 200) {
+						if (failures.getAndIncrement() == 0) {
+							System.err.println("Fehler " + response.statusCode() + ": " + response.body());
+						}
+						continue;
+					}
+					if (count == latencies.length) {
+						latencies = Arrays.copyOf(latencies, count * 2);
+					}
+					latencies[count++] = nanos;
+				}
+				return Arrays.copyOf(latencies, count);
+			}));
+		}
+		long[] all = new long[0];
+		for (Future<long[]> f : results) {
+			long[] part = f.get();
+			int old = all.length;
+			all = Arrays.copyOf(all, old + part.length);
+			System.arraycopy(part, 0, all, old, part.length);
+		}
+		executor.shutdown();
+		Arrays.sort(all);
+
+		System.out.printf("Anfragen: %d (fehlgeschlagen: %d)%n", all.length, failures.get());
+		System.out.printf("Durchsatz: %.0f Anfragen/s, %.0f Transaktionen/s%n", all.length / (double) seconds,
+				all.length * (double) perRequest / seconds);
+		if (all.length > 0) {
+			System.out.printf("Latenz in ms: p50 %.2f, p95 %.2f, p99 %.2f, max %.2f%n", percentile(all, 50),
+					percentile(all, 95), percentile(all, 99), all[all.length - 1] / 1e6);
+		}
+
+		if (server != null) {
+			server.close();
+			System.out.println("Transaktionen im Ledger: " + ledger.getAllTransactions().size());
+			for (File f : dir.toFile().listFiles()) {
+				f.delete();
+			}
+			dir.toFile().delete();
+		}
+	}
+
+	private static double percentile(long[] sorted, int p) {
+		int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+		return sorted[Math.max(0, index)] / 1e6;
+	}
+}
@@ -0,0 +1,86 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Transaction;
+import de.wg.service.ConcurrentLedger;
+import de.wg.service.Ledger;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durchsatz beim gleichzeitigen Erfassen von Transaktionen aus mehreren
+ * Threads: {@link ConcurrentLedger} gegen den bisherigen {@link Ledger}, der
+ * dafür mit {@code synchronized} geschützt werden muss. Die Anzahl der Threads
+ * wird mit {@code -t} gewählt (Standard 4). Beide Ledger werden je Iteration
+ * neu angelegt.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class ConcurrentLedgerBenchmark {
+
+	@Param({ "6", "1000" })
+	public int members;
+
+	private List<Member> all;
+	private ConcurrentLedger concurrentLedger;
+	private Ledger ledger;
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		all = SyntheticData.members(members);
+	}
+
+	@Setup(Level.Iteration)
+	public void setUpIteration() {
+		concurrentLedger = new ConcurrentLedger();
+		ledger = new Ledger();
+	}
+
+	/**
+	 * Vorab erzeugte Transaktionen je Thread, damit nur das Erfassen gemessen
+	 * wird.
+	 */
+	@State(Scope.Thread)
+	public static class Input {
+		private static final int COUNT = 4096;
+		private Transaction[] transactions;
+		private int next;
+
+		@Setup(Level.Trial)
+		public void setUp(ConcurrentLedgerBenchmark benchmark) {
+			Random random = new Random(Thread.currentThread().getId());
+			LocalDate date = SyntheticData.START.plusDays(SyntheticData.DAYS);
+			transactions = new Transaction[COUNT];
+			for (int i = 0; i < COUNT; i++) {
+				transactions[i] = SyntheticData.transaction(random, benchmark.all, date);
+			}
+		}
+
+		Transaction next() {
+			next = (next + 1) & (COUNT - 1);
+			return transactions[next];
+		}
+	}
+
+	@Benchmark
+	public void concurrentLedger(Input input) throws Exception {
+		concurrentLedger.addTransaction(input.next());
+	}
+
+	@Benchmark
+	public void synchronizedLedger(Input input) throws Exception {
+		Transaction t = input.next();
+		synchronized (ledger) {
+			ledger.addTransaction(t);
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.User;
+import de.wg.service.MemberManager;
+import de.wg.service.UserManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Namenssuche in {@link MemberManager} und {@link UserManager} für 3 bis
+ * 10.000 Einträge. Die gesuchten Namen werden als neue String-Instanzen
+ * abgefragt, so wie sie aus einem Eingabefeld kommen. Jeder 16. Name
+ * existiert nicht.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectoryBenchmark {
+
+	private static final int PROBES = 1024;
+
+	@Param({ "3", "100", "1000", "10000" })
+	public int members;
+
+	private MemberManager memberManager;
+	private UserManager userManager;
+	private String[] names;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Member> all = SyntheticData.members(members);
+		memberManager = SyntheticData.memberManager(all);
+		userManager = SyntheticData.userManager(all);
+		Random random = new Random(SyntheticData.SEED + 3);
+		names = new String[PROBES];
+		for (int i = 0; i < PROBES; i++) {
+			names[i] = i % 16 == 15 ? "Unbekannt " + i : new String("Mitglied " + random.nextInt(members));
+		}
+	}
+
+	private String nextName() {
+		next = (next + 1) & (PROBES - 1);
+		return names[next];
+	}
+
+	@Benchmark
+	public Member getMemberByName() {
+		return memberManager.getMemberByName(nextName());
+	}
+
+	@Benchmark
+	public User getByUsername() {
+		return userManager.getByUsername(nextName());
+	}
+}
@@ -0,0 +1,93 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lesende Ledger-Abfragen auf synthetischen Ledgern von 1.000 bis 10 Mio.
+ * Transaktionen zwischen 3 und 10.000 Mitgliedern.
+ * <p>
+ * Für 10 Mio. Transaktionen wird ein entsprechend großer Heap benötigt, z.B.
+ * {@code -jvmArgsAppend -Xmx8g}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerBenchmark {
+
+	/** Anzahl der abgefragten Mitglieder bzw. Tage, über die reihum abgefragt wird. */
+	private static final int PROBES = 1024;
+
+	@Param({ "1000", "100000", "1000000", "10000000" })
+	public int transactions;
+
+	@Param({ "3", "100", "10000" })
+	public int members;
+
+	private Ledger ledger;
+	private Member[] memberProbes;
+	private LocalDate[] dateProbes;
+	private int next;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Member> all = SyntheticData.members(members);
+		ledger = SyntheticData.ledger(SyntheticData.transactions(all, transactions));
+		Random random = new Random(SyntheticData.SEED + 1);
+		memberProbes = new Member[PROBES];
+		dateProbes = new LocalDate[PROBES];
+		for (int i = 0; i < PROBES; i++) {
+			memberProbes[i] = all.get(random.nextInt(all.size()));
+			dateProbes[i] = SyntheticData.START.plusDays(random.nextInt(SyntheticData.DAYS));
+		}
+	}
+
+	private int nextProbe() {
+		next = (next + 1) & (PROBES - 1);
+		return next;
+	}
+
+	/** Saldo eines einzelnen Mitglieds. */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public Money getBalance() {
+		return ledger.getBalance(memberProbes[nextProbe()]);
+	}
+
+	/** Alle Transaktionen eines Tages. */
+	@Benchmark
+	public List<Transaction> findTransactionsByDate() {
+		return ledger.findTransactionsByDate(dateProbes[nextProbe()]);
+	}
+
+	/** Vollständiges Durchlaufen der nach Datum sortierten Ansicht, wie beim Füllen der Verlaufstabelle. */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void getTransactionsSortedByDate(Blackhole bh) {
+		for (Transaction t : ledger.getTransactionsSortedByDate()) {
+			bh.consume(t);
+		}
+	}
+
+	/** Vollständiges Durchlaufen der nach Betrag sortierten Ansicht. */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void getTransactionsSortedByAmount(Blackhole bh) {
+		for (Transaction t : ledger.getTransactionsSortedByAmount()) {
+			bh.consume(t);
+		}
+	}
+}
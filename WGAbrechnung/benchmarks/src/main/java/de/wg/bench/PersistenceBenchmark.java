@@ -0,0 +1,101 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.service.Ledger;
+import de.wg.service.MemberManager;
+import de.wg.service.UserManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Speichern und Laden von Ledger, MemberManager und UserManager in einem
+ * temporären Verzeichnis. Jede Messung ist ein einzelner vollständiger
+ * Schreib- bzw. Lesevorgang.
+ * <p>
+ * Der Ledger wird über {@link Ledger#compact(String)} gespeichert: das ist der
+ * vollständige Snapshot, den {@link Ledger#saveToFile(String)} schreibt. Ein
+ * wiederholtes {@code saveToFile} bei angehängtem Journal wäre dagegen kein
+ * Schreibvorgang und würde nichts messen.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PersistenceBenchmark {
+
+	@Param({ "1000", "100000", "1000000", "10000000" })
+	public int transactions;
+
+	@Param({ "3", "100", "10000" })
+	public int members;
+
+	private Path directory;
+	private Ledger ledger;
+	private MemberManager memberManager;
+	private UserManager userManager;
+	private String ledgerFile;
+	private String membersFile;
+	private String usersFile;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		List<Member> all = SyntheticData.members(members);
+		ledger = SyntheticData.ledger(SyntheticData.transactions(all, transactions));
+		memberManager = SyntheticData.memberManager(all);
+		userManager = SyntheticData.userManager(all);
+		directory = Files.createTempDirectory("wg-bench");
+		ledgerFile = directory.resolve("ledger.bin").toString();
+		membersFile = directory.resolve("members.bin").toString();
+		usersFile = directory.resolve("users.bin").toString();
+		ledger.compact(ledgerFile);
+		memberManager.saveToFile(membersFile);
+		userManager.saveToFile(usersFile);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public void saveLedger() throws IOException {
+		ledger.compact(ledgerFile);
+	}
+
+	@Benchmark
+	public Ledger loadLedger() throws Exception {
+		return Ledger.loadFromFile(ledgerFile);
+	}
+
+	@Benchmark
+	public void saveMembers() throws IOException {
+		memberManager.saveToFile(membersFile);
+	}
+
+	@Benchmark
+	public MemberManager loadMembers() throws Exception {
+		return MemberManager.loadFromFile(membersFile);
+	}
+
+	@Benchmark
+	public void saveUsers() throws IOException {
+		userManager.saveToFile(usersFile);
+	}
+
+	@Benchmark
+	public UserManager loadUsers() throws Exception {
+		return UserManager.loadFromFile(usersFile);
+	}
+}
@@ -0,0 +1,100 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Volltextsuche über den Beschreibungsindex
+ * ({@link Ledger#searchTransactions}) mit dem Durchsuchen aller
+ * Beschreibungen, jeweils mit und ohne Filter nach Zeitraum und Zahler. Die
+ * synthetischen Beschreibungen werden um den Monatsnamen ergänzt, damit
+ * Anfragen wie "Einkauf März" sinnvoll sind.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({ "100000", "1000000" })
+	public int transactions;
+
+	@Param({ "Einkauf März", "pizza" })
+	public String query;
+
+	private Ledger ledger;
+	private Member payer;
+	private LocalDate from;
+	private LocalDate to;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		List<Member> members = SyntheticData.members(10);
+		List<Transaction> data = new ArrayList<>(transactions);
+		for (Transaction t : SyntheticData.transactions(members, transactions)) {
+			data.add(new Transaction(t.getDate(), t.getAmount(), t.getPayer(), t.getBeneficiaries(),
+					t.getDescription() + " " + t.getDate().getMonth().getDisplayName(TextStyle.FULL, Locale.GERMAN)));
+		}
+		ledger = SyntheticData.ledger(data);
+		payer = members.get(0);
+		from = SyntheticData.START.plusDays(SyntheticData.DAYS / 2);
+		to = from.plusDays(365);
+	}
+
+	/** Suche über den Index in der gesamten Historie. */
+	@Benchmark
+	public List<Transaction> search() {
+		return ledger.searchTransactions(query, null, null, null);
+	}
+
+	/** Suche über den Index, eingeschränkt auf ein Jahr und einen Zahler. */
+	@Benchmark
+	public List<Transaction> searchFiltered() {
+		return ledger.searchTransactions(query, from, to, payer);
+	}
+
+	/** Bisheriger Weg: alle Beschreibungen der Historie durchsuchen. */
+	@Benchmark
+	public List<Transaction> scan() {
+		return scan(ledger.getTransactionsSortedByDate());
+	}
+
+	/** Beschreibungen nur im Zeitraum über den Datumsindex durchsuchen. */
+	@Benchmark
+	public List<Transaction> scanFiltered() {
+		List<Transaction> range = new ArrayList<>();
+		for (Transaction t : ledger.findTransactionsBetween(from, to)) {
+			if (t.getPayer().equals(payer)) {
+				range.add(t);
+			}
+		}
+		return scan(range);
+	}
+
+	private List<Transaction> scan(List<Transaction> candidates) {
+		String[] words = query.toLowerCase(Locale.GERMAN).split(" ");
+		List<Transaction> result = new ArrayList<>();
+		for (Transaction t : candidates) {
+			String description = t.getDescription().toLowerCase(Locale.GERMAN);
+			boolean all = true;
+			for (String w : words) {
+				all &= description.contains(w);
+			}
+			if (all) {
+				result.add(t);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,59 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Settlement;
+import de.wg.service.SettlementEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Berechnung der Ausgleichszahlungen für 8 bis 100.000 Mitglieder mit
+ * zufälligen Salden (Summe null). {@code greedy} rechnet immer per Heap-Abgleich,
+ * {@code standard} nutzt bis {@link SettlementEngine#DEFAULT_EXACT_LIMIT}
+ * offene Salden den exakten Löser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SettlementBenchmark {
+
+	@Param({ "8", "16", "1000", "10000", "100000" })
+	public int members;
+
+	private Map<Member, Money> balances;
+	private final SettlementEngine greedyEngine = new SettlementEngine(0);
+	private final SettlementEngine standardEngine = new SettlementEngine();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(SyntheticData.SEED);
+		List<Member> all = SyntheticData.members(members);
+		balances = new HashMap<>(members * 2);
+		long summe = 0;
+		for (int i = 0; i < members - 1; i++) {
+			long cents = random.nextInt(200_001) - 100_000;
+			balances.put(all.get(i), Money.ofCents(cents));
+			summe += cents;
+		}
+		balances.put(all.get(members - 1), Money.ofCents(-summe));
+	}
+
+	@Benchmark
+	public List<Settlement> greedy() {
+		return greedyEngine.computeSettlements(balances);
+	}
+
+	@Benchmark
+	public List<Settlement> standard() {
+		return standardEngine.computeSettlements(balances);
+	}
+}
@@ -0,0 +1,89 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.ColumnarTransactionStore;
+import de.wg.service.Ledger;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht gleichmäßige und gewichtete Aufteilung auf denselben
+ * synthetischen Transaktionen. Gemessen werden die Pfade, die jeden Anteil
+ * lesen: Neuaufbau der Salden beim Einfügen, Zeitraumsalden über den
+ * Datumsindex und der Spaltenscan des {@link ColumnarTransactionStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SplitBenchmark {
+
+	/** Art der Aufteilung. */
+	public enum Split {
+		EQUAL, WEIGHTED
+	}
+
+	@Param({ "EQUAL", "WEIGHTED" })
+	public Split split;
+
+	@Param({ "100000", "1000000" })
+	public int transactions;
+
+	@Param({ "3", "100" })
+	public int members;
+
+	private List<Transaction> data;
+	private Ledger ledger;
+	private Path archive;
+	private ColumnarTransactionStore store;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		List<Member> all = SyntheticData.members(members);
+		data = SyntheticData.transactions(all, transactions);
+		if (split == Split.WEIGHTED) {
+			data = SyntheticData.weighted(data);
+		}
+		ledger = SyntheticData.ledger(data);
+		archive = Files.createTempFile("wg-split", ".wgc");
+		ColumnarTransactionStore.write(archive, data);
+		store = ColumnarTransactionStore.open(archive);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		store.close();
+		Files.deleteIfExists(archive);
+	}
+
+	/** Alle Transaktionen in einen leeren Ledger übernehmen, inkl. Saldenfortschreibung. */
+	@Benchmark
+	public Ledger addTransactions() throws Exception {
+		Ledger fresh = new Ledger();
+		fresh.addTransactions(data);
+		return fresh;
+	}
+
+	/** Salden über die gesamte Historie aus dem Datumsindex neu berechnen. */
+	@Benchmark
+	public Map<Member, Money> getBalancesBetween() {
+		return ledger.getBalancesBetween(SyntheticData.START,
+				SyntheticData.START.plusDays(SyntheticData.DAYS));
+	}
+
+	/** Salden über die gesamte Historie aus den eingeblendeten Spalten. */
+	@Benchmark
+	public Map<Member, Money> columnarBalances() {
+		return store.getAllBalances();
+	}
+}
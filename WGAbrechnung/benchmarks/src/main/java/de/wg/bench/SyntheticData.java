@@ -0,0 +1,167 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.model.User;
+import de.wg.service.Ledger;
+import de.wg.service.MemberManager;
+import de.wg.service.UserManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare Testdaten für die Benchmarks. Alle Daten hängen nur
+ * von den Größenparametern und einem festen Startwert ab, damit Messungen
+ * verschiedener Stände vergleichbar bleiben.
+ */
+final class SyntheticData {
+
+	/** Fester Startwert für alle Zufallsfolgen. */
+	static final long SEED = 42;
+
+	/** Erstes Buchungsdatum der synthetischen Ledger. */
+	static final LocalDate START = LocalDate.of(2015, 1, 1);
+
+	/** Zeitraum, über den die Transaktionen verteilt werden (zehn Jahre). */
+	static final int DAYS = 3650;
+
+	/** Höchstzahl der Begünstigten je Transaktion. */
+	private static final int MAX_BENEFICIARIES = 5;
+
+	/** Wenige wiederkehrende Beschreibungen, damit große Ledger in den Heap passen. */
+	private static final String[] DESCRIPTIONS = { "Einkauf", "Miete", "Strom", "Internet", "Putzmittel",
+			"Getränke", "Pizza", "Reparatur" };
+
+	/** Fester SHA-256-Hash für alle synthetischen Benutzer. */
+	static final String PASSWORD_HASH = "5e884898da28047151d0e56f8dc6292773603d0d6aabbdd62a11ef721d1542d8";
+
+	private SyntheticData() {
+	}
+
+	/**
+	 * Erzeugt Mitglieder mit den Namen "Mitglied 0" bis "Mitglied n-1".
+	 *
+	 * @param count Anzahl der Mitglieder
+	 * @return die Mitglieder
+	 */
+	static List<Member> members(int count) {
+		List<Member> members = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			members.add(new Member("Mitglied " + i));
+		}
+		return members;
+	}
+
+	/**
+	 * Erzeugt Transaktionen, die gleichmäßig und aufsteigend über
+	 * {@link #DAYS} Tage ab {@link #START} verteilt sind. Zahler und ein bis
+	 * fünf verschiedene Begünstigte werden zufällig gewählt.
+	 *
+	 * @param members Mitglieder, zwischen denen gebucht wird
+	 * @param count   Anzahl der Transaktionen
+	 * @return die Transaktionen in Erfassungsreihenfolge
+	 */
+	static List<Transaction> transactions(List<Member> members, int count) {
+		Random random = new Random(SEED);
+		List<Transaction> transactions = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			LocalDate date = START.plusDays((long) i * DAYS / count);
+			transactions.add(transaction(random, members, date));
+		}
+		return transactions;
+	}
+
+	/**
+	 * Erzeugt eine einzelne zufällige Transaktion.
+	 *
+	 * @param random  Zufallsquelle
+	 * @param members Mitglieder, zwischen denen gebucht wird
+	 * @param date    Buchungsdatum
+	 * @return die Transaktion
+	 */
+	static Transaction transaction(Random random, List<Member> members, LocalDate date) {
+		int n = members.size();
+		int count = 1 + random.nextInt(Math.min(MAX_BENEFICIARIES, n));
+		List<Member> beneficiaries = new ArrayList<>(count);
+		while (beneficiaries.size() < count) {
+			Member m = members.get(random.nextInt(n));
+			if (!beneficiaries.contains(m)) {
+				beneficiaries.add(m);
+			}
+		}
+		return new Transaction(date, Money.ofCents(100 + random.nextInt(50_000)), members.get(random.nextInt(n)),
+				beneficiaries, DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+	}
+
+	/**
+	 * Erzeugt zu jeder Transaktion eine gleichwertige mit gewichteter
+	 * Aufteilung (Gewichte 1 bis 4 je Begünstigtem, z.B. Zimmergröße).
+	 *
+	 * @param transactions gleichmäßig aufgeteilte Transaktionen
+	 * @return die gewichteten Transaktionen in gleicher Reihenfolge
+	 */
+	static List<Transaction> weighted(List<Transaction> transactions) {
+		Random random = new Random(SEED + 2);
+		List<Transaction> result = new ArrayList<>(transactions.size());
+		for (Transaction t : transactions) {
+			int[] weights = new int[t.getBeneficiaryCount()];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = 1 + random.nextInt(4);
+			}
+			result.add(Transaction.withWeights(t.getDate(), t.getAmount(), t.getPayer(), t.getBeneficiaries(),
+					weights, t.getDescription()));
+		}
+		return result;
+	}
+
+	/**
+	 * Baut einen Ledger aus den übergebenen Transaktionen auf.
+	 *
+	 * @param transactions die Transaktionen
+	 * @return der Ledger
+	 */
+	static Ledger ledger(List<Transaction> transactions) {
+		Ledger ledger = new Ledger();
+		try {
+			for (Transaction t : transactions) {
+				ledger.addTransaction(t);
+			}
+		} catch (Exception e) {
+			throw new IllegalStateException("Synthetische Transaktion ungültig: " + e.getMessage(), e);
+		}
+		return ledger;
+	}
+
+	/**
+	 * Erzeugt einen MemberManager mit den übergebenen Mitgliedern.
+	 *
+	 * @param members die Mitglieder
+	 * @return der MemberManager
+	 */
+	static MemberManager memberManager(List<Member> members) {
+		MemberManager manager = new MemberManager();
+		for (Member m : members) {
+			manager.addMember(m);
+		}
+		return manager;
+	}
+
+	/**
+	 * Erzeugt einen UserManager mit einem Benutzer je Mitglied; der
+	 * Benutzername entspricht dem Mitgliedsnamen.
+	 *
+	 * @param members die Mitglieder
+	 * @return der UserManager
+	 */
+	static UserManager userManager(List<Member> members) {
+		UserManager manager = new UserManager();
+		for (Member m : members) {
+			manager.addUser(new User(m.getName(), m.getName(), PASSWORD_HASH, false));
+		}
+		return manager;
+	}
+}
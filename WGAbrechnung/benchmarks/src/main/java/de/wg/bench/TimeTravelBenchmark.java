@@ -0,0 +1,86 @@
+package de.wg.bench;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst Stichtagssalden ({@link Ledger#getBalancesAsOf(LocalDate)}) in
+ * Abhängigkeit vom Abstand der Saldo-Schnappschüsse. Der größte Abstand
+ * entspricht dem Nachspielen der gesamten Historie bis zum Stichtag. Ein
+ * Teil der Transaktionen ist storniert oder korrigiert, damit auch die
+ * Ausgleichsbuchungen berücksichtigt werden.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimeTravelBenchmark {
+
+	@Param({ "100000" })
+	public int transactions;
+
+	@Param({ "64", "1024", "16384", "2147483647" })
+	public int snapshotInterval;
+
+	/** Anteil der stornierten bzw. korrigierten Transaktionen in Promille. */
+	@Param({ "10" })
+	public int revisedPerMille;
+
+	private List<Member> members;
+	private List<Transaction> data;
+	private Ledger ledger;
+	private Random random;
+
+	@Setup(Level.Iteration)
+	public void setUp() throws Exception {
+		members = SyntheticData.members(20);
+		data = SyntheticData.transactions(members, transactions);
+		ledger = SyntheticData.ledger(data);
+		ledger.setBalanceSnapshotInterval(snapshotInterval);
+		random = new Random(SyntheticData.SEED);
+		int revisions = (int) ((long) transactions * revisedPerMille / 1000);
+		for (int i = 0; i < revisions; i++) {
+			Transaction t = data.get(i * (transactions / Math.max(1, revisions)));
+			LocalDate date = t.getDate().plusDays(random.nextInt(90));
+			if (i % 2 == 0) {
+				ledger.voidTransaction(t, date);
+			} else {
+				ledger.correctTransaction(t, SyntheticData.transaction(random, members, t.getDate()), date);
+			}
+		}
+		ledger.getBalancesAsOf(SyntheticData.START.plusDays(SyntheticData.DAYS));
+	}
+
+	private LocalDate randomDate() {
+		return SyntheticData.START.plusDays(random.nextInt(SyntheticData.DAYS));
+	}
+
+	/** Stichtagssalden an einem zufälligen Tag bei aufgebauten Schnappschüssen. */
+	@Benchmark
+	public Map<Member, Money> balancesAsOf() {
+		return ledger.getBalancesAsOf(randomDate());
+	}
+
+	/**
+	 * Rückdatierte Transaktion erfassen und danach einen späteren Stichtag
+	 * abfragen: Die Schnappschüsse ab dem Einfügepunkt werden verworfen und
+	 * bei der Abfrage neu aufgebaut.
+	 */
+	@Benchmark
+	public Map<Member, Money> backdatedAddThenAsOf() throws Exception {
+		LocalDate date = randomDate();
+		ledger.addTransaction(SyntheticData.transaction(random, members, date));
+		return ledger.getBalancesAsOf(date.plusDays(random.nextInt(SyntheticData.DAYS)));
+	}
+}
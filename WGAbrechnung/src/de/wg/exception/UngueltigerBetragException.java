@@ -1,11 +1,37 @@
 package de.wg.exception;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Exception für ungültigen Betrag als Transaktionen
  */
 public class UngueltigerBetragException extends Exception {
 
+	private final List<String> details;
+
 	public UngueltigerBetragException(String message) {
+		this(message, Collections.emptyList());
+	}
+
+	/**
+	 * Sammelt mehrere ungültige Beträge, z.B. beim Hinzufügen mehrerer
+	 * Transaktionen auf einmal.
+	 *
+	 * @param message Zusammenfassung
+	 * @param details eine Meldung je ungültiger Transaktion; wird kopiert
+	 */
+	public UngueltigerBetragException(String message, List<String> details) {
 		super(message);
+		this.details = Collections.unmodifiableList(new ArrayList<>(details));
+	}
+
+	/**
+	 * @return eine Meldung je ungültiger Transaktion; leer bei einer einzelnen
+	 *         Transaktion
+	 */
+	public List<String> getDetails() {
+		return details;
 	}
 }
@@ -1,5 +1,7 @@
 package de.wg.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
 /**
@@ -18,7 +20,8 @@ public class Account implements Serializable, Comparable<Account> {
 	private static final long serialVersionUID = 1L;
 
 	private Member owner; 
-	private double balance = 0.0;
+	/** Der Kontostand in Cent (siehe {@link Money}). */
+	private long balanceCents = 0;
 
 	/**
 	 * Konstruktor für ein neues Konto. Ein Konto wird immer einem spezifischen
@@ -36,8 +39,8 @@ public class Account implements Serializable, Comparable<Account> {
 	 *
 	 * @return Der aktuelle Kontostand des Mitglieds.
 	 */
-	public double getBalance() {
-		return balance;
+	public Money getBalance() {
+		return Money.ofCents(balanceCents);
 	}
 
 	/**
@@ -47,8 +50,18 @@ public class Account implements Serializable, Comparable<Account> {
 	 *
 	 * @param delta Der Betrag, um den der Kontostand geändert werden soll.
 	 */
-	public void updateBalance(double delta) {
-		balance += delta;
+	public void updateBalance(Money delta) {
+		balanceCents = Math.addExact(balanceCents, delta.getCents());
+	}
+
+	/**
+	 * Setzt den Kontostand. Wird vom {@link de.wg.service.Ledger} verwendet,
+	 * der die Konten gebundener Mitglieder mit seinen Salden abgleicht.
+	 *
+	 * @param balance Der neue Kontostand.
+	 */
+	public void setBalance(Money balance) {
+		balanceCents = balance.getCents();
 	}
 
 	/**
@@ -72,6 +85,25 @@ public class Account implements Serializable, Comparable<Account> {
 	 */
 	@Override
 	public int compareTo(Account other) {
-		return Double.compare(this.balance, other.getBalance());
+		return Long.compare(this.balanceCents, other.balanceCents);
+	}
+
+	/**
+	 * Liest ein Konto ein. Ältere Dateien enthalten den Kontostand noch als
+	 * {@code double}-Feld {@code balance} in Euro; dieser wird beim Laden auf
+	 * ganze Cent gerundet.
+	 *
+	 * @param in Der Eingabestrom.
+	 * @throws IOException            Bei einem Lesefehler.
+	 * @throws ClassNotFoundException Wenn eine Klasse nicht gefunden wird.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		owner = (Member) fields.get("owner", null);
+		if (fields.defaulted("balanceCents")) {
+			balanceCents = Money.ofEuro(fields.get("balance", 0.0)).getCents();
+		} else {
+			balanceCents = fields.get("balanceCents", 0L);
+		}
 	}
 }
\ No newline at end of file
@@ -14,6 +14,9 @@ public class Member extends Person implements AccountHolder, Serializable {
 	/** Das Konto des Mitglieds. */
 	private Account account;
 
+	/** Registry, in der das Mitglied zuerst erfasst wurde (siehe {@link MemberRegistry}). */
+	transient volatile MemberRegistry registry;
+
 	/**
 	 * Konstruktor zum Erzeugen eines neuen WG-Mitglieds mit einem Namen. Erstellt
 	 * gleichzeitig ein neues Konto für das Mitglied.
@@ -0,0 +1,187 @@
+package de.wg.model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Vergibt Mitgliedern dichte, fortlaufende IDs ab 0 und hält je ID eine
+ * kanonische {@link Member}-Instanz. {@link Transaction} speichert Zahler und
+ * Begünstigte nur als IDs einer Registry; aufgelöst wird erst beim Zugriff.
+ * <p>
+ * Jeder {@code MemberManager} hat eine eigene Registry; verschiedene WGs
+ * teilen sich daher weder IDs noch Mitglieder. Ein Mitglied gehört zu der
+ * Registry, in der es zuerst erfasst wurde. Eine Transaktion verwendet die
+ * Registry ihres Zahlers; für Mitglieder ohne Verwaltung (z.B. beim Lesen
+ * einer Datei) wird beim ersten Gebrauch eine eigene angelegt. Eine Registry
+ * lebt nur so lange wie ihre Mitglieder und Transaktionen.
+ * </p>
+ * <p>
+ * Die IDs gelten nur im laufenden Prozess. Persistiert werden weiterhin Namen
+ * (siehe {@code BinaryCodec} und {@code TransactionJournal}). Da
+ * {@link Person#equals(Object)} über den Namen vergleicht, ist innerhalb einer
+ * Registry das erste erfasste Mitglied eines Namens die kanonische Instanz für
+ * alle gleichnamigen.
+ * </p>
+ *
+ * @author Jona
+ * @version 1.0
+ */
+public final class MemberRegistry {
+
+	/** Name &rarr; ID; nach Umbenennungen ggf. veraltet, siehe {@link #reindex()}. */
+	private final Map<String, Integer> ids = new HashMap<>();
+
+	/** Kanonische Mitglieder je ID; wird beim Wachsen ersetzt. */
+	private volatile Member[] byId = new Member[8];
+
+	private int size;
+
+	/**
+	 * Erstellt eine leere Registry.
+	 */
+	public MemberRegistry() {
+	}
+
+	/**
+	 * Gibt die Registry zurück, zu der ein Mitglied gehört. Für ein Mitglied,
+	 * das noch in keiner Registry erfasst ist, wird eine neue angelegt.
+	 *
+	 * @param member das Mitglied
+	 * @return seine Registry
+	 */
+	static MemberRegistry home(Member member) {
+		MemberRegistry registry = member.registry;
+		if (registry != null) {
+			return registry;
+		}
+		synchronized (MemberRegistry.class) {
+			if (member.registry == null) {
+				member.registry = new MemberRegistry();
+			}
+			return member.registry;
+		}
+	}
+
+	/**
+	 * Gibt die ID eines Mitglieds zurück und vergibt bei Bedarf eine neue.
+	 * Gehört das Mitglied noch zu keiner Registry, gehört es danach zu dieser.
+	 *
+	 * @param member das Mitglied
+	 * @return die ID, ab 0
+	 * @throws IllegalArgumentException wenn {@code member} {@code null} ist
+	 */
+	public synchronized int idOf(Member member) {
+		if (member == null) {
+			throw new IllegalArgumentException("Mitglied darf nicht null sein.");
+		}
+		int id = find(member);
+		if (id >= 0) {
+			return id;
+		}
+		Member[] table = byId;
+		if (size == table.length) {
+			table = Arrays.copyOf(table, size * 2);
+		}
+		table[size] = member;
+		byId = table;
+		ids.put(member.getName(), size);
+		synchronized (MemberRegistry.class) {
+			if (member.registry == null) {
+				member.registry = this;
+			}
+		}
+		return size++;
+	}
+
+	/**
+	 * Sucht die ID eines Mitglieds, ohne eine neue zu vergeben. Gefunden wird
+	 * ein gleichnamiges Mitglied oder, nach einer Umbenennung, dieselbe
+	 * Instanz.
+	 *
+	 * @param member das Mitglied, ggf. {@code null}
+	 * @return die ID oder -1, wenn das Mitglied hier nicht erfasst ist
+	 */
+	public synchronized int find(Member member) {
+		if (member == null) {
+			return -1;
+		}
+		Integer id = ids.get(member.getName());
+		if (id != null && byId[id].getName().equals(member.getName())) {
+			return id;
+		}
+		// umbenanntes Mitglied: Namensindex veraltet
+		Member[] table = byId;
+		for (int i = 0; i < size; i++) {
+			if (table[i] == member) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Baut den Namensindex nach Umbenennungen ({@link Person#setName(String)})
+	 * neu auf. Tragen zwei Mitglieder inzwischen denselben Namen, gilt die
+	 * kleinere ID.
+	 */
+	public synchronized void reindex() {
+		ids.clear();
+		for (int i = 0; i < size; i++) {
+			ids.putIfAbsent(byId[i].getName(), i);
+		}
+	}
+
+	/**
+	 * Gibt das kanonische Mitglied zu einer ID zurück.
+	 *
+	 * @param id die ID
+	 * @return das Mitglied
+	 * @throws ArrayIndexOutOfBoundsException wenn die ID nie vergeben wurde
+	 */
+	public Member member(int id) {
+		return byId[id];
+	}
+
+	/**
+	 * @return Anzahl der vergebenen IDs
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gibt eine unveränderliche Sicht auf die Mitglieder zu den IDs zurück. Die
+	 * Mitglieder werden erst beim Zugriff aufgelöst.
+	 *
+	 * @param memberIds die IDs; werden nicht kopiert
+	 * @return die Mitglieder in Reihenfolge der IDs
+	 */
+	List<Member> members(int[] memberIds) {
+		return new MemberList(memberIds);
+	}
+
+	/**
+	 * Liste über IDs, die beim Zugriff auflöst.
+	 */
+	private final class MemberList extends AbstractList<Member> implements RandomAccess {
+		private final int[] memberIds;
+
+		MemberList(int[] memberIds) {
+			this.memberIds = memberIds;
+		}
+
+		@Override
+		public Member get(int index) {
+			return member(memberIds[index]);
+		}
+
+		@Override
+		public int size() {
+			return memberIds.length;
+		}
+	}
+}
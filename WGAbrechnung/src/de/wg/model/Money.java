@@ -0,0 +1,252 @@
+package de.wg.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Unveränderlicher Geldbetrag in Euro mit exakter Cent-Genauigkeit. Intern wird
+ * der Betrag als {@code long} in Cent gehalten, sodass Summen und Aufteilungen
+ * ohne Rundungsfehler der Gleitkommaarithmetik auskommen.
+ * <p>
+ * Für Rechnungen auf heißen Pfaden (z.B. Saldenfortschreibung im Ledger)
+ * stehen zusätzlich statische Methoden auf rohen Cent-Werten zur Verfügung, die
+ * keine Objekte erzeugen.
+ * </p>
+ *
+ * @author Jona
+ * @version 1.0
+ */
+public final class Money implements Serializable, Comparable<Money> {
+	private static final long serialVersionUID = 1L;
+
+	/** Der Betrag 0,00 EUR. */
+	public static final Money ZERO = new Money(0);
+
+	/** Der Betrag in Cent. */
+	private final long cents;
+
+	private Money(long cents) {
+		this.cents = cents;
+	}
+
+	/**
+	 * Erzeugt einen Betrag aus einem Cent-Wert.
+	 *
+	 * @param cents der Betrag in Cent
+	 * @return der entsprechende Geldbetrag
+	 */
+	public static Money ofCents(long cents) {
+		return cents == 0 ? ZERO : new Money(cents);
+	}
+
+	/**
+	 * Erzeugt einen Betrag aus einem Euro-Wert. Der Wert wird kaufmännisch auf
+	 * ganze Cent gerundet.
+	 *
+	 * @param euro der Betrag in Euro
+	 * @return der entsprechende Geldbetrag
+	 */
+	public static Money ofEuro(double euro) {
+		return ofCents(BigDecimal.valueOf(euro).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+	}
+
+	/**
+	 * Liest einen Betrag aus einer Texteingabe wie {@code "12.34"} oder
+	 * {@code "12,34"}. Mehr als zwei Nachkommastellen werden kaufmännisch
+	 * gerundet.
+	 *
+	 * @param text die Eingabe
+	 * @return der entsprechende Geldbetrag
+	 * @throws NumberFormatException wenn die Eingabe keine gültige Zahl ist
+	 */
+	public static Money parse(String text) {
+		if (text == null) {
+			throw new NumberFormatException("Betrag darf nicht leer sein");
+		}
+		BigDecimal euro = new BigDecimal(text.trim().replace(',', '.'));
+		return ofCents(euro.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+	}
+
+	/**
+	 * Gibt den Anteil mit Index {@code index} zurück, wenn {@code totalCents} auf
+	 * {@code parts} Anteile verteilt wird. Der Rest der Division wird
+	 * deterministisch auf die ersten Anteile verteilt (je ein Cent), sodass die
+	 * Summe aller Anteile exakt dem Gesamtbetrag entspricht.
+	 *
+	 * @param totalCents der aufzuteilende Betrag in Cent
+	 * @param parts      die Anzahl der Anteile, größer als 0
+	 * @param index      der Index des Anteils, {@code 0 <= index < parts}
+	 * @return der Anteil in Cent
+	 */
+	public static long shareCents(long totalCents, int parts, int index) {
+		long base = totalCents / parts;
+		long rest = totalCents % parts;
+		return index < Math.abs(rest) ? base + Long.signum(rest) : base;
+	}
+
+	/**
+	 * Teilt {@code totalCents} im Verhältnis der Gewichte auf, z.B. Miete nach
+	 * Zimmergröße. Jeder Anteil wird zunächst abgerundet; die übrigen Cent
+	 * erhalten die Anteile mit dem größten Divisionsrest, bei Gleichstand der
+	 * mit dem kleineren Index. Die Summe der Anteile entspricht exakt dem
+	 * Gesamtbetrag.
+	 *
+	 * @param totalCents der aufzuteilende Betrag in Cent, nicht negativ
+	 * @param weights    die Gewichte, nicht negativ und nicht alle 0
+	 * @return die Anteile in Cent, in Reihenfolge der Gewichte
+	 * @throws IllegalArgumentException bei negativem Betrag oder ungültigen
+	 *                                  Gewichten
+	 * @throws ArithmeticException      wenn Betrag mal Gewicht {@code long}
+	 *                                  überschreitet
+	 */
+	public static long[] weightedShares(long totalCents, int[] weights) {
+		if (totalCents < 0 || weights == null || weights.length == 0) {
+			throw new IllegalArgumentException("Betrag und Gewichte sind ungültig.");
+		}
+		long weightSum = 0;
+		for (int w : weights) {
+			if (w < 0) {
+				throw new IllegalArgumentException("Gewichte dürfen nicht negativ sein.");
+			}
+			weightSum += w;
+		}
+		if (weightSum == 0) {
+			throw new IllegalArgumentException("Mindestens ein Gewicht muss größer als 0 sein.");
+		}
+		long[] shares = new long[weights.length];
+		long[] rest = new long[weights.length];
+		long verteilt = 0;
+		for (int i = 0; i < weights.length; i++) {
+			long product = Math.multiplyExact(totalCents, (long) weights[i]);
+			shares[i] = product / weightSum;
+			rest[i] = product % weightSum;
+			verteilt += shares[i];
+		}
+		// weniger als weights.length Cent bleiben übrig
+		for (long offen = totalCents - verteilt; offen > 0; offen--) {
+			int best = -1;
+			for (int i = 0; i < rest.length; i++) {
+				if (rest[i] > 0 && (best < 0 || rest[i] > rest[best])) {
+					best = i;
+				}
+			}
+			shares[best]++;
+			rest[best] = 0;
+		}
+		return shares;
+	}
+
+	/**
+	 * Formatiert einen Cent-Wert als Euro-Betrag mit zwei Nachkommastellen, z.B.
+	 * {@code -12.05}.
+	 *
+	 * @param cents der Betrag in Cent
+	 * @return der formatierte Betrag
+	 */
+	public static String format(long cents) {
+		long abs = Math.abs(cents);
+		long rest = abs % 100;
+		return (cents < 0 ? "-" : "") + abs / 100 + (rest < 10 ? ".0" : ".") + rest;
+	}
+
+	/**
+	 * Gibt den Betrag in Cent zurück.
+	 *
+	 * @return der Betrag in Cent
+	 */
+	public long getCents() {
+		return cents;
+	}
+
+	/**
+	 * Gibt den Betrag als Euro-Wert zurück. Nur für Anzeige und Diagramme
+	 * gedacht, nicht zum Weiterrechnen.
+	 *
+	 * @return der Betrag in Euro
+	 */
+	public double toEuro() {
+		return cents / 100.0;
+	}
+
+	/**
+	 * Addiert einen anderen Betrag.
+	 *
+	 * @param other der zu addierende Betrag
+	 * @return die Summe
+	 */
+	public Money plus(Money other) {
+		return ofCents(Math.addExact(cents, other.cents));
+	}
+
+	/**
+	 * Subtrahiert einen anderen Betrag.
+	 *
+	 * @param other der abzuziehende Betrag
+	 * @return die Differenz
+	 */
+	public Money minus(Money other) {
+		return ofCents(Math.subtractExact(cents, other.cents));
+	}
+
+	/**
+	 * Gibt den Betrag mit umgekehrtem Vorzeichen zurück.
+	 *
+	 * @return der negierte Betrag
+	 */
+	public Money negate() {
+		return ofCents(-cents);
+	}
+
+	/**
+	 * Prüft, ob der Betrag größer als 0 ist.
+	 *
+	 * @return {@code true}, wenn der Betrag positiv ist
+	 */
+	public boolean isPositive() {
+		return cents > 0;
+	}
+
+	/**
+	 * Prüft, ob der Betrag kleiner als 0 ist.
+	 *
+	 * @return {@code true}, wenn der Betrag negativ ist
+	 */
+	public boolean isNegative() {
+		return cents < 0;
+	}
+
+	/**
+	 * Vergleicht zwei Beträge der Größe nach.
+	 *
+	 * @param other der andere Betrag
+	 * @return ein negativer Integer, null oder ein positiver Integer, wenn dieser
+	 *         Betrag kleiner, gleich oder größer ist
+	 */
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(cents, other.cents);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		return cents == ((Money) o).cents;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(cents);
+	}
+
+	/**
+	 * Gibt den Betrag mit zwei Nachkommastellen zurück, z.B. {@code 12.30}.
+	 *
+	 * @return der formatierte Betrag
+	 */
+	@Override
+	public String toString() {
+		return format(cents);
+	}
+}
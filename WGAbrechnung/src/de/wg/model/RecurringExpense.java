@@ -0,0 +1,279 @@
+package de.wg.model;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Vorlage für eine regelmäßig wiederkehrende Ausgabe wie Miete, Internet oder
+ * Strom. Die Vorlage beschreibt Zahler, Begünstigte, Betrag und Beschreibung
+ * sowie den Rhythmus: Die {@code n}-te Fälligkeit liegt bei
+ * {@code start + n * period} (gezählt ab 0), solange sie nicht nach dem
+ * optionalen Enddatum liegt. Da jede Fälligkeit vom Startdatum aus berechnet
+ * wird, wandert ein Monatsrhythmus ab dem 31. nicht auf den 28.
+ * <p>
+ * Die Vorlage merkt sich, wie viele Fälligkeiten bereits als
+ * {@link Transaction} verbucht wurden (siehe
+ * {@link de.wg.service.RecurringScheduler}).
+ * </p>
+ * <p>
+ * Optional wird der Betrag nach Gewichten aufgeteilt, z.B. die Miete nach
+ * Zimmergröße. Die Anteile werden einmal beim Anlegen in Cent berechnet und
+ * von allen erzeugten Transaktionen übernommen.
+ * </p>
+ *
+ * @author Jona
+ * @version 1.0
+ */
+public class RecurringExpense implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Member payer;
+	private final List<Member> beneficiaries;
+	private final long amountCents;
+	private final String description;
+	private final LocalDate start;
+	private final Period period;
+	private final LocalDate end;
+	/** Anteile in Cent je Begünstigtem oder {@code null} für gleichmäßige Aufteilung. */
+	private final long[] shareCents;
+	/** Anzahl der bereits verbuchten Fälligkeiten. */
+	private int materialized;
+
+	/**
+	 * Erstellt eine Vorlage ohne Enddatum.
+	 *
+	 * @param payer         das zahlende Mitglied
+	 * @param beneficiaries die Begünstigten; nicht leer
+	 * @param amount        Betrag je Fälligkeit; muss positiv sein
+	 * @param description   Beschreibung der erzeugten Transaktionen
+	 * @param start         erste Fälligkeit
+	 * @param period        Abstand der Fälligkeiten, z.B. {@code Period.ofMonths(1)}
+	 * @throws IllegalArgumentException bei ungültigen Angaben
+	 */
+	public RecurringExpense(Member payer, List<Member> beneficiaries, Money amount, String description,
+			LocalDate start, Period period) {
+		this(payer, beneficiaries, amount, description, start, period, null);
+	}
+
+	/**
+	 * Erstellt eine Vorlage.
+	 *
+	 * @param payer         das zahlende Mitglied
+	 * @param beneficiaries die Begünstigten; nicht leer
+	 * @param amount        Betrag je Fälligkeit; muss positiv sein
+	 * @param description   Beschreibung der erzeugten Transaktionen
+	 * @param start         erste Fälligkeit
+	 * @param period        Abstand der Fälligkeiten, z.B. {@code Period.ofMonths(1)}
+	 * @param end           letzter möglicher Tag einer Fälligkeit oder
+	 *                      {@code null} für unbegrenzt
+	 * @throws IllegalArgumentException bei ungültigen Angaben
+	 */
+	public RecurringExpense(Member payer, List<Member> beneficiaries, Money amount, String description,
+			LocalDate start, Period period, LocalDate end) {
+		this(payer, beneficiaries, amount, description, start, period, end, null);
+	}
+
+	/**
+	 * Erstellt eine Vorlage, deren Betrag im Verhältnis der Gewichte aufgeteilt
+	 * wird.
+	 *
+	 * @param payer         das zahlende Mitglied
+	 * @param beneficiaries die Begünstigten; nicht leer, ohne Duplikate
+	 * @param amount        Betrag je Fälligkeit; muss positiv sein
+	 * @param description   Beschreibung der erzeugten Transaktionen
+	 * @param start         erste Fälligkeit
+	 * @param period        Abstand der Fälligkeiten, z.B. {@code Period.ofMonths(1)}
+	 * @param end           letzter möglicher Tag einer Fälligkeit oder
+	 *                      {@code null} für unbegrenzt
+	 * @param weights       Gewicht je Begünstigtem oder {@code null} für
+	 *                      gleichmäßige Aufteilung
+	 * @throws IllegalArgumentException bei ungültigen Angaben
+	 */
+	public RecurringExpense(Member payer, List<Member> beneficiaries, Money amount, String description,
+			LocalDate start, Period period, LocalDate end, int[] weights) {
+		if (payer == null || beneficiaries == null || beneficiaries.isEmpty() || amount == null || start == null
+				|| period == null) {
+			throw new IllegalArgumentException(
+					"Zahler, Begünstigte, Betrag, Start und Rhythmus dürfen nicht null bzw. leer sein.");
+		}
+		if (!amount.isPositive()) {
+			throw new IllegalArgumentException("Der Betrag muss größer als 0 sein.");
+		}
+		if (period.isNegative() || period.isZero()) {
+			throw new IllegalArgumentException("Der Rhythmus muss positiv sein.");
+		}
+		if (end != null && end.isBefore(start)) {
+			throw new IllegalArgumentException("Das Enddatum darf nicht vor dem Start liegen.");
+		}
+		this.payer = payer;
+		this.beneficiaries = Collections.unmodifiableList(new ArrayList<>(beneficiaries));
+		this.amountCents = amount.getCents();
+		this.description = description;
+		this.start = start;
+		this.period = period;
+		this.end = end;
+		if (weights == null) {
+			this.shareCents = null;
+		} else {
+			// prüft Anzahl und Duplikate wie bei jeder anderen Transaktion
+			Transaction probe = Transaction.withWeights(start, amount, payer, beneficiaries, weights, description);
+			this.shareCents = new long[weights.length];
+			for (int i = 0; i < weights.length; i++) {
+				this.shareCents[i] = probe.getShareCents(i);
+			}
+		}
+	}
+
+	/**
+	 * Berechnet das Datum einer Fälligkeit.
+	 *
+	 * @param n Nummer der Fälligkeit, ab 0
+	 * @return das Datum
+	 */
+	public LocalDate occurrence(int n) {
+		return start.plus(period.multipliedBy(n));
+	}
+
+	/**
+	 * Zählt die Fälligkeiten bis einschließlich {@code date} (und bis zum
+	 * Enddatum). Die Anzahl wird per binärer Suche über die Fälligkeitsnummer
+	 * bestimmt, ohne die Fälligkeiten einzeln zu erzeugen.
+	 *
+	 * @param date Stichtag
+	 * @return Anzahl der Fälligkeiten {@code n} mit
+	 *         {@code occurrence(n) <= date}
+	 */
+	public int countUntil(LocalDate date) {
+		LocalDate limit = end != null && end.isBefore(date) ? end : date;
+		if (limit.isBefore(start)) {
+			return 0;
+		}
+		long minDays = period.getYears() * 365L + period.getMonths() * 28L + period.getDays();
+		long hi = ChronoUnit.DAYS.between(start, limit) / Math.max(1, minDays) + 2;
+		long lo = 1;
+		hi = Math.min(hi, Integer.MAX_VALUE);
+		// kleinste Anzahl n, deren n-te Fälligkeit (ab 0 gezählt) nach dem Stichtag liegt
+		while (lo < hi) {
+			long mid = (lo + hi) >>> 1;
+			if (occurrence((int) mid).isAfter(limit)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return (int) lo;
+	}
+
+	/**
+	 * Erzeugt die Transaktion zu einer Fälligkeit. Alle Transaktionen einer
+	 * Vorlage teilen sich dieselbe unveränderliche Begünstigtenliste.
+	 *
+	 * @param n Nummer der Fälligkeit, ab 0
+	 * @return die Transaktion
+	 */
+	public Transaction toTransaction(int n) {
+		return new Transaction(occurrence(n), Money.ofCents(amountCents), payer, beneficiaries, shareCents,
+				description);
+	}
+
+	/**
+	 * Gibt den Anteil des Begünstigten an Position {@code index} je Fälligkeit
+	 * zurück, wie ihn {@link Transaction#getShareCents(int)} liefern würde.
+	 *
+	 * @param index Position in {@link #getBeneficiaries()}
+	 * @return der Anteil in Cent
+	 */
+	public long getShareCents(int index) {
+		if (shareCents != null) {
+			return shareCents[index];
+		}
+		return Money.shareCents(amountCents, beneficiaries.size(), index);
+	}
+
+	/**
+	 * @return das zahlende Mitglied
+	 */
+	public Member getPayer() {
+		return payer;
+	}
+
+	/**
+	 * @return unveränderliche Liste der Begünstigten
+	 */
+	public List<Member> getBeneficiaries() {
+		return beneficiaries;
+	}
+
+	/**
+	 * @return Betrag je Fälligkeit
+	 */
+	public Money getAmount() {
+		return Money.ofCents(amountCents);
+	}
+
+	/**
+	 * @return Betrag je Fälligkeit in Cent
+	 */
+	public long getAmountCents() {
+		return amountCents;
+	}
+
+	/**
+	 * @return Beschreibung der erzeugten Transaktionen
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * @return erste Fälligkeit
+	 */
+	public LocalDate getStart() {
+		return start;
+	}
+
+	/**
+	 * @return Abstand der Fälligkeiten
+	 */
+	public Period getPeriod() {
+		return period;
+	}
+
+	/**
+	 * @return letzter möglicher Tag einer Fälligkeit oder {@code null}
+	 */
+	public LocalDate getEnd() {
+		return end;
+	}
+
+	/**
+	 * @return Anzahl der bereits verbuchten Fälligkeiten
+	 */
+	public int getMaterialized() {
+		return materialized;
+	}
+
+	/**
+	 * Setzt die Anzahl der bereits verbuchten Fälligkeiten.
+	 *
+	 * @param materialized die neue Anzahl; darf nicht kleiner werden
+	 * @throws IllegalArgumentException wenn die Anzahl kleiner als bisher ist
+	 */
+	public void setMaterialized(int materialized) {
+		if (materialized < this.materialized) {
+			throw new IllegalArgumentException("Verbuchte Fälligkeiten können nicht zurückgenommen werden.");
+		}
+		this.materialized = materialized;
+	}
+
+	@Override
+	public String toString() {
+		return description + " (" + Money.format(amountCents) + " EUR, " + payer.getName() + ", ab " + start
+				+ " alle " + period + ")";
+	}
+}
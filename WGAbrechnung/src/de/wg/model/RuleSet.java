@@ -7,7 +7,7 @@ package de.wg.model;
 public class RuleSet {
 
 	/** Die maximal erlaubte Schuldenhöhe in Euro. */
-	private double maxSchulden = 100.0;
+	private Money maxSchulden = Money.ofCents(100_00);
 
 	/** Die maximal erlaubte Verleihdauer in Tagen. */
 	private int maxVerleihdauerTage = 30;
@@ -23,7 +23,7 @@ public class RuleSet {
 	 *
 	 * @return der aktuelle Grenzwert für Schulden in Euro
 	 */
-	public double getMaxSchulden() {
+	public Money getMaxSchulden() {
 		return maxSchulden;
 	}
 
@@ -32,7 +32,7 @@ public class RuleSet {
 	 *
 	 * @param maxSchulden der neue Grenzwert für Schulden in Euro
 	 */
-	public void setMaxSchulden(double maxSchulden) {
+	public void setMaxSchulden(Money maxSchulden) {
 		this.maxSchulden = maxSchulden;
 	}
 
@@ -45,8 +45,8 @@ public class RuleSet {
 	 * @return ein Hinweistext, wenn das Schuldenlimit überschritten ist, sonst
 	 *         {@code null}
 	 */
-	public String getHinweisWennSchuldenZuHoch(String name, double saldo) {
-		if (saldo < -maxSchulden) {
+	public String getHinweisWennSchuldenZuHoch(String name, Money saldo) {
+		if (saldo.compareTo(maxSchulden.negate()) < 0) {
 			return "Hinweis: " + name + " hat " + saldo + " EUR Schulden und �berschreitet das Limit von " + maxSchulden
 					+ " EUR.";
 		}
@@ -0,0 +1,85 @@
+package de.wg.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Eine Ausgleichszahlung zwischen zwei WG-Mitgliedern: {@code from} zahlt
+ * {@code amount} an {@code to}. Ausgleichszahlungen werden vom
+ * {@link de.wg.service.SettlementEngine} berechnet und im
+ * {@link de.wg.service.Ledger} als Transaktion verbucht.
+ *
+ * @author Jona
+ * @version 1.0
+ */
+public final class Settlement implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private final Member from;
+	private final Member to;
+	private final Money amount;
+
+	/**
+	 * Erstellt eine Ausgleichszahlung.
+	 *
+	 * @param from   das zahlende Mitglied (Schuldner)
+	 * @param to     das empfangende Mitglied (Gläubiger)
+	 * @param amount der Betrag; muss positiv sein
+	 * @throws IllegalArgumentException wenn ein Argument {@code null} ist, beide
+	 *                                  Mitglieder gleich sind oder der Betrag
+	 *                                  nicht positiv ist
+	 */
+	public Settlement(Member from, Member to, Money amount) {
+		if (from == null || to == null || amount == null) {
+			throw new IllegalArgumentException("Zahler, Empfänger und Betrag dürfen nicht null sein.");
+		}
+		if (from.equals(to)) {
+			throw new IllegalArgumentException("Zahler und Empfänger müssen verschieden sein.");
+		}
+		if (!amount.isPositive()) {
+			throw new IllegalArgumentException("Der Betrag muss größer als 0 sein.");
+		}
+		this.from = from;
+		this.to = to;
+		this.amount = amount;
+	}
+
+	/**
+	 * @return das zahlende Mitglied
+	 */
+	public Member getFrom() {
+		return from;
+	}
+
+	/**
+	 * @return das empfangende Mitglied
+	 */
+	public Member getTo() {
+		return to;
+	}
+
+	/**
+	 * @return der zu zahlende Betrag
+	 */
+	public Money getAmount() {
+		return amount;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Settlement)) return false;
+		Settlement other = (Settlement) o;
+		return from.equals(other.from) && to.equals(other.to) && amount.equals(other.amount);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(from, to, amount);
+	}
+
+	@Override
+	public String toString() {
+		return from.getName() + " zahlt " + amount + " EUR an " + to.getName();
+	}
+}
@@ -1,7 +1,13 @@
 package de.wg.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -12,6 +18,23 @@ import java.util.List;
  * Die Klasse ist {@link Serializable} für die Datenpersistenz und
  * {@link Comparable} für die Standard-Sortierung nach Datum (chronologisch).
  * </p>
+ * <p>
+ * Zahler und Begünstigte werden als IDs aus der {@link MemberRegistry} des
+ * Zahlers gespeichert (siehe {@link #getRegistry()}) und erst beim Zugriff zu
+ * {@link Member}-Objekten aufgelöst. Für die ersten 64 IDs hält die
+ * Transaktion zusätzlich eine Bitmaske, sodass {@link #isBeneficiary(Member)}
+ * ohne Namensvergleich auskommt. In der
+ * Java-Serialisierung stehen weiterhin die Mitglieder selbst, da die IDs nur
+ * im laufenden Prozess gelten.
+ * </p>
+ * <p>
+ * Standardmäßig wird der Betrag gleichmäßig auf die Begünstigten aufgeteilt.
+ * Alternativ trägt die Transaktion feste Anteile in Cent je Begünstigtem,
+ * parallel zu den Begünstigten-IDs (siehe {@link #withWeights} und
+ * {@link #withFixedShares}). Gewichte werden schon beim Erzeugen in Cent
+ * umgerechnet, sodass {@link #getShareCents(int)} nur noch einen Arrayzugriff
+ * kostet.
+ * </p>
  * 
  * @author Jona
  * @version 1.0
@@ -19,10 +42,43 @@ import java.util.List;
 public class Transaction implements Serializable, Comparable<Transaction> {
 	private static final long serialVersionUID = 1L;
 
+	/**
+	 * Felder im serialisierten Format. {@code shareCents} ist neu und fehlt in
+	 * älteren Dateien; sie werden als gleichmäßige Aufteilung gelesen.
+	 */
+	private static final ObjectStreamField[] serialPersistentFields = {
+			new ObjectStreamField("date", LocalDate.class),
+			new ObjectStreamField("amountCents", long.class),
+			new ObjectStreamField("payer", Member.class),
+			new ObjectStreamField("beneficiaries", List.class),
+			new ObjectStreamField("description", String.class),
+			new ObjectStreamField("verrechnet", boolean.class),
+			new ObjectStreamField("shareCents", long[].class) };
+
+	/** Kennzeichnet einen fehlenden Zahler. */
+	private static final int NO_MEMBER = -1;
+
 	private LocalDate date;
-	private double amount;
-	private Member payer;
-	private List<Member> beneficiaries; 
+	/** Der Betrag in Cent (siehe {@link Money}). */
+	private long amountCents;
+	/** Registry, auf die sich die IDs beziehen. */
+	private transient MemberRegistry registry;
+	/** ID des Zahlers in {@link #registry}. */
+	private transient int payerId = NO_MEMBER;
+	/** IDs der Begünstigten in Listenreihenfolge, Duplikate bleiben erhalten. */
+	private transient int[] beneficiaryIds;
+	/** Bit {@code i} ist gesetzt, wenn ID {@code i < 64} begünstigt ist. */
+	private transient long beneficiaryMask;
+	/**
+	 * Positionen in {@link #beneficiaryIds}, an denen ein Begünstigter erneut
+	 * steht, oder {@code null}, wenn keiner mehrfach genannt ist.
+	 */
+	private transient BitSet repeats;
+	/**
+	 * Anteile in Cent je Position in {@link #beneficiaryIds} oder {@code null}
+	 * für gleichmäßige Aufteilung.
+	 */
+	private long[] shareCents;
 	private String description;
 	private boolean verrechnet = false;
 	
@@ -32,7 +88,7 @@ public class Transaction implements Serializable, Comparable<Transaction> {
 	 * @param date          Das Datum, an dem die Transaktion stattfand. Muss nicht
 	 *                      null sein.
 	 * @param amount        Der Betrag der Transaktion. Muss größer als 0 sein (wird
-	 *                      im Ledger geprüft).
+	 *                      im Ledger geprüft). Darf nicht null sein.
 	 * @param payer         Das {@link Member}-Objekt, das die Ausgabe getätigt hat.
 	 *                      Muss nicht null sein.
 	 * @param beneficiaries Eine Liste von {@link Member}-Objekten, die von der
@@ -41,19 +97,164 @@ public class Transaction implements Serializable, Comparable<Transaction> {
 	 * @throws IllegalArgumentException Wenn Datum, Zahler, Begünstigte null sind
 	 *                                  oder die Begünstigtenliste leer ist.
 	 */
-	public Transaction(LocalDate date, double amount, Member payer, List<Member> beneficiaries, String description) {
-		if (date == null || payer == null || beneficiaries == null || beneficiaries.isEmpty()) {
+	public Transaction(LocalDate date, Money amount, Member payer, List<Member> beneficiaries, String description) {
+		if (date == null || amount == null || payer == null || beneficiaries == null || beneficiaries.isEmpty()) {
 			throw new IllegalArgumentException(
-					"Ungültige Transaktionsdaten: Datum, Zahler und Begünstigte dürfen nicht null sein und Begünstigtenliste darf nicht leer sein.");
+					"Ungültige Transaktionsdaten: Datum, Betrag, Zahler und Begünstigte dürfen nicht null sein und Begünstigtenliste darf nicht leer sein.");
 		}
 		this.date = date;
-		this.amount = amount;
-		this.payer = payer;
-		this.beneficiaries = beneficiaries;
+		this.amountCents = amount.getCents();
+		setMembers(payer, beneficiaries);
 		this.description = description;
 	}
 
-	public Transaction(Member member1, double d, String string, List<Member> beneficiaries1) {
+	/**
+	 * Konstruktor für eine Transaktion mit festen Anteilen je Begünstigtem.
+	 *
+	 * @param date          Das Datum der Transaktion.
+	 * @param amount        Der Betrag der Transaktion.
+	 * @param payer         Das zahlende Mitglied.
+	 * @param beneficiaries Die Begünstigten; jedes Mitglied höchstens einmal.
+	 * @param shareCents    Anteil in Cent je Begünstigtem in Listenreihenfolge
+	 *                      oder {@code null} für gleichmäßige Aufteilung. Die
+	 *                      Anteile dürfen nicht negativ sein und müssen sich zum
+	 *                      Betrag summieren. Das Array wird kopiert.
+	 * @param description   Eine kurze Beschreibung der Transaktion.
+	 * @throws IllegalArgumentException Wenn Pflichtangaben fehlen oder die
+	 *                                  Anteile nicht zum Betrag bzw. zu den
+	 *                                  Begünstigten passen.
+	 */
+	public Transaction(LocalDate date, Money amount, Member payer, List<Member> beneficiaries, long[] shareCents,
+			String description) {
+		this(date, amount, payer, beneficiaries, description);
+		if (shareCents != null) {
+			this.shareCents = checkShares(shareCents.clone());
+		}
+	}
+
+	/**
+	 * Erstellt eine Transaktion, deren Betrag im Verhältnis der Gewichte
+	 * aufgeteilt wird (siehe {@link Money#weightedShares(long, int[])}).
+	 *
+	 * @param date          Das Datum der Transaktion.
+	 * @param amount        Der Betrag der Transaktion.
+	 * @param payer         Das zahlende Mitglied.
+	 * @param beneficiaries Die Begünstigten; jedes Mitglied höchstens einmal.
+	 * @param weights       Gewicht je Begünstigtem, z.B. Zimmergröße in m².
+	 * @param description   Eine kurze Beschreibung der Transaktion.
+	 * @return die Transaktion
+	 * @throws IllegalArgumentException Bei ungültigen Angaben oder Gewichten.
+	 */
+	public static Transaction withWeights(LocalDate date, Money amount, Member payer, List<Member> beneficiaries,
+			int[] weights, String description) {
+		if (amount == null || weights == null || beneficiaries == null || weights.length != beneficiaries.size()) {
+			throw new IllegalArgumentException("Je Begünstigtem muss genau ein Gewicht angegeben werden.");
+		}
+		return new Transaction(date, amount, payer, beneficiaries, Money.weightedShares(amount.getCents(), weights),
+				description);
+	}
+
+	/**
+	 * Erstellt eine Transaktion aus festen Beträgen je Begünstigtem. Der
+	 * Gesamtbetrag ist die Summe der Anteile.
+	 *
+	 * @param date          Das Datum der Transaktion.
+	 * @param payer         Das zahlende Mitglied.
+	 * @param beneficiaries Die Begünstigten; jedes Mitglied höchstens einmal.
+	 * @param shares        Betrag je Begünstigtem in Listenreihenfolge.
+	 * @param description   Eine kurze Beschreibung der Transaktion.
+	 * @return die Transaktion
+	 * @throws IllegalArgumentException Bei ungültigen Angaben oder Anteilen.
+	 */
+	public static Transaction withFixedShares(LocalDate date, Member payer, List<Member> beneficiaries,
+			List<Money> shares, String description) {
+		if (shares == null || beneficiaries == null || shares.size() != beneficiaries.size()) {
+			throw new IllegalArgumentException("Je Begünstigtem muss genau ein Anteil angegeben werden.");
+		}
+		long[] cents = new long[shares.size()];
+		long total = 0;
+		for (int i = 0; i < cents.length; i++) {
+			cents[i] = shares.get(i).getCents();
+			total = Math.addExact(total, cents[i]);
+		}
+		return new Transaction(date, Money.ofCents(total), payer, beneficiaries, cents, description);
+	}
+
+	/**
+	 * Prüft feste Anteile gegen Betrag und Begünstigte.
+	 *
+	 * @param shares die Anteile in Cent
+	 * @return {@code shares}
+	 * @throws IllegalArgumentException wenn die Anteile nicht passen
+	 */
+	private long[] checkShares(long[] shares) {
+		if (shares.length != beneficiaryIds.length) {
+			throw new IllegalArgumentException("Je Begünstigtem muss genau ein Anteil angegeben werden.");
+		}
+		long sum = 0;
+		for (int i = 0; i < shares.length; i++) {
+			if (shares[i] < 0) {
+				throw new IllegalArgumentException("Anteile dürfen nicht negativ sein.");
+			}
+			if (!isFirstOccurrence(i)) {
+				throw new IllegalArgumentException("Bei festen Anteilen darf jeder Begünstigte nur einmal vorkommen.");
+			}
+			sum = Math.addExact(sum, shares[i]);
+		}
+		if (sum != amountCents) {
+			throw new IllegalArgumentException("Die Anteile (" + Money.format(sum)
+					+ " EUR) ergeben nicht den Betrag (" + Money.format(amountCents) + " EUR).");
+		}
+		return shares;
+	}
+
+	/**
+	 * Übernimmt Zahler und Begünstigte als IDs.
+	 *
+	 * @param payer         der Zahler
+	 * @param beneficiaries die Begünstigten
+	 */
+	private void setMembers(Member payer, List<Member> beneficiaries) {
+		Member anchor = payer;
+		if (anchor == null && beneficiaries != null && !beneficiaries.isEmpty()) {
+			anchor = beneficiaries.get(0);
+		}
+		this.registry = anchor == null ? null : MemberRegistry.home(anchor);
+		this.payerId = payer == null ? NO_MEMBER : registry.idOf(payer);
+		if (beneficiaries == null) {
+			return;
+		}
+		int[] ids = new int[beneficiaries.size()];
+		long mask = 0;
+		BitSet seen = null;
+		BitSet repeated = null;
+		for (int i = 0; i < ids.length; i++) {
+			int id = registry.idOf(beneficiaries.get(i));
+			ids[i] = id;
+			boolean again;
+			if (id < Long.SIZE) {
+				again = (mask & (1L << id)) != 0;
+				mask |= 1L << id;
+			} else {
+				if (seen == null) {
+					seen = new BitSet();
+				}
+				again = seen.get(id);
+				seen.set(id);
+			}
+			if (again) {
+				if (repeated == null) {
+					repeated = new BitSet(ids.length);
+				}
+				repeated.set(i);
+			}
+		}
+		this.beneficiaryIds = ids;
+		this.beneficiaryMask = mask;
+		this.repeats = repeated;
+	}
+
+	public Transaction(Member member1, Money d, String string, List<Member> beneficiaries1) {
 		// TODO Auto-generated constructor stub
 	}
 
@@ -71,8 +272,44 @@ public class Transaction implements Serializable, Comparable<Transaction> {
 	 * 
 	 * @return Der Betrag der Transaktion.
 	 */
-	public double getAmount() {
-		return amount;
+	public Money getAmount() {
+		return Money.ofCents(amountCents);
+	}
+
+	/**
+	 * Gibt den Betrag der Transaktion in Cent zurück. Für Berechnungen, bei denen
+	 * kein {@link Money}-Objekt erzeugt werden soll.
+	 * 
+	 * @return Der Betrag der Transaktion in Cent.
+	 */
+	public long getAmountCents() {
+		return amountCents;
+	}
+
+	/**
+	 * Gibt den Anteil des Begünstigten an Position {@code index} in Cent zurück.
+	 * Bei festen Anteilen ist das der gespeicherte Wert. Sonst wird der Betrag
+	 * gleichmäßig aufgeteilt, übrige Cent erhalten die ersten Begünstigten der
+	 * Liste, sodass die Summe aller Anteile exakt dem Betrag entspricht.
+	 * 
+	 * @param index Position des Begünstigten in {@link #getBeneficiaries()}.
+	 * @return Der Anteil in Cent.
+	 */
+	public long getShareCents(int index) {
+		if (shareCents != null) {
+			return shareCents[index];
+		}
+		return Money.shareCents(amountCents, beneficiaryIds.length, index);
+	}
+
+	/**
+	 * Prüft, ob die Transaktion feste Anteile statt einer gleichmäßigen
+	 * Aufteilung trägt.
+	 * 
+	 * @return True bei festen Anteilen.
+	 */
+	public boolean hasCustomShares() {
+		return shareCents != null;
 	}
 
 	/**
@@ -81,16 +318,101 @@ public class Transaction implements Serializable, Comparable<Transaction> {
 	 * @return Das {@link Member}-Objekt des Zahlers.
 	 */
 	public Member getPayer() {
-		return payer;
+		return payerId == NO_MEMBER ? null : registry.member(payerId);
+	}
+
+	/**
+	 * Gibt die Registry zurück, auf die sich die IDs dieser Transaktion
+	 * beziehen. Das ist die Registry des Zahlers.
+	 * 
+	 * @return Die Registry oder {@code null} ohne Zahler und Begünstigte.
+	 */
+	public MemberRegistry getRegistry() {
+		return registry;
+	}
+
+	/**
+	 * Gibt die ID des Zahlers in {@link #getRegistry()} zurück.
+	 * 
+	 * @return Die ID des Zahlers.
+	 */
+	public int getPayerId() {
+		return payerId;
 	}
 
 	/**
 	 * Gibt die Liste der WG-Mitglieder zurück, die von der Transaktion profitieren.
+	 * Die Liste ist eine unveränderliche Sicht, die erst beim Zugriff auflöst.
 	 * 
 	 * @return Eine Liste von {@link Member}-Objekten, die Begünstigten.
 	 */
 	public List<Member> getBeneficiaries() {
-		return beneficiaries;
+		return beneficiaryIds == null ? null : registry.members(beneficiaryIds);
+	}
+
+	/**
+	 * Gibt die Anzahl der Begünstigten zurück (inkl. mehrfach genannter).
+	 * 
+	 * @return Die Anzahl der Einträge in {@link #getBeneficiaries()}.
+	 */
+	public int getBeneficiaryCount() {
+		return beneficiaryIds.length;
+	}
+
+	/**
+	 * Gibt die ID des Begünstigten an Position {@code index} zurück.
+	 * 
+	 * @param index Position in {@link #getBeneficiaries()}.
+	 * @return Die ID in {@link #getRegistry()}.
+	 */
+	public int getBeneficiaryId(int index) {
+		return beneficiaryIds[index];
+	}
+
+	/**
+	 * Gibt den Begünstigten an Position {@code index} zurück.
+	 * 
+	 * @param index Position in {@link #getBeneficiaries()}.
+	 * @return Das kanonische {@link Member}-Objekt.
+	 */
+	public Member getBeneficiary(int index) {
+		return registry.member(beneficiaryIds[index]);
+	}
+
+	/**
+	 * Prüft, ob der Begünstigte an Position {@code index} dort zum ersten Mal in
+	 * der Liste steht. Mehrfach genannte Begünstigte werden nur einmal belastet.
+	 * Die Wiederholungen werden beim Erzeugen einmal bestimmt, der Aufruf kostet
+	 * daher konstante Zeit.
+	 * 
+	 * @param index Position in {@link #getBeneficiaries()}.
+	 * @return True beim ersten Vorkommen.
+	 */
+	public boolean isFirstOccurrence(int index) {
+		return repeats == null || !repeats.get(index);
+	}
+
+	/**
+	 * Prüft, ob ein Mitglied zu den Begünstigten gehört. Für die ersten 64 IDs
+	 * ist das ein Bit-Test. Unbekannte Mitglieder werden dabei nicht erfasst.
+	 * 
+	 * @param member Das Mitglied.
+	 * @return True, wenn es begünstigt ist.
+	 */
+	public boolean isBeneficiary(Member member) {
+		int id = registry == null ? -1 : registry.find(member);
+		if (id < 0 || beneficiaryIds == null) {
+			return false;
+		}
+		if (id < Long.SIZE) {
+			return (beneficiaryMask & (1L << id)) != 0;
+		}
+		for (int b : beneficiaryIds) {
+			if (b == id) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -121,6 +443,50 @@ public class Transaction implements Serializable, Comparable<Transaction> {
 		this.verrechnet = verrechnet;
 	}
 
+	/**
+	 * Liest eine Transaktion ein. Ältere Dateien enthalten den Betrag noch als
+	 * {@code double}-Feld {@code amount} in Euro; dieser wird beim Laden auf ganze
+	 * Cent gerundet.
+	 * 
+	 * @param in Der Eingabestrom.
+	 * @throws IOException            Bei einem Lesefehler.
+	 * @throws ClassNotFoundException Wenn eine Klasse nicht gefunden wird.
+	 */
+	@SuppressWarnings("unchecked")
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		ObjectInputStream.GetField fields = in.readFields();
+		date = (LocalDate) fields.get("date", null);
+		payerId = NO_MEMBER;
+		setMembers((Member) fields.get("payer", null), (List<Member>) fields.get("beneficiaries", null));
+		description = (String) fields.get("description", null);
+		verrechnet = fields.get("verrechnet", false);
+		shareCents = (long[]) fields.get("shareCents", null);
+		if (fields.defaulted("amountCents")) {
+			amountCents = Money.ofEuro(fields.get("amount", 0.0)).getCents();
+		} else {
+			amountCents = fields.get("amountCents", 0L);
+		}
+	}
+
+	/**
+	 * Schreibt die Transaktion im bisherigen Format: Zahler und Begünstigte
+	 * als Mitglieder statt als IDs.
+	 * 
+	 * @param out Der Ausgabestrom.
+	 * @throws IOException Bei einem Schreibfehler.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		ObjectOutputStream.PutField fields = out.putFields();
+		fields.put("date", date);
+		fields.put("amountCents", amountCents);
+		fields.put("payer", getPayer());
+		fields.put("beneficiaries", beneficiaryIds == null ? null : new ArrayList<>(getBeneficiaries()));
+		fields.put("description", description);
+		fields.put("verrechnet", verrechnet);
+		fields.put("shareCents", shareCents);
+		out.writeFields();
+	}
+
 	/**
 	 * Gibt eine String-Repräsentation der Transaktion zurück.
 	 * 
@@ -128,7 +494,7 @@ public class Transaction implements Serializable, Comparable<Transaction> {
 	 */
 	@Override
 	public String toString() {
-		return "Transaktion am " + date + ": " + description + " (" + amount + " EUR, gezahlt von " + payer.getName()
+		return "Transaktion am " + date + ": " + description + " (" + Money.format(amountCents) + " EUR, gezahlt von " + getPayer().getName()
 				+ ")";
 	}
 
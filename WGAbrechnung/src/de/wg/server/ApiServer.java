@@ -0,0 +1,466 @@
+package de.wg.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.RuleSet;
+import de.wg.model.Transaction;
+import de.wg.model.User;
+import de.wg.service.Ledger;
+import de.wg.service.LoginManager;
+import de.wg.service.MemberManager;
+import de.wg.service.TransactionImportExport;
+import de.wg.service.TransactionImportExport.Format;
+import de.wg.service.TransactionImportExport.ImportResult;
+import de.wg.service.UserManager;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kopfloser Server-Modus neben {@code de.wg.ui.MainApp}: stellt Ledger,
+ * Mitglieder und Login als kleine JSON-Schnittstelle über den
+ * JDK-{@link HttpServer} bereit, damit z.B. Handys Ausgaben ohne
+ * Desktop-Sitzung buchen können.
+ * <ul>
+ * <li>{@code GET /api/members[?prefix=&limit=]} – Namen aller Mitglieder bzw.
+ * der ersten, die mit dem Präfix beginnen (Autovervollständigung)</li>
+ * <li>{@code GET /api/balances[?from=&to=]} – Salden, optional nur aus einem
+ * Zeitraum</li>
+ * <li>{@code GET /api/transactions?from=&to=[&q=&payer=]} – Verlauf eines
+ * Zeitraums als JSON Lines im Format von {@link TransactionImportExport},
+ * optional nur Treffer der Suchwörter {@code q} in der Beschreibung bzw. eines
+ * Zahlers (siehe {@link Ledger#searchTransactions})</li>
+ * <li>{@code POST /api/transactions} – eine oder viele Transaktionen als JSON
+ * Lines; Antwort mit Anzahl übernommener und abgelehnter Zeilen</li>
+ * <li>{@code POST /api/login} – Login-Meldung inkl. Schuldenhinweis über den
+ * {@link LoginManager}</li>
+ * </ul>
+ * Jede Anfrage meldet sich per HTTP Basic mit Benutzername und Passwort an
+ * (Passwort-Hash wie in der Oberfläche). Ohne TLS sollte der Server nur im
+ * eigenen Netz erreichbar sein.
+ * <p>
+ * Anfragen laufen auf einem festen Thread-Pool. Gebuchte Transaktionen werden
+ * vorab geprüft und über einen {@link TransactionBatcher} gesammelt, sodass
+ * gleichzeitige Anfragen sich einen Journal-Eintrag teilen.
+ * </p>
+ * <p>
+ * Server und Oberfläche dürfen nicht gleichzeitig mit denselben Dateien
+ * laufen.
+ * </p>
+ */
+public class ApiServer implements AutoCloseable {
+
+	/** Datei der Mitglieder, wie in der Oberfläche. */
+	static final String MEMBERS_FILE = "members.bin";
+	/** Datei der Transaktionen, wie in der Oberfläche. */
+	static final String LEDGER_FILE = "ledger.bin";
+	/** Datei der Benutzer, wie in der Oberfläche. */
+	static final String USERS_FILE = "users.bin";
+
+	/** Standard-Port. */
+	public static final int DEFAULT_PORT = 8080;
+
+	/** Standard-Höchstzahl der Treffer bei der Präfixsuche nach Mitgliedern. */
+	private static final int MEMBER_LIMIT = 20;
+
+	private static final String JSON = "application/json; charset=utf-8";
+	private static final String JSON_LINES = "application/x-ndjson; charset=utf-8";
+
+	static {
+		// Ohne TCP_NODELAY warten kurze Antworten auf das verzögerte ACK des
+		// Clients (rund 40 ms je Anfrage). Wird nur beim ersten Start gelesen.
+		if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+			System.setProperty("sun.net.httpserver.nodelay", "true");
+		}
+	}
+
+	private final Ledger ledger;
+	private final MemberManager memberManager;
+	private final UserManager userManager;
+	private final LoginManager loginManager;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final TransactionBatcher batcher;
+
+	/**
+	 * Erstellt den Server, startet ihn aber noch nicht.
+	 *
+	 * @param ledger        der Ledger; Konten sollten gebunden sein (siehe
+	 *                      {@link Ledger#bindAccounts(MemberManager)})
+	 * @param memberManager die Mitglieder
+	 * @param userManager   die Benutzer
+	 * @param loginManager  prüft Logins und Schulden
+	 * @param address       Adresse und Port; Port 0 wählt einen freien Port
+	 * @param threads       Anzahl der Threads für Anfragen
+	 * @throws IOException wenn der Port nicht gebunden werden kann
+	 */
+	public ApiServer(Ledger ledger, MemberManager memberManager, UserManager userManager, LoginManager loginManager,
+			InetSocketAddress address, int threads) throws IOException {
+		this.ledger = ledger;
+		this.memberManager = memberManager;
+		this.userManager = userManager;
+		this.loginManager = loginManager;
+		this.server = HttpServer.create(address, 0);
+		AtomicInteger nummer = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "wg-http-" + nummer.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.batcher = new TransactionBatcher(ledger);
+		server.setExecutor(executor);
+		server.createContext("/api/members", handler("GET", this::members));
+		server.createContext("/api/balances", handler("GET", this::balances));
+		server.createContext("/api/transactions", exchange -> {
+			if ("POST".equals(exchange.getRequestMethod())) {
+				handler("POST", this::addTransactions).handle(exchange);
+			} else {
+				handler("GET", this::history).handle(exchange);
+			}
+		});
+		server.createContext("/api/login", handler("POST", this::login));
+	}
+
+	/**
+	 * Startet den Server.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * @return der tatsächlich gebundene Port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Beendet den Server. Laufende Anfragen erhalten bis zu eine Sekunde Zeit,
+	 * bereits eingereichte Buchungen werden noch übernommen. Wird das Warten
+	 * unterbrochen, bleibt der Unterbrechungsstatus des Threads gesetzt.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		batcher.close();
+		executor.shutdown();
+		try {
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Verarbeitung einer angemeldeten Anfrage.
+	 */
+	@FunctionalInterface
+	private interface Endpoint {
+		void handle(HttpExchange exchange, User user) throws IOException;
+	}
+
+	/**
+	 * Umhüllt einen Endpunkt mit Methodenprüfung, Anmeldung und
+	 * Fehlerbehandlung.
+	 */
+	private HttpHandler handler(String method, Endpoint endpoint) {
+		return exchange -> {
+			try {
+				if (!method.equals(exchange.getRequestMethod())) {
+					exchange.getResponseHeaders().set("Allow", method);
+					send(exchange, 405, error("Methode nicht erlaubt"));
+					return;
+				}
+				User user = authenticate(exchange);
+				if (user == null) {
+					exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"WG\", charset=\"UTF-8\"");
+					send(exchange, 401, error("Anmeldung erforderlich"));
+					return;
+				}
+				endpoint.handle(exchange, user);
+			} catch (IllegalArgumentException | DateTimeParseException e) {
+				send(exchange, 400, error(e.getMessage()));
+			} catch (IOException | RuntimeException e) {
+				System.err.println("Fehler bei " + exchange.getRequestURI() + ": " + e);
+				send(exchange, 500, error("Interner Fehler"));
+			} finally {
+				exchange.close();
+			}
+		};
+	}
+
+	/**
+	 * Prüft die Basic-Anmeldung.
+	 *
+	 * @return der Benutzer oder {@code null}
+	 */
+	private User authenticate(HttpExchange exchange) {
+		String header = exchange.getRequestHeaders().getFirst("Authorization");
+		if (header == null || !header.regionMatches(true, 0, "Basic ", 0, 6)) {
+			return null;
+		}
+		String credentials;
+		try {
+			credentials = new String(Base64.getDecoder().decode(header.substring(6).trim()), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+		int colon = credentials.indexOf(':');
+		if (colon < 0) {
+			return null;
+		}
+		User user = userManager.getByUsername(credentials.substring(0, colon));
+		if (user == null || !user.verifyPassword(hash(credentials.substring(colon + 1)))) {
+			return null;
+		}
+		return user;
+	}
+
+	private void members(HttpExchange exchange, User user) throws IOException {
+		Map<String, String> query = query(exchange);
+		List<Member> members = memberManager.getAllMembers();
+		if (query.containsKey("prefix") || query.containsKey("limit")) {
+			String limit = query.get("limit");
+			members = memberManager.findByPrefix(query.getOrDefault("prefix", ""),
+					limit == null || limit.isEmpty() ? MEMBER_LIMIT : Integer.parseInt(limit));
+		}
+		StringBuilder json = new StringBuilder("[");
+		for (Member m : members) {
+			if (json.length() > 1) {
+				json.append(',');
+			}
+			appendString(json, m.getName());
+		}
+		send(exchange, 200, json.append(']').toString());
+	}
+
+	private void balances(HttpExchange exchange, User user) throws IOException {
+		Map<String, String> query = query(exchange);
+		Map<Member, Money> balances;
+		if (query.containsKey("from") || query.containsKey("to")) {
+			balances = ledger.getBalancesBetween(date(query, "from", LocalDate.MIN), date(query, "to", LocalDate.MAX));
+		} else {
+			balances = ledger.getAllBalances();
+		}
+		StringBuilder json = new StringBuilder("{");
+		for (Map.Entry<Member, Money> e : balances.entrySet()) {
+			if (json.length() > 1) {
+				json.append(',');
+			}
+			appendString(json, e.getKey().getName());
+			json.append(":\"").append(e.getValue()).append('"');
+		}
+		send(exchange, 200, json.append('}').toString());
+	}
+
+	private void history(HttpExchange exchange, User user) throws IOException {
+		Map<String, String> query = query(exchange);
+		List<Transaction> range;
+		if (query.containsKey("q") || query.containsKey("payer")) {
+			Member payer = null;
+			String name = query.get("payer");
+			if (name != null && !name.isEmpty()) {
+				payer = memberManager.getMemberByName(name);
+				if (payer == null) {
+					throw new IllegalArgumentException("Unbekanntes Mitglied '" + name + "'");
+				}
+			}
+			range = ledger.searchTransactions(query.get("q"), date(query, "from", null), date(query, "to", null),
+					payer);
+		} else {
+			range = ledger.findTransactionsBetween(date(query, "from", LocalDate.MIN),
+					date(query, "to", LocalDate.MAX));
+		}
+		exchange.getResponseHeaders().set("Content-Type", JSON_LINES);
+		exchange.sendResponseHeaders(200, 0);
+		try (Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8)) {
+			TransactionImportExport.exportTransactions(range, out, Format.JSON);
+		}
+	}
+
+	/**
+	 * Bucht die Transaktionen aus dem Anfragetext. Geprüfte Blöcke werden dem
+	 * {@link TransactionBatcher} übergeben; geantwortet wird erst, wenn alle
+	 * Blöcke im Journal stehen.
+	 */
+	private void addTransactions(HttpExchange exchange, User user) throws IOException {
+		List<CompletableFuture<Void>> pending = new ArrayList<>();
+		List<Integer> sizes = new ArrayList<>();
+		ImportResult result;
+		try (Reader in = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8)) {
+			result = TransactionImportExport.importTransactions(in, Format.JSON, memberManager, batch -> {
+				sizes.add(batch.size());
+				pending.add(batcher.submit(batch));
+			});
+		}
+		int imported = 0;
+		String failure = null;
+		for (int i = 0; i < pending.size(); i++) {
+			try {
+				pending.get(i).join();
+				imported += sizes.get(i);
+			} catch (CompletionException e) {
+				failure = String.valueOf(e.getCause().getMessage());
+			}
+		}
+		StringBuilder json = new StringBuilder("{\"imported\":").append(imported);
+		json.append(",\"rejected\":").append(result.getRejected()).append(",\"errors\":[");
+		List<String> errors = new ArrayList<>(result.getErrors());
+		if (failure != null) {
+			errors.add("Buchung fehlgeschlagen: " + failure);
+		}
+		for (int i = 0; i < errors.size(); i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			appendString(json, errors.get(i));
+		}
+		json.append("]}");
+		int status = failure != null ? 500 : imported == 0 && result.getRejected() > 0 ? 400 : 200;
+		send(exchange, status, json.toString());
+	}
+
+	private void login(HttpExchange exchange, User user) throws IOException {
+		Member member = memberManager.getMemberByName(user.getUsername());
+		String message = loginManager.login(user, user.getPasswordHash(), member);
+		StringBuilder json = new StringBuilder("{\"user\":");
+		appendString(json, user.getUsername());
+		json.append(",\"admin\":").append(user.isAdmin()).append(",\"message\":");
+		appendString(json, message);
+		send(exchange, 200, json.append('}').toString());
+	}
+
+	private static Map<String, String> query(HttpExchange exchange) {
+		Map<String, String> result = new HashMap<>();
+		String raw = exchange.getRequestURI().getRawQuery();
+		if (raw == null) {
+			return result;
+		}
+		for (String pair : raw.split("&")) {
+			int eq = pair.indexOf('=');
+			if (eq > 0) {
+				result.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+						URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+			}
+		}
+		return result;
+	}
+
+	private static LocalDate date(Map<String, String> query, String name, LocalDate fallback) {
+		String value = query.get(name);
+		return value == null || value.isEmpty() ? fallback : LocalDate.parse(value);
+	}
+
+	private static String error(String message) {
+		StringBuilder json = new StringBuilder("{\"error\":");
+		appendString(json, message);
+		return json.append('}').toString();
+	}
+
+	private static void send(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", JSON);
+		exchange.sendResponseHeaders(status, body.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(body);
+		}
+	}
+
+	private static void appendString(StringBuilder json, String value) {
+		json.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				json.append('\\').append(c);
+			} else if (c == '\n') {
+				json.append("\\n");
+			} else if (c < 0x20) {
+				json.append(String.format("\\u%04x", (int) c));
+			} else {
+				json.append(c);
+			}
+		}
+		json.append('"');
+	}
+
+	/**
+	 * Passwort-Hash wie in der Oberfläche (SHA-256 als Hex-String).
+	 */
+	static String hash(String password) {
+		try {
+			MessageDigest md = MessageDigest.getInstance("SHA-256");
+			byte[] hashBytes = md.digest(password.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (byte b : hashBytes) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return password;
+		}
+	}
+
+	/**
+	 * Startet den Server mit den Dateien im Arbeitsverzeichnis. Beim Beenden
+	 * (Strg+C) werden alle Daten gespeichert.
+	 *
+	 * @param args optional Port (Standard 8080), Anzahl der Threads (Standard
+	 *             zwei je Prozessorkern) und Adresse (Standard localhost)
+	 * @throws Exception bei Lade- oder Startfehlern
+	 */
+	public static void main(String[] args) throws Exception {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+		String host = args.length > 2 ? args[2] : "localhost";
+
+		MemberManager memberManager = MemberManager.loadFromFile(MEMBERS_FILE);
+		Ledger ledger = Ledger.loadFromFile(LEDGER_FILE);
+		UserManager userManager = UserManager.loadFromFile(USERS_FILE);
+		ledger.bindAccounts(memberManager);
+		if (userManager.getAllUsers().isEmpty()) {
+			System.out.println("Es gibt noch keine Benutzer; bitte zuerst in der Oberfläche anlegen.");
+		}
+
+		ApiServer server = new ApiServer(ledger, memberManager, userManager, new LoginManager(new RuleSet()),
+				new InetSocketAddress(host, port), threads);
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			try {
+				server.close();
+				memberManager.saveToFile(MEMBERS_FILE);
+				ledger.saveToFile(LEDGER_FILE);
+				userManager.saveToFile(USERS_FILE);
+			} catch (IOException e) {
+				System.err.println("Daten konnten nicht gespeichert werden: " + e.getMessage());
+			}
+		}));
+		server.start();
+		System.out.println("WG-Server läuft auf http://" + host + ":" + server.getPort() + "/api mit " + threads
+				+ " Threads.");
+	}
+}
@@ -0,0 +1,153 @@
+package de.wg.server;
+
+import de.wg.exception.UngueltigerBetragException;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Fasst gleichzeitig eingehende Buchungen zu einem Aufruf von
+ * {@link Ledger#addTransactions(java.util.Collection)} zusammen (Group Commit).
+ * Jeder Aufruf synchronisiert das Journal einmal auf die Platte; kommen viele
+ * kleine Anfragen gleichzeitig an, teilen sie sich diese Synchronisierung.
+ * <p>
+ * Ein einzelner Thread nimmt die wartenden Blöcke aus der Warteschlange, bis
+ * {@link #MAX_BATCH} Transaktionen erreicht sind, und übernimmt sie gemeinsam.
+ * Da {@code addTransactions} alles oder nichts übernimmt, müssen die Blöcke
+ * vorab geprüft sein (siehe
+ * {@link de.wg.service.TransactionImportExport#importTransactions(java.io.Reader,
+ * de.wg.service.TransactionImportExport.Format, de.wg.service.MemberManager,
+ * de.wg.service.TransactionImportExport.BatchSink)}).
+ * </p>
+ */
+class TransactionBatcher implements AutoCloseable {
+
+	/** Höchstzahl an Transaktionen je gemeinsamem Aufruf. */
+	static final int MAX_BATCH = 5000;
+
+	/** Markiert das Ende der Warteschlange. */
+	private static final Pending STOP = new Pending(new ArrayList<>());
+
+	private final Ledger ledger;
+	private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+	private final Thread worker;
+	/** Geschützt durch {@code queue}, damit kein Block hinter {@link #STOP} landet. */
+	private boolean closed;
+
+	/**
+	 * Ein eingereichter Block mit seinem Ergebnis.
+	 */
+	private static final class Pending {
+		final List<Transaction> transactions;
+		final CompletableFuture<Void> done = new CompletableFuture<>();
+
+		Pending(List<Transaction> transactions) {
+			this.transactions = transactions;
+		}
+	}
+
+	/**
+	 * Erstellt den Sammler und startet seinen Thread.
+	 *
+	 * @param ledger Ziel der Buchungen
+	 */
+	TransactionBatcher(Ledger ledger) {
+		this.ledger = ledger;
+		this.worker = new Thread(this::run, "wg-buchung");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Reicht einen geprüften Block ein.
+	 *
+	 * @param transactions die Transaktionen
+	 * @return wird abgeschlossen, sobald der Block im Ledger und im Journal ist
+	 */
+	CompletableFuture<Void> submit(List<Transaction> transactions) {
+		Pending p = new Pending(transactions);
+		synchronized (queue) {
+			if (!closed) {
+				queue.add(p);
+				return p.done;
+			}
+		}
+		p.done.completeExceptionally(new IllegalStateException("Der Server wird beendet."));
+		return p.done;
+	}
+
+	private void run() {
+		List<Pending> group = new ArrayList<>();
+		List<Transaction> all = new ArrayList<>();
+		boolean running = true;
+		while (running) {
+			Pending next;
+			try {
+				next = queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			int size = 0;
+			while (next != null && next != STOP && size < MAX_BATCH) {
+				group.add(next);
+				size += next.transactions.size();
+				next = size < MAX_BATCH ? queue.poll() : null;
+			}
+			running = next != STOP;
+			for (Pending p : group) {
+				all.addAll(p.transactions);
+			}
+			try {
+				ledger.addTransactions(all);
+				group.forEach(p -> p.done.complete(null));
+			} catch (UngueltigerBetragException | RuntimeException e) {
+				group.forEach(p -> p.done.completeExceptionally(e));
+			}
+			group.clear();
+			all.clear();
+		}
+		failRemaining();
+	}
+
+	/**
+	 * Lässt alle noch wartenden Blöcke fehlschlagen, z.B. nach einer
+	 * Unterbrechung des Threads.
+	 */
+	private void failRemaining() {
+		Pending rest;
+		while ((rest = queue.poll()) != null) {
+			rest.done.completeExceptionally(new IllegalStateException("Der Server wird beendet."));
+		}
+	}
+
+	/**
+	 * Übernimmt alle bis dahin eingereichten Blöcke und beendet den Thread.
+	 * Danach eingereichte Blöcke schlagen sofort fehl, sodass kein Aufrufer
+	 * endlos wartet. Wird das Warten unterbrochen, bleibt der
+	 * Unterbrechungsstatus des Threads gesetzt.
+	 */
+	@Override
+	public void close() {
+		synchronized (queue) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			queue.add(STOP);
+		}
+		try {
+			worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (!worker.isAlive()) {
+			failRemaining();
+		}
+	}
+}
@@ -0,0 +1,654 @@
+package de.wg.service;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.model.User;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kompaktes Binärformat für die persistierten Daten ({@link Transaction},
+ * {@link Member} inkl. {@link de.wg.model.Account} und {@link User}).
+ * <p>
+ * Jede Datei beginnt mit der Kennung {@code WGB1}, einer Dateiart und einer
+ * Formatversion. Ganzzahlen werden als Varint (LEB128, vorzeichenbehaftete
+ * Werte zusätzlich ZigZag-kodiert) geschrieben, Beträge in Cent, Datumswerte
+ * als Epoch-Day (relativ zur vorherigen Transaktion). Mitglieder stehen in der
+ * Ledger-Datei einmal in einer Namenstabelle und werden in den Transaktionen nur
+ * über ihre Position referenziert.
+ * </p>
+ * <p>
+ * Ab Version 2 kann eine Transaktion feste Anteile je Begünstigtem tragen
+ * ({@link Transaction#hasCustomShares()}); sie folgen dann als Cent-Werte auf
+ * die Beschreibung. Dateien der Version 1 werden weiterhin gelesen.
+ * </p>
+ * <p>
+ * Ab Version 3 folgen in der Ledger-Datei auf die Transaktionen die
+ * Korrekturen, Stornos und Ausgleiche ({@link LedgerEvent}); sie verweisen
+ * über die Position in der Transaktionsliste auf ihre Transaktionen. Ältere
+ * Dateien haben keine solchen Ereignisse.
+ * </p>
+ * <p>
+ * Ab Version 4 folgt darauf der Suchindex über die Beschreibungen
+ * ({@link DescriptionIndex}): je Wort die laufenden Nummern als Differenzen
+ * zur vorherigen. Fehlt er (ältere Dateien oder Anzahl 0), baut der Ledger ihn
+ * beim Laden neu auf.
+ * </p>
+ * <p>
+ * Dateien im alten Format (Java-Serialisierung) werden an ihrer Kennung
+ * {@code 0xACED} erkannt und von den {@code loadFromFile}-Methoden der Manager
+ * weiterhin gelesen; beim nächsten Speichern werden sie im neuen Format
+ * geschrieben.
+ * </p>
+ */
+public final class BinaryCodec {
+
+	/** Kennung am Dateianfang ("WGB1"). */
+	private static final int MAGIC = 0x57474231;
+
+	/** Aktuelle Formatversion. */
+	public static final int VERSION = 4;
+
+	/** Dateiart: Ledger mit Transaktionen. */
+	static final int KIND_LEDGER = 1;
+	/** Dateiart: Mitglieder mit Kontoständen. */
+	static final int KIND_MEMBERS = 2;
+	/** Dateiart: Benutzer. */
+	static final int KIND_USERS = 3;
+
+	/** Flag: Transaktion ist verrechnet. */
+	private static final int FLAG_VERRECHNET = 1;
+	/** Flag: Transaktion hat eine Beschreibung. */
+	private static final int FLAG_DESCRIPTION = 2;
+	/** Flag: Transaktion hat feste Anteile je Begünstigtem (ab Version 2). */
+	private static final int FLAG_SHARES = 4;
+
+	/** Ereignisart im Ledger-Format: Korrektur (ab Version 3). */
+	private static final int EVENT_CORRECTED = 1;
+	/** Ereignisart im Ledger-Format: Storno (ab Version 3). */
+	private static final int EVENT_VOIDED = 2;
+	/** Ereignisart im Ledger-Format: Ausgleich (ab Version 3). */
+	private static final int EVENT_SETTLED = 3;
+
+	private BinaryCodec() {
+	}
+
+	/**
+	 * Prüft, ob eine Datei im Binärformat vorliegt.
+	 *
+	 * @param path die zu prüfende Datei
+	 * @return {@code true}, wenn die Datei mit der Kennung des Binärformats
+	 *         beginnt
+	 * @throws IOException bei einem Lesefehler
+	 */
+	public static boolean isBinaryFile(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+			return in.readInt() == MAGIC;
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Schreibt eine Datei atomar: Der Inhalt wird zunächst in eine temporäre
+	 * Datei daneben geschrieben und anschließend umbenannt, sodass die Zieldatei
+	 * immer entweder den alten oder den vollständigen neuen Inhalt hat.
+	 *
+	 * @param target die Zieldatei
+	 * @param writer schreibt den Inhalt in den übergebenen Strom
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public static void writeAtomically(Path target, ContentWriter writer) throws IOException {
+		Path absolute = target.toAbsolutePath();
+		Path tmp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+		try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+			BufferedOutputStream out = new BufferedOutputStream(fos, 1 << 16);
+			writer.write(out);
+			out.flush();
+			fos.getChannel().force(false);
+		}
+		Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Schreibt Transaktionen im Ledger-Format, ohne Korrekturen und Stornos.
+	 *
+	 * @param os           Zielstrom
+	 * @param transactions die Transaktionen in Erfassungsreihenfolge
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	public static void writeTransactions(OutputStream os, List<Transaction> transactions) throws IOException {
+		writeTransactions(os, transactions, Collections.emptyList());
+	}
+
+	/**
+	 * Schreibt Transaktionen im Ledger-Format samt Korrekturen, Stornos und
+	 * Ausgleichen.
+	 *
+	 * @param os           Zielstrom
+	 * @param transactions alle Transaktionen einschließlich korrigierter und
+	 *                     stornierter Fassungen in Erfassungsreihenfolge
+	 * @param revisions    Korrekturen, Stornos und Ausgleiche in
+	 *                     Erfassungsreihenfolge
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	public static void writeTransactions(OutputStream os, List<Transaction> transactions, List<LedgerEvent> revisions)
+			throws IOException {
+		writeTransactions(os, transactions, revisions, null);
+	}
+
+	/**
+	 * Schreibt Transaktionen im Ledger-Format samt Korrekturen, Stornos,
+	 * Ausgleichen und Suchindex.
+	 *
+	 * @param os           Zielstrom
+	 * @param transactions alle Transaktionen einschließlich korrigierter und
+	 *                     stornierter Fassungen in Erfassungsreihenfolge
+	 * @param revisions    Korrekturen, Stornos und Ausgleiche in
+	 *                     Erfassungsreihenfolge
+	 * @param index        Suchindex über genau diese Transaktionen oder
+	 *                     {@code null}, um keinen zu schreiben
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	static void writeTransactions(OutputStream os, List<Transaction> transactions, List<LedgerEvent> revisions,
+			DescriptionIndex index) throws IOException {
+		Out out = new Out(os);
+		writeHeader(out, KIND_LEDGER);
+
+		Map<Member, Integer> ids = new HashMap<>();
+		List<Member> table = new ArrayList<>();
+		for (Transaction t : transactions) {
+			intern(t.getPayer(), ids, table);
+			for (Member m : t.getBeneficiaries()) {
+				intern(m, ids, table);
+			}
+		}
+		out.writeVarLong(table.size());
+		for (Member m : table) {
+			out.writeString(m.getName());
+		}
+
+		out.writeVarLong(transactions.size());
+		long previousDay = 0;
+		for (Transaction t : transactions) {
+			long day = t.getDate().toEpochDay();
+			out.writeSignedVarLong(day - previousDay);
+			previousDay = day;
+			out.writeSignedVarLong(t.getAmountCents());
+			out.writeVarLong(ids.get(t.getPayer()));
+			List<Member> beneficiaries = t.getBeneficiaries();
+			out.writeVarLong(beneficiaries.size());
+			for (Member m : beneficiaries) {
+				out.writeVarLong(ids.get(m));
+			}
+			int flags = (t.isVerrechnet() ? FLAG_VERRECHNET : 0) | (t.getDescription() != null ? FLAG_DESCRIPTION : 0)
+					| (t.hasCustomShares() ? FLAG_SHARES : 0);
+			out.write(flags);
+			if (t.getDescription() != null) {
+				out.writeString(t.getDescription());
+			}
+			if (t.hasCustomShares()) {
+				for (int b = 0; b < t.getBeneficiaryCount(); b++) {
+					out.writeVarLong(t.getShareCents(b));
+				}
+			}
+		}
+
+		out.writeVarLong(revisions.size());
+		for (LedgerEvent e : revisions) {
+			switch (e.getType()) {
+			case CORRECTED:
+				out.write(EVENT_CORRECTED);
+				out.writeVarLong(e.seq);
+				out.writeVarLong(e.replacementSeq);
+				break;
+			case VOIDED:
+				out.write(EVENT_VOIDED);
+				out.writeVarLong(e.seq);
+				out.writeVarLong(e.position);
+				break;
+			case SETTLED:
+				out.write(EVENT_SETTLED);
+				out.writeVarLong(e.seq);
+				break;
+			default:
+				throw new IllegalArgumentException("Kein Revisionsereignis: " + e.getType());
+			}
+			out.writeSignedVarLong(e.getDate().toEpochDay());
+		}
+
+		if (index == null || index.size() != transactions.size()) {
+			out.writeVarLong(0);
+		} else {
+			out.writeVarLong(index.size());
+			Map<String, DescriptionIndex.Postings> postings = index.postings();
+			out.writeVarLong(postings.size());
+			for (Map.Entry<String, DescriptionIndex.Postings> e : postings.entrySet()) {
+				DescriptionIndex.Postings p = e.getValue();
+				out.writeString(e.getKey());
+				out.writeVarLong(p.size);
+				int previous = -1;
+				for (int i = 0; i < p.size; i++) {
+					out.writeVarLong(p.seqs[i] - previous);
+					previous = p.seqs[i];
+				}
+			}
+		}
+		out.flush();
+	}
+
+	/**
+	 * Liest Transaktionen im Ledger-Format. Für jeden Namen der Mitgliedertabelle
+	 * wird genau ein {@link Member}-Objekt erzeugt, das von allen Transaktionen
+	 * gemeinsam genutzt wird.
+	 *
+	 * @param is Quellstrom
+	 * @return die Transaktionen in Erfassungsreihenfolge
+	 * @throws IOException bei einem Lesefehler oder unbekanntem Format
+	 */
+	public static List<Transaction> readTransactions(InputStream is) throws IOException {
+		return readTransactions(is, null);
+	}
+
+	/**
+	 * Liest Transaktionen im Ledger-Format samt Korrekturen, Stornos und
+	 * Ausgleichen.
+	 *
+	 * @param is        Quellstrom
+	 * @param revisions erhält Korrekturen, Stornos und Ausgleiche in
+	 *                  Erfassungsreihenfolge; {@code null}, um sie zu
+	 *                  überspringen
+	 * @return alle Transaktionen einschließlich korrigierter und stornierter
+	 *         Fassungen in Erfassungsreihenfolge
+	 * @throws IOException bei einem Lesefehler oder unbekanntem Format
+	 */
+	public static List<Transaction> readTransactions(InputStream is, List<LedgerEvent> revisions) throws IOException {
+		return readTransactions(is, revisions, null);
+	}
+
+	/**
+	 * Liest Transaktionen im Ledger-Format samt Korrekturen, Stornos,
+	 * Ausgleichen und Suchindex.
+	 *
+	 * @param is        Quellstrom
+	 * @param revisions erhält Korrekturen, Stornos und Ausgleiche in
+	 *                  Erfassungsreihenfolge; {@code null}, um sie zu
+	 *                  überspringen
+	 * @param index     leerer Index, der den gespeicherten Suchindex erhält;
+	 *                  bleibt leer, wenn die Datei keinen enthält.
+	 *                  {@code null}, um ihn nicht zu lesen
+	 * @return alle Transaktionen einschließlich korrigierter und stornierter
+	 *         Fassungen in Erfassungsreihenfolge
+	 * @throws IOException bei einem Lesefehler oder unbekanntem Format
+	 */
+	static List<Transaction> readTransactions(InputStream is, List<LedgerEvent> revisions, DescriptionIndex index)
+			throws IOException {
+		In in = new In(is);
+		int version = readHeader(in, KIND_LEDGER);
+
+		int memberCount = in.readCount();
+		Member[] table = new Member[memberCount];
+		for (int i = 0; i < memberCount; i++) {
+			table[i] = new Member(in.readString());
+		}
+
+		int count = in.readCount();
+		List<Transaction> result = new ArrayList<>(count);
+		long day = 0;
+		for (int i = 0; i < count; i++) {
+			day += in.readSignedVarLong();
+			Money amount = Money.ofCents(in.readSignedVarLong());
+			Member payer = member(table, in.readCount());
+			int beneficiaryCount = in.readCount();
+			List<Member> beneficiaries = new ArrayList<>(beneficiaryCount);
+			for (int b = 0; b < beneficiaryCount; b++) {
+				beneficiaries.add(member(table, in.readCount()));
+			}
+			int flags = in.read();
+			String description = (flags & FLAG_DESCRIPTION) != 0 ? in.readString() : null;
+			long[] shares = null;
+			if ((flags & FLAG_SHARES) != 0) {
+				shares = new long[beneficiaryCount];
+				for (int b = 0; b < beneficiaryCount; b++) {
+					shares[b] = in.readVarLong();
+				}
+			}
+			Transaction t = new Transaction(LocalDate.ofEpochDay(day), amount, payer, beneficiaries, shares, description);
+			t.setVerrechnet((flags & FLAG_VERRECHNET) != 0);
+			result.add(t);
+		}
+
+		int eventCount = version >= 3 ? in.readCount() : 0;
+		for (int i = 0; i < eventCount; i++) {
+			int kind = in.read();
+			int seq = in.readCount();
+			LedgerEvent e;
+			if (kind == EVENT_CORRECTED) {
+				int replacementSeq = in.readCount();
+				LocalDate date = LocalDate.ofEpochDay(in.readSignedVarLong());
+				e = new LedgerEvent(LedgerEvent.Type.CORRECTED, date, transaction(result, seq),
+						transaction(result, replacementSeq), seq, replacementSeq, replacementSeq);
+			} else if (kind == EVENT_VOIDED) {
+				int position = in.readCount();
+				LocalDate date = LocalDate.ofEpochDay(in.readSignedVarLong());
+				e = new LedgerEvent(LedgerEvent.Type.VOIDED, date, transaction(result, seq), null, seq, -1, position);
+			} else if (kind == EVENT_SETTLED) {
+				LocalDate date = LocalDate.ofEpochDay(in.readSignedVarLong());
+				e = new LedgerEvent(LedgerEvent.Type.SETTLED, date, null, null, seq, -1, seq);
+			} else {
+				throw new IOException("Unbekannte Ereignisart " + kind);
+			}
+			if (revisions != null) {
+				revisions.add(e);
+			}
+		}
+
+		int indexed = version >= 4 && index != null ? in.readCount() : 0;
+		if (indexed > count) {
+			throw new IOException("Suchindex umfasst " + indexed + " von " + count + " Transaktionen.");
+		}
+		if (indexed > 0) {
+			int tokenCount = in.readCount();
+			for (int i = 0; i < tokenCount; i++) {
+				String token = in.readString();
+				int[] seqs = new int[in.readCount()];
+				long seq = -1;
+				for (int k = 0; k < seqs.length; k++) {
+					long delta = in.readVarLong();
+					seq += delta;
+					if (delta <= 0 || seq >= indexed) {
+						throw new IOException("Ungültige Nummer " + seq + " im Suchindex.");
+					}
+					seqs[k] = (int) seq;
+				}
+				index.put(token, seqs, seqs.length);
+			}
+			index.setSize(indexed);
+		}
+		return result;
+	}
+
+	/**
+	 * Schreibt Mitglieder mit ihren Kontoständen.
+	 *
+	 * @param os      Zielstrom
+	 * @param members die Mitglieder
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	public static void writeMembers(OutputStream os, List<Member> members) throws IOException {
+		Out out = new Out(os);
+		writeHeader(out, KIND_MEMBERS);
+		out.writeVarLong(members.size());
+		for (Member m : members) {
+			out.writeString(m.getName());
+			out.writeSignedVarLong(m.getAccount().getBalance().getCents());
+		}
+		out.flush();
+	}
+
+	/**
+	 * Liest Mitglieder mit ihren Kontoständen.
+	 *
+	 * @param is Quellstrom
+	 * @return die Mitglieder in gespeicherter Reihenfolge
+	 * @throws IOException bei einem Lesefehler oder unbekanntem Format
+	 */
+	public static List<Member> readMembers(InputStream is) throws IOException {
+		In in = new In(is);
+		readHeader(in, KIND_MEMBERS);
+		int count = in.readCount();
+		List<Member> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Member m = new Member(in.readString());
+			m.getAccount().updateBalance(Money.ofCents(in.readSignedVarLong()));
+			result.add(m);
+		}
+		return result;
+	}
+
+	/**
+	 * Schreibt Benutzer.
+	 *
+	 * @param os    Zielstrom
+	 * @param users die Benutzer
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	public static void writeUsers(OutputStream os, List<User> users) throws IOException {
+		Out out = new Out(os);
+		writeHeader(out, KIND_USERS);
+		out.writeVarLong(users.size());
+		for (User u : users) {
+			out.writeString(u.getName());
+			out.writeString(u.getUsername());
+			out.writeString(u.getPasswordHash());
+			out.write(u.isAdmin() ? 1 : 0);
+		}
+		out.flush();
+	}
+
+	/**
+	 * Liest Benutzer.
+	 *
+	 * @param is Quellstrom
+	 * @return die Benutzer in gespeicherter Reihenfolge
+	 * @throws IOException bei einem Lesefehler oder unbekanntem Format
+	 */
+	public static List<User> readUsers(InputStream is) throws IOException {
+		In in = new In(is);
+		readHeader(in, KIND_USERS);
+		int count = in.readCount();
+		List<User> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String name = in.readString();
+			String username = in.readString();
+			String passwordHash = in.readString();
+			boolean isAdmin = in.read() != 0;
+			result.add(new User(name, username, passwordHash, isAdmin));
+		}
+		return result;
+	}
+
+	private static void intern(Member m, Map<Member, Integer> ids, List<Member> table) {
+		if (!ids.containsKey(m)) {
+			ids.put(m, table.size());
+			table.add(m);
+		}
+	}
+
+	private static Member member(Member[] table, int id) throws IOException {
+		if (id >= table.length) {
+			throw new IOException("Ungültige Mitglieds-ID " + id + " (Tabelle mit " + table.length + " Einträgen)");
+		}
+		return table[id];
+	}
+
+	private static Transaction transaction(List<Transaction> transactions, int seq) throws IOException {
+		if (seq >= transactions.size()) {
+			throw new IOException("Ungültige Transaktionsnummer " + seq + " (" + transactions.size() + " Transaktionen)");
+		}
+		return transactions.get(seq);
+	}
+
+	private static void writeHeader(Out out, int kind) throws IOException {
+		out.writeInt(MAGIC);
+		out.write(kind);
+		out.writeVarLong(VERSION);
+	}
+
+	private static int readHeader(In in, int kind) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Datei ist nicht im WG-Binärformat.");
+		}
+		int actualKind = in.read();
+		if (actualKind != kind) {
+			throw new IOException("Falsche Dateiart " + actualKind + " (erwartet " + kind + ").");
+		}
+		long version = in.readVarLong();
+		if (version < 1 || version > VERSION) {
+			throw new IOException("Nicht unterstützte Formatversion " + version + ".");
+		}
+		return (int) version;
+	}
+
+	/**
+	 * Schreibt den Inhalt einer Datei.
+	 */
+	@FunctionalInterface
+	public interface ContentWriter {
+
+		/**
+		 * Schreibt den Inhalt in den Strom. Der Strom wird vom Aufrufer
+		 * geschlossen.
+		 *
+		 * @param out Zielstrom
+		 * @throws IOException bei einem Schreibfehler
+		 */
+		void write(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Gepufferter Ausgabestrom mit Varint-Kodierung, ohne Synchronisation.
+	 */
+	private static final class Out {
+		private final OutputStream os;
+		private final byte[] buf = new byte[1 << 16];
+		private int pos;
+
+		Out(OutputStream os) {
+			this.os = os;
+		}
+
+		void write(int b) throws IOException {
+			if (pos == buf.length) {
+				flushBuffer();
+			}
+			buf[pos++] = (byte) b;
+		}
+
+		void writeInt(int v) throws IOException {
+			write(v >>> 24);
+			write(v >>> 16);
+			write(v >>> 8);
+			write(v);
+		}
+
+		void writeVarLong(long v) throws IOException {
+			while ((v & ~0x7FL) != 0) {
+				write((int) ((v & 0x7F) | 0x80));
+				v >>>= 7;
+			}
+			write((int) v);
+		}
+
+		void writeSignedVarLong(long v) throws IOException {
+			writeVarLong((v << 1) ^ (v >> 63));
+		}
+
+		void writeString(String s) throws IOException {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(bytes.length);
+			if (bytes.length > buf.length - pos) {
+				flushBuffer();
+				if (bytes.length > buf.length) {
+					os.write(bytes);
+					return;
+				}
+			}
+			System.arraycopy(bytes, 0, buf, pos, bytes.length);
+			pos += bytes.length;
+		}
+
+		void flush() throws IOException {
+			flushBuffer();
+			os.flush();
+		}
+
+		private void flushBuffer() throws IOException {
+			os.write(buf, 0, pos);
+			pos = 0;
+		}
+	}
+
+	/**
+	 * Gepufferter Eingabestrom mit Varint-Dekodierung, ohne Synchronisation.
+	 */
+	private static final class In {
+		private final InputStream is;
+		private final byte[] buf = new byte[1 << 16];
+		private int pos;
+		private int limit;
+
+		In(InputStream is) {
+			this.is = is;
+		}
+
+		int read() throws IOException {
+			if (pos == limit) {
+				limit = is.read(buf, 0, buf.length);
+				pos = 0;
+				if (limit <= 0) {
+					limit = 0;
+					throw new EOFException("Unerwartetes Dateiende");
+				}
+			}
+			return buf[pos++] & 0xFF;
+		}
+
+		int readInt() throws IOException {
+			return (read() << 24) | (read() << 16) | (read() << 8) | read();
+		}
+
+		long readVarLong() throws IOException {
+			long result = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = read();
+				result |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+			throw new IOException("Ungültiger Varint-Wert");
+		}
+
+		long readSignedVarLong() throws IOException {
+			long v = readVarLong();
+			return (v >>> 1) ^ -(v & 1);
+		}
+
+		int readCount() throws IOException {
+			long v = readVarLong();
+			if (v < 0 || v > Integer.MAX_VALUE) {
+				throw new IOException("Ungültige Anzahl " + v);
+			}
+			return (int) v;
+		}
+
+		String readString() throws IOException {
+			int length = readCount();
+			byte[] bytes = new byte[length];
+			int copied = 0;
+			while (copied < length) {
+				if (pos == limit) {
+					read();
+					pos--;
+				}
+				int n = Math.min(length - copied, limit - pos);
+				System.arraycopy(buf, pos, bytes, copied, n);
+				pos += n;
+				copied += n;
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
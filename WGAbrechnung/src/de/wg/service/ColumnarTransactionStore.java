@@ -0,0 +1,494 @@
+package de.wg.service;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spaltenorientierter, per {@link MappedByteBuffer} eingeblendeter
+ * Transaktionsspeicher für große Archive. Statt jede {@link Transaction} als
+ * Objekt auf den Heap zu laden, liegen die Daten in parallelen Spalten in einer
+ * Datei:
+ * <ul>
+ * <li>Epoch-Day je Transaktion (aufsteigend sortiert),</li>
+ * <li>Betrag in Cent,</li>
+ * <li>Mitglieds-ID des Zahlers,</li>
+ * <li>Offset in die Spalte der Begünstigten-IDs,</li>
+ * <li>Anteil in Cent je Begünstigtem, parallel zu den Begünstigten-IDs,</li>
+ * <li>Flags und Beschreibungen.</li>
+ * </ul>
+ * Salden- und Zeitraumabfragen laufen direkt über die eingeblendeten Spalten;
+ * {@link Transaction}-Objekte werden nur für tatsächlich abgefragte Zeilen
+ * erzeugt. Der Heap-Bedarf wächst daher nicht mit der Länge der Historie.
+ * Die Anteile werden beim Schreiben berechnet, auch für gleichmäßig
+ * aufgeteilte Transaktionen; mehrfach genannte Begünstigte haben ab dem
+ * zweiten Vorkommen den Anteil 0. Saldenabfragen summieren daher nur noch.
+ * <p>
+ * Der Speicher ist schreibgeschützt; er wird mit {@link #write} aus einem
+ * {@link Ledger} oder einer beliebigen Transaktionsliste erzeugt.
+ * </p>
+ */
+public class ColumnarTransactionStore implements Closeable {
+
+	/** Kennung am Dateianfang ("WGC1"). */
+	private static final int MAGIC = 0x57474331;
+
+	/** Aktuelle Formatversion. */
+	private static final int VERSION = 2;
+
+	/** Länge des Dateikopfs in Bytes. */
+	private static final int HEADER_LENGTH = 128;
+
+	/** Flag: Transaktion ist verrechnet. */
+	private static final byte FLAG_VERRECHNET = 1;
+
+	/** Flag: Transaktion hat eine Beschreibung. */
+	private static final byte FLAG_DESCRIPTION = 2;
+
+	/** Flag: Transaktion hat feste Anteile statt gleichmäßiger Aufteilung. */
+	private static final byte FLAG_SHARES = 4;
+
+	private final FileChannel channel;
+	private final Member[] members;
+	private final Map<Member, Integer> memberIds;
+	private final int size;
+	private final IntBuffer days;
+	private final LongBuffer amounts;
+	private final IntBuffer payers;
+	private final IntBuffer beneficiaryOffsets;
+	private final IntBuffer beneficiaryIds;
+	private final LongBuffer shares;
+	private final ByteBuffer flags;
+	private final IntBuffer descriptionOffsets;
+	private final ByteBuffer descriptions;
+
+	private ColumnarTransactionStore(FileChannel channel) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH);
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Datei ist kein spaltenorientierter Transaktionsspeicher.");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Nicht unterstützte Formatversion " + version
+					+ "; das Archiv muss mit Ledger#exportColumnar neu erzeugt werden.");
+		}
+		int memberCount = header.getInt();
+		size = header.getInt();
+		long beneficiaryCount = header.getLong();
+		long descriptionBytes = header.getLong();
+		long namesOffset = header.getLong();
+		long namesLength = header.getLong();
+		long daysOffset = header.getLong();
+		long amountsOffset = header.getLong();
+		long payersOffset = header.getLong();
+		long beneficiaryOffsetsOffset = header.getLong();
+		long beneficiaryIdsOffset = header.getLong();
+		long flagsOffset = header.getLong();
+		long descriptionOffsetsOffset = header.getLong();
+		long descriptionsOffset = header.getLong();
+		long sharesOffset = header.getLong();
+
+		ByteBuffer names = map(namesOffset, namesLength);
+		members = new Member[memberCount];
+		memberIds = new HashMap<>(memberCount * 2);
+		for (int i = 0; i < memberCount; i++) {
+			byte[] bytes = new byte[names.getInt()];
+			names.get(bytes);
+			members[i] = new Member(new String(bytes, StandardCharsets.UTF_8));
+			memberIds.put(members[i], i);
+		}
+		days = map(daysOffset, 4L * size).asIntBuffer();
+		amounts = map(amountsOffset, 8L * size).asLongBuffer();
+		payers = map(payersOffset, 4L * size).asIntBuffer();
+		beneficiaryOffsets = map(beneficiaryOffsetsOffset, 4L * (size + 1)).asIntBuffer();
+		beneficiaryIds = map(beneficiaryIdsOffset, 4L * beneficiaryCount).asIntBuffer();
+		shares = map(sharesOffset, 8L * beneficiaryCount).asLongBuffer();
+		flags = map(flagsOffset, size);
+		descriptionOffsets = map(descriptionOffsetsOffset, 4L * (size + 1)).asIntBuffer();
+		descriptions = map(descriptionsOffset, descriptionBytes);
+	}
+
+	private MappedByteBuffer map(long offset, long length) throws IOException {
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("Spalte ist zu groß für eine Einblendung (" + length + " Bytes).");
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+	}
+
+	/**
+	 * Öffnet einen zuvor mit {@link #write} erzeugten Speicher. Es werden nur der
+	 * Dateikopf und die Mitgliedertabelle gelesen, die Spalten werden
+	 * eingeblendet.
+	 *
+	 * @param file die Datei
+	 * @return der geöffnete Speicher
+	 * @throws IOException wenn die Datei nicht gelesen werden kann oder kein
+	 *                     gültiger Speicher ist
+	 */
+	public static ColumnarTransactionStore open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new ColumnarTransactionStore(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Schreibt Transaktionen spaltenorientiert in eine Datei. Die Zeilen werden
+	 * nach Datum sortiert abgelegt, bei gleichem Datum in der übergebenen
+	 * Reihenfolge.
+	 *
+	 * @param file         die Zieldatei
+	 * @param transactions die Transaktionen, z.B.
+	 *                     {@link Ledger#getAllTransactions()}
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public static void write(Path file, Collection<Transaction> transactions) throws IOException {
+		List<Transaction> rows = new ArrayList<>(transactions);
+		rows.sort(Comparator.comparing(Transaction::getDate));
+
+		Map<Member, Integer> ids = new HashMap<>();
+		List<Member> table = new ArrayList<>();
+		long beneficiaryCount = 0;
+		for (Transaction t : rows) {
+			intern(t.getPayer(), ids, table);
+			for (Member m : t.getBeneficiaries()) {
+				intern(m, ids, table);
+			}
+			beneficiaryCount += t.getBeneficiaries().size();
+		}
+		List<byte[]> descriptionBytes = new ArrayList<>(rows.size());
+		long descriptionLength = 0;
+		for (Transaction t : rows) {
+			byte[] bytes = t.getDescription() == null ? new byte[0]
+					: t.getDescription().getBytes(StandardCharsets.UTF_8);
+			descriptionBytes.add(bytes);
+			descriptionLength += bytes.length;
+		}
+		if (beneficiaryCount > Integer.MAX_VALUE || descriptionLength > Integer.MAX_VALUE) {
+			throw new IOException("Zu viele Daten für einen spaltenorientierten Speicher.");
+		}
+
+		final long idCount = beneficiaryCount;
+		final long textLength = descriptionLength;
+		BinaryCodec.writeAtomically(file, os -> {
+			DataOutputStream out = new DataOutputStream(os);
+			int n = rows.size();
+			ByteArrayOutputStream namesBuffer = new ByteArrayOutputStream();
+			DataOutputStream names = new DataOutputStream(namesBuffer);
+			for (Member m : table) {
+				byte[] bytes = m.getName().getBytes(StandardCharsets.UTF_8);
+				names.writeInt(bytes.length);
+				names.write(bytes);
+			}
+			long namesOffset = HEADER_LENGTH;
+			long daysOffset = align(namesOffset + namesBuffer.size());
+			long amountsOffset = align(daysOffset + 4L * n);
+			long payersOffset = align(amountsOffset + 8L * n);
+			long beneficiaryOffsetsOffset = align(payersOffset + 4L * n);
+			long beneficiaryIdsOffset = align(beneficiaryOffsetsOffset + 4L * (n + 1));
+			long sharesOffset = align(beneficiaryIdsOffset + 4L * idCount);
+			long flagsOffset = align(sharesOffset + 8L * idCount);
+			long descriptionOffsetsOffset = align(flagsOffset + n);
+			long descriptionsOffset = align(descriptionOffsetsOffset + 4L * (n + 1));
+
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			header.putInt(MAGIC).putInt(VERSION).putInt(table.size()).putInt(n);
+			header.putLong(idCount).putLong(textLength);
+			header.putLong(namesOffset).putLong(namesBuffer.size());
+			header.putLong(daysOffset).putLong(amountsOffset).putLong(payersOffset);
+			header.putLong(beneficiaryOffsetsOffset).putLong(beneficiaryIdsOffset).putLong(flagsOffset);
+			header.putLong(descriptionOffsetsOffset).putLong(descriptionsOffset).putLong(sharesOffset);
+			out.write(header.array());
+			long position = HEADER_LENGTH;
+
+			namesBuffer.writeTo(out);
+			position += namesBuffer.size();
+			position = pad(out, position, daysOffset);
+			for (Transaction t : rows) {
+				out.writeInt((int) t.getDate().toEpochDay());
+			}
+			position = pad(out, position + 4L * n, amountsOffset);
+			for (Transaction t : rows) {
+				out.writeLong(t.getAmountCents());
+			}
+			position = pad(out, position + 8L * n, payersOffset);
+			for (Transaction t : rows) {
+				out.writeInt(ids.get(t.getPayer()));
+			}
+			position = pad(out, position + 4L * n, beneficiaryOffsetsOffset);
+			int offset = 0;
+			out.writeInt(offset);
+			for (Transaction t : rows) {
+				offset += t.getBeneficiaries().size();
+				out.writeInt(offset);
+			}
+			position = pad(out, position + 4L * (n + 1), beneficiaryIdsOffset);
+			for (Transaction t : rows) {
+				for (Member m : t.getBeneficiaries()) {
+					out.writeInt(ids.get(m));
+				}
+			}
+			position = pad(out, position + 4L * idCount, sharesOffset);
+			for (Transaction t : rows) {
+				for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+					out.writeLong(t.isFirstOccurrence(i) ? t.getShareCents(i) : 0);
+				}
+			}
+			position = pad(out, position + 8L * idCount, flagsOffset);
+			for (Transaction t : rows) {
+				out.writeByte((t.isVerrechnet() ? FLAG_VERRECHNET : 0) | (t.getDescription() != null ? FLAG_DESCRIPTION : 0)
+						| (t.hasCustomShares() ? FLAG_SHARES : 0));
+			}
+			position = pad(out, position + n, descriptionOffsetsOffset);
+			int descriptionOffset = 0;
+			out.writeInt(descriptionOffset);
+			for (byte[] bytes : descriptionBytes) {
+				descriptionOffset += bytes.length;
+				out.writeInt(descriptionOffset);
+			}
+			pad(out, position + 4L * (n + 1), descriptionsOffset);
+			for (byte[] bytes : descriptionBytes) {
+				out.write(bytes);
+			}
+			out.flush();
+		});
+	}
+
+	private static void intern(Member m, Map<Member, Integer> ids, List<Member> table) {
+		if (!ids.containsKey(m)) {
+			ids.put(m, table.size());
+			table.add(m);
+		}
+	}
+
+	private static long align(long offset) {
+		return (offset + 7) & ~7L;
+	}
+
+	private static long pad(DataOutputStream out, long position, long target) throws IOException {
+		while (position < target) {
+			out.writeByte(0);
+			position++;
+		}
+		return position;
+	}
+
+	/**
+	 * Gibt die Anzahl der gespeicherten Transaktionen zurück.
+	 *
+	 * @return Anzahl der Transaktionen
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gibt alle im Speicher vorkommenden Mitglieder zurück.
+	 *
+	 * @return die Mitglieder in der Reihenfolge ihrer IDs
+	 */
+	public List<Member> getMembers() {
+		return List.of(members);
+	}
+
+	/**
+	 * Erzeugt die Transaktion an Position {@code index} (nach Datum sortiert).
+	 *
+	 * @param index Position, {@code 0 <= index < size()}
+	 * @return die Transaktion
+	 */
+	public Transaction get(int index) {
+		int from = beneficiaryOffsets.get(index);
+		int to = beneficiaryOffsets.get(index + 1);
+		List<Member> beneficiaries = new ArrayList<>(to - from);
+		for (int i = from; i < to; i++) {
+			beneficiaries.add(members[beneficiaryIds.get(i)]);
+		}
+		byte rowFlags = flags.get(index);
+		String description = null;
+		if ((rowFlags & FLAG_DESCRIPTION) != 0) {
+			int descriptionFrom = descriptionOffsets.get(index);
+			byte[] bytes = new byte[descriptionOffsets.get(index + 1) - descriptionFrom];
+			descriptions.get(descriptionFrom, bytes);
+			description = new String(bytes, StandardCharsets.UTF_8);
+		}
+		long[] rowShares = null;
+		if ((rowFlags & FLAG_SHARES) != 0) {
+			rowShares = new long[to - from];
+			for (int i = from; i < to; i++) {
+				rowShares[i - from] = shares.get(i);
+			}
+		}
+		Transaction t = new Transaction(LocalDate.ofEpochDay(days.get(index)), Money.ofCents(amounts.get(index)),
+				members[payers.get(index)], beneficiaries, rowShares, description);
+		t.setVerrechnet((rowFlags & FLAG_VERRECHNET) != 0);
+		return t;
+	}
+
+	/**
+	 * Berechnet die Salden aller Mitglieder in einem Durchlauf über die Spalten.
+	 * Die Aufteilung entspricht {@link Ledger#getAllBalances()}.
+	 *
+	 * @return eine Map von Mitglied auf Saldo
+	 */
+	public Map<Member, Money> getAllBalances() {
+		return balancesOf(0, size);
+	}
+
+	/**
+	 * Gibt den Saldo eines Mitglieds zurück.
+	 *
+	 * @param member das Mitglied
+	 * @return der Saldo, {@link Money#ZERO} wenn das Mitglied nicht vorkommt
+	 */
+	public Money getBalance(Member member) {
+		Integer id = memberIds.get(member);
+		return id == null ? Money.ZERO : Money.ofCents(scanBalances(0, size, null)[id]);
+	}
+
+	/**
+	 * Berechnet die Salden aus den Transaktionen eines Zeitraums. Der Zeitraum
+	 * wird per binärer Suche in der Datumsspalte bestimmt.
+	 *
+	 * @param from erstes Datum (einschließlich)
+	 * @param to   letztes Datum (einschließlich)
+	 * @return eine Map von Mitglied auf Saldo im Zeitraum; Mitglieder ohne
+	 *         Transaktionen im Zeitraum sind wie bei
+	 *         {@link Ledger#getBalancesBetween} nicht enthalten
+	 */
+	public Map<Member, Money> getBalancesBetween(LocalDate from, LocalDate to) {
+		if (from.isAfter(to)) {
+			return new HashMap<>();
+		}
+		return balancesOf(lowerBound(from.toEpochDay()), upperBound(to.toEpochDay()));
+	}
+
+	/**
+	 * Sucht alle Transaktionen eines Zeitraums. Nur die Treffer werden als
+	 * Objekte erzeugt.
+	 *
+	 * @param from erstes Datum (einschließlich)
+	 * @param to   letztes Datum (einschließlich)
+	 * @return die Transaktionen, aufsteigend nach Datum
+	 */
+	public List<Transaction> findTransactionsBetween(LocalDate from, LocalDate to) {
+		List<Transaction> result = new ArrayList<>();
+		if (from.isAfter(to)) {
+			return result;
+		}
+		int end = upperBound(to.toEpochDay());
+		for (int i = lowerBound(from.toEpochDay()); i < end; i++) {
+			result.add(get(i));
+		}
+		return result;
+	}
+
+	/**
+	 * Summiert die Salden der Zeilen {@code [from, to)} je Mitglieds-ID. Die
+	 * Anteilsspalte enthält bereits die Belastung je Position (0 für mehrfach
+	 * genannte Begünstigte), daher wird weder geteilt noch nach Duplikaten
+	 * gesucht.
+	 */
+	/**
+	 * Summiert die Salden der Zeilen {@code from} bis ausschließlich {@code to}.
+	 *
+	 * @param active erhält die IDs aller beteiligten Mitglieder; ggf.
+	 *               {@code null}
+	 * @return Saldo in Cent je Mitglieds-ID
+	 */
+	private long[] scanBalances(int from, int to, BitSet active) {
+		long[] saldo = new long[members.length];
+		for (int row = from; row < to; row++) {
+			saldo[payers.get(row)] += amounts.get(row);
+		}
+		int start = beneficiaryOffsets.get(from);
+		int end = beneficiaryOffsets.get(to);
+		for (int i = start; i < end; i++) {
+			saldo[beneficiaryIds.get(i)] -= shares.get(i);
+		}
+		if (active != null) {
+			for (int row = from; row < to; row++) {
+				active.set(payers.get(row));
+			}
+			for (int i = start; i < end; i++) {
+				active.set(beneficiaryIds.get(i));
+			}
+		}
+		return saldo;
+	}
+
+	/**
+	 * Salden der beteiligten Mitglieder in einem Zeilenbereich, wie sie der
+	 * {@link Ledger} liefert.
+	 */
+	private Map<Member, Money> balancesOf(int from, int to) {
+		BitSet active = new BitSet(members.length);
+		long[] saldo = scanBalances(from, to, active);
+		Map<Member, Money> result = new HashMap<>(active.cardinality() * 2);
+		for (int i = active.nextSetBit(0); i >= 0; i = active.nextSetBit(i + 1)) {
+			result.put(members[i], Money.ofCents(saldo[i]));
+		}
+		return result;
+	}
+
+	private int lowerBound(long day) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (days.get(mid) < day) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private int upperBound(long day) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (days.get(mid) > day) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Schließt die zugrunde liegende Datei. Die Einblendungen werden vom
+	 * Garbage Collector freigegeben.
+	 *
+	 * @throws IOException bei einem Fehler beim Schließen
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
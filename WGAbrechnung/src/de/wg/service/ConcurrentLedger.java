@@ -0,0 +1,375 @@
+package de.wg.service;
+
+import de.wg.exception.UngueltigerBetragException;
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-sichere Variante des {@link Ledger} für das gleichzeitige Erfassen von
+ * Transaktionen durch mehrere Clients.
+ * <p>
+ * Transaktionen liegen in einem nur wachsenden Array aus Blöcken, deren Größe
+ * sich von Block zu Block verdoppelt. Ein Schreiber verbucht zuerst die
+ * Salden, reserviert dann seinen Platz ohne Sperre per
+ * {@link AtomicInteger#getAndIncrement()}, legt fehlende Blöcke per CAS an und
+ * schreibt seinen Eintrag. Danach schiebt er die
+ * veröffentlichte Größe per CAS über alle lückenlos beschriebenen Plätze
+ * hinweg, auch über die anderer Schreiber. Kein Schreiber wartet auf einen
+ * anderen: Ist ein Vorgänger noch nicht fertig, wird der eigene Eintrag
+ * sichtbar, sobald der Vorgänger die Größe weiterschiebt. Leser sehen so immer
+ * einen lückenlosen Präfix.
+ * </p>
+ * <p>
+ * {@link #getAllTransactions()} liefert eine Momentaufnahme der zu diesem
+ * Zeitpunkt veröffentlichten Transaktionen. Sie kann gefahrlos durchlaufen
+ * werden, während weitere Transaktionen hinzukommen, und wird dabei nicht
+ * kopiert.
+ * </p>
+ * <p>
+ * Salden werden je Mitglied in einem {@link LongAdder} geführt, damit
+ * gleichzeitige Buchungen auf dasselbe Mitglied nicht um eine Variable
+ * konkurrieren. Eine Transaktion ist in den Salden enthalten, sobald sie
+ * veröffentlicht ist. Während parallel gebucht wird, können die Salden aber
+ * bereits Transaktionen enthalten, die noch nicht in einer Momentaufnahme
+ * sichtbar sind; konsistente Zahlen für eine feste Momentaufnahme liefert
+ * {@link #getBalancesOf(List)}.
+ * </p>
+ * <p>
+ * Sortierte Indizes wie im {@link Ledger} gibt es hier nicht, da sortiertes
+ * Einfügen nicht ohne Sperre möglich ist; Datumsabfragen durchsuchen die
+ * Momentaufnahme. Für die Persistenz wird mit {@link #toLedger()} ein
+ * {@link Ledger} erzeugt.
+ * </p>
+ */
+public class ConcurrentLedger {
+
+	/** Zweierlogarithmus der Größe des ersten Blocks. */
+	private static final int FIRST_BITS = 5;
+
+	/** Größe des ersten Blocks; Block {@code b} fasst {@code FIRST << b} Einträge. */
+	private static final int FIRST = 1 << FIRST_BITS;
+
+	/** Größte mögliche Anzahl an Transaktionen. */
+	private static final int MAX_SIZE = Integer.MAX_VALUE - FIRST;
+
+	/** Blöcke des Arrays; werden bei Bedarf per CAS angelegt. */
+	private final AtomicReferenceArray<AtomicReferenceArray<Transaction>> chunks =
+			new AtomicReferenceArray<>(32 - FIRST_BITS);
+
+	/** Anzahl der reservierten Plätze. */
+	private final AtomicInteger reserved = new AtomicInteger();
+
+	/** Anzahl der veröffentlichten, für Leser sichtbaren Transaktionen. */
+	private final AtomicInteger published = new AtomicInteger();
+
+	/** Laufende Salden in Cent je Mitglied. */
+	private final ConcurrentHashMap<Member, LongAdder> balances = new ConcurrentHashMap<>();
+
+	/**
+	 * Erstellt einen leeren {@code ConcurrentLedger}.
+	 */
+	public ConcurrentLedger() {
+	}
+
+	/**
+	 * Erstellt einen {@code ConcurrentLedger} mit allen Transaktionen eines
+	 * bestehenden {@link Ledger} in dessen Erfassungsreihenfolge.
+	 *
+	 * @param ledger der zu übernehmende Ledger
+	 * @return der neue {@code ConcurrentLedger}
+	 */
+	public static ConcurrentLedger copyOf(Ledger ledger) {
+		ConcurrentLedger copy = new ConcurrentLedger();
+		for (Transaction t : ledger.getAllTransactions()) {
+			copy.append(t);
+		}
+		return copy;
+	}
+
+	/**
+	 * Fügt eine neue Transaktion hinzu. Kann von beliebig vielen Threads
+	 * gleichzeitig aufgerufen werden.
+	 *
+	 * @param t die hinzuzufügende Transaktion
+	 * @throws IllegalArgumentException   wenn {@code t} {@code null} ist
+	 * @throws UngueltigerBetragException wenn der Betrag der Transaktion kleiner
+	 *                                    oder gleich null ist
+	 * @throws IllegalStateException      wenn die Höchstzahl an Transaktionen
+	 *                                    erreicht ist
+	 */
+	public void addTransaction(Transaction t) throws UngueltigerBetragException {
+		if (t == null) {
+			throw new IllegalArgumentException("Transaktion darf nicht null sein");
+		}
+		if (t.getAmountCents() <= 0) {
+			throw new UngueltigerBetragException("Der Betrag muss größer als 0 sein");
+		}
+		append(t);
+	}
+
+	/**
+	 * Verbucht die Salden, reserviert einen Platz, schreibt die Transaktion und
+	 * schiebt die veröffentlichte Größe weiter. Die Salden werden vor dem
+	 * Schreiben verbucht, damit jede sichtbare Transaktion in den Salden
+	 * enthalten ist, und vor dem Reservieren, damit ein Fehler dabei keinen
+	 * leeren Platz hinterlässt: An einem nie beschriebenen Platz bliebe die
+	 * veröffentlichte Größe für immer stehen.
+	 *
+	 * @param t die bereits geprüfte Transaktion
+	 */
+	private void append(Transaction t) {
+		applyTo(t, 1);
+		int index = reserved.getAndIncrement();
+		if (index < 0 || index >= MAX_SIZE) {
+			applyTo(t, -1);
+			throw new IllegalStateException("Maximale Anzahl an Transaktionen erreicht");
+		}
+		int pos = index + FIRST;
+		chunk(bucket(pos)).set(pos - Integer.highestOneBit(pos), t);
+		advancePublished();
+	}
+
+	/**
+	 * Schiebt die veröffentlichte Größe über alle bereits beschriebenen Plätze
+	 * hinweg. Bricht am ersten noch leeren Platz ab; dessen Schreiber schiebt
+	 * später selbst weiter.
+	 */
+	private void advancePublished() {
+		int size = published.get();
+		while (size < MAX_SIZE) {
+			int pos = size + FIRST;
+			AtomicReferenceArray<Transaction> chunk = chunks.get(bucket(pos));
+			if (chunk == null || chunk.get(pos - Integer.highestOneBit(pos)) == null) {
+				return;
+			}
+			if (published.compareAndSet(size, size + 1)) {
+				size++;
+			} else {
+				size = published.get();
+			}
+		}
+	}
+
+	/**
+	 * Berechnet den Block zu einer Position.
+	 *
+	 * @param pos Index plus {@link #FIRST}
+	 * @return Nummer des Blocks
+	 */
+	private static int bucket(int pos) {
+		return 31 - Integer.numberOfLeadingZeros(pos) - FIRST_BITS;
+	}
+
+	/**
+	 * Gibt einen Block zurück und legt ihn bei Bedarf an.
+	 *
+	 * @param bucket Nummer des Blocks
+	 * @return der Block
+	 */
+	private AtomicReferenceArray<Transaction> chunk(int bucket) {
+		AtomicReferenceArray<Transaction> chunk = chunks.get(bucket);
+		if (chunk == null) {
+			AtomicReferenceArray<Transaction> neu = new AtomicReferenceArray<>(FIRST << bucket);
+			chunk = chunks.compareAndSet(bucket, null, neu) ? neu : chunks.get(bucket);
+		}
+		return chunk;
+	}
+
+	/**
+	 * Liest den Eintrag an einer bereits veröffentlichten Position.
+	 *
+	 * @param index die Position
+	 * @return die Transaktion
+	 */
+	private Transaction get(int index) {
+		int pos = index + FIRST;
+		return chunks.get(bucket(pos)).get(pos - Integer.highestOneBit(pos));
+	}
+
+	/**
+	 * Schreibt die Salden fort: Der Zahler erhält den Betrag, jeder
+	 * Begünstigte wird einmal mit seinem Anteil belastet (wie im
+	 * {@link Ledger}).
+	 *
+	 * @param t    die zu verbuchende Transaktion
+	 * @param sign 1 zum Verbuchen, -1 zum Zurücknehmen
+	 */
+	private void applyTo(Transaction t, int sign) {
+		adder(t.getPayer()).add(sign * t.getAmountCents());
+		for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+			if (t.isFirstOccurrence(i)) {
+				adder(t.getBeneficiary(i)).add(-sign * t.getShareCents(i));
+			}
+		}
+	}
+
+	private LongAdder adder(Member member) {
+		LongAdder adder = balances.get(member);
+		return adder != null ? adder : balances.computeIfAbsent(member, m -> new LongAdder());
+	}
+
+	/**
+	 * Gibt die Anzahl der veröffentlichten Transaktionen zurück. Eine gerade
+	 * hinzugefügte Transaktion ist mitgezählt, sobald alle zuvor begonnenen
+	 * Buchungen anderer Threads abgeschlossen sind.
+	 *
+	 * @return die Anzahl
+	 */
+	public int size() {
+		return published.get();
+	}
+
+	/**
+	 * Gibt eine unveränderliche Momentaufnahme aller bisher veröffentlichten
+	 * Transaktionen in Erfassungsreihenfolge zurück. Später hinzugefügte
+	 * Transaktionen erscheinen darin nicht.
+	 *
+	 * @return die Momentaufnahme
+	 */
+	public List<Transaction> getAllTransactions() {
+		return new Snapshot(published.get());
+	}
+
+	/**
+	 * Gibt den aktuellen Saldo eines Mitglieds zurück.
+	 *
+	 * @param member das Mitglied
+	 * @return der Saldo (positiv = Guthaben, negativ = Schulden)
+	 */
+	public Money getBalance(Member member) {
+		return Money.ofCents(getBalanceCents(member));
+	}
+
+	/**
+	 * Gibt den aktuellen Saldo eines Mitglieds in Cent zurück.
+	 *
+	 * @param member das Mitglied
+	 * @return der Saldo in Cent
+	 */
+	public long getBalanceCents(Member member) {
+		LongAdder adder = balances.get(member);
+		return adder == null ? 0 : adder.sum();
+	}
+
+	/**
+	 * Gibt die aktuellen Salden aller beteiligten Mitglieder zurück. Während
+	 * parallel gebucht wird, ist die Summe nicht notwendigerweise null.
+	 *
+	 * @return eine Map von Mitglied auf Saldo
+	 */
+	public Map<Member, Money> getAllBalances() {
+		Map<Member, Money> result = new HashMap<>(balances.size() * 2);
+		for (Map.Entry<Member, LongAdder> e : balances.entrySet()) {
+			result.put(e.getKey(), Money.ofCents(e.getValue().sum()));
+		}
+		return result;
+	}
+
+	/**
+	 * Berechnet die Salden genau für die übergebenen Transaktionen, z.B. für
+	 * eine Momentaufnahme aus {@link #getAllTransactions()}.
+	 *
+	 * @param transactions die Transaktionen
+	 * @return eine Map von Mitglied auf Saldo
+	 */
+	public static Map<Member, Money> getBalancesOf(List<Transaction> transactions) {
+		Map<Member, long[]> cents = new HashMap<>();
+		for (Transaction t : transactions) {
+			cents.computeIfAbsent(t.getPayer(), m -> new long[1])[0] += t.getAmountCents();
+			for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+				if (t.isFirstOccurrence(i)) {
+					cents.computeIfAbsent(t.getBeneficiary(i), k -> new long[1])[0]
+							-= t.getShareCents(i);
+				}
+			}
+		}
+		Map<Member, Money> result = new HashMap<>(cents.size() * 2);
+		for (Map.Entry<Member, long[]> e : cents.entrySet()) {
+			result.put(e.getKey(), Money.ofCents(e.getValue()[0]));
+		}
+		return result;
+	}
+
+	/**
+	 * Sucht alle Transaktionen an einem Datum.
+	 *
+	 * @param date das Datum
+	 * @return die Transaktionen in Erfassungsreihenfolge
+	 */
+	public List<Transaction> findTransactionsByDate(LocalDate date) {
+		return findTransactionsBetween(date, date);
+	}
+
+	/**
+	 * Sucht alle Transaktionen in einem Zeitraum. Durchsucht eine Momentaufnahme
+	 * linear.
+	 *
+	 * @param from erstes Datum (einschließlich)
+	 * @param to   letztes Datum (einschließlich)
+	 * @return die Transaktionen in Erfassungsreihenfolge
+	 */
+	public List<Transaction> findTransactionsBetween(LocalDate from, LocalDate to) {
+		List<Transaction> result = new ArrayList<>();
+		for (Transaction t : getAllTransactions()) {
+			if (!t.getDate().isBefore(from) && !t.getDate().isAfter(to)) {
+				result.add(t);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Überträgt eine Momentaufnahme in einen neuen {@link Ledger}, z.B. zum
+	 * Speichern.
+	 *
+	 * @return der neue Ledger
+	 */
+	public Ledger toLedger() {
+		Ledger ledger = new Ledger();
+		for (Transaction t : getAllTransactions()) {
+			try {
+				ledger.addTransaction(t);
+			} catch (UngueltigerBetragException e) {
+				throw new IllegalStateException(e.getMessage(), e);
+			}
+		}
+		return ledger;
+	}
+
+	/**
+	 * Unveränderliche Sicht auf die ersten {@code size} Transaktionen.
+	 */
+	private final class Snapshot extends AbstractList<Transaction> implements RandomAccess {
+		private final int size;
+
+		Snapshot(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public Transaction get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index " + index + " bei Größe " + size);
+			}
+			return ConcurrentLedger.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
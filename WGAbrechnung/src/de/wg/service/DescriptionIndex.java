@@ -0,0 +1,248 @@
+package de.wg.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Invertierter Index über die Beschreibungen der Transaktionen eines
+ * {@link Ledger}: je Wort die aufsteigenden laufenden Nummern der
+ * Transaktionen, deren Beschreibung es enthält.
+ * <p>
+ * Wörter werden klein geschrieben und Umlaute gefaltet (ä &rarr; ae,
+ * ö &rarr; oe, ü &rarr; ue, ß &rarr; ss), sodass "März" und "Maerz" dasselbe
+ * Wort sind. Gesucht wird nach Wortanfängen; alle Wörter einer Anfrage müssen
+ * vorkommen.
+ * </p>
+ * <p>
+ * Transaktionen werden nur angehängt. Die Listen wachsen daher nur am Ende,
+ * und {@link #copy()} kann sie ohne Kopieren der Einträge für einen Snapshot
+ * festhalten, während der Ledger weiter bucht.
+ * </p>
+ */
+final class DescriptionIndex {
+
+	/** Wort &rarr; laufende Nummern; sortiert, damit Wortanfänge per Bereich gefunden werden. */
+	private final TreeMap<String, Postings> postings;
+
+	/** Anzahl der erfassten laufenden Nummern, d.h. die nächste erwartete Nummer. */
+	private int size;
+
+	DescriptionIndex() {
+		this.postings = new TreeMap<>();
+	}
+
+	/**
+	 * Nimmt die Beschreibung einer Transaktion auf. Bereits erfasste laufende
+	 * Nummern (z.B. aus einem gespeicherten Index) werden übersprungen.
+	 *
+	 * @param seq         laufende Nummer der Transaktion
+	 * @param description ihre Beschreibung, ggf. {@code null}
+	 */
+	void add(int seq, String description) {
+		if (seq < size) {
+			return;
+		}
+		for (String token : tokenize(description)) {
+			postings.computeIfAbsent(token, k -> new Postings()).add(seq);
+		}
+		size = seq + 1;
+	}
+
+	/**
+	 * @return Anzahl der erfassten laufenden Nummern
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Sucht Transaktionen, deren Beschreibung zu jedem Wort der Anfrage ein
+	 * Wort mit diesem Anfang enthält.
+	 *
+	 * @param tokens die Wörter der Anfrage, bereits mit {@link #tokenize(String)}
+	 *               zerlegt; nicht leer
+	 * @return die laufenden Nummern der Treffer
+	 */
+	BitSet search(List<String> tokens) {
+		BitSet result = null;
+		for (String token : tokens) {
+			BitSet matches = new BitSet(size);
+			for (Postings p : postings.subMap(token, token + Character.MAX_VALUE).values()) {
+				for (int i = 0; i < p.size; i++) {
+					matches.set(p.seqs[i]);
+				}
+			}
+			if (result == null) {
+				result = matches;
+			} else {
+				result.and(matches);
+			}
+			if (result.isEmpty()) {
+				break;
+			}
+		}
+		return result != null ? result : new BitSet();
+	}
+
+	/**
+	 * Schätzt die Trefferzahl einer Anfrage nach oben ab: die kleinste Summe
+	 * der Listenlängen über die Wörter der Anfrage. Liest nur die Längen.
+	 *
+	 * @param tokens die Wörter der Anfrage
+	 * @return obere Schranke der Trefferzahl
+	 */
+	int estimate(List<String> tokens) {
+		long best = Long.MAX_VALUE;
+		for (String token : tokens) {
+			long count = 0;
+			for (Postings p : postings.subMap(token, token + Character.MAX_VALUE).values()) {
+				count += p.size;
+			}
+			best = Math.min(best, count);
+		}
+		return (int) Math.min(best, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Prüft eine einzelne Beschreibung ohne Index, mit denselben Regeln wie
+	 * {@link #search(List)}.
+	 *
+	 * @param tokens      die Wörter der Anfrage
+	 * @param description die Beschreibung, ggf. {@code null}
+	 * @return ob zu jedem Wort der Anfrage ein Wort mit diesem Anfang vorkommt
+	 */
+	static boolean matches(List<String> tokens, String description) {
+		List<String> words = tokenize(description);
+		for (String token : tokens) {
+			boolean found = false;
+			for (int i = 0; i < words.size() && !found; i++) {
+				found = words.get(i).startsWith(token);
+			}
+			if (!found) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Hält den aktuellen Stand fest. Die Einträge werden nicht kopiert, da
+	 * dieser Index sie nur hinter dem festgehaltenen Ende ergänzt.
+	 *
+	 * @return ein unabhängiger Index mit demselben Inhalt
+	 */
+	DescriptionIndex copy() {
+		DescriptionIndex copy = new DescriptionIndex();
+		for (Map.Entry<String, Postings> e : postings.entrySet()) {
+			copy.postings.put(e.getKey(), new Postings(e.getValue().seqs, e.getValue().size));
+		}
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * @return Wort &rarr; laufende Nummern, nur lesend zu verwenden (für den
+	 *         {@link BinaryCodec})
+	 */
+	Map<String, Postings> postings() {
+		return Collections.unmodifiableMap(postings);
+	}
+
+	/**
+	 * Übernimmt einen gelesenen Index. Nur für den {@link BinaryCodec}.
+	 *
+	 * @param token das Wort
+	 * @param seqs  aufsteigende laufende Nummern
+	 * @param count Anzahl gültiger Einträge in {@code seqs}
+	 */
+	void put(String token, int[] seqs, int count) {
+		postings.put(token, new Postings(seqs, count));
+	}
+
+	/**
+	 * Setzt die Anzahl der erfassten laufenden Nummern nach dem Lesen. Nur für
+	 * den {@link BinaryCodec}.
+	 *
+	 * @param size die Anzahl
+	 */
+	void setSize(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Zerlegt einen Text in Wörter aus Buchstaben und Ziffern, klein
+	 * geschrieben und mit gefalteten Umlauten. Jedes Wort kommt nur einmal vor.
+	 *
+	 * @param text der Text, ggf. {@code null}
+	 * @return die Wörter in der Reihenfolge ihres ersten Auftretens
+	 */
+	static List<String> tokenize(String text) {
+		if (text == null || text.isEmpty()) {
+			return Collections.emptyList();
+		}
+		Set<String> tokens = new LinkedHashSet<>();
+		StringBuilder token = new StringBuilder();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isLetterOrDigit(c)) {
+				c = Character.toLowerCase(c);
+				switch (c) {
+				case 'ä':
+					token.append("ae");
+					break;
+				case 'ö':
+					token.append("oe");
+					break;
+				case 'ü':
+					token.append("ue");
+					break;
+				case 'ß':
+					token.append("ss");
+					break;
+				default:
+					token.append(c);
+				}
+			} else if (token.length() > 0) {
+				tokens.add(token.toString());
+				token.setLength(0);
+			}
+		}
+		if (token.length() > 0) {
+			tokens.add(token.toString());
+		}
+		return new ArrayList<>(tokens);
+	}
+
+	/**
+	 * Aufsteigende laufende Nummern zu einem Wort. Wächst nur am Ende; beim
+	 * Vergrößern wird ein neues Array angelegt, sodass festgehaltene Stände
+	 * gültig bleiben.
+	 */
+	static final class Postings {
+		int[] seqs;
+		int size;
+
+		Postings() {
+			this.seqs = new int[2];
+		}
+
+		Postings(int[] seqs, int size) {
+			this.seqs = seqs;
+			this.size = size;
+		}
+
+		void add(int seq) {
+			if (size == seqs.length) {
+				seqs = Arrays.copyOf(seqs, size * 2);
+			}
+			seqs[size++] = seq;
+		}
+	}
+}
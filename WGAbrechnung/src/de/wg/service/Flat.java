@@ -0,0 +1,167 @@
+package de.wg.service;
+
+import de.wg.model.Money;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Eine einzelne WG innerhalb einer Installation mit mehreren WGs (siehe
+ * {@link FlatManager}). Jede WG hat ein eigenes Verzeichnis mit eigenem
+ * Ledger samt Journal, eigenen Mitgliedern, Benutzern und wiederkehrenden
+ * Ausgaben; die Dateinamen entsprechen denen der Einzelinstallation.
+ * <p>
+ * Instanzen werden nur vom {@link FlatManager} erzeugt. Eine WG sollte nicht
+ * über längere Zeit festgehalten werden: nach einer Leerlaufzeit wird sie
+ * gespeichert und aus dem Speicher entfernt, spätere Änderungen an der alten
+ * Instanz gehen dann außer im Ledger-Journal verloren. Stattdessen wird sie
+ * bei jedem Zugriff über {@link FlatManager#get(String)} geholt oder für
+ * mehrere Schritte mit {@link FlatManager#withFlat(String,
+ * java.util.function.Function)} verwendet.
+ * </p>
+ */
+public final class Flat {
+
+	/** Datei der Mitglieder im WG-Verzeichnis. */
+	static final String MEMBERS_FILE = "members.bin";
+	/** Datei der Transaktionen im WG-Verzeichnis; das Journal liegt daneben. */
+	static final String LEDGER_FILE = "ledger.bin";
+	/** Datei der Benutzer im WG-Verzeichnis. */
+	static final String USERS_FILE = "users.bin";
+	/** Datei der wiederkehrenden Ausgaben im WG-Verzeichnis. */
+	static final String RECURRING_FILE = "recurring.ser";
+
+	private final String id;
+	private final Path directory;
+	private final Ledger ledger;
+	private final MemberManager memberManager;
+	private final UserManager userManager;
+	private final RecurringScheduler recurringScheduler;
+
+	/** Zeitpunkt des letzten Zugriffs nach {@link System#nanoTime()}. */
+	private volatile long lastAccess;
+
+	private Flat(String id, Path directory, Ledger ledger, MemberManager memberManager, UserManager userManager,
+			RecurringScheduler recurringScheduler) {
+		this.id = id;
+		this.directory = directory;
+		this.ledger = ledger;
+		this.memberManager = memberManager;
+		this.userManager = userManager;
+		this.recurringScheduler = recurringScheduler;
+		touch();
+	}
+
+	/**
+	 * Lädt eine WG aus ihrem Verzeichnis. Fehlende Dateien ergeben leere
+	 * Verwaltungen; die Konten der Mitglieder werden an den Ledger gebunden.
+	 *
+	 * @param id        Kennung der WG
+	 * @param directory Verzeichnis der WG; muss existieren
+	 * @return die geladene WG
+	 * @throws IOException            bei einem Fehler beim Lesen
+	 * @throws ClassNotFoundException wenn eine Klasse nicht gefunden wird
+	 */
+	static Flat load(String id, Path directory) throws IOException, ClassNotFoundException {
+		MemberManager memberManager = MemberManager.loadFromFile(file(directory, MEMBERS_FILE));
+		Ledger ledger = Ledger.loadFromFile(file(directory, LEDGER_FILE));
+		UserManager userManager = UserManager.loadFromFile(file(directory, USERS_FILE));
+		RecurringScheduler recurringScheduler = RecurringScheduler.loadFromFile(file(directory, RECURRING_FILE));
+		ledger.bindAccounts(memberManager);
+		return new Flat(id, directory, ledger, memberManager, userManager, recurringScheduler);
+	}
+
+	private static String file(Path directory, String name) {
+		return directory.resolve(name).toString();
+	}
+
+	/**
+	 * Speichert alle Verwaltungen der WG. Der Ledger schreibt nur dann einen
+	 * Snapshot, wenn sein Journal kompaktiert werden muss.
+	 *
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	void save() throws IOException {
+		memberManager.saveToFile(file(directory, MEMBERS_FILE));
+		ledger.saveToFile(file(directory, LEDGER_FILE));
+		userManager.saveToFile(file(directory, USERS_FILE));
+		recurringScheduler.saveToFile(file(directory, RECURRING_FILE));
+	}
+
+	/**
+	 * Vermerkt einen Zugriff.
+	 */
+	void touch() {
+		lastAccess = System.nanoTime();
+	}
+
+	/**
+	 * @return Zeitpunkt des letzten Zugriffs nach {@link System#nanoTime()}
+	 */
+	long getLastAccess() {
+		return lastAccess;
+	}
+
+	/**
+	 * Summiert die Schulden aller Mitglieder, also die Beträge der negativen
+	 * Salden.
+	 *
+	 * @return die Gesamtschulden der WG, nicht negativ
+	 */
+	public Money getTotalDebt() {
+		long cents = 0;
+		for (Money saldo : ledger.getAllBalances().values()) {
+			if (saldo.getCents() < 0) {
+				cents -= saldo.getCents();
+			}
+		}
+		return Money.ofCents(cents);
+	}
+
+	/**
+	 * @return Kennung der WG
+	 */
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * @return Verzeichnis der WG
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @return der Ledger der WG
+	 */
+	public Ledger getLedger() {
+		return ledger;
+	}
+
+	/**
+	 * @return die Mitglieder der WG
+	 */
+	public MemberManager getMemberManager() {
+		return memberManager;
+	}
+
+	/**
+	 * @return die Benutzer der WG
+	 */
+	public UserManager getUserManager() {
+		return userManager;
+	}
+
+	/**
+	 * @return die wiederkehrenden Ausgaben der WG
+	 */
+	public RecurringScheduler getRecurringScheduler() {
+		return recurringScheduler;
+	}
+
+	@Override
+	public String toString() {
+		return "WG " + id;
+	}
+}
@@ -0,0 +1,425 @@
+package de.wg.service;
+
+import de.wg.model.Money;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Mandantenschicht für eine Installation mit vielen WGs. Jede WG ({@link Flat})
+ * liegt in einem eigenen Unterverzeichnis des Wurzelverzeichnisses und hat
+ * eigenen Ledger, eigene Mitglieder und Benutzer.
+ * <p>
+ * WGs werden erst beim ersten Zugriff über {@link #get(String)} geladen. Eine
+ * WG, auf die länger als die Leerlaufzeit nicht zugegriffen wurde, wird von
+ * einem Hintergrund-Thread gespeichert und aus dem Speicher entfernt; der
+ * nächste Zugriff lädt sie neu. Laden und Entfernen sind je WG
+ * synchronisiert, verschiedene WGs werden unabhängig voneinander geladen.
+ * </p>
+ * <p>
+ * Eine über {@link #get(String)} geholte WG darf nicht länger festgehalten
+ * werden: Wird sie entfernt, lädt der nächste Zugriff eine zweite Instanz auf
+ * demselben Journal. Wer mehrere Schritte mit einer WG ausführt, nutzt
+ * {@link #withFlat(String, Function)}; solange der Aufruf läuft, wird die WG
+ * nicht entfernt.
+ * </p>
+ * <p>
+ * Abfragen über alle WGs (z.B. {@link #getTotalDebt()}) werden mit einem
+ * eigenen {@link ForkJoinPool} parallel auf die WGs verteilt. Nicht geladene
+ * WGs werden dafür geladen und später wie gewohnt wieder entfernt.
+ * </p>
+ * <p>
+ * Jede WG hat eigene Mitglieder und eine eigene
+ * {@link de.wg.model.MemberRegistry}; gleichnamige Mitglieder verschiedener
+ * WGs teilen sich weder IDs noch Instanzen. Wird eine WG entfernt, werden
+ * ihre Mitglieder mit ihr freigegeben.
+ * </p>
+ */
+public class FlatManager implements AutoCloseable {
+
+	/** Standard-Leerlaufzeit, nach der eine WG entfernt wird. */
+	public static final Duration DEFAULT_MAX_IDLE = Duration.ofMinutes(30);
+
+	/** Erlaubte Kennungen; schließt Pfadangaben wie {@code ..} aus. */
+	private static final Pattern ID_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+	private final Path root;
+	private final long maxIdleNanos;
+	private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+	private final ForkJoinPool pool;
+	private final ScheduledExecutorService evictor;
+
+	/**
+	 * Platz einer WG in {@link #slots}. Sperrt Laden und Entfernen derselben WG
+	 * gegeneinander.
+	 */
+	private static final class Slot {
+		Flat flat;
+		/** Gesetzt, sobald der Platz aus {@link #slots} entfernt wurde. */
+		boolean evicted;
+		/** Anzahl laufender {@link #withFlat}-Aufrufe; solange größer 0, bleibt die WG geladen. */
+		int leases;
+	}
+
+	/**
+	 * Erstellt die Verwaltung mit Standard-Leerlaufzeit und einem Thread je
+	 * Prozessorkern für Abfragen über alle WGs.
+	 *
+	 * @param root Wurzelverzeichnis; wird bei Bedarf angelegt
+	 * @throws IOException wenn das Verzeichnis nicht angelegt werden kann
+	 */
+	public FlatManager(Path root) throws IOException {
+		this(root, DEFAULT_MAX_IDLE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Erstellt die Verwaltung.
+	 *
+	 * @param root        Wurzelverzeichnis; wird bei Bedarf angelegt
+	 * @param maxIdle     Leerlaufzeit, nach der eine WG gespeichert und entfernt
+	 *                    wird
+	 * @param parallelism Anzahl der Threads für Abfragen über alle WGs
+	 * @throws IOException wenn das Verzeichnis nicht angelegt werden kann
+	 */
+	public FlatManager(Path root, Duration maxIdle, int parallelism) throws IOException {
+		if (maxIdle.isNegative() || parallelism < 1) {
+			throw new IllegalArgumentException("Leerlaufzeit und Parallelität müssen positiv sein.");
+		}
+		this.root = Files.createDirectories(root);
+		this.maxIdleNanos = maxIdle.toNanos();
+		this.pool = new ForkJoinPool(parallelism);
+		this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "wg-verdraengung");
+			t.setDaemon(true);
+			return t;
+		});
+		long period = Math.max(1, maxIdle.toMillis() / 2);
+		evictor.scheduleWithFixedDelay(this::evictQuietly, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Legt eine neue, leere WG an.
+	 *
+	 * @param id Kennung der WG (Buchstaben, Ziffern, {@code _} und {@code -})
+	 * @return die neue WG
+	 * @throws IOException              bei einem Fehler beim Anlegen
+	 * @throws IllegalArgumentException wenn die Kennung ungültig oder bereits
+	 *                                  vergeben ist
+	 */
+	public Flat create(String id) throws IOException {
+		Path directory = directoryOf(id);
+		try {
+			Files.createDirectory(directory);
+		} catch (FileAlreadyExistsException e) {
+			throw new IllegalArgumentException("WG '" + id + "' existiert bereits.");
+		}
+		return get(id);
+	}
+
+	/**
+	 * Gibt eine WG zurück und lädt sie beim ersten Zugriff. Jeder Aufruf zählt
+	 * als Zugriff für die Leerlaufzeit.
+	 *
+	 * @param id Kennung der WG
+	 * @return die WG
+	 * @throws IOException              bei einem Fehler beim Laden
+	 * @throws IllegalArgumentException wenn die Kennung ungültig ist oder die WG
+	 *                                  nicht existiert
+	 */
+	public Flat get(String id) throws IOException {
+		return open(id, false).flat;
+	}
+
+	/**
+	 * Führt eine Aktion mit einer WG aus und lädt sie bei Bedarf. Solange die
+	 * Aktion läuft, wird die WG nicht entfernt, sodass alle Schritte auf
+	 * derselben Instanz arbeiten. Die WG darf nach dem Aufruf nicht weiter
+	 * verwendet werden.
+	 *
+	 * @param <R>    Ergebnistyp
+	 * @param id     Kennung der WG
+	 * @param action die Aktion
+	 * @return das Ergebnis der Aktion
+	 * @throws IOException              bei einem Fehler beim Laden
+	 * @throws IllegalArgumentException wenn die Kennung ungültig ist oder die WG
+	 *                                  nicht existiert
+	 */
+	public <R> R withFlat(String id, Function<Flat, R> action) throws IOException {
+		Slot slot = open(id, true);
+		try {
+			return action.apply(slot.flat);
+		} finally {
+			synchronized (slot) {
+				slot.leases--;
+				slot.flat.touch();
+			}
+		}
+	}
+
+	/**
+	 * Holt den Platz einer WG, lädt sie bei Bedarf und vermerkt den Zugriff.
+	 *
+	 * @param lease ob der Platz bis zur Freigabe nicht entfernt werden darf
+	 */
+	private Slot open(String id, boolean lease) throws IOException {
+		Path directory = directoryOf(id);
+		while (true) {
+			Slot slot = slots.computeIfAbsent(id, k -> new Slot());
+			synchronized (slot) {
+				if (slot.evicted) {
+					continue;
+				}
+				if (slot.flat == null) {
+					try {
+						slot.flat = load(id, directory);
+					} finally {
+						if (slot.flat == null) {
+							// ein Platz ohne WG bleibt nicht in slots stehen
+							slot.evicted = true;
+							slots.remove(id, slot);
+						}
+					}
+				}
+				slot.flat.touch();
+				if (lease) {
+					slot.leases++;
+				}
+				return slot;
+			}
+		}
+	}
+
+	private static Flat load(String id, Path directory) throws IOException {
+		if (!Files.isDirectory(directory)) {
+			throw new IllegalArgumentException("Unbekannte WG '" + id + "'.");
+		}
+		try {
+			return Flat.load(id, directory);
+		} catch (ClassNotFoundException e) {
+			throw new IOException("WG '" + id + "' konnte nicht geladen werden.", e);
+		}
+	}
+
+	/**
+	 * Prüft, ob eine WG existiert (geladen oder nicht).
+	 *
+	 * @param id Kennung der WG
+	 * @return {@code true}, wenn es ihr Verzeichnis gibt
+	 */
+	public boolean exists(String id) {
+		return ID_PATTERN.matcher(id).matches() && Files.isDirectory(root.resolve(id));
+	}
+
+	/**
+	 * @return Kennungen aller WGs, sortiert
+	 * @throws IOException wenn das Wurzelverzeichnis nicht gelesen werden kann
+	 */
+	public List<String> getFlatIds() throws IOException {
+		List<String> ids = new ArrayList<>();
+		try (Stream<Path> entries = Files.list(root)) {
+			entries.filter(Files::isDirectory).map(p -> p.getFileName().toString())
+					.filter(name -> ID_PATTERN.matcher(name).matches()).forEach(ids::add);
+		}
+		Collections.sort(ids);
+		return ids;
+	}
+
+	/**
+	 * @return Anzahl der aktuell geladenen WGs
+	 */
+	public int getLoadedCount() {
+		return slots.size();
+	}
+
+	private Path directoryOf(String id) {
+		if (id == null || !ID_PATTERN.matcher(id).matches()) {
+			throw new IllegalArgumentException("Ungültige WG-Kennung '" + id + "'.");
+		}
+		return root.resolve(id);
+	}
+
+	/**
+	 * Speichert und entfernt alle WGs, auf die länger als die Leerlaufzeit
+	 * nicht zugegriffen wurde und die gerade nicht in
+	 * {@link #withFlat(String, Function)} verwendet werden. Wird regelmäßig im
+	 * Hintergrund aufgerufen.
+	 *
+	 * @return Anzahl der entfernten WGs
+	 * @throws IOException wenn eine WG nicht gespeichert werden kann; sie bleibt
+	 *                     dann geladen, die übrigen werden weiter geprüft
+	 */
+	public int evictIdle() throws IOException {
+		long now = System.nanoTime();
+		int count = 0;
+		IOException error = null;
+		for (Map.Entry<String, Slot> e : slots.entrySet()) {
+			Slot slot = e.getValue();
+			synchronized (slot) {
+				if (slot.evicted || slot.flat == null || slot.leases > 0
+						|| now - slot.flat.getLastAccess() < maxIdleNanos) {
+					continue;
+				}
+				try {
+					slot.flat.save();
+				} catch (IOException ex) {
+					if (error == null) {
+						error = ex;
+					} else {
+						error.addSuppressed(ex);
+					}
+					continue;
+				}
+				slot.evicted = true;
+				slots.remove(e.getKey(), slot);
+				count++;
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+		return count;
+	}
+
+	private void evictQuietly() {
+		try {
+			evictIdle();
+		} catch (IOException | RuntimeException e) {
+			System.err.println("WGs konnten nicht entfernt werden: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Wertet eine Abfrage parallel für alle WGs aus. Die WGs werden rekursiv in
+	 * Hälften aufgeteilt und im {@link ForkJoinPool} dieser Verwaltung
+	 * abgearbeitet.
+	 *
+	 * @param <R>   Ergebnistyp je WG
+	 * @param query die Abfrage; muss threadsicher sein
+	 * @return Ergebnis je WG-Kennung
+	 * @throws IOException wenn die WGs nicht aufgelistet oder geladen werden
+	 *                     können
+	 */
+	public <R> Map<String, R> queryAll(Function<Flat, R> query) throws IOException {
+		List<String> ids = getFlatIds();
+		try {
+			return pool.invoke(new FanOut<>(ids, 0, ids.size(), query));
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Berechnet die Schulden je WG (siehe {@link Flat#getTotalDebt()}).
+	 *
+	 * @return Schulden je WG-Kennung
+	 * @throws IOException wenn eine WG nicht geladen werden kann
+	 */
+	public Map<String, Money> getDebtPerFlat() throws IOException {
+		return queryAll(Flat::getTotalDebt);
+	}
+
+	/**
+	 * Summiert die Schulden aller WGs.
+	 *
+	 * @return die Gesamtschulden
+	 * @throws IOException wenn eine WG nicht geladen werden kann
+	 */
+	public Money getTotalDebt() throws IOException {
+		long cents = 0;
+		for (Money debt : getDebtPerFlat().values()) {
+			cents = Math.addExact(cents, debt.getCents());
+		}
+		return Money.ofCents(cents);
+	}
+
+	/**
+	 * Teilaufgabe über die WGs {@code ids[from, to)}.
+	 */
+	private final class FanOut<R> extends RecursiveTask<Map<String, R>> {
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> ids;
+		private final int from;
+		private final int to;
+		private final Function<Flat, R> query;
+
+		FanOut(List<String> ids, int from, int to, Function<Flat, R> query) {
+			this.ids = ids;
+			this.from = from;
+			this.to = to;
+			this.query = query;
+		}
+
+		@Override
+		protected Map<String, R> compute() {
+			if (to - from == 1) {
+				String id = ids.get(from);
+				Map<String, R> result = new HashMap<>();
+				try {
+					result.put(id, withFlat(id, query));
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				return result;
+			}
+			if (to == from) {
+				return new HashMap<>();
+			}
+			int mid = (from + to) >>> 1;
+			FanOut<R> left = new FanOut<>(ids, from, mid, query);
+			left.fork();
+			Map<String, R> result = new FanOut<>(ids, mid, to, query).compute();
+			result.putAll(left.join());
+			return result;
+		}
+	}
+
+	/**
+	 * Speichert alle geladenen WGs und beendet die Hintergrund-Threads.
+	 *
+	 * @throws IOException wenn eine WG nicht gespeichert werden kann
+	 */
+	@Override
+	public void close() throws IOException {
+		evictor.shutdownNow();
+		pool.shutdown();
+		IOException error = null;
+		for (Slot slot : slots.values()) {
+			synchronized (slot) {
+				if (slot.evicted || slot.flat == null) {
+					continue;
+				}
+				try {
+					slot.flat.save();
+				} catch (IOException e) {
+					if (error == null) {
+						error = e;
+					} else {
+						error.addSuppressed(e);
+					}
+				}
+			}
+		}
+		if (error != null) {
+			throw error;
+		}
+	}
+}
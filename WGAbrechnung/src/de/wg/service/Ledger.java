@@ -4,30 +4,384 @@ import de.wg.model.*;
 import de.wg.exception.*;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Die Klasse {@code Ledger} verwaltet eine Liste von Transaktionen innerhalb
  * einer Wohngemeinschaft. Sie ermöglicht das Hinzufügen, Suchen und Sortieren
  * von Transaktionen sowie das Berechnen von Salden. Zusätzlich kann das Objekt
  * serialisiert und persistiert werden.
+ * <p>
+ * Nach dem Laden bzw. ersten Speichern werden neue Transaktionen zusätzlich in
+ * ein {@link TransactionJournal} neben der Snapshot-Datei geschrieben. Ein
+ * Speichern schreibt dann nur noch das Journal fest; der vollständige Snapshot
+ * wird erst neu geschrieben, wenn das Journal {@link #COMPACTION_THRESHOLD}
+ * Einträge erreicht hat.
+ * </p>
+ * <p>
+ * Der Ledger ist threadsicher: verändernde und lesende Methoden sind
+ * synchronisiert, sodass z.B. die Worker-Threads des REST-Servers lesen
+ * können, während ein anderer Thread bucht. Zurückgegebene Listen und Maps
+ * sind Kopien, die sich beim weiteren Buchen nicht ändern. Auch ein im
+ * Hintergrund geschriebener Snapshot (siehe {@link PersistenceService})
+ * übernimmt Stand und Journal unter derselben Sperre.
+ * </p>
+ * <p>
+ * Der Ledger ist als Ereignisprotokoll aufgebaut: Transaktionen werden nie
+ * verändert oder entfernt, sondern über {@link #correctTransaction} durch eine
+ * neue Fassung ersetzt bzw. über {@link #voidTransaction} storniert. Alle
+ * Fassungen bleiben zusammen mit den Korrekturen, Stornos und Ausgleichen
+ * erhalten (siehe {@link #getHistory()}); Salden, sortierte Ansichten und
+ * {@link #getAllTransactions()} zeigen nur die gültigen Transaktionen.
+ * {@link #getBalancesAsOf(LocalDate)} rechnet die Salden eines beliebigen
+ * Tages ab dem nächstgelegenen Saldo-Schnappschuss nach.
+ * </p>
+ * <p>
+ * Die Beschreibungen aller Fassungen stehen in einem {@link DescriptionIndex},
+ * der beim Erfassen fortgeschrieben und mit dem Snapshot gespeichert wird;
+ * {@link #searchTransactions} sucht darüber nach Wörtern und filtert nach
+ * Zeitraum und Zahler.
+ * </p>
  */
 
 public class Ledger implements Serializable {
 	private static final long serialVersionUID = 1L;
 
-	/** Liste aller erfassten Transaktionen. */
+	/** Anzahl an Journaleinträgen, ab der beim Speichern kompaktiert wird. */
+	public static final int COMPACTION_THRESHOLD = 1000;
+
+	/** Dateiendung des Journals, angehängt an den Namen der Snapshot-Datei. */
+	public static final String JOURNAL_SUFFIX = ".journal";
+
+	/**
+	 * Standardabstand der Saldo-Schnappschüsse für
+	 * {@link #getBalancesAsOf(LocalDate)}, in Transaktionen.
+	 */
+	public static final int DEFAULT_BALANCE_SNAPSHOT_INTERVAL = 1024;
+
+	/**
+	 * Liste aller jemals erfassten Transaktionen einschließlich korrigierter und
+	 * stornierter Fassungen; die Position ist die laufende Nummer im Journal.
+	 */
 	private List<Transaction> transactions;
 
+	/**
+	 * Korrekturen, Stornos und Ausgleiche in Erfassungsreihenfolge. Bilden
+	 * zusammen mit {@link #transactions} das Ereignisprotokoll.
+	 */
+	private transient List<LedgerEvent> revisions;
+
+	/** Laufende Nummern der korrigierten und stornierten Transaktionen. */
+	private transient BitSet retired;
+
+	/**
+	 * Gültige Transaktionen in Erfassungsreihenfolge. {@code null}, solange
+	 * keine Transaktion korrigiert oder storniert wurde; dann gilt
+	 * {@link #transactions}.
+	 */
+	private transient List<Transaction> current;
+
+	/**
+	 * Laufende Salden je Mitglied. Wird bei jedem {@link #addTransaction}
+	 * fortgeschrieben und nach dem Laden aus den Transaktionen neu aufgebaut.
+	 */
+	private transient Map<Member, Saldo> balances;
+
+	/**
+	 * Alle Transaktionen aufsteigend nach Datum sortiert; bei gleichem Datum in
+	 * Erfassungsreihenfolge. Dient als Index für Datums- und Zeitraumabfragen
+	 * per binärer Suche.
+	 */
+	private transient List<Transaction> byDate;
+
+	/**
+	 * Alle Transaktionen absteigend nach Betrag sortiert; bei gleichem Betrag in
+	 * Erfassungsreihenfolge. Wird wie {@link #byDate} durch sortiertes Einfügen
+	 * aktuell gehalten.
+	 */
+	private transient List<Transaction> byAmount;
+
+	/** Journal für neue Transaktionen, {@code null} solange keine Datei zugeordnet ist. */
+	private transient TransactionJournal journal;
+
+	/** Snapshot-Datei, zu der {@link #journal} gehört. */
+	private transient String snapshotFile;
+
+	/** Ob {@link #snapshotFile} noch im alten Format (Java-Serialisierung) vorliegt. */
+	private transient boolean legacySnapshot;
+
+	/** Registrierte Listener für neue Transaktionen. */
+	private transient List<LedgerListener> listeners;
+
+	/**
+	 * Konten der Mitglieder, die über {@link #bindAccounts(MemberManager)}
+	 * gebunden sind. Ihr Kontostand wird bei jeder Transaktion mitgeführt.
+	 */
+	private transient Map<Member, Account> accounts;
+
+	/**
+	 * Saldenänderungen durch Korrekturen und Stornos, aufsteigend nach Datum.
+	 * Zusammen mit {@link #byDate} ergeben sie für jeden Tag die damals gültigen
+	 * Salden: eine ersetzte Fassung zählt bis zum Tag ihrer Korrektur, die neue
+	 * Fassung ab diesem Tag.
+	 */
+	private transient List<Adjustment> adjustments;
+
+	/**
+	 * Saldo-Schnappschüsse über dem Datumsindex: Eintrag {@code k} enthält die
+	 * Salden der ersten {@code (k + 1) * balanceSnapshotInterval} Einträge von
+	 * {@link #byDate}. Werden bei Bedarf angelegt und ab einer Änderung im
+	 * Datumsindex verworfen.
+	 */
+	private transient List<Map<Member, Saldo>> balanceSnapshots;
+
+	/** Abstand der Saldo-Schnappschüsse in Transaktionen. */
+	private transient int balanceSnapshotInterval;
+
+	/** Anzahl der für Stichtagsabfragen nachgespielten Einträge. */
+	private transient long replayCount;
+
+	/**
+	 * Suchindex über die Beschreibungen aller Einträge von
+	 * {@link #transactions}, nach laufender Nummer.
+	 */
+	private transient DescriptionIndex descriptionIndex;
+
 	/**
 	 * Erstellt ein neues {@code Ledger}-Objekt mit einer leeren Transaktionsliste.
 	 */
 	public Ledger() {
 		transactions = new ArrayList<>();
+		listeners = new CopyOnWriteArrayList<>();
+		initIndexes();
+	}
+
+	/**
+	 * Registriert einen Listener für neue Transaktionen.
+	 *
+	 * @param listener der Listener
+	 */
+	public void addListener(LedgerListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Entfernt einen zuvor registrierten Listener.
+	 *
+	 * @param listener der Listener
+	 */
+	public void removeListener(LedgerListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Benachrichtigt alle Listener über neue Transaktionen.
+	 *
+	 * @param added die neuen Transaktionen
+	 */
+	private void fireAdded(List<Transaction> added) {
+		if (added.isEmpty()) {
+			return;
+		}
+		List<Transaction> view = Collections.unmodifiableList(added);
+		for (LedgerListener l : listeners) {
+			l.transactionsAdded(view);
+		}
+	}
+
+	/**
+	 * Benachrichtigt alle Listener über eine Korrektur oder ein Storno.
+	 *
+	 * @param event das Ereignis
+	 */
+	private void fireRevised(LedgerEvent event) {
+		for (LedgerListener l : listeners) {
+			l.transactionRevised(event);
+		}
+	}
+
+	/**
+	 * Legt die nicht serialisierten Indizes leer an.
+	 */
+	private void initIndexes() {
+		balances = new HashMap<>();
+		byDate = new ArrayList<>();
+		byAmount = new ArrayList<>();
+		accounts = new HashMap<>();
+		revisions = new ArrayList<>();
+		retired = new BitSet();
+		current = null;
+		adjustments = new ArrayList<>();
+		balanceSnapshots = new ArrayList<>();
+		balanceSnapshotInterval = DEFAULT_BALANCE_SNAPSHOT_INTERVAL;
+		descriptionIndex = new DescriptionIndex();
+	}
+
+	/**
+	 * Hängt eine Transaktion an das Protokoll an und nimmt sie in alle Indizes
+	 * auf.
+	 *
+	 * @param t die neu erfasste Transaktion
+	 */
+	private void append(Transaction t) {
+		transactions.add(t);
+		descriptionIndex.add(transactions.size() - 1, t.getDescription());
+		if (current != null) {
+			current.add(t);
+		}
+		index(t);
+	}
+
+	/**
+	 * Nimmt eine Transaktion in alle Indizes auf.
+	 *
+	 * @param t die neu erfasste Transaktion
+	 */
+	private void index(Transaction t) {
+		applyTo(balances, t, 1);
+		int position = upperBound(t.getDate());
+		byDate.add(position, t);
+		invalidateBalanceSnapshots(position);
+		byAmount.add(amountInsertionPoint(t.getAmountCents()), t);
+		syncAccounts(t);
+	}
+
+	/**
+	 * Übernimmt die Salden aller an der Transaktion beteiligten Mitglieder in
+	 * ihre gebundenen Konten.
+	 *
+	 * @param t die Transaktion
+	 */
+	private void syncAccounts(Transaction t) {
+		if (!accounts.isEmpty()) {
+			syncAccount(t.getPayer());
+			for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+				syncAccount(t.getBeneficiary(i));
+			}
+		}
+	}
+
+	/**
+	 * @return die gültigen Transaktionen in Erfassungsreihenfolge
+	 */
+	private List<Transaction> live() {
+		return current != null ? current : transactions;
+	}
+
+	/**
+	 * Übernimmt den Saldo eines Mitglieds in sein gebundenes Konto, falls es
+	 * eines gibt.
+	 *
+	 * @param member das Mitglied
+	 */
+	private void syncAccount(Member member) {
+		Account account = accounts.get(member);
+		if (account != null) {
+			account.setBalance(Money.ofCents(getBalanceCents(member)));
+		}
+	}
+
+	/**
+	 * Bindet die Konten aller Mitglieder an den Ledger. Die Kontostände werden
+	 * in einem Durchlauf aus dem Saldenindex gesetzt und danach bei jeder neuen
+	 * Transaktion fortgeschrieben, sodass {@link Account#getBalance()} ohne
+	 * Neuberechnung dem Saldo im Ledger entspricht. Mitglieder, die später zum
+	 * {@code MemberManager} hinzukommen oder entfernt werden, werden
+	 * automatisch gebunden bzw. gelöst.
+	 *
+	 * @param memberManager die Mitgliederverwaltung
+	 * @throws IllegalArgumentException wenn {@code memberManager} {@code null}
+	 *                                  ist
+	 */
+	public synchronized void bindAccounts(MemberManager memberManager) {
+		if (memberManager == null) {
+			throw new IllegalArgumentException("Mitgliederverwaltung darf nicht null sein");
+		}
+		accounts.clear();
+		for (Member m : memberManager.getAllMembers()) {
+			bindAccount(m);
+		}
+		memberManager.addListener(new MemberListener() {
+			@Override
+			public void memberAdded(Member member) {
+				synchronized (Ledger.this) {
+					bindAccount(member);
+				}
+			}
+
+			@Override
+			public void memberRemoved(Member member) {
+				synchronized (Ledger.this) {
+					accounts.remove(member);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Bindet das Konto eines Mitglieds und setzt seinen Kontostand.
+	 *
+	 * @param member das Mitglied
+	 */
+	private void bindAccount(Member member) {
+		accounts.put(member, member.getAccount());
+		syncAccount(member);
+	}
+
+	/**
+	 * Prüft Saldenindex und gebundene Konten gegen eine vollständige
+	 * Neuberechnung aus allen Transaktionen.
+	 *
+	 * @return eine Meldung je Abweichung; leer, wenn alles übereinstimmt
+	 */
+	public synchronized List<String> verifyBalances() {
+		Map<Member, Saldo> neu = new HashMap<>();
+		for (Transaction t : live()) {
+			applyTo(neu, t, 1);
+		}
+		List<String> abweichungen = new ArrayList<>();
+		Set<Member> alle = new HashSet<>(neu.keySet());
+		alle.addAll(balances.keySet());
+		for (Member m : alle) {
+			long erwartet = neu.containsKey(m) ? neu.get(m).cents : 0;
+			long index = getBalanceCents(m);
+			if (erwartet != index) {
+				abweichungen.add("Saldo von " + m.getName() + ": Index " + Money.format(index)
+						+ ", erwartet " + Money.format(erwartet));
+			}
+		}
+		for (Map.Entry<Member, Account> e : accounts.entrySet()) {
+			Saldo saldo = neu.get(e.getKey());
+			long erwartet = saldo != null ? saldo.cents : 0;
+			long konto = e.getValue().getBalance().getCents();
+			if (erwartet != konto) {
+				abweichungen.add("Konto von " + e.getKey().getName() + ": " + Money.format(konto)
+						+ ", erwartet " + Money.format(erwartet));
+			}
+		}
+		for (Map.Entry<Member, Money> e : getBalancesAsOf(LocalDate.MAX).entrySet()) {
+			Saldo saldo = neu.get(e.getKey());
+			long erwartet = saldo != null ? saldo.cents : 0;
+			if (erwartet != e.getValue().getCents()) {
+				abweichungen.add("Nachgespielter Saldo von " + e.getKey().getName() + ": "
+						+ Money.format(e.getValue().getCents()) + ", erwartet " + Money.format(erwartet));
+			}
+		}
+		return abweichungen;
 	}
 
 	/**
@@ -37,46 +391,672 @@ public class Ledger implements Serializable {
 	 * @throws IllegalArgumentException   wenn {@code t} {@code null} ist
 	 * @throws UngueltigerBetragException wenn der Betrag der Transaktion kleiner
 	 *                                    oder gleich null ist
+	 * @throws UncheckedIOException       wenn die Transaktion nicht ins Journal
+	 *                                    geschrieben werden konnte; sie wird dann
+	 *                                    nicht übernommen
 	 */
-	public void addTransaction(Transaction t) throws UngueltigerBetragException {
+	public synchronized void addTransaction(Transaction t) throws UngueltigerBetragException {
 		if (t == null) {
 			throw new IllegalArgumentException("Transaktion darf nicht null sein");
 		}
-		if (t.getAmount() <= 0) {
+		if (t.getAmountCents() <= 0) {
 			throw new UngueltigerBetragException("Der Betrag muss größer als 0 sein");
 		}
-		transactions.add(t);
+		if (journal != null) {
+			try {
+				journal.append(transactions.size(), t);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Transaktion konnte nicht ins Journal geschrieben werden", e);
+			}
+		}
+		append(t);
+		fireAdded(Collections.singletonList(t));
+	}
+
+	/**
+	 * Fügt mehrere Transaktionen in einem Schritt hinzu. Alle Transaktionen
+	 * werden vorab geprüft; ist eine davon ungültig, wird keine übernommen
+	 * (alles oder nichts). Das Journal wird nur einmal geschrieben und
+	 * synchronisiert, die Sortierindizes werden per Mischen statt
+	 * Einzel-Einfügen fortgeschrieben und die Listener erhalten ein einziges
+	 * Ereignis mit allen neuen Transaktionen.
+	 *
+	 * @param ts die Transaktionen in Erfassungsreihenfolge
+	 * @throws IllegalArgumentException   wenn {@code ts} oder eine der
+	 *                                    Transaktionen {@code null} ist
+	 * @throws UngueltigerBetragException wenn Transaktionen keinen positiven
+	 *                                    Betrag haben; die Ausnahme listet alle
+	 *                                    betroffenen Positionen auf (siehe
+	 *                                    {@link UngueltigerBetragException#getDetails()})
+	 * @throws UncheckedIOException       wenn das Journal nicht geschrieben
+	 *                                    werden konnte; es wird dann nichts
+	 *                                    übernommen
+	 */
+	public synchronized void addTransactions(Collection<Transaction> ts) throws UngueltigerBetragException {
+		if (ts == null) {
+			throw new IllegalArgumentException("Transaktionen dürfen nicht null sein");
+		}
+		List<Transaction> batch = new ArrayList<>(ts);
+		List<String> fehler = new ArrayList<>();
+		for (int i = 0; i < batch.size(); i++) {
+			Transaction t = batch.get(i);
+			if (t == null) {
+				throw new IllegalArgumentException("Transaktion an Position " + i + " ist null");
+			}
+			if (t.getAmountCents() <= 0) {
+				fehler.add("Position " + i + ": Betrag " + Money.format(t.getAmountCents()) + " ist nicht größer als 0");
+			}
+		}
+		if (!fehler.isEmpty()) {
+			throw new UngueltigerBetragException(fehler.size() + " von " + batch.size()
+					+ " Transaktionen haben keinen positiven Betrag", fehler);
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		if (journal != null) {
+			try {
+				journal.append(transactions.size(), batch);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Transaktionen konnten nicht ins Journal geschrieben werden", e);
+			}
+		}
+		reserve(transactions, batch.size());
+		for (Transaction t : batch) {
+			descriptionIndex.add(transactions.size(), t.getDescription());
+			transactions.add(t);
+		}
+		if (current != null) {
+			reserve(current, batch.size());
+			current.addAll(batch);
+		}
+		LocalDate earliest = batch.get(0).getDate();
+		for (Transaction t : batch) {
+			if (t.getDate().isBefore(earliest)) {
+				earliest = t.getDate();
+			}
+			applyTo(balances, t, 1);
+		}
+		// je Zeile oder einmal je Konto abgleichen, je nachdem was weniger ist
+		if (batch.size() < accounts.size()) {
+			for (Transaction t : batch) {
+				syncAccounts(t);
+			}
+		} else {
+			for (Member m : accounts.keySet()) {
+				syncAccount(m);
+			}
+		}
+		invalidateBalanceSnapshots(upperBound(earliest));
+		mergeInto(byDate, batch, Comparator.comparing(Transaction::getDate));
+		mergeInto(byAmount, batch, (x, y) -> Long.compare(y.getAmountCents(), x.getAmountCents()));
+		fireAdded(batch);
+	}
+
+	/**
+	 * Vergrößert eine Liste einmal für einen ganzen Block, statt sie beim
+	 * Anhängen mehrfach umzukopieren.
+	 *
+	 * @param list       die Liste
+	 * @param additional Anzahl der anzuhängenden Einträge
+	 */
+	private static void reserve(List<Transaction> list, int additional) {
+		if (list instanceof ArrayList) {
+			((ArrayList<Transaction>) list).ensureCapacity(list.size() + additional);
+		}
+	}
+
+	/**
+	 * Mischt neue Transaktionen in einen sortierten Index. Bei gleichem
+	 * Schlüssel stehen bestehende Einträge vor neuen und neue untereinander in
+	 * Erfassungsreihenfolge, wie beim sortierten Einfügen. Gemischt wird von
+	 * hinten, sodass nur Einträge verschoben werden, die hinter einem neuen
+	 * landen.
+	 *
+	 * @param index der sortierte Index
+	 * @param batch die neuen Transaktionen in Erfassungsreihenfolge
+	 * @param order die Sortierung des Index
+	 */
+	private static void mergeInto(List<Transaction> index, List<Transaction> batch, Comparator<Transaction> order) {
+		List<Transaction> sorted = new ArrayList<>(batch);
+		sorted.sort(order);
+		int i = index.size() - 1;
+		int j = sorted.size() - 1;
+		index.addAll(sorted);
+		for (int k = index.size() - 1; j >= 0; k--) {
+			if (i >= 0 && order.compare(index.get(i), sorted.get(j)) > 0) {
+				index.set(k, index.get(i--));
+			} else {
+				index.set(k, sorted.get(j--));
+			}
+		}
+	}
+
+	/**
+	 * Verbucht Ausgleichszahlungen (siehe {@link SettlementEngine}). Jede Zahlung
+	 * wird als Transaktion vom Schuldner an den Gläubiger erfasst; anschließend
+	 * werden alle bis dahin erfassten Transaktionen einschließlich der
+	 * Ausgleichstransaktionen als verrechnet markiert. Journal-Einträge für
+	 * Zahlungen und Markierung werden gemeinsam geschrieben.
+	 * <p>
+	 * Die Zahlungen müssen aus den Salden berechnet sein, die beim Aufruf
+	 * gelten. Wer sie selbst berechnet, muss dazu wie
+	 * {@link SettlementEngine#apply(Ledger, LocalDate)} die Sperre des Ledgers
+	 * halten.
+	 * </p>
+	 *
+	 * @param settlements die Ausgleichszahlungen, ggf. leer
+	 * @param date        Datum der Ausgleichstransaktionen
+	 * @throws IllegalArgumentException wenn {@code settlements} oder {@code date}
+	 *                                  {@code null} ist
+	 * @throws UncheckedIOException     wenn das Journal nicht geschrieben werden
+	 *                                  konnte; der Ledger bleibt dann unverändert
+	 */
+	public synchronized void recordSettlement(List<Settlement> settlements, LocalDate date) {
+		if (settlements == null || date == null) {
+			throw new IllegalArgumentException("Ausgleichszahlungen und Datum dürfen nicht null sein");
+		}
+		List<Transaction> transfers = new ArrayList<>(settlements.size());
+		for (Settlement s : settlements) {
+			List<Member> empfaenger = new ArrayList<>(1);
+			empfaenger.add(s.getTo());
+			Transaction t = new Transaction(date, s.getAmount(), s.getFrom(), empfaenger,
+					SettlementEngine.DESCRIPTION);
+			t.setVerrechnet(true);
+			transfers.add(t);
+		}
+		int upTo = transactions.size() + transfers.size();
+		LedgerEvent settled = new LedgerEvent(LedgerEvent.Type.SETTLED, date, null, null, upTo, -1, upTo);
+		if (journal != null) {
+			try {
+				journal.appendRevision(transactions.size(), transfers, settled);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Ausgleich konnte nicht ins Journal geschrieben werden", e);
+			}
+		}
+		for (Transaction t : transfers) {
+			append(t);
+		}
+		applyRevision(settled);
+		fireAdded(transfers);
+	}
+
+	/**
+	 * Korrigiert eine Transaktion: Sie wird durch eine neue Fassung ersetzt, die
+	 * ab dem Datum der Korrektur gilt. Die alte Fassung bleibt im Verlauf
+	 * erhalten; {@link #getBalancesAsOf(LocalDate)} liefert für Tage vor der
+	 * Korrektur weiterhin die Salden mit der alten Fassung. Journal-Einträge für
+	 * neue Fassung und Korrektur werden gemeinsam geschrieben.
+	 *
+	 * @param original    die zu korrigierende, gültige Transaktion
+	 * @param replacement die neue Fassung
+	 * @param date        Datum der Korrektur
+	 * @return das Korrekturereignis
+	 * @throws IllegalArgumentException   wenn ein Argument {@code null} ist,
+	 *                                    {@code original} nicht gültig im Ledger
+	 *                                    erfasst oder {@code replacement} bereits
+	 *                                    erfasst ist
+	 * @throws IllegalStateException      wenn {@code original} bereits
+	 *                                    verrechnet ist
+	 * @throws UngueltigerBetragException wenn die neue Fassung keinen positiven
+	 *                                    Betrag hat
+	 * @throws UncheckedIOException       wenn das Journal nicht geschrieben
+	 *                                    werden konnte; der Ledger bleibt dann
+	 *                                    unverändert
+	 */
+	public synchronized LedgerEvent correctTransaction(Transaction original, Transaction replacement, LocalDate date)
+			throws UngueltigerBetragException {
+		if (replacement == null || date == null) {
+			throw new IllegalArgumentException("Neue Fassung und Datum dürfen nicht null sein");
+		}
+		int seq = revisableSeq(original);
+		if (replacement.getAmountCents() <= 0) {
+			throw new UngueltigerBetragException("Der Betrag muss größer als 0 sein");
+		}
+		if (seqOf(replacement) >= 0) {
+			throw new IllegalArgumentException("Die neue Fassung ist bereits im Ledger erfasst");
+		}
+		int replacementSeq = transactions.size();
+		LedgerEvent corrected = new LedgerEvent(LedgerEvent.Type.CORRECTED, date, original, replacement, seq,
+				replacementSeq, replacementSeq);
+		if (journal != null) {
+			try {
+				journal.appendRevision(replacementSeq, Collections.singletonList(replacement), corrected);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Korrektur konnte nicht ins Journal geschrieben werden", e);
+			}
+		}
+		append(replacement);
+		applyRevision(corrected);
+		fireRevised(corrected);
+		return corrected;
+	}
+
+	/**
+	 * Storniert eine Transaktion ab dem angegebenen Datum. Sie bleibt im
+	 * Verlauf erhalten und zählt in {@link #getBalancesAsOf(LocalDate)} für Tage
+	 * vor dem Storno weiterhin mit.
+	 *
+	 * @param t    die zu stornierende, gültige Transaktion
+	 * @param date Datum des Stornos
+	 * @return das Storno-Ereignis
+	 * @throws IllegalArgumentException wenn ein Argument {@code null} ist oder
+	 *                                  {@code t} nicht gültig im Ledger erfasst
+	 *                                  ist
+	 * @throws IllegalStateException    wenn {@code t} bereits verrechnet ist
+	 * @throws UncheckedIOException     wenn das Journal nicht geschrieben werden
+	 *                                  konnte; der Ledger bleibt dann unverändert
+	 */
+	public synchronized LedgerEvent voidTransaction(Transaction t, LocalDate date) {
+		if (date == null) {
+			throw new IllegalArgumentException("Datum darf nicht null sein");
+		}
+		int seq = revisableSeq(t);
+		LedgerEvent voided = new LedgerEvent(LedgerEvent.Type.VOIDED, date, t, null, seq, -1, transactions.size());
+		if (journal != null) {
+			try {
+				journal.appendRevision(transactions.size(), Collections.emptyList(), voided);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Storno konnte nicht ins Journal geschrieben werden", e);
+			}
+		}
+		applyRevision(voided);
+		fireRevised(voided);
+		return voided;
+	}
+
+	/**
+	 * Prüft, ob eine Transaktion korrigiert oder storniert werden darf.
+	 *
+	 * @param t die Transaktion
+	 * @return ihre laufende Nummer
+	 */
+	private int revisableSeq(Transaction t) {
+		if (t == null) {
+			throw new IllegalArgumentException("Transaktion darf nicht null sein");
+		}
+		int seq = seqOf(t);
+		if (seq < 0 || retired.get(seq)) {
+			throw new IllegalArgumentException("Die Transaktion ist nicht (mehr) gültig im Ledger erfasst");
+		}
+		if (t.isVerrechnet()) {
+			throw new IllegalStateException("Verrechnete Transaktionen können nicht mehr geändert werden");
+		}
+		return seq;
+	}
+
+	/**
+	 * Sucht die laufende Nummer einer Transaktion. Korrekturen und Stornos sind
+	 * selten; die lineare Suche von hinten spart einen weiteren Index.
+	 *
+	 * @param t die Transaktion
+	 * @return die laufende Nummer oder -1
+	 */
+	private int seqOf(Transaction t) {
+		for (int i = transactions.size() - 1; i >= 0; i--) {
+			if (transactions.get(i) == t) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Übernimmt eine Korrektur, ein Storno oder einen Ausgleich in die
+	 * Indizes und das Protokoll. Die neue Fassung einer Korrektur bzw. die
+	 * Ausgleichstransaktionen sind bereits angehängt.
+	 *
+	 * @param e das Ereignis
+	 */
+	private void applyRevision(LedgerEvent e) {
+		switch (e.getType()) {
+		case CORRECTED:
+			retire(e.seq, e.getDate());
+			Transaction neu = e.getReplacement();
+			// die neue Fassung gilt erst ab der Korrektur
+			if (e.getDate().isAfter(neu.getDate())) {
+				addAdjustment(new Adjustment(neu.getDate(), neu, -1));
+				addAdjustment(new Adjustment(e.getDate(), neu, 1));
+			}
+			break;
+		case VOIDED:
+			retire(e.seq, e.getDate());
+			break;
+		case SETTLED:
+			markVerrechnet(e.seq);
+			break;
+		default:
+			throw new IllegalArgumentException("Kein Revisionsereignis: " + e.getType());
+		}
+		revisions.add(e);
+	}
+
+	/**
+	 * Nimmt eine Transaktion aus den gültigen Transaktionen und allen Indizes.
+	 * Bis zum angegebenen Datum zählt sie in den Stichtagssalden weiter mit.
+	 *
+	 * @param seq  laufende Nummer der Transaktion
+	 * @param date Datum, ab dem sie nicht mehr gilt
+	 */
+	private void retire(int seq, LocalDate date) {
+		Transaction t = transactions.get(seq);
+		if (current == null) {
+			current = new ArrayList<>(transactions);
+		}
+		for (int i = current.size() - 1; i >= 0; i--) {
+			if (current.get(i) == t) {
+				current.remove(i);
+				break;
+			}
+		}
+		retired.set(seq);
+		applyTo(balances, t, -1);
+		syncAccounts(t);
+		int position = lowerBound(t.getDate());
+		while (byDate.get(position) != t) {
+			position++;
+		}
+		byDate.remove(position);
+		invalidateBalanceSnapshots(position);
+		int amountPosition = amountInsertionPoint(t.getAmountCents()) - 1;
+		while (byAmount.get(amountPosition) != t) {
+			amountPosition--;
+		}
+		byAmount.remove(amountPosition);
+		if (date.isAfter(t.getDate())) {
+			addAdjustment(new Adjustment(t.getDate(), t, 1));
+			addAdjustment(new Adjustment(date, t, -1));
+		}
+	}
+
+	/**
+	 * Fügt eine Saldenänderung hinter allen mit gleichem oder früherem Datum
+	 * ein.
+	 *
+	 * @param a die Saldenänderung
+	 */
+	private void addAdjustment(Adjustment a) {
+		int lo = 0;
+		int hi = adjustments.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (adjustments.get(mid).date.isAfter(a.date)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		adjustments.add(lo, a);
+	}
+
+	/**
+	 * Markiert alle Transaktionen mit einer laufenden Nummer unterhalb der
+	 * Grenze als verrechnet.
+	 *
+	 * @param upTo Grenze (exklusiv)
+	 */
+	private void markVerrechnet(int upTo) {
+		for (int i = 0; i < upTo; i++) {
+			transactions.get(i).setVerrechnet(true);
+		}
+	}
+
+	/**
+	 * Schreibt die Salden aller an der Transaktion beteiligten Mitglieder fort.
+	 * Der Zahler erhält den vollen Betrag gutgeschrieben, jeder Begünstigte wird
+	 * einmal mit seinem Anteil belastet (auch wenn er mehrfach in der Liste
+	 * steht). Es wird ausschließlich in Cent gerechnet, ohne
+	 * {@link Money}-Objekte zu erzeugen; Duplikate werden über die IDs der
+	 * Transaktion erkannt.
+	 *
+	 * @param target die fortzuschreibenden Salden
+	 * @param t      die zu verbuchende Transaktion
+	 * @param sign   1 zum Verbuchen, -1 zum Ausbuchen
+	 */
+	private static void applyTo(Map<Member, Saldo> target, Transaction t, int sign) {
+		saldoOf(target, t.getPayer()).cents += sign * t.getAmountCents();
+		for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+			if (t.isFirstOccurrence(i)) {
+				saldoOf(target, t.getBeneficiary(i)).cents -= sign * t.getShareCents(i);
+			}
+		}
+	}
+
+	/**
+	 * Gibt den Saldo-Eintrag eines Mitglieds zurück und legt ihn bei Bedarf an.
+	 *
+	 * @param target die Salden, in denen gesucht wird
+	 * @param member das Mitglied
+	 * @return der veränderbare Saldo-Eintrag
+	 */
+	private static Saldo saldoOf(Map<Member, Saldo> target, Member member) {
+		return target.computeIfAbsent(member, m -> new Saldo());
+	}
+
+	/**
+	 * Wandelt Saldo-Einträge in eine Map von Mitglied auf {@link Money} um.
+	 *
+	 * @param source die Saldo-Einträge
+	 * @return eine neue Map von Mitglied auf Saldo
+	 */
+	private static Map<Member, Money> toMoney(Map<Member, Saldo> source) {
+		Map<Member, Money> result = new HashMap<>(source.size() * 2);
+		for (Map.Entry<Member, Saldo> e : source.entrySet()) {
+			result.put(e.getKey(), Money.ofCents(e.getValue().cents));
+		}
+		return result;
 	}
 
 	/**
-	 * Gibt eine unveränderliche Liste aller gespeicherten Transaktionen zurück.
+	 * Gibt eine unveränderliche Liste aller gültigen Transaktionen zurück, also
+	 * ohne korrigierte und stornierte Fassungen. Die Liste ist eine Kopie des
+	 * aktuellen Stands.
 	 *
-	 * @return eine Liste aller Transaktionen
+	 * @return eine Liste aller gültigen Transaktionen in Erfassungsreihenfolge
 	 */
-	public List<Transaction> getAllTransactions() {
-		return Collections.unmodifiableList(transactions); 
+	public synchronized List<Transaction> getAllTransactions() {
+		return Collections.unmodifiableList(new ArrayList<>(live()));
 	}
 
 	/**
-	 * Berechnet den aktuellen Saldo eines Mitglieds basierend auf allen
-	 * Transaktionen.
+	 * Gibt den vollständigen Verlauf des Ledgers zurück: jede erfasste
+	 * Transaktion, jede Korrektur, jedes Storno und jeden Ausgleich in
+	 * Erfassungsreihenfolge. Die neue Fassung einer Korrektur erscheint nur im
+	 * Korrekturereignis.
+	 *
+	 * @return eine neue Liste aller Ereignisse
+	 */
+	public synchronized List<LedgerEvent> getHistory() {
+		BitSet replacements = new BitSet();
+		for (LedgerEvent e : revisions) {
+			if (e.getType() == LedgerEvent.Type.CORRECTED) {
+				replacements.set(e.replacementSeq);
+			}
+		}
+		List<LedgerEvent> history = new ArrayList<>(transactions.size() + revisions.size());
+		int r = 0;
+		for (int seq = 0; seq <= transactions.size(); seq++) {
+			while (r < revisions.size() && revisions.get(r).position <= seq) {
+				history.add(revisions.get(r++));
+			}
+			if (seq < transactions.size() && !replacements.get(seq)) {
+				Transaction t = transactions.get(seq);
+				history.add(new LedgerEvent(LedgerEvent.Type.ADDED, t.getDate(), t, null, seq, -1, seq));
+			}
+		}
+		return history;
+	}
+
+	/**
+	 * Gibt den aktuellen Saldo eines Mitglieds basierend auf allen Transaktionen
+	 * zurück. Der Wert wird aus dem laufend gepflegten Saldenindex gelesen.
 	 *
 	 * @param member das Mitglied, dessen Saldo berechnet werden soll
 	 * @return der Saldo (positiv = Guthaben, negativ = Schulden)
 	 */
-	public double getBalance(Member member) {
-		double balance = 0.0;
+	public Money getBalance(Member member) {
+		return Money.ofCents(getBalanceCents(member));
+	}
 
-		for (Transaction t : transactions) {
-			if (t.getPayer().equals(member)) {
-				balance += t.getAmount(); 
-			}
-			if (t.getBeneficiaries().contains(member)) {
-				int anzahl = t.getBeneficiaries().size();
-				balance -= t.getAmount() / anzahl; 
+	/**
+	 * Gibt den aktuellen Saldo eines Mitglieds in Cent zurück.
+	 *
+	 * @param member das Mitglied, dessen Saldo abgefragt werden soll
+	 * @return der Saldo in Cent (positiv = Guthaben, negativ = Schulden)
+	 */
+	public synchronized long getBalanceCents(Member member) {
+		Saldo saldo = balances.get(member);
+		return saldo == null ? 0 : saldo.cents;
+	}
+
+	/**
+	 * Gibt die Salden aller Mitglieder zurück, die an mindestens einer
+	 * Transaktion beteiligt sind. Mitglieder ohne Transaktionen sind nicht
+	 * enthalten und haben den Saldo 0.
+	 *
+	 * @return eine Map von Mitglied auf Saldo
+	 */
+	public synchronized Map<Member, Money> getAllBalances() {
+		return toMoney(balances);
+	}
+
+	/**
+	 * Berechnet die Salden, die allein aus den Transaktionen im angegebenen
+	 * Zeitraum entstehen (z.B. für eine Monatsabrechnung). Der Zeitraum wird
+	 * über den Datumsindex in O(log n + k) bestimmt.
+	 *
+	 * @param from erstes Datum des Zeitraums (einschließlich)
+	 * @param to   letztes Datum des Zeitraums (einschließlich)
+	 * @return eine Map von Mitglied auf Saldo im Zeitraum; Mitglieder ohne
+	 *         Transaktionen im Zeitraum sind nicht enthalten
+	 */
+	public synchronized Map<Member, Money> getBalancesBetween(LocalDate from, LocalDate to) {
+		Map<Member, Saldo> result = new HashMap<>();
+		for (Transaction t : rangeByDate(from, to)) {
+			applyTo(result, t, 1);
+		}
+		return toMoney(result);
+	}
+
+	/**
+	 * Berechnet die Salden, wie sie am Ende des angegebenen Tages galten: alle
+	 * Transaktionen bis zu diesem Datum, korrigierte Fassungen bis zum Tag ihrer
+	 * Korrektur bzw. ihres Stornos, neue Fassungen ab diesem Tag. Für ein Datum
+	 * nach allen Ereignissen entspricht das {@link #getAllBalances()}.
+	 * <p>
+	 * Gerechnet wird ab dem nächstgelegenen Saldo-Schnappschuss vor dem Datum;
+	 * nachgespielt werden höchstens {@link #getBalanceSnapshotInterval()}
+	 * Transaktionen sowie die (seltenen) Korrekturen und Stornos bis zum Datum.
+	 * Fehlende Schnappschüsse werden dabei angelegt; eine rückdatierte Buchung
+	 * verwirft die Schnappschüsse ab ihrem Datum.
+	 * </p>
+	 *
+	 * @param date der Stichtag (einschließlich)
+	 * @return eine Map von Mitglied auf Saldo; Mitglieder, die bis zum Stichtag
+	 *         an keiner Transaktion beteiligt waren, sind nicht enthalten
+	 * @throws IllegalArgumentException wenn {@code date} {@code null} ist
+	 */
+	public synchronized Map<Member, Money> getBalancesAsOf(LocalDate date) {
+		if (date == null) {
+			throw new IllegalArgumentException("Datum darf nicht null sein");
+		}
+		int end = upperBound(date);
+		int blocks = end / balanceSnapshotInterval;
+		while (balanceSnapshots.size() < blocks) {
+			int k = balanceSnapshots.size();
+			Map<Member, Saldo> next = k == 0 ? new HashMap<>() : copyOf(balanceSnapshots.get(k - 1));
+			replay(next, k * balanceSnapshotInterval, (k + 1) * balanceSnapshotInterval);
+			balanceSnapshots.add(next);
+		}
+		Map<Member, Saldo> result = blocks == 0 ? new HashMap<>() : copyOf(balanceSnapshots.get(blocks - 1));
+		replay(result, blocks * balanceSnapshotInterval, end);
+		for (Adjustment a : adjustments) {
+			if (a.date.isAfter(date)) {
+				break;
 			}
+			applyTo(result, a.transaction, a.sign);
+			replayCount++;
+		}
+		return toMoney(result);
+	}
+
+	/**
+	 * Verbucht einen Ausschnitt des Datumsindex.
+	 *
+	 * @param target die fortzuschreibenden Salden
+	 * @param from   erste Position (einschließlich)
+	 * @param to     letzte Position (ausschließlich)
+	 */
+	private void replay(Map<Member, Saldo> target, int from, int to) {
+		for (int i = from; i < to; i++) {
+			applyTo(target, byDate.get(i), 1);
+		}
+		replayCount += to - from;
+	}
+
+	/**
+	 * Verwirft alle Saldo-Schnappschüsse, die Einträge des Datumsindex ab der
+	 * angegebenen Position enthalten.
+	 *
+	 * @param position erste geänderte Position im Datumsindex
+	 */
+	private void invalidateBalanceSnapshots(int position) {
+		int keep = position / balanceSnapshotInterval;
+		if (balanceSnapshots.size() > keep) {
+			balanceSnapshots.subList(keep, balanceSnapshots.size()).clear();
+		}
+	}
+
+	private static Map<Member, Saldo> copyOf(Map<Member, Saldo> source) {
+		Map<Member, Saldo> copy = new HashMap<>(source.size() * 2);
+		for (Map.Entry<Member, Saldo> e : source.entrySet()) {
+			saldoOf(copy, e.getKey()).cents = e.getValue().cents;
+		}
+		return copy;
+	}
+
+	/**
+	 * Setzt den Abstand der Saldo-Schnappschüsse für
+	 * {@link #getBalancesAsOf(LocalDate)}. Kleinere Abstände verkürzen das
+	 * Nachspielen, kosten aber je Schnappschuss eine Kopie der Salden und werden
+	 * durch rückdatierte Buchungen häufiger verworfen. Bestehende
+	 * Schnappschüsse werden verworfen.
+	 *
+	 * @param interval Abstand in Transaktionen; {@link Integer#MAX_VALUE}
+	 *                 schaltet die Schnappschüsse praktisch ab
+	 * @throws IllegalArgumentException wenn {@code interval} kleiner als 1 ist
+	 */
+	public synchronized void setBalanceSnapshotInterval(int interval) {
+		if (interval < 1) {
+			throw new IllegalArgumentException("Abstand muss mindestens 1 sein");
 		}
-		return balance;
+		balanceSnapshotInterval = interval;
+		balanceSnapshots.clear();
+	}
+
+	/**
+	 * @return Abstand der Saldo-Schnappschüsse in Transaktionen
+	 */
+	public synchronized int getBalanceSnapshotInterval() {
+		return balanceSnapshotInterval;
+	}
+
+	/**
+	 * @return Anzahl der derzeit gehaltenen Saldo-Schnappschüsse
+	 */
+	public synchronized int getBalanceSnapshotCount() {
+		return balanceSnapshots.size();
+	}
+
+	/**
+	 * Gibt die Anzahl der Einträge zurück, die Stichtagsabfragen bisher
+	 * nachgespielt haben, einschließlich des Anlegens von Schnappschüssen.
+	 * Dient zum Messen der Kosten von {@link #getBalancesAsOf(LocalDate)}.
+	 *
+	 * @return Anzahl der nachgespielten Einträge seit dem Laden
+	 */
+	public synchronized long getReplayCount() {
+		return replayCount;
 	}
 
 	/**
@@ -86,8 +1066,8 @@ public class Ledger implements Serializable {
 	 */
 	public void printAllBalances(List<Member> mitglieder) {
 		for (Member m : mitglieder) {
-			double saldo = getBalance(m);
-			System.out.println(m.getName() + " hat einen Saldo von " + String.format("%.2f", saldo) + " EUR");
+			Money saldo = getBalance(m);
+			System.out.println(m.getName() + " hat einen Saldo von " + saldo + " EUR");
 		}
 	}
 
@@ -98,54 +1078,388 @@ public class Ledger implements Serializable {
 	 * @return Liste der Transaktionen an diesem Datum
 	 */
 	public List<Transaction> findTransactionsByDate(LocalDate date) {
+		return findTransactionsBetween(date, date);
+	}
+
+	/**
+	 * Sucht alle Transaktionen in einem Zeitraum. Die Suche läuft über den
+	 * Datumsindex in O(log n + k).
+	 *
+	 * @param from erstes Datum des Zeitraums (einschließlich)
+	 * @param to   letztes Datum des Zeitraums (einschließlich)
+	 * @return Liste der Transaktionen im Zeitraum, aufsteigend nach Datum
+	 */
+	public synchronized List<Transaction> findTransactionsBetween(LocalDate from, LocalDate to) {
+		return new ArrayList<>(rangeByDate(from, to));
+	}
+
+	/**
+	 * Sucht gültige Transaktionen nach Wörtern ihrer Beschreibung, optional
+	 * eingeschränkt auf einen Zeitraum und einen Zahler. Jedes Wort der Anfrage
+	 * muss als Wortanfang in der Beschreibung vorkommen, ohne Beachtung der
+	 * Groß-/Kleinschreibung und mit gefalteten Umlauten ("einkauf maerz"
+	 * findet "Einkauf im März"). Die Wörter werden über den
+	 * {@link DescriptionIndex} gesucht, sodass nur die Treffer gelesen werden;
+	 * enthält der Zeitraum weniger Transaktionen als die Wörter Treffer haben
+	 * können, werden stattdessen die Beschreibungen im Zeitraum geprüft. Ohne
+	 * Suchwörter liefert die Suche alle Transaktionen des Zeitraums.
+	 *
+	 * @param query Suchwörter, getrennt durch Leer- oder Satzzeichen; ggf.
+	 *              {@code null}
+	 * @param from  erstes Datum (einschließlich) oder {@code null} für
+	 *              unbegrenzt
+	 * @param to    letztes Datum (einschließlich) oder {@code null} für
+	 *              unbegrenzt
+	 * @param payer nur Transaktionen dieses Zahlers oder {@code null} für alle
+	 * @return die Treffer aufsteigend nach Datum, bei gleichem Datum in
+	 *         Erfassungsreihenfolge
+	 */
+	public synchronized List<Transaction> searchTransactions(String query, LocalDate from, LocalDate to,
+			Member payer) {
+		LocalDate start = from != null ? from : LocalDate.MIN;
+		LocalDate end = to != null ? to : LocalDate.MAX;
+		List<String> tokens = DescriptionIndex.tokenize(query);
 		List<Transaction> result = new ArrayList<>();
-		for (Transaction t : transactions) {
-			if (t.getDate().equals(date)) {
+		List<Transaction> range = rangeByDate(start, end);
+		// enger Zeitraum, häufige Wörter: die Beschreibungen im Zeitraum prüfen ist billiger
+		if (tokens.isEmpty() || range.size() < descriptionIndex.estimate(tokens)) {
+			for (Transaction t : range) {
+				if ((payer == null || payer.equals(t.getPayer()))
+						&& (tokens.isEmpty() || DescriptionIndex.matches(tokens, t.getDescription()))) {
+					result.add(t);
+				}
+			}
+			return result;
+		}
+		BitSet hits = descriptionIndex.search(tokens);
+		hits.andNot(retired);
+		for (int seq = hits.nextSetBit(0); seq >= 0; seq = hits.nextSetBit(seq + 1)) {
+			Transaction t = transactions.get(seq);
+			if (!t.getDate().isBefore(start) && !t.getDate().isAfter(end)
+					&& (payer == null || payer.equals(t.getPayer()))) {
 				result.add(t);
 			}
 		}
+		result.sort(Comparator.comparing(Transaction::getDate));
 		return result;
 	}
 
 	/**
-	 * Gibt alle Transaktionen sortiert nach Datum zurück (älteste zuerst).
+	 * Gibt den Ausschnitt des Datumsindex für einen Zeitraum zurück.
 	 *
-	 * @return Liste der Transaktionen, aufsteigend nach Datum sortiert
+	 * @param from erstes Datum (einschließlich)
+	 * @param to   letztes Datum (einschließlich)
+	 * @return eine Sicht auf den Datumsindex, leer wenn {@code from} nach
+	 *         {@code to} liegt
 	 */
-	public List<Transaction> getTransactionsSortedByDate() {
-		List<Transaction> sorted = new ArrayList<>(transactions);
-		Collections.sort(sorted, Comparator.comparing(Transaction::getDate));
-		return sorted;
+	private List<Transaction> rangeByDate(LocalDate from, LocalDate to) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("Zeitraum darf nicht null sein");
+		}
+		if (from.isAfter(to)) {
+			return Collections.emptyList();
+		}
+		return byDate.subList(lowerBound(from), upperBound(to));
+	}
+
+	/**
+	 * Position der ersten Transaktion im Datumsindex, deren Datum nicht vor
+	 * {@code date} liegt.
+	 *
+	 * @param date das gesuchte Datum
+	 * @return die Position im Datumsindex
+	 */
+	private int lowerBound(LocalDate date) {
+		int lo = 0;
+		int hi = byDate.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (byDate.get(mid).getDate().isBefore(date)) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
 	}
 
 	/**
-	 * Gibt alle Transaktionen sortiert nach Betrag zurück (größter zuerst).
+	 * Position der ersten Transaktion im Datumsindex, deren Datum nach
+	 * {@code date} liegt.
 	 *
-	 * @return Liste der Transaktionen, absteigend nach Betrag sortiert
+	 * @param date das gesuchte Datum
+	 * @return die Position im Datumsindex
 	 */
-	public List<Transaction> getTransactionsSortedByAmount() {
-		List<Transaction> sorted = new ArrayList<>(transactions);
-		Collections.sort(sorted, (t1, t2) -> Double.compare(t2.getAmount(), t1.getAmount()));
-		return sorted;
+	private int upperBound(LocalDate date) {
+		int lo = 0;
+		int hi = byDate.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (byDate.get(mid).getDate().isAfter(date)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
 	}
 
 	/**
-	 * Speichert das aktuelle {@code Ledger}-Objekt einschließlich aller
-	 * Transaktionen in eine Datei.
+	 * Position im Betragsindex, an der eine Transaktion mit dem angegebenen
+	 * Betrag eingefügt wird: hinter allen Transaktionen mit gleichem oder
+	 * größerem Betrag.
+	 *
+	 * @param amountCents der Betrag in Cent
+	 * @return die Einfügeposition im Betragsindex
+	 */
+	private int amountInsertionPoint(long amountCents) {
+		int lo = 0;
+		int hi = byAmount.size();
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (byAmount.get(mid).getAmountCents() < amountCents) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Gibt alle Transaktionen sortiert nach Datum zurück (älteste zuerst). Die
+	 * Reihenfolge wird beim Hinzufügen gepflegt, der Aufruf sortiert nicht neu.
+	 *
+	 * @return unveränderliche Kopie der Transaktionen, aufsteigend nach Datum
+	 *         sortiert
+	 */
+	public synchronized List<Transaction> getTransactionsSortedByDate() {
+		return Collections.unmodifiableList(new ArrayList<>(byDate));
+	}
+
+	/**
+	 * Gibt alle Transaktionen sortiert nach Betrag zurück (größter zuerst). Die
+	 * Reihenfolge wird beim Hinzufügen gepflegt, der Aufruf sortiert nicht neu.
+	 *
+	 * @return unveränderliche Kopie der Transaktionen, absteigend nach Betrag
+	 *         sortiert
+	 */
+	public synchronized List<Transaction> getTransactionsSortedByAmount() {
+		return Collections.unmodifiableList(new ArrayList<>(byAmount));
+	}
+
+	/**
+	 * Sortierreihenfolgen für {@link #page(SortKey, int, int)}.
+	 */
+	public enum SortKey {
+		/** Aufsteigend nach Datum, bei gleichem Datum in Erfassungsreihenfolge. */
+		DATE,
+		/** Absteigend nach Betrag, bei gleichem Betrag in Erfassungsreihenfolge. */
+		AMOUNT
+	}
+
+	/**
+	 * Gibt einen Ausschnitt der sortierten Transaktionen zurück. Der Ausschnitt
+	 * wird direkt aus dem jeweiligen Index kopiert; Aufwand und Speicher hängen
+	 * nur von {@code limit} ab, nicht von der Anzahl aller Transaktionen.
+	 *
+	 * @param key    die Sortierreihenfolge
+	 * @param offset Position der ersten Transaktion in dieser Reihenfolge
+	 * @param limit  höchste Anzahl zurückgegebener Transaktionen
+	 * @return die Transaktionen ab {@code offset}; leer, wenn {@code offset}
+	 *         hinter der letzten Transaktion liegt
+	 * @throws IllegalArgumentException wenn {@code key} {@code null} oder
+	 *                                  {@code offset} bzw. {@code limit}
+	 *                                  negativ ist
+	 */
+	public synchronized List<Transaction> page(SortKey key, int offset, int limit) {
+		if (key == null) {
+			throw new IllegalArgumentException("Sortierung darf nicht null sein");
+		}
+		if (offset < 0 || limit < 0) {
+			throw new IllegalArgumentException("Position und Anzahl dürfen nicht negativ sein");
+		}
+		List<Transaction> index = key == SortKey.DATE ? byDate : byAmount;
+		int from = Math.min(offset, index.size());
+		int to = from + Math.min(limit, index.size() - from);
+		return new ArrayList<>(index.subList(from, to));
+	}
+
+	/**
+	 * Blättert in Erfassungsreihenfolge über die laufenden Nummern. Anders als
+	 * bei {@link #page(SortKey, int, int)} verschieben gleichzeitige Buchungen,
+	 * Korrekturen oder Stornos dabei keine Einträge: neue Transaktionen
+	 * erhalten stets höhere Nummern, ersetzte und stornierte werden
+	 * übersprungen. So wird jede Transaktion höchstens einmal geliefert.
+	 *
+	 * @param fromSeq erste laufende Nummer
+	 * @param limit   höchste Anzahl gelieferter Transaktionen
+	 * @param target  erhält die gültigen Transaktionen des Ausschnitts
+	 * @return die laufende Nummer für den nächsten Aufruf; gleich
+	 *         {@code fromSeq}, wenn keine weiteren Transaktionen folgen
+	 * @throws IllegalArgumentException wenn {@code fromSeq} oder {@code limit}
+	 *                                  negativ ist
+	 */
+	public synchronized int pageBySequence(int fromSeq, int limit, List<Transaction> target) {
+		if (fromSeq < 0 || limit < 0) {
+			throw new IllegalArgumentException("Position und Anzahl dürfen nicht negativ sein");
+		}
+		int seq = fromSeq;
+		for (int n = 0; seq < transactions.size() && n < limit; seq++) {
+			if (!retired.get(seq)) {
+				target.add(transactions.get(seq));
+				n++;
+			}
+		}
+		return seq;
+	}
+
+	/**
+	 * Position der ersten Transaktion in Datumsreihenfolge (siehe
+	 * {@link SortKey#DATE}), deren Datum nicht vor {@code date} liegt. Zusammen
+	 * mit {@link #page(SortKey, int, int)} lässt sich so ab einem Datum blättern.
+	 *
+	 * @param date das gesuchte Datum
+	 * @return die Position; {@link #getTransactionCount()}, wenn alle
+	 *         Transaktionen vor {@code date} liegen
+	 * @throws IllegalArgumentException wenn {@code date} {@code null} ist
+	 */
+	public synchronized int positionOf(LocalDate date) {
+		if (date == null) {
+			throw new IllegalArgumentException("Datum darf nicht null sein");
+		}
+		return lowerBound(date);
+	}
+
+	/**
+	 * @return Anzahl aller gültigen Transaktionen
+	 */
+	public synchronized int getTransactionCount() {
+		return live().size();
+	}
+
+	/**
+	 * Speichert das {@code Ledger}-Objekt. Ist für diese Datei bereits ein
+	 * Journal aktiv und hat es weniger als {@link #COMPACTION_THRESHOLD}
+	 * Einträge, sind alle Transaktionen bereits dauerhaft gespeichert und es wird
+	 * nichts geschrieben. Andernfalls (oder wenn die Datei noch im alten Format
+	 * vorliegt) wird ein vollständiger Snapshot geschrieben und das Journal
+	 * geleert.
 	 *
 	 * @param filename Pfad und Dateiname, unter dem gespeichert werden soll
 	 * @throws IOException bei einem Fehler beim Schreiben der Datei
 	 */
 	public void saveToFile(String filename) throws IOException {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-			oos.writeObject(this); 
-			System.out.println("Ledger erfolgreich in " + filename + " gespeichert.");
+		Snapshot snapshot = prepareSnapshot(filename, false);
+		if (snapshot == null) {
+			System.out.println("Ledger in " + filename + " ist aktuell (" + journal.getRecordCount()
+					+ " Einträge im Journal).");
+			return;
+		}
+		snapshot.write();
+		completeSnapshot(snapshot);
+		System.out.println("Ledger erfolgreich in " + filename + " gespeichert.");
+	}
+
+	/**
+	 * Schreibt einen vollständigen Snapshot aller Transaktionen im
+	 * {@link BinaryCodec}-Format und leert danach das zugehörige Journal. Der
+	 * Snapshot wird zunächst in eine temporäre Datei geschrieben und dann atomar
+	 * umbenannt, sodass bei einem Absturz immer ein vollständiger Snapshot
+	 * vorhanden ist.
+	 *
+	 * @param filename Pfad und Dateiname, unter dem gespeichert werden soll
+	 * @throws IOException bei einem Fehler beim Schreiben der Datei
+	 */
+	public void compact(String filename) throws IOException {
+		Snapshot snapshot = prepareSnapshot(filename, true);
+		snapshot.write();
+		completeSnapshot(snapshot);
+		System.out.println("Ledger erfolgreich in " + filename + " gespeichert.");
+	}
+
+	/**
+	 * Hält den aktuellen Stand für einen Snapshot fest. Es wird nur die Liste
+	 * kopiert, nicht die Transaktionen; das Schreiben mit
+	 * {@link Snapshot#write()} kann danach auf einem anderen Thread erfolgen,
+	 * während weiter gebucht wird.
+	 *
+	 * @param filename Zieldatei
+	 * @param force    auch dann einen Snapshot anlegen, wenn das Journal
+	 *                 ausreicht
+	 * @return der Snapshot oder {@code null}, wenn das Journal zur Datei bereits
+	 *         alles enthält und noch nicht kompaktiert werden muss
+	 */
+	synchronized Snapshot prepareSnapshot(String filename, boolean force) {
+		if (!force && journal != null && filename.equals(snapshotFile) && !legacySnapshot
+				&& journal.getRecordCount() < COMPACTION_THRESHOLD) {
+			return null;
+		}
+		return new Snapshot(filename, new ArrayList<>(transactions), new ArrayList<>(revisions),
+				descriptionIndex.copy());
+	}
+
+	/**
+	 * Übernimmt einen geschriebenen Snapshot: Das Journal zur Snapshot-Datei
+	 * enthält danach genau die Transaktionen, die seit dem Festhalten des
+	 * Snapshots hinzugekommen sind, sowie die seitdem erfolgten Ausgleiche,
+	 * Korrekturen und Stornos.
+	 *
+	 * @param snapshot der mit {@link Snapshot#write()} geschriebene Snapshot
+	 * @throws IOException wenn das Journal nicht geschrieben werden kann
+	 */
+	synchronized void completeSnapshot(Snapshot snapshot) throws IOException {
+		int n = snapshot.transactions.size();
+		TransactionJournal neu = new TransactionJournal(snapshot.filename + JOURNAL_SUFFIX);
+		neu.rewrite(n, new ArrayList<>(transactions.subList(n, transactions.size())),
+				new ArrayList<>(revisions.subList(snapshot.revisions.size(), revisions.size())));
+		journal = neu;
+		snapshotFile = snapshot.filename;
+		legacySnapshot = false;
+	}
+
+	/**
+	 * Schreibt alle Transaktionen in einen spaltenorientierten
+	 * {@link ColumnarTransactionStore}, der für große Archive per Memory-Mapping
+	 * geöffnet werden kann, ohne die Transaktionen auf den Heap zu laden.
+	 *
+	 * @param filename Pfad und Dateiname des Archivs
+	 * @throws IOException bei einem Fehler beim Schreiben der Datei
+	 */
+	public void exportColumnar(String filename) throws IOException {
+		List<Transaction> sorted;
+		synchronized (this) {
+			sorted = new ArrayList<>(byDate);
+		}
+		ColumnarTransactionStore.write(Paths.get(filename), sorted);
+		System.out.println("Ledger-Archiv mit " + sorted.size() + " Transaktionen in " + filename + " geschrieben.");
+	}
+
+	/**
+	 * Baut die nicht serialisierten Indizes nach dem Deserialisieren aus den
+	 * geladenen Transaktionen neu auf.
+	 *
+	 * @param in der Eingabestrom
+	 * @throws IOException            bei einem Lesefehler
+	 * @throws ClassNotFoundException wenn eine Klasse nicht gefunden wird
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		listeners = new CopyOnWriteArrayList<>();
+		initIndexes();
+		for (int i = 0; i < transactions.size(); i++) {
+			descriptionIndex.add(i, transactions.get(i).getDescription());
+			index(transactions.get(i));
 		}
 	}
 
 	/**
 	 * Lädt ein {@code Ledger}-Objekt aus einer Datei. Falls die Datei nicht
-	 * existiert, wird ein neues leeres {@code Ledger} zurückgegeben.
+	 * existiert, wird ein neues leeres {@code Ledger} zurückgegeben. Dateien im
+	 * alten Format (Java-Serialisierung) werden weiterhin gelesen und beim
+	 * nächsten Speichern im {@link BinaryCodec}-Format geschrieben. Anschließend
+	 * werden die Einträge des zugehörigen Journals nachgespielt; neue
+	 * Transaktionen werden ab dann in dieses Journal geschrieben.
 	 *
 	 * @param filename Pfad und Dateiname, aus dem geladen werden soll
 	 * @return das geladene {@code Ledger}-Objekt
@@ -155,17 +1469,180 @@ public class Ledger implements Serializable {
 	 *                                gefunden wird
 	 */
 	public static Ledger loadFromFile(String filename) throws IOException, ClassNotFoundException {
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-			Object obj = ois.readObject(); 
-			if (obj instanceof Ledger) {
-				System.out.println("Ledger erfolgreich aus " + filename + " geladen.");
-				return (Ledger) obj; 
-			} else {
-				throw new IOException("Datei enthält kein gültiges Ledger-Objekt.");
-			}
-		} catch (FileNotFoundException e) {
+		Path path = Paths.get(filename);
+		Ledger ledger;
+		boolean legacy = false;
+		if (!Files.exists(path)) {
 			System.out.println("Die Datei '" + filename + "' wurde nicht gefunden. Ein neuer Ledger wird erstellt.");
-			return new Ledger(); 
+			ledger = new Ledger(); 
+		} else if (BinaryCodec.isBinaryFile(path)) {
+			ledger = new Ledger();
+			try (InputStream in = Files.newInputStream(path)) {
+				List<LedgerEvent> loadedRevisions = new ArrayList<>();
+				List<Transaction> loaded = BinaryCodec.readTransactions(in, loadedRevisions, ledger.descriptionIndex);
+				for (Transaction t : loaded) {
+					ledger.append(t);
+				}
+				for (LedgerEvent e : loadedRevisions) {
+					ledger.applyRevision(e);
+				}
+			}
+			System.out.println("Ledger erfolgreich aus " + filename + " geladen.");
+		} else {
+			try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+				Object obj = ois.readObject(); 
+				if (obj instanceof Ledger) {
+					System.out.println("Ledger erfolgreich aus " + filename + " geladen (altes Format).");
+					ledger = (Ledger) obj; 
+					legacy = true;
+				} else {
+					throw new IOException("Datei enthält kein gültiges Ledger-Objekt.");
+				}
+			}
+		}
+		ledger.replayJournal(filename);
+		ledger.legacySnapshot = legacy;
+		return ledger;
+	}
+
+	/**
+	 * Spielt das Journal zur angegebenen Snapshot-Datei nach und ordnet es
+	 * diesem Ledger zu. Einträge, die bereits im Snapshot enthalten sind, werden
+	 * übersprungen.
+	 *
+	 * @param filename die Snapshot-Datei
+	 * @throws IOException wenn das Journal nicht gelesen werden kann oder nicht
+	 *                     zum Snapshot passt
+	 */
+	private void replayJournal(String filename) throws IOException {
+		Map<String, Member> members = new HashMap<>();
+		for (Transaction t : transactions) {
+			members.putIfAbsent(t.getPayer().getName(), t.getPayer());
+			for (Member m : t.getBeneficiaries()) {
+				members.putIfAbsent(m.getName(), m);
+			}
+		}
+		TransactionJournal j = new TransactionJournal(filename + JOURNAL_SUFFIX);
+		int[] nachgespielt = new int[1];
+		j.replay(name -> members.computeIfAbsent(name, Member::new), new TransactionJournal.JournalSink() {
+			@Override
+			public void accept(int seq, Transaction t) throws IOException {
+				if (seq < transactions.size()) {
+					return;
+				}
+				if (seq > transactions.size()) {
+					throw new IOException("Journal " + filename + JOURNAL_SUFFIX + " ist lückenhaft (Eintrag "
+							+ seq + " bei " + transactions.size() + " Transaktionen).");
+				}
+				append(t);
+				nachgespielt[0]++;
+			}
+
+			@Override
+			public void settled(int upTo, LocalDate date) throws IOException {
+				check(upTo - 1, "Ausgleich bis " + upTo);
+				for (LedgerEvent e : revisions) {
+					if (e.getType() == LedgerEvent.Type.SETTLED && e.seq == upTo) {
+						return;
+					}
+				}
+				if (upTo == 0) {
+					return;
+				}
+				// ältere Journale speichern kein Datum; dann gilt das der letzten verrechneten Transaktion
+				LocalDate wirksam = date != null ? date : transactions.get(upTo - 1).getDate();
+				applyRevision(new LedgerEvent(LedgerEvent.Type.SETTLED, wirksam, null, null, upTo, -1, upTo));
+			}
+
+			@Override
+			public void corrected(int seq, int replacementSeq, LocalDate date) throws IOException {
+				check(replacementSeq, "Korrektur von " + seq);
+				if (retired.get(seq)) {
+					return;
+				}
+				applyRevision(new LedgerEvent(LedgerEvent.Type.CORRECTED, date, transactions.get(seq),
+						transactions.get(replacementSeq), seq, replacementSeq, replacementSeq));
+			}
+
+			@Override
+			public void voided(int seq, int position, LocalDate date) throws IOException {
+				check(seq, "Storno von " + seq);
+				if (retired.get(seq)) {
+					return;
+				}
+				applyRevision(new LedgerEvent(LedgerEvent.Type.VOIDED, date, transactions.get(seq), null, seq, -1,
+						position));
+			}
+
+			/**
+			 * Prüft, ob die Transaktion mit der laufenden Nummer bereits
+			 * übernommen wurde.
+			 */
+			private void check(int seq, String eintrag) throws IOException {
+				if (seq >= transactions.size()) {
+					throw new IOException("Journal " + filename + JOURNAL_SUFFIX + " ist lückenhaft (" + eintrag
+							+ " bei " + transactions.size() + " Transaktionen).");
+				}
+			}
+		});
+		if (nachgespielt[0] > 0) {
+			System.out.println(nachgespielt[0] + " Transaktion(en) aus dem Journal nachgespielt.");
+		}
+		journal = j;
+		snapshotFile = filename;
+	}
+
+	/**
+	 * Festgehaltener Stand für einen Snapshot, siehe
+	 * {@link Ledger#prepareSnapshot(String, boolean)}.
+	 */
+	static final class Snapshot {
+		final String filename;
+		final List<Transaction> transactions;
+		final List<LedgerEvent> revisions;
+		final DescriptionIndex descriptions;
+
+		Snapshot(String filename, List<Transaction> transactions, List<LedgerEvent> revisions,
+				DescriptionIndex descriptions) {
+			this.filename = filename;
+			this.transactions = transactions;
+			this.revisions = revisions;
+			this.descriptions = descriptions;
+		}
+
+		/**
+		 * Schreibt den Snapshot atomar im {@link BinaryCodec}-Format. Verändert
+		 * den Ledger nicht.
+		 *
+		 * @throws IOException bei einem Fehler beim Schreiben
+		 */
+		void write() throws IOException {
+			BinaryCodec.writeAtomically(Paths.get(filename),
+					out -> BinaryCodec.writeTransactions(out, transactions, revisions, descriptions));
+		}
+	}
+
+	/**
+	 * Veränderbarer Saldo in Cent, damit die Fortschreibung ohne Boxing
+	 * auskommt.
+	 */
+	private static final class Saldo {
+		long cents;
+	}
+
+	/**
+	 * Saldenänderung durch eine Korrektur oder ein Storno: eine Transaktion wird
+	 * ab einem Datum ver- oder ausgebucht.
+	 */
+	private static final class Adjustment {
+		final LocalDate date;
+		final Transaction transaction;
+		final int sign;
+
+		Adjustment(LocalDate date, Transaction transaction, int sign) {
+			this.date = date;
+			this.transaction = transaction;
+			this.sign = sign;
 		}
 	}
 }
\ No newline at end of file
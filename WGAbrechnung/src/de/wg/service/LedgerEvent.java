@@ -0,0 +1,119 @@
+package de.wg.service;
+
+import de.wg.model.Transaction;
+
+import java.time.LocalDate;
+
+/**
+ * Ein Ereignis im Verlauf eines {@link Ledger}: eine erfasste, korrigierte
+ * oder stornierte Transaktion oder ein Ausgleich. Der Ledger speichert alle
+ * Ereignisse; die aktuellen Transaktionen und Salden sind eine Projektion
+ * daraus (siehe {@link Ledger#getHistory()}).
+ * <p>
+ * Ereignisse sind unveränderlich. Korrigierte und stornierte Transaktionen
+ * bleiben über ihr Ereignis erreichbar.
+ * </p>
+ */
+public final class LedgerEvent {
+
+	/**
+	 * Art eines Ereignisses.
+	 */
+	public enum Type {
+		/** Eine Transaktion wurde erfasst; wirksam ab ihrem Datum. */
+		ADDED,
+		/** Eine Transaktion wurde durch eine neue Fassung ersetzt. */
+		CORRECTED,
+		/** Eine Transaktion wurde storniert. */
+		VOIDED,
+		/** Alle bis dahin erfassten Transaktionen wurden verrechnet. */
+		SETTLED
+	}
+
+	private final Type type;
+	private final LocalDate date;
+	private final Transaction transaction;
+	private final Transaction replacement;
+
+	/** Laufende Nummer der betroffenen Transaktion bzw. Ausgleichsgrenze. */
+	final int seq;
+
+	/** Laufende Nummer der neuen Fassung bei {@link Type#CORRECTED}, sonst -1. */
+	final int replacementSeq;
+
+	/** Anzahl der Transaktionen im Ledger, als das Ereignis erfasst wurde. */
+	final int position;
+
+	/**
+	 * Erstellt ein Ereignis. Nur der {@link Ledger} und die Persistenz legen
+	 * Ereignisse an.
+	 *
+	 * @param type           Art des Ereignisses
+	 * @param date           Datum, ab dem das Ereignis wirkt
+	 * @param transaction    betroffene Transaktion, bei {@link Type#SETTLED}
+	 *                       {@code null}
+	 * @param replacement    neue Fassung bei {@link Type#CORRECTED}, sonst
+	 *                       {@code null}
+	 * @param seq            laufende Nummer der betroffenen Transaktion bzw.
+	 *                       Ausgleichsgrenze
+	 * @param replacementSeq laufende Nummer der neuen Fassung oder -1
+	 * @param position       Anzahl der Transaktionen bei der Erfassung
+	 */
+	LedgerEvent(Type type, LocalDate date, Transaction transaction, Transaction replacement, int seq,
+			int replacementSeq, int position) {
+		this.type = type;
+		this.date = date;
+		this.transaction = transaction;
+		this.replacement = replacement;
+		this.seq = seq;
+		this.replacementSeq = replacementSeq;
+		this.position = position;
+	}
+
+	/**
+	 * @return Art des Ereignisses
+	 */
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * Gibt das Datum zurück, ab dem das Ereignis wirkt: bei
+	 * {@link Type#ADDED} das Datum der Transaktion, sonst das Datum der
+	 * Korrektur, des Stornos bzw. des Ausgleichs.
+	 *
+	 * @return das Datum
+	 */
+	public LocalDate getDate() {
+		return date;
+	}
+
+	/**
+	 * @return die erfasste, korrigierte bzw. stornierte Transaktion; bei
+	 *         {@link Type#SETTLED} {@code null}
+	 */
+	public Transaction getTransaction() {
+		return transaction;
+	}
+
+	/**
+	 * @return die neue Fassung bei {@link Type#CORRECTED}, sonst {@code null}
+	 */
+	public Transaction getReplacement() {
+		return replacement;
+	}
+
+	@Override
+	public String toString() {
+		switch (type) {
+		case CORRECTED:
+			return date + " korrigiert: " + transaction + " -> " + replacement;
+		case VOIDED:
+			return date + " storniert: " + transaction;
+		case SETTLED:
+			return date + " ausgeglichen";
+		default:
+			return date + " erfasst: " + transaction;
+		}
+	}
+}
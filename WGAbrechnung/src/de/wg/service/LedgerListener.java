@@ -0,0 +1,34 @@
+package de.wg.service;
+
+import de.wg.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Empfänger für Änderungen an einem {@link Ledger}, z.B. um die Oberfläche
+ * gezielt zu aktualisieren statt alle Daten neu zu laden.
+ * <p>
+ * Listener werden synchron auf dem Thread aufgerufen, der den Ledger
+ * verändert, nachdem die Änderung vollständig übernommen wurde.
+ * </p>
+ */
+@FunctionalInterface
+public interface LedgerListener {
+
+	/**
+	 * Wird aufgerufen, nachdem Transaktionen hinzugefügt wurden. Salden und
+	 * sortierte Ansichten enthalten die Transaktionen bereits.
+	 *
+	 * @param added die neuen Transaktionen in Erfassungsreihenfolge
+	 */
+	void transactionsAdded(List<Transaction> added);
+
+	/**
+	 * Wird aufgerufen, nachdem eine Transaktion korrigiert oder storniert
+	 * wurde. Salden und sortierte Ansichten sind bereits angepasst.
+	 *
+	 * @param event das Korrektur- bzw. Storno-Ereignis
+	 */
+	default void transactionRevised(LedgerEvent event) {
+	}
+}
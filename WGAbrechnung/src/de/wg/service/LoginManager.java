@@ -1,5 +1,6 @@
 package de.wg.service;
 
+import de.wg.model.Money;
 import de.wg.model.User;
 import de.wg.model.RuleSet;
 import de.wg.model.AccountHolder;
@@ -37,15 +38,31 @@ public class LoginManager {
 	 *         Schuldenhinweis
 	 */
 	public String login(User user, String eingegebenerHash) {
+		return login(user, eingegebenerHash, user instanceof AccountHolder ? (AccountHolder) user : null);
+	}
+
+	/**
+	 * Führt den Login-Vorgang durch und prüft die Schulden am übergebenen
+	 * Konto-Inhaber, in der Regel dem zum Benutzer gehörenden Mitglied. Ist
+	 * dessen Konto an den Ledger gebunden (siehe
+	 * {@link Ledger#bindAccounts(MemberManager)}), ist der Kontostand aktuell
+	 * und die Prüfung kommt ohne Neuberechnung aus.
+	 *
+	 * @param user             der Benutzer, der sich anmelden möchte
+	 * @param eingegebenerHash der Hash des eingegebenen Passworts
+	 * @param accountHolder    der zu prüfende Konto-Inhaber oder {@code null}
+	 * @return eine Textmeldung über Erfolg oder Misserfolg des Logins, ggf. mit
+	 *         Schuldenhinweis
+	 */
+	public String login(User user, String eingegebenerHash, AccountHolder accountHolder) {
 		if (!user.verifyPassword(eingegebenerHash)) {
 			return "Login fehlgeschlagen: Falsches Passwort.";
 		}
 
 		String hinweis = null;
 
-		if (user instanceof AccountHolder) {
-			AccountHolder accountHolder = (AccountHolder) user;
-			double saldo = accountHolder.getAccount().getBalance();
+		if (accountHolder != null) {
+			Money saldo = accountHolder.getAccount().getBalance();
 			hinweis = ruleSet.getHinweisWennSchuldenZuHoch(accountHolder.getName(), saldo);
 		}
 
@@ -0,0 +1,27 @@
+package de.wg.service;
+
+import de.wg.model.Member;
+
+/**
+ * Empfänger für Änderungen an einem {@link MemberManager}.
+ * <p>
+ * Listener werden synchron auf dem Thread aufgerufen, der den MemberManager
+ * verändert.
+ * </p>
+ */
+public interface MemberListener {
+
+	/**
+	 * Wird aufgerufen, nachdem ein Mitglied hinzugefügt wurde.
+	 *
+	 * @param member das neue Mitglied
+	 */
+	void memberAdded(Member member);
+
+	/**
+	 * Wird aufgerufen, nachdem ein Mitglied entfernt wurde.
+	 *
+	 * @param member das entfernte Mitglied
+	 */
+	void memberRemoved(Member member);
+}
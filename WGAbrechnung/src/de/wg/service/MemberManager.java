@@ -1,45 +1,143 @@
 package de.wg.service;
 
 import de.wg.model.Member;
+import de.wg.model.MemberRegistry;
+import de.wg.model.Person;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
  * Verwaltungsklasse für Member-Objekte. Enthält Methoden zum Hinzufügen,
  * Suchen, Sortieren, Speichern und Laden von Mitgliedern.
+ * <p>
+ * Neben der Liste wird ein Index Name &rarr; Mitglied geführt, sodass
+ * {@link #getMemberByName(String)} in konstanter Zeit sucht. Namen sind
+ * eindeutig.
+ * </p>
+ * <p>
+ * Die Liste ist stets nach Namen sortiert (siehe {@link #NAME_ORDER}): Neue
+ * Mitglieder werden per binärer Suche an ihrer Position eingefügt, sodass
+ * {@link #getAllMembers()} ohne erneutes Sortieren geordnet ist und
+ * {@link #findByPrefix(String, int)} Namensanfänge für Suche und
+ * Autovervollständigung in logarithmischer Zeit findet.
+ * </p>
+ * <p>
+ * Jedes verwaltete Mitglied erhält beim Hinzufügen bzw. Laden eine dichte ID
+ * aus der eigenen {@link MemberRegistry} dieses Managers, über die
+ * Transaktionen es referenzieren. Verschiedene Manager (z.B. verschiedene WGs)
+ * teilen sich weder IDs noch Mitglieder.
+ * </p>
  */
 public class MemberManager implements Serializable {
 
 	private static final long serialVersionUID = 1L; 
+
+	/**
+	 * Reihenfolge der Mitglieder: nach Namen ohne Beachtung der
+	 * Groß-/Kleinschreibung, bei gleichem Namen danach mit.
+	 */
+	public static final Comparator<Person> NAME_ORDER = Comparator
+			.comparing(Person::getName, String.CASE_INSENSITIVE_ORDER).thenComparing(Person::getName);
+
 	private List<Member> members;
 
+	/** Index Name &rarr; Mitglied; wird nicht serialisiert, sondern beim Laden neu aufgebaut. */
+	private transient Map<String, Member> byName;
+
+	/** IDs der verwalteten Mitglieder; wird beim Laden neu aufgebaut. */
+	private transient MemberRegistry registry;
+
+	/** Registrierte Listener für hinzugefügte und entfernte Mitglieder. */
+	private transient List<MemberListener> listeners;
+
 	/**
 	 * Konstruktor für den MemberManager. Initialisiert die interne Liste für die
 	 * Mitglieder.
 	 */
 	public MemberManager() {
 		this.members = new ArrayList<>();
+		this.byName = new HashMap<>();
+		this.registry = new MemberRegistry();
+		this.listeners = new CopyOnWriteArrayList<>();
+	}
+
+	/**
+	 * Registriert einen Listener für Änderungen an den Mitgliedern.
+	 *
+	 * @param listener der Listener
+	 */
+	public void addListener(MemberListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Entfernt einen zuvor registrierten Listener.
+	 *
+	 * @param listener der Listener
+	 */
+	public void removeListener(MemberListener listener) {
+		listeners.remove(listener);
 	}
 
 	/**
 	 * Fügt ein neues Mitglied zur Verwaltung hinzu.
 	 *
 	 * @param member Das hinzuzufügende Member-Objekt. Darf nicht null sein.
-	 * @throws IllegalArgumentException Wenn das übergebene Member-Objekt null ist.
+	 * @throws IllegalArgumentException Wenn das übergebene Member-Objekt null ist
+	 *                                  oder bereits ein Mitglied mit diesem Namen
+	 *                                  existiert.
 	 */
 	public void addMember(Member member) {
 		if (member == null) {
 			throw new IllegalArgumentException("Member darf nicht null sein.");
 		}
-		this.members.add(member);
+		if (byName.putIfAbsent(member.getName(), member) != null) {
+			throw new IllegalArgumentException("Ein Mitglied mit dem Namen '" + member.getName() + "' existiert bereits.");
+		}
+		registry.idOf(member);
+		int index = Collections.binarySearch(members, member, NAME_ORDER);
+		this.members.add(index < 0 ? -index - 1 : index, member);
+		for (MemberListener l : listeners) {
+			l.memberAdded(member);
+		}
+	}
+
+	/**
+	 * Gibt die ID eines Mitglieds zurück (siehe {@link MemberRegistry}).
+	 *
+	 * @param member das Mitglied
+	 * @return die ID ab 0 oder -1, wenn das Mitglied hier nie verwaltet wurde
+	 */
+	public int getId(Member member) {
+		return registry.find(member);
+	}
+
+	/**
+	 * Sucht ein verwaltetes Mitglied anhand seiner ID.
+	 *
+	 * @param id die ID
+	 * @return das Mitglied, falls es verwaltet wird, sonst null
+	 */
+	public Member getMemberById(int id) {
+		if (id < 0 || id >= registry.size()) {
+			return null;
+		}
+		return byName.get(registry.member(id).getName());
 	}
 
 	/**
-	 * Gibt eine unveränderliche Liste aller verwalteten Mitglieder zurück.
+	 * Gibt eine unveränderliche Liste aller verwalteten Mitglieder zurück,
+	 * sortiert nach {@link #NAME_ORDER}.
 	 *
 	 * @return Eine unveränderliche Liste von Member-Objekten.
 	 */
@@ -54,12 +152,61 @@ public class MemberManager implements Serializable {
 	 * @return Das Member-Objekt, falls gefunden, sonst null.
 	 */
 	public Member getMemberByName(String name) {
-		for (Member member : members) {
-			if (member.getName().equals(name)) {
-				return member;
+		return byName.get(name);
+	}
+
+	/**
+	 * Sucht Mitglieder, deren Name mit dem angegebenen Präfix beginnt, ohne
+	 * Beachtung der Groß-/Kleinschreibung. Die Treffer sind sortiert; gesucht
+	 * wird per binärer Suche, danach werden nur die Treffer gelesen.
+	 *
+	 * @param prefix der Namensanfang; ein leerer Präfix passt auf alle
+	 * @param limit  höchstens so viele Treffer
+	 * @return die ersten Treffer in sortierter Reihenfolge
+	 * @throws IllegalArgumentException wenn der Präfix null oder das Limit
+	 *                                  negativ ist
+	 */
+	public List<Member> findByPrefix(String prefix, int limit) {
+		if (prefix == null) {
+			throw new IllegalArgumentException("Präfix darf nicht null sein.");
+		}
+		if (limit < 0) {
+			throw new IllegalArgumentException("Limit darf nicht negativ sein.");
+		}
+		List<Member> result = new ArrayList<>(Math.min(limit, 16));
+		for (int i = indexOfPrefix(prefix); i >= 0 && i < members.size() && result.size() < limit; i++) {
+			Member member = members.get(i);
+			if (!member.getName().regionMatches(true, 0, prefix, 0, prefix.length())) {
+				break;
+			}
+			result.add(member);
+		}
+		return result;
+	}
+
+	/**
+	 * Gibt die Position des ersten Mitglieds in {@link #getAllMembers()}
+	 * zurück, dessen Name mit dem Präfix beginnt (ohne Beachtung der
+	 * Groß-/Kleinschreibung).
+	 *
+	 * @param prefix der Namensanfang
+	 * @return die Position oder -1, wenn kein Name so beginnt
+	 */
+	public int indexOfPrefix(String prefix) {
+		int low = 0;
+		int high = members.size();
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (String.CASE_INSENSITIVE_ORDER.compare(members.get(mid).getName(), prefix) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
 		}
-		return null;
+		if (low < members.size() && members.get(low).getName().regionMatches(true, 0, prefix, 0, prefix.length())) {
+			return low;
+		}
+		return -1;
 	}
 
 	/**
@@ -69,33 +216,78 @@ public class MemberManager implements Serializable {
 	 * @return True, wenn das Mitglied erfolgreich entfernt wurde, sonst false.
 	 */
 	public boolean removeMember(Member member) {
-		return this.members.remove(member);
+		int index = member == null ? -1 : Collections.binarySearch(members, member, NAME_ORDER);
+		if (index < 0) {
+			index = members.indexOf(member);
+		}
+		if (index < 0) {
+			return false;
+		}
+		members.remove(index);
+		byName.remove(member.getName());
+		for (MemberListener l : listeners) {
+			l.memberRemoved(member);
+		}
+		return true;
 	}
 
 	/**
-	 * Sortiert die Mitglieder alphabetisch nach Namen.
+	 * Stellt Sortierung und Namensindex nach Umbenennungen wieder her. Die
+	 * Liste ist sonst stets sortiert; nötig ist der Aufruf nur, wenn
+	 * Mitglieder über {@link Person#setName(String)} umbenannt wurden, damit
+	 * sie wieder an ihrer Position und unter ihrem aktuellen Namen gefunden
+	 * werden.
 	 */
 	public void sortMembersByName() {
-		Collections.sort(this.members, Comparator.comparing(Member::getName));
+		rebuildIndex();
 	}
 
 	/**
-	 * Speichert den aktuellen Zustand des MemberManager-Objekts in einer Datei.
+	 * Sortiert die Liste und baut den Namensindex neu auf. Kommt ein Name
+	 * mehrfach vor (nur in Altdateien möglich), gilt wie bisher das erste
+	 * Mitglied. Eine bereits sortierte Liste kostet nur einen Durchlauf.
+	 */
+	private void rebuildIndex() {
+		members.sort(NAME_ORDER);
+		byName = new HashMap<>(members.size() * 2);
+		for (Member member : members) {
+			byName.putIfAbsent(member.getName(), member);
+			registry.idOf(member);
+		}
+		registry.reindex();
+	}
+
+	/**
+	 * Stellt nach der Deserialisierung den Namensindex wieder her.
+	 *
+	 * @param in der Eingabestrom
+	 * @throws IOException            bei einem Lesefehler
+	 * @throws ClassNotFoundException wenn eine Klasse nicht gefunden wird
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		listeners = new CopyOnWriteArrayList<>();
+		registry = new MemberRegistry();
+		rebuildIndex();
+	}
+
+	/**
+	 * Speichert den aktuellen Zustand des MemberManager-Objekts im
+	 * {@link BinaryCodec}-Format in einer Datei. Die Datei wird atomar ersetzt.
 	 *
 	 * @param filename Der Pfad und Dateiname, unter dem die Daten gespeichert
 	 *                 werden sollen.
 	 * @throws IOException Falls ein Fehler beim Schreiben der Datei auftritt.
 	 */
 	public void saveToFile(String filename) throws IOException {
-		try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-			oos.writeObject(this);
-			System.out.println("MemberManager erfolgreich in " + filename + " gespeichert.");
-		}
+		BinaryCodec.writeAtomically(Paths.get(filename), out -> BinaryCodec.writeMembers(out, members));
+		System.out.println("MemberManager erfolgreich in " + filename + " gespeichert.");
 	}
 
 	/**
 	 * Lädt ein MemberManager-Objekt aus einer Datei. Wenn die Datei nicht gefunden
-	 * wird, wird ein neuer, leerer MemberManager zurückgegeben.
+	 * wird, wird ein neuer, leerer MemberManager zurückgegeben. Dateien im alten
+	 * Format (Java-Serialisierung) werden weiterhin gelesen.
 	 *
 	 * @param filename Der Pfad und Dateiname, aus dem die Daten geladen werden
 	 *                 sollen.
@@ -106,18 +298,29 @@ public class MemberManager implements Serializable {
 	 *                                nicht gefunden wird.
 	 */
 	public static MemberManager loadFromFile(String filename) throws IOException, ClassNotFoundException {
-		try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
+		Path path = Paths.get(filename);
+		if (!Files.exists(path)) {
+			System.out.println(
+					"Die Datei '" + filename + "' wurde nicht gefunden. Ein neuer MemberManager wird erstellt.");
+			return new MemberManager(); 
+		}
+		if (BinaryCodec.isBinaryFile(path)) {
+			MemberManager manager = new MemberManager();
+			try (InputStream in = Files.newInputStream(path)) {
+				manager.members.addAll(BinaryCodec.readMembers(in));
+				manager.rebuildIndex();
+			}
+			System.out.println("MemberManager erfolgreich aus " + filename + " geladen.");
+			return manager;
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
 			Object obj = ois.readObject(); 
 			if (obj instanceof MemberManager) {
-				System.out.println("MemberManager erfolgreich aus " + filename + " geladen.");
+				System.out.println("MemberManager erfolgreich aus " + filename + " geladen (altes Format).");
 				return (MemberManager) obj; 
 			} else {
 				throw new IOException("Datei enthält kein gültiges MemberManager-Objekt.");
 			}
-		} catch (FileNotFoundException e) {
-			System.out.println(
-					"Die Datei '" + filename + "' wurde nicht gefunden. Ein neuer MemberManager wird erstellt.");
-			return new MemberManager(); 
 		}
 	}
 }
\ No newline at end of file
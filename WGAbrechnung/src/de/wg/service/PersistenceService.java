@@ -0,0 +1,133 @@
+package de.wg.service;
+
+import de.wg.model.Member;
+import de.wg.model.User;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Speichert Mitglieder, Ledger und Benutzer im Hintergrund, damit die
+ * Oberfläche beim Speichern nicht blockiert.
+ * <p>
+ * {@link #saveAll} hält auf dem aufrufenden Thread einen Stand der drei
+ * Verwaltungen fest (es werden nur die Listen kopiert) und schreibt die drei
+ * Dateien anschließend parallel auf eigenen Threads. Jede Datei wird über
+ * {@link BinaryCodec#writeAtomically} zuerst in eine temporäre Datei
+ * geschrieben und dann umbenannt. Aufeinanderfolgende Speichervorgänge werden
+ * in Aufrufreihenfolge nacheinander ausgeführt, damit sich zwei Vorgänge nicht
+ * dieselbe temporäre Datei teilen.
+ * </p>
+ * <p>
+ * Der Ledger schreibt nur dann einen vollständigen Snapshot, wenn sein Journal
+ * kompaktiert werden muss (siehe {@link Ledger#saveToFile(String)}); sonst ist
+ * er durch das Journal bereits gesichert.
+ * </p>
+ */
+public class PersistenceService implements AutoCloseable {
+
+	/** Ein Thread je Datei. */
+	private static final int THREADS = 3;
+
+	private final ExecutorService executor;
+
+	/** Zuletzt gestarteter Speichervorgang, an den der nächste angehängt wird. */
+	private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+
+	/**
+	 * Erstellt den Dienst mit eigenen Daemon-Threads.
+	 */
+	public PersistenceService() {
+		AtomicInteger nummer = new AtomicInteger();
+		ThreadFactory factory = r -> {
+			Thread t = new Thread(r, "wg-persistenz-" + nummer.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		};
+		this.executor = Executors.newFixedThreadPool(THREADS, factory);
+	}
+
+	/**
+	 * Speichert alle drei Verwaltungen im Hintergrund. Muss auf dem Thread
+	 * aufgerufen werden, der die Verwaltungen verändert; der Stand zum Zeitpunkt
+	 * des Aufrufs wird gespeichert.
+	 *
+	 * @param memberManager Mitglieder
+	 * @param membersFile   Zieldatei der Mitglieder
+	 * @param ledger        Ledger
+	 * @param ledgerFile    Zieldatei des Ledgers
+	 * @param userManager   Benutzer
+	 * @param usersFile     Zieldatei der Benutzer
+	 * @return wird abgeschlossen, wenn alle Dateien geschrieben sind; schlägt
+	 *         mit {@link UncheckedIOException} fehl, wenn eine Datei nicht
+	 *         geschrieben werden konnte
+	 */
+	public synchronized CompletableFuture<Void> saveAll(MemberManager memberManager, String membersFile,
+			Ledger ledger, String ledgerFile, UserManager userManager, String usersFile) {
+		List<Member> members = new ArrayList<>(memberManager.getAllMembers());
+		List<User> users = new ArrayList<>(userManager.getAllUsers());
+		Ledger.Snapshot snapshot = ledger.prepareSnapshot(ledgerFile, false);
+
+		CompletableFuture<Void> previous = last.exceptionally(e -> null);
+		CompletableFuture<Void> current = previous.thenCompose(v -> CompletableFuture.allOf(
+				run(() -> BinaryCodec.writeAtomically(Paths.get(membersFile),
+						out -> BinaryCodec.writeMembers(out, members))),
+				run(() -> {
+					if (snapshot != null) {
+						snapshot.write();
+						ledger.completeSnapshot(snapshot);
+					}
+				}),
+				run(() -> BinaryCodec.writeAtomically(Paths.get(usersFile),
+						out -> BinaryCodec.writeUsers(out, users)))));
+		last = current;
+		return current;
+	}
+
+	/**
+	 * Führt einen Schreibvorgang auf dem Executor aus.
+	 *
+	 * @param task der Schreibvorgang
+	 * @return das Ergebnis
+	 */
+	private CompletableFuture<Void> run(IoTask task) {
+		return CompletableFuture.runAsync(() -> {
+			try {
+				task.run();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Wartet auf laufende Speichervorgänge und beendet die Threads. Wird das
+	 * Warten unterbrochen, bleibt der Unterbrechungsstatus des Threads gesetzt.
+	 */
+	@Override
+	public void close() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Schreibvorgang, der eine {@link IOException} werfen darf.
+	 */
+	@FunctionalInterface
+	private interface IoTask {
+		void run() throws IOException;
+	}
+}
@@ -0,0 +1,246 @@
+package de.wg.service;
+
+import de.wg.exception.UngueltigerBetragException;
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.RecurringExpense;
+import de.wg.model.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Verwaltet wiederkehrende Ausgaben ({@link RecurringExpense}) und verbucht
+ * ihre fälligen Termine im {@link Ledger}.
+ * <p>
+ * {@link #materializeDue(Ledger, LocalDate)} wird beim Start und danach in
+ * regelmäßigen Abständen aufgerufen und erzeugt nur die bis heute fälligen
+ * Transaktionen; sie werden blockweise über
+ * {@link Ledger#addTransactions(java.util.Collection)} übernommen. Zukünftige
+ * Termine werden nie als Objekte erzeugt:
+ * {@link #projectBalances(Ledger, LocalDate)} rechnet sie je Vorlage als
+ * Anzahl mal Anteil direkt in die Salden ein.
+ * </p>
+ * <p>
+ * Nach dem Verbuchen muss der Scheduler gespeichert werden. Da die Buchungen
+ * vorher im Journal landen, kann ein Absturz dazwischen den gespeicherten
+ * Zähler hinter dem Ledger zurücklassen. Vor dem Verbuchen wird deshalb
+ * geprüft, welche der folgenden Termine bereits im Ledger stehen (gleiches
+ * Datum, gleiche Namen von Zahler und Begünstigten, gleicher Betrag, gleiche
+ * Anteile und Beschreibung); diese werden übersprungen und nur gezählt.
+ * </p>
+ */
+public class RecurringScheduler implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	/** Höchstzahl an Transaktionen je Aufruf von {@link Ledger#addTransactions}. */
+	static final int BATCH_SIZE = 1000;
+
+	private final List<RecurringExpense> expenses = new ArrayList<>();
+
+	/**
+	 * Fügt eine wiederkehrende Ausgabe hinzu.
+	 *
+	 * @param expense die Vorlage
+	 * @throws IllegalArgumentException wenn {@code expense} {@code null} ist
+	 */
+	public void addExpense(RecurringExpense expense) {
+		if (expense == null) {
+			throw new IllegalArgumentException("Vorlage darf nicht null sein");
+		}
+		expenses.add(expense);
+	}
+
+	/**
+	 * Entfernt eine wiederkehrende Ausgabe. Bereits verbuchte Termine bleiben
+	 * im Ledger.
+	 *
+	 * @param expense die Vorlage
+	 * @return {@code true}, wenn sie vorhanden war
+	 */
+	public boolean removeExpense(RecurringExpense expense) {
+		return expenses.remove(expense);
+	}
+
+	/**
+	 * @return unveränderliche Liste aller Vorlagen
+	 */
+	public List<RecurringExpense> getAllExpenses() {
+		return Collections.unmodifiableList(expenses);
+	}
+
+	/**
+	 * Verbucht alle bis einschließlich {@code today} fälligen und noch nicht
+	 * verbuchten Termine im Ledger. Termine, die bereits im Ledger stehen,
+	 * werden nicht erneut verbucht.
+	 *
+	 * @param ledger der Ledger
+	 * @param today  Stichtag
+	 * @return Anzahl der verbuchten Transaktionen
+	 */
+	public int materializeDue(Ledger ledger, LocalDate today) {
+		List<Transaction> batch = new ArrayList<>();
+		int count = 0;
+		for (RecurringExpense e : expenses) {
+			int due = e.countUntil(today);
+			e.setMaterialized(skipBooked(ledger, e, due));
+			for (int n = e.getMaterialized(); n < due; n++) {
+				batch.add(e.toTransaction(n));
+				if (batch.size() == BATCH_SIZE) {
+					count += flush(ledger, batch);
+					e.setMaterialized(n + 1);
+				}
+			}
+			count += flush(ledger, batch);
+			e.setMaterialized(Math.max(due, e.getMaterialized()));
+		}
+		return count;
+	}
+
+	/**
+	 * Bestimmt die erste Fälligkeit ab {@link RecurringExpense#getMaterialized()},
+	 * die noch nicht im Ledger steht. Termine werden in Reihenfolge verbucht,
+	 * daher genügt die Prüfung bis zum ersten fehlenden.
+	 */
+	private static int skipBooked(Ledger ledger, RecurringExpense e, int due) {
+		int n = e.getMaterialized();
+		while (n < due && isBooked(ledger, e.toTransaction(n))) {
+			n++;
+		}
+		return n;
+	}
+
+	private static boolean isBooked(Ledger ledger, Transaction termin) {
+		for (Transaction t : ledger.findTransactionsByDate(termin.getDate())) {
+			if (sameName(t.getPayer(), termin.getPayer()) && t.getAmountCents() == termin.getAmountCents()
+					&& Objects.equals(t.getDescription(), termin.getDescription())
+					&& sameShares(t, termin)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean sameShares(Transaction a, Transaction b) {
+		if (a.getBeneficiaryCount() != b.getBeneficiaryCount()) {
+			return false;
+		}
+		for (int i = 0; i < a.getBeneficiaryCount(); i++) {
+			if (!sameName(a.getBeneficiary(i), b.getBeneficiary(i)) || a.getShareCents(i) != b.getShareCents(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Vergleicht Mitglieder nach Namen, da Scheduler und Ledger getrennt
+	 * gespeichert werden und nach dem Laden verschiedene Objekte enthalten.
+	 */
+	private static boolean sameName(Member a, Member b) {
+		return a == b || a.getName().equals(b.getName());
+	}
+
+	/**
+	 * Übernimmt einen Block in den Ledger und leert ihn.
+	 */
+	private static int flush(Ledger ledger, List<Transaction> batch) {
+		int size = batch.size();
+		try {
+			ledger.addTransactions(batch);
+		} catch (UngueltigerBetragException e) {
+			// Beträge werden bereits von RecurringExpense geprüft
+			throw new IllegalStateException(e);
+		}
+		batch.clear();
+		return size;
+	}
+
+	/**
+	 * Berechnet die Salden, die sich bis einschließlich {@code until} ergeben,
+	 * wenn alle noch nicht verbuchten Termine hinzukommen. Es werden keine
+	 * Transaktionen erzeugt: je Vorlage wird die Anzahl offener Termine
+	 * bestimmt und mit Betrag bzw. Anteil multipliziert. Die Anteile werden wie
+	 * im Ledger verteilt.
+	 *
+	 * @param ledger der Ledger mit den bisher verbuchten Transaktionen
+	 * @param until  Stichtag der Vorschau
+	 * @return Saldo je Mitglied
+	 */
+	public Map<Member, Money> projectBalances(Ledger ledger, LocalDate until) {
+		Map<Member, Long> cents = new HashMap<>();
+		for (Map.Entry<Member, Money> e : ledger.getAllBalances().entrySet()) {
+			cents.put(e.getKey(), e.getValue().getCents());
+		}
+		for (RecurringExpense e : expenses) {
+			long offen = e.countUntil(until) - (long) e.getMaterialized();
+			if (offen <= 0) {
+				continue;
+			}
+			cents.merge(e.getPayer(), Math.multiplyExact(offen, e.getAmountCents()), Math::addExact);
+			Transaction termin = e.toTransaction(e.getMaterialized());
+			for (int i = 0; i < termin.getBeneficiaryCount(); i++) {
+				if (termin.isFirstOccurrence(i)) {
+					cents.merge(termin.getBeneficiary(i), Math.multiplyExact(-offen, termin.getShareCents(i)),
+							Math::addExact);
+				}
+			}
+		}
+		Map<Member, Money> result = new HashMap<>(cents.size() * 2);
+		for (Map.Entry<Member, Long> e : cents.entrySet()) {
+			result.put(e.getKey(), Money.ofCents(e.getValue()));
+		}
+		return result;
+	}
+
+	/**
+	 * Speichert die Vorlagen samt Anzahl verbuchter Termine. Die Datei wird
+	 * atomar ersetzt.
+	 *
+	 * @param filename Zieldatei
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public void saveToFile(String filename) throws IOException {
+		BinaryCodec.writeAtomically(Paths.get(filename), out -> {
+			ObjectOutputStream oos = new ObjectOutputStream(out);
+			oos.writeObject(this);
+			oos.flush();
+		});
+	}
+
+	/**
+	 * Lädt die Vorlagen aus einer Datei. Existiert die Datei nicht, wird ein
+	 * leerer Scheduler zurückgegeben.
+	 *
+	 * @param filename Quelldatei
+	 * @return der geladene Scheduler
+	 * @throws IOException            bei einem Fehler beim Lesen
+	 * @throws ClassNotFoundException wenn eine Klasse nicht gefunden wird
+	 */
+	public static RecurringScheduler loadFromFile(String filename) throws IOException, ClassNotFoundException {
+		Path path = Paths.get(filename);
+		if (!Files.exists(path)) {
+			return new RecurringScheduler();
+		}
+		try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			Object obj = ois.readObject();
+			if (obj instanceof RecurringScheduler) {
+				return (RecurringScheduler) obj;
+			}
+			throw new IOException("Datei enthält keine gültigen wiederkehrenden Ausgaben.");
+		}
+	}
+}
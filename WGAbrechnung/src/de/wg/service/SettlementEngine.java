@@ -0,0 +1,243 @@
+package de.wg.service;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Settlement;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Berechnet aus den Salden der Mitglieder eine möglichst kleine Menge von
+ * Ausgleichszahlungen, nach denen alle Salden null sind.
+ * <p>
+ * Standardverfahren ist ein Greedy-Abgleich über zwei Heaps: der größte
+ * Schuldner zahlt an den größten Gläubiger, bis einer von beiden
+ * ausgeglichen ist. Das braucht höchstens {@code n - 1} Zahlungen bei
+ * {@code n} Mitgliedern mit offenem Saldo und läuft in {@code O(n log n)}.
+ * </p>
+ * <p>
+ * Für kleine Gruppen (bis {@link #DEFAULT_EXACT_LIMIT} offene Salden) wird
+ * zusätzlich die exakte Lösung bestimmt: Die minimale Anzahl an Zahlungen ist
+ * {@code n - k}, wobei {@code k} die größte Anzahl an Teilgruppen mit
+ * Saldensumme null ist. {@code k} wird per dynamischer Programmierung über
+ * alle Teilmengen ermittelt ({@code O(2^n * n)}), danach wird jede Teilgruppe
+ * für sich per Greedy ausgeglichen.
+ * </p>
+ */
+public class SettlementEngine {
+
+	/** Bis zu dieser Anzahl offener Salden wird standardmäßig exakt gerechnet. */
+	public static final int DEFAULT_EXACT_LIMIT = 16;
+
+	/** Obergrenze für {@link #exactLimit}, damit die Tabelle in den Speicher passt. */
+	private static final int MAX_EXACT_LIMIT = 24;
+
+	/** Beschreibung der Ausgleichstransaktionen im Ledger. */
+	static final String DESCRIPTION = "Ausgleich";
+
+	private final int exactLimit;
+
+	/**
+	 * Erstellt eine Engine, die bis {@link #DEFAULT_EXACT_LIMIT} offene Salden
+	 * exakt rechnet.
+	 */
+	public SettlementEngine() {
+		this(DEFAULT_EXACT_LIMIT);
+	}
+
+	/**
+	 * Erstellt eine Engine mit eigener Grenze für den exakten Löser.
+	 *
+	 * @param exactLimit höchste Anzahl offener Salden, für die exakt gerechnet
+	 *                   wird; {@code 0} rechnet immer per Greedy
+	 * @throws IllegalArgumentException wenn die Grenze negativ oder größer als
+	 *                                  24 ist
+	 */
+	public SettlementEngine(int exactLimit) {
+		if (exactLimit < 0 || exactLimit > MAX_EXACT_LIMIT) {
+			throw new IllegalArgumentException("Grenze für den exakten Löser muss zwischen 0 und "
+					+ MAX_EXACT_LIMIT + " liegen.");
+		}
+		this.exactLimit = exactLimit;
+	}
+
+	/**
+	 * Berechnet die Ausgleichszahlungen für die übergebenen Salden. Positive
+	 * Salden sind Guthaben, negative Schulden (wie in
+	 * {@link Ledger#getAllBalances()}). Mitglieder mit Saldo null werden
+	 * ignoriert.
+	 *
+	 * @param balances Saldo je Mitglied
+	 * @return die Zahlungen; leer, wenn bereits alles ausgeglichen ist
+	 * @throws IllegalArgumentException wenn die Salden nicht in Summe null
+	 *                                  ergeben
+	 */
+	public List<Settlement> computeSettlements(Map<Member, Money> balances) {
+		List<Member> members = new ArrayList<>();
+		List<Long> cents = new ArrayList<>();
+		long summe = 0;
+		for (Map.Entry<Member, Money> e : balances.entrySet()) {
+			long c = e.getValue().getCents();
+			if (c != 0) {
+				members.add(e.getKey());
+				cents.add(c);
+				summe = Math.addExact(summe, c);
+			}
+		}
+		if (summe != 0) {
+			throw new IllegalArgumentException("Salden ergeben in Summe " + Money.format(summe) + " statt 0.");
+		}
+		Member[] m = members.toArray(new Member[0]);
+		long[] c = new long[m.length];
+		for (int i = 0; i < c.length; i++) {
+			c[i] = cents.get(i);
+		}
+		List<Settlement> result = new ArrayList<>(Math.max(0, m.length - 1));
+		if (m.length <= exactLimit) {
+			for (int[] gruppe : zeroSumGroups(c)) {
+				greedy(m, c, gruppe, result);
+			}
+		} else {
+			int[] alle = new int[m.length];
+			for (int i = 0; i < alle.length; i++) {
+				alle[i] = i;
+			}
+			greedy(m, c, alle, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Berechnet die Ausgleichszahlungen für den aktuellen Stand des Ledgers und
+	 * verbucht sie dort mit {@link Ledger#recordSettlement(List, LocalDate)}.
+	 * Danach sind alle Salden null und alle bis dahin erfassten Transaktionen
+	 * als verrechnet markiert. Berechnen und Verbuchen laufen unter der Sperre
+	 * des Ledgers, damit keine gleichzeitig erfasste Transaktion als verrechnet
+	 * markiert wird, ohne in den Zahlungen enthalten zu sein.
+	 *
+	 * @param ledger der Ledger
+	 * @param date   Datum der Ausgleichszahlungen
+	 * @return die verbuchten Zahlungen
+	 */
+	public List<Settlement> apply(Ledger ledger, LocalDate date) {
+		synchronized (ledger) {
+			List<Settlement> settlements = computeSettlements(ledger.getAllBalances());
+			ledger.recordSettlement(settlements, date);
+			return settlements;
+		}
+	}
+
+	/**
+	 * Gleicht die Mitglieder einer Gruppe per Greedy aus: Der größte Schuldner
+	 * zahlt an den größten Gläubiger. Bei gleichem Betrag entscheidet der Name,
+	 * damit das Ergebnis reproduzierbar ist.
+	 *
+	 * @param m      alle Mitglieder
+	 * @param c      Saldo je Mitglied in Cent
+	 * @param gruppe Indizes der auszugleichenden Mitglieder; Summe muss null sein
+	 * @param result Ziel für die Zahlungen
+	 */
+	private static void greedy(Member[] m, long[] c, int[] gruppe, List<Settlement> result) {
+		Comparator<Offen> order = Comparator.comparingLong((Offen o) -> -o.cents)
+				.thenComparing(o -> o.member.getName());
+		PriorityQueue<Offen> glaeubiger = new PriorityQueue<>(Math.max(1, gruppe.length), order);
+		PriorityQueue<Offen> schuldner = new PriorityQueue<>(Math.max(1, gruppe.length), order);
+		for (int i : gruppe) {
+			if (c[i] > 0) {
+				glaeubiger.add(new Offen(m[i], c[i]));
+			} else if (c[i] < 0) {
+				schuldner.add(new Offen(m[i], -c[i]));
+			}
+		}
+		while (!glaeubiger.isEmpty() && !schuldner.isEmpty()) {
+			Offen an = glaeubiger.poll();
+			Offen von = schuldner.poll();
+			long betrag = Math.min(an.cents, von.cents);
+			result.add(new Settlement(von.member, an.member, Money.ofCents(betrag)));
+			an.cents -= betrag;
+			von.cents -= betrag;
+			if (an.cents > 0) {
+				glaeubiger.add(an);
+			}
+			if (von.cents > 0) {
+				schuldner.add(von);
+			}
+		}
+	}
+
+	/**
+	 * Zerlegt die Salden in die größtmögliche Anzahl disjunkter Teilgruppen mit
+	 * Summe null. {@code best[mask]} ist die größte Anzahl an Präfixen mit Summe
+	 * null über alle Reihenfolgen der Elemente von {@code mask}; jede solche
+	 * Reihenfolge zerfällt an diesen Stellen in Nullsummen-Gruppen.
+	 *
+	 * @param c Salden in Cent, Summe null, höchstens {@link #MAX_EXACT_LIMIT}
+	 * @return die Gruppen als Index-Arrays
+	 */
+	private static List<int[]> zeroSumGroups(long[] c) {
+		int n = c.length;
+		int voll = (1 << n) - 1;
+		long[] summe = new long[voll + 1];
+		byte[] best = new byte[voll + 1];
+		for (int mask = 1; mask <= voll; mask++) {
+			int low = Integer.numberOfTrailingZeros(mask);
+			summe[mask] = summe[mask & (mask - 1)] + c[low];
+			int max = 0;
+			for (int rest = mask; rest != 0; rest &= rest - 1) {
+				int ohne = mask & ~Integer.lowestOneBit(rest);
+				if (best[ohne] > max) {
+					max = best[ohne];
+				}
+			}
+			best[mask] = (byte) (max + (summe[mask] == 0 ? 1 : 0));
+		}
+
+		// Reihenfolge rückwärts rekonstruieren: jeweils ein Element entfernen,
+		// dessen Restmenge den Optimalwert erreicht.
+		int[] reihenfolge = new int[n];
+		int mask = voll;
+		for (int pos = n - 1; pos >= 0; pos--) {
+			int ziel = best[mask] - (summe[mask] == 0 ? 1 : 0);
+			for (int rest = mask; rest != 0; rest &= rest - 1) {
+				int bit = Integer.lowestOneBit(rest);
+				if (best[mask & ~bit] == ziel) {
+					reihenfolge[pos] = Integer.numberOfTrailingZeros(bit);
+					mask &= ~bit;
+					break;
+				}
+			}
+		}
+
+		List<int[]> gruppen = new ArrayList<>();
+		int start = 0;
+		long laufend = 0;
+		for (int pos = 0; pos < n; pos++) {
+			laufend += c[reihenfolge[pos]];
+			if (laufend == 0) {
+				int[] gruppe = new int[pos + 1 - start];
+				System.arraycopy(reihenfolge, start, gruppe, 0, gruppe.length);
+				gruppen.add(gruppe);
+				start = pos + 1;
+			}
+		}
+		return gruppen;
+	}
+
+	/**
+	 * Offener Restbetrag eines Mitglieds während des Greedy-Abgleichs.
+	 */
+	private static final class Offen {
+		final Member member;
+		long cents;
+
+		Offen(Member member, long cents) {
+			this.member = member;
+			this.cents = cents;
+		}
+	}
+}
@@ -0,0 +1,856 @@
+package de.wg.service;
+
+import de.wg.exception.UngueltigerBetragException;
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Importiert und exportiert Transaktionen als CSV oder JSON Lines.
+ * <p>
+ * Beide Richtungen arbeiten zeilenweise über einen gepufferten Strom und
+ * halten höchstens {@link #BATCH_SIZE} Transaktionen gleichzeitig im
+ * Speicher; der Speicherbedarf hängt also nicht von der Dateigröße ab. Der
+ * Export blättert dafür mit
+ * {@link Ledger#pageBySequence(int, int, List)} in Erfassungsreihenfolge durch
+ * den Ledger, sodass gleichzeitige Buchungen keine Zeilen verschieben.
+ * </p>
+ * <p>
+ * Beim Import werden Zahler und Begünstigte über den {@link MemberManager}
+ * aufgelöst. Jede Zeile wird einzeln geprüft (Datum, Betrag größer als 0,
+ * bekannte Mitglieder); fehlerhafte Zeilen werden mit Zeilennummer gemeldet
+ * und übersprungen. Die gültigen Zeilen werden blockweise mit einem einzigen
+ * Journal-Eintrag in den Ledger übernommen.
+ * </p>
+ * <p>
+ * CSV: Semikolon als Trennzeichen, erste Zeile
+ * {@code datum;betrag;zahler;beguenstigte;beschreibung;anteile}, Felder mit
+ * Sonderzeichen in doppelten Anführungszeichen. Begünstigte und Anteile werden
+ * durch {@code |} getrennt; {@code |} und {@code \} in Namen werden mit
+ * {@code \} maskiert. JSON Lines: je Zeile ein Objekt der Form
+ * {@code {"datum":"2024-01-31","betrag":"12.34","zahler":"Anna",
+ * "beguenstigte":["Anna","Ben"],"beschreibung":"Einkauf"}}, bei festen
+ * Anteilen zusätzlich {@code "anteile":["10.00","2.34"]}.
+ * </p>
+ * <p>
+ * Die Anteile sind optional; fehlen sie (auch in Dateien mit der älteren
+ * Kopfzeile ohne {@code anteile}), wird gleichmäßig aufgeteilt.
+ * </p>
+ */
+public final class TransactionImportExport {
+
+	/** Unterstützte Dateiformate. */
+	public enum Format {
+		/** Semikolon-getrennte Werte mit Kopfzeile. */
+		CSV,
+		/** Ein JSON-Objekt je Zeile. */
+		JSON
+	}
+
+	/** Anzahl Transaktionen, die gemeinsam gelesen bzw. übernommen werden. */
+	static final int BATCH_SIZE = 1000;
+
+	/** Höchstzahl gemeldeter Fehlermeldungen; weitere Fehler werden nur gezählt. */
+	static final int MAX_ERRORS = 100;
+
+	private static final String CSV_HEADER = "datum;betrag;zahler;beguenstigte;beschreibung;anteile";
+	/** Kopfzeile von Dateien ohne Spalte für feste Anteile. */
+	private static final String CSV_HEADER_V1 = "datum;betrag;zahler;beguenstigte;beschreibung";
+	private static final char CSV_SEPARATOR = ';';
+	private static final char NAME_SEPARATOR = '|';
+	/** Maskiert {@link #NAME_SEPARATOR} und sich selbst in Namen. */
+	private static final char NAME_ESCAPE = '\\';
+
+	private TransactionImportExport() {
+	}
+
+	/**
+	 * Exportiert alle Transaktionen des Ledgers in Erfassungsreihenfolge in
+	 * eine Datei (UTF-8).
+	 *
+	 * @param ledger der Ledger
+	 * @param file   die Zieldatei
+	 * @param format das Format
+	 * @return Anzahl exportierter Transaktionen
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public static int exportFile(Ledger ledger, Path file, Format format) throws IOException {
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			return exportTransactions(ledger, out, format);
+		}
+	}
+
+	/**
+	 * Exportiert alle Transaktionen des Ledgers in Erfassungsreihenfolge. Der
+	 * Writer wird nicht geschlossen. Während des Exports erfasste Transaktionen
+	 * werden ggf. mit exportiert, keine wird doppelt geschrieben oder
+	 * ausgelassen.
+	 *
+	 * @param ledger der Ledger
+	 * @param out    das Ziel
+	 * @param format das Format
+	 * @return Anzahl exportierter Transaktionen
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public static int exportTransactions(Ledger ledger, Writer out, Format format) throws IOException {
+		BufferedWriter w = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+		if (format == Format.CSV) {
+			w.write(CSV_HEADER);
+			w.newLine();
+		}
+		int count = 0;
+		int seq = 0;
+		List<Transaction> page = new ArrayList<>(BATCH_SIZE);
+		while (true) {
+			int next = ledger.pageBySequence(seq, BATCH_SIZE, page);
+			if (next == seq) {
+				break;
+			}
+			writeAll(w, page, format);
+			count += page.size();
+			page.clear();
+			seq = next;
+		}
+		w.flush();
+		return count;
+	}
+
+	/**
+	 * Exportiert die übergebenen Transaktionen in ihrer Reihenfolge, z.B. das
+	 * Ergebnis von {@link Ledger#findTransactionsBetween}. Der Writer wird nicht
+	 * geschlossen.
+	 *
+	 * @param transactions die Transaktionen
+	 * @param out          das Ziel
+	 * @param format       das Format
+	 * @return Anzahl exportierter Transaktionen
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public static int exportTransactions(Collection<Transaction> transactions, Writer out, Format format)
+			throws IOException {
+		BufferedWriter w = out instanceof BufferedWriter ? (BufferedWriter) out : new BufferedWriter(out);
+		if (format == Format.CSV) {
+			w.write(CSV_HEADER);
+			w.newLine();
+		}
+		writeAll(w, transactions, format);
+		w.flush();
+		return transactions.size();
+	}
+
+	private static void writeAll(BufferedWriter w, Collection<Transaction> transactions, Format format)
+			throws IOException {
+		for (Transaction t : transactions) {
+			if (format == Format.CSV) {
+				writeCsv(w, t);
+			} else {
+				writeJson(w, t);
+			}
+			w.newLine();
+		}
+	}
+
+	/**
+	 * Importiert Transaktionen aus einer Datei (UTF-8).
+	 *
+	 * @param file          die Quelldatei
+	 * @param format        das Format
+	 * @param ledger        Ziel der gültigen Transaktionen
+	 * @param memberManager löst die Namen von Zahler und Begünstigten auf
+	 * @return Ergebnis mit Anzahl übernommener und abgelehnter Zeilen
+	 * @throws IOException bei einem Fehler beim Lesen
+	 */
+	public static ImportResult importFile(Path file, Format format, Ledger ledger, MemberManager memberManager)
+			throws IOException {
+		try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			return importTransactions(in, format, ledger, memberManager);
+		}
+	}
+
+	/**
+	 * Importiert Transaktionen aus einem Zeichenstrom. Der Reader wird nicht
+	 * geschlossen. Bei einem Lesefehler bleiben die bis dahin übernommenen
+	 * Blöcke im Ledger.
+	 *
+	 * @param in            die Quelle
+	 * @param format        das Format
+	 * @param ledger        Ziel der gültigen Transaktionen
+	 * @param memberManager löst die Namen von Zahler und Begünstigten auf
+	 * @return Ergebnis mit Anzahl übernommener und abgelehnter Zeilen
+	 * @throws IOException bei einem Fehler beim Lesen
+	 */
+	public static ImportResult importTransactions(Reader in, Format format, Ledger ledger,
+			MemberManager memberManager) throws IOException {
+		return importTransactions(in, format, memberManager, batch -> {
+			try {
+				ledger.addTransactions(batch);
+			} catch (UngueltigerBetragException e) {
+				// bereits in toTransaction geprüft
+				throw new IllegalStateException(e);
+			}
+		});
+	}
+
+	/**
+	 * Liest und prüft Transaktionen und übergibt sie blockweise (höchstens
+	 * {@link #BATCH_SIZE} je Block) an {@code sink}, z.B. um sie gesammelt in
+	 * einen Ledger zu übernehmen. Der Reader wird nicht geschlossen.
+	 *
+	 * @param in            die Quelle
+	 * @param format        das Format
+	 * @param memberManager löst die Namen von Zahler und Begünstigten auf
+	 * @param sink          erhält jeden Block als neue Liste
+	 * @return Ergebnis mit Anzahl übergebener und abgelehnter Zeilen
+	 * @throws IOException bei einem Fehler beim Lesen oder im Empfänger
+	 */
+	public static ImportResult importTransactions(Reader in, Format format, MemberManager memberManager,
+			BatchSink sink) throws IOException {
+		RecordReader records = format == Format.CSV ? new CsvReader(in) : new JsonLinesReader(in);
+		ImportResult result = new ImportResult();
+		List<Transaction> batch = new ArrayList<>();
+		while (true) {
+			try {
+				Record record = records.next();
+				if (record == null) {
+					break;
+				}
+				batch.add(toTransaction(record, memberManager));
+			} catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+				result.reject(records.line(), e.getMessage());
+			}
+			if (batch.size() == BATCH_SIZE) {
+				flush(batch, sink, result);
+				batch = new ArrayList<>();
+			}
+		}
+		if (!batch.isEmpty()) {
+			flush(batch, sink, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Übergibt einen Block geprüfter Transaktionen.
+	 */
+	private static void flush(List<Transaction> batch, BatchSink sink, ImportResult result) throws IOException {
+		sink.accept(batch);
+		result.imported += batch.size();
+	}
+
+	/**
+	 * Empfänger für Blöcke geprüfter Transaktionen beim Import.
+	 */
+	@FunctionalInterface
+	public interface BatchSink {
+
+		/**
+		 * Übernimmt einen Block.
+		 *
+		 * @param batch die Transaktionen; die Liste gehört danach dem Empfänger
+		 * @throws IOException wenn der Block nicht übernommen werden kann
+		 */
+		void accept(List<Transaction> batch) throws IOException;
+	}
+
+	/**
+	 * Baut aus einem Datensatz eine Transaktion und prüft sie wie
+	 * {@link Ledger#addTransaction(Transaction)}.
+	 *
+	 * @param r             der gelesene Datensatz
+	 * @param memberManager zum Auflösen der Namen
+	 * @return die Transaktion
+	 * @throws IllegalArgumentException wenn ein Feld fehlt oder ungültig ist
+	 */
+	private static Transaction toTransaction(Record r, MemberManager memberManager) {
+		if (r.fieldCount < 4) {
+			throw new IllegalArgumentException("Zu wenige Felder (" + r.fieldCount + ")");
+		}
+		LocalDate date = LocalDate.parse(r.date.trim());
+		Money amount;
+		try {
+			amount = Money.parse(r.amount);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Ungültiger Betrag '" + r.amount + "'");
+		}
+		if (!amount.isPositive()) {
+			throw new IllegalArgumentException("Der Betrag muss größer als 0 sein");
+		}
+		Member payer = member(r.payer, memberManager);
+		List<Member> beneficiaries = new ArrayList<>();
+		for (String name : r.beneficiaries) {
+			beneficiaries.add(member(name, memberManager));
+		}
+		if (beneficiaries.isEmpty()) {
+			throw new IllegalArgumentException("Keine Begünstigten angegeben");
+		}
+		String description = !r.description.isEmpty() ? r.description : null;
+		long[] shares = null;
+		if (!r.shares.isEmpty()) {
+			List<String> values = r.shares;
+			shares = new long[values.size()];
+			for (int i = 0; i < shares.length; i++) {
+				try {
+					shares[i] = Money.parse(values.get(i)).getCents();
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Ungültiger Anteil '" + values.get(i) + "'");
+				}
+			}
+		}
+		return new Transaction(date, amount, payer, beneficiaries, shares, description);
+	}
+
+	/**
+	 * Zerlegt eine durch {@link #NAME_SEPARATOR} getrennte CSV-Liste und hebt
+	 * die Maskierung mit {@link #NAME_ESCAPE} auf; leere Einträge werden
+	 * übersprungen.
+	 */
+	private static List<String> split(String list) {
+		List<String> result = new ArrayList<>();
+		StringBuilder item = new StringBuilder();
+		for (int i = 0; i <= list.length(); i++) {
+			if (i == list.length() || list.charAt(i) == NAME_SEPARATOR) {
+				if (item.length() > 0) {
+					result.add(item.toString());
+					item.setLength(0);
+				}
+			} else if (list.charAt(i) == NAME_ESCAPE && i + 1 < list.length()) {
+				item.append(list.charAt(++i));
+			} else {
+				item.append(list.charAt(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Maskiert {@link #NAME_SEPARATOR} und {@link #NAME_ESCAPE} in einem Namen.
+	 */
+	private static void appendEscaped(StringBuilder sb, String name) {
+		for (int i = 0; i < name.length(); i++) {
+			char c = name.charAt(i);
+			if (c == NAME_SEPARATOR || c == NAME_ESCAPE) {
+				sb.append(NAME_ESCAPE);
+			}
+			sb.append(c);
+		}
+	}
+
+	private static Member member(String name, MemberManager memberManager) {
+		Member m = memberManager.getMemberByName(name.trim());
+		if (m == null) {
+			throw new IllegalArgumentException("Unbekanntes Mitglied '" + name.trim() + "'");
+		}
+		return m;
+	}
+
+	private static void writeCsv(BufferedWriter w, Transaction t) throws IOException {
+		w.write(t.getDate().toString());
+		w.write(CSV_SEPARATOR);
+		w.write(Money.format(t.getAmountCents()));
+		w.write(CSV_SEPARATOR);
+		writeCsvField(w, t.getPayer().getName());
+		w.write(CSV_SEPARATOR);
+		StringBuilder names = new StringBuilder();
+		for (Member m : t.getBeneficiaries()) {
+			if (names.length() > 0) {
+				names.append(NAME_SEPARATOR);
+			}
+			appendEscaped(names, m.getName());
+		}
+		writeCsvField(w, names.toString());
+		w.write(CSV_SEPARATOR);
+		writeCsvField(w, t.getDescription() == null ? "" : t.getDescription());
+		w.write(CSV_SEPARATOR);
+		if (t.hasCustomShares()) {
+			for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+				if (i > 0) {
+					w.write(NAME_SEPARATOR);
+				}
+				w.write(Money.format(t.getShareCents(i)));
+			}
+		}
+	}
+
+	private static void writeCsvField(BufferedWriter w, String value) throws IOException {
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == CSV_SEPARATOR || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!quote) {
+			w.write(value);
+			return;
+		}
+		w.write('"');
+		w.write(value.replace("\"", "\"\""));
+		w.write('"');
+	}
+
+	private static void writeJson(BufferedWriter w, Transaction t) throws IOException {
+		w.write("{\"datum\":\"");
+		w.write(t.getDate().toString());
+		w.write("\",\"betrag\":\"");
+		w.write(Money.format(t.getAmountCents()));
+		w.write("\",\"zahler\":");
+		writeJsonString(w, t.getPayer().getName());
+		w.write(",\"beguenstigte\":[");
+		List<Member> beneficiaries = t.getBeneficiaries();
+		for (int i = 0; i < beneficiaries.size(); i++) {
+			if (i > 0) {
+				w.write(',');
+			}
+			writeJsonString(w, beneficiaries.get(i).getName());
+		}
+		w.write("],\"beschreibung\":");
+		if (t.getDescription() == null) {
+			w.write("null");
+		} else {
+			writeJsonString(w, t.getDescription());
+		}
+		if (t.hasCustomShares()) {
+			w.write(",\"anteile\":[");
+			for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+				if (i > 0) {
+					w.write(',');
+				}
+				w.write('"');
+				w.write(Money.format(t.getShareCents(i)));
+				w.write('"');
+			}
+			w.write(']');
+		}
+		w.write('}');
+	}
+
+	private static void writeJsonString(BufferedWriter w, String value) throws IOException {
+		w.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				w.write("\\\"");
+				break;
+			case '\\':
+				w.write("\\\\");
+				break;
+			case '\n':
+				w.write("\\n");
+				break;
+			case '\r':
+				w.write("\\r");
+				break;
+			case '\t':
+				w.write("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					w.write(String.format("\\u%04x", (int) c));
+				} else {
+					w.write(c);
+				}
+			}
+		}
+		w.write('"');
+	}
+
+	/**
+	 * Ergebnis eines Imports.
+	 */
+	public static final class ImportResult {
+		private int imported;
+		private int rejected;
+		private final List<String> errors = new ArrayList<>();
+
+		private void reject(int line, String message) {
+			rejected++;
+			if (errors.size() < MAX_ERRORS) {
+				errors.add("Zeile " + line + ": " + message);
+			}
+		}
+
+		/**
+		 * @return Anzahl übernommener Transaktionen
+		 */
+		public int getImported() {
+			return imported;
+		}
+
+		/**
+		 * @return Anzahl abgelehnter Zeilen
+		 */
+		public int getRejected() {
+			return rejected;
+		}
+
+		/**
+		 * @return die ersten {@link #MAX_ERRORS} Fehlermeldungen mit Zeilennummer
+		 */
+		public List<String> getErrors() {
+			return Collections.unmodifiableList(errors);
+		}
+
+		@Override
+		public String toString() {
+			return imported + " Transaktionen importiert, " + rejected + " Zeilen abgelehnt";
+		}
+	}
+
+	/**
+	 * Felder eines gelesenen Datensatzes; Begünstigte und Anteile sind bereits
+	 * als Listen zerlegt.
+	 */
+	private static final class Record {
+		String date = "";
+		String amount = "";
+		String payer = "";
+		List<String> beneficiaries = Collections.emptyList();
+		String description = "";
+		List<String> shares = Collections.emptyList();
+		/** Anzahl der vorhandenen Felder; JSON liefert stets alle. */
+		int fieldCount;
+	}
+
+	/**
+	 * Liest Datensätze mit Datum, Betrag, Zahler, Begünstigten, Beschreibung
+	 * und Anteilen.
+	 */
+	private abstract static class RecordReader {
+		final BufferedReader in;
+		int line;
+
+		RecordReader(Reader in) {
+			this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+		}
+
+		/**
+		 * @return der nächste Datensatz oder {@code null} am Ende
+		 * @throws IOException              bei einem Lesefehler
+		 * @throws IllegalArgumentException wenn der Datensatz nicht lesbar ist;
+		 *                                  der nächste Aufruf liest weiter
+		 */
+		abstract Record next() throws IOException;
+
+		/**
+		 * @return Zeilennummer des zuletzt gelesenen Datensatzes
+		 */
+		int line() {
+			return line;
+		}
+	}
+
+	/**
+	 * CSV-Leser nach RFC 4180 mit Semikolon als Trennzeichen. Felder in
+	 * Anführungszeichen dürfen Trennzeichen und Zeilenumbrüche enthalten. Die
+	 * Kopfzeile wird übersprungen, leere Zeilen werden ignoriert.
+	 */
+	private static final class CsvReader extends RecordReader {
+		private final List<String> fields = new ArrayList<>();
+		private final StringBuilder field = new StringBuilder();
+		private boolean header = true;
+		/** Erste Zeile des zuletzt gelesenen Datensatzes. */
+		private int recordStart;
+
+		CsvReader(Reader in) {
+			super(in);
+		}
+
+		@Override
+		Record next() throws IOException {
+			String text;
+			while ((text = in.readLine()) != null) {
+				line++;
+				int start = line;
+				fields.clear();
+				field.setLength(0);
+				boolean quoted = false;
+				while (true) {
+					for (int i = 0; i < text.length(); i++) {
+						char c = text.charAt(i);
+						if (quoted) {
+							if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+								field.append('"');
+								i++;
+							} else if (c == '"') {
+								quoted = false;
+							} else {
+								field.append(c);
+							}
+						} else if (c == '"') {
+							quoted = true;
+						} else if (c == CSV_SEPARATOR) {
+							fields.add(field.toString());
+							field.setLength(0);
+						} else {
+							field.append(c);
+						}
+					}
+					if (!quoted) {
+						break;
+					}
+					text = in.readLine();
+					if (text == null) {
+						break;
+					}
+					line++;
+					field.append('\n');
+				}
+				fields.add(field.toString());
+				if (header) {
+					header = false;
+					String first = String.join(";", fields);
+					if (first.equalsIgnoreCase(CSV_HEADER) || first.equalsIgnoreCase(CSV_HEADER_V1)) {
+						continue;
+					}
+				}
+				if (fields.size() == 1 && fields.get(0).isEmpty()) {
+					continue;
+				}
+				recordStart = start;
+				return toRecord();
+			}
+			return null;
+		}
+
+		private Record toRecord() {
+			Record r = new Record();
+			int n = fields.size();
+			r.fieldCount = n;
+			r.date = fields.get(0);
+			if (n > 1) {
+				r.amount = fields.get(1);
+			}
+			if (n > 2) {
+				r.payer = fields.get(2);
+			}
+			if (n > 3) {
+				r.beneficiaries = split(fields.get(3));
+			}
+			if (n > 4) {
+				r.description = fields.get(4);
+			}
+			if (n > 5 && !fields.get(5).trim().isEmpty()) {
+				r.shares = split(fields.get(5));
+			}
+			return r;
+		}
+
+		@Override
+		int line() {
+			return recordStart;
+		}
+	}
+
+	/**
+	 * Leser für JSON Lines. Unterstützt genau die flachen Objekte, die
+	 * {@link #exportTransactions} schreibt: Zeichenketten, Zahlen, {@code null}
+	 * und Listen von Zeichenketten; unbekannte Schlüssel werden ignoriert.
+	 */
+	private static final class JsonLinesReader extends RecordReader {
+		private String text;
+		private int pos;
+
+		JsonLinesReader(Reader in) {
+			super(in);
+		}
+
+		@Override
+		Record next() throws IOException {
+			while ((text = in.readLine()) != null) {
+				line++;
+				pos = 0;
+				skipBlank();
+				if (pos == text.length()) {
+					continue;
+				}
+				try {
+					return parseObject();
+				} catch (IllegalArgumentException e) {
+					throw new IllegalArgumentException("Ungültiges JSON: " + e.getMessage(), e);
+				}
+			}
+			return null;
+		}
+
+		private Record parseObject() {
+			Record r = new Record();
+			r.fieldCount = 6;
+			expect('{');
+			skipBlank();
+			if (peek() == '}') {
+				pos++;
+				return r;
+			}
+			while (true) {
+				skipBlank();
+				String key = parseString();
+				skipBlank();
+				expect(':');
+				skipBlank();
+				String value = null;
+				List<String> list = null;
+				if (peek() == '[') {
+					pos++;
+					list = new ArrayList<>();
+					skipBlank();
+					if (peek() == ']') {
+						pos++;
+					} else {
+						while (true) {
+							skipBlank();
+							list.add(parseString());
+							skipBlank();
+							char c = take();
+							if (c == ']') {
+								break;
+							}
+							if (c != ',') {
+								throw new IllegalArgumentException("',' oder ']' erwartet");
+							}
+						}
+					}
+				} else if (peek() == '"') {
+					value = parseString();
+				} else {
+					int start = pos;
+					while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) {
+						pos++;
+					}
+					value = text.substring(start, pos);
+					if (value.equals("null")) {
+						value = "";
+					}
+				}
+				switch (key) {
+				case "datum":
+					r.date = scalar(key, value);
+					break;
+				case "betrag":
+					r.amount = scalar(key, value);
+					break;
+				case "zahler":
+					r.payer = scalar(key, value);
+					break;
+				case "beguenstigte":
+					r.beneficiaries = list(value, list);
+					break;
+				case "beschreibung":
+					r.description = scalar(key, value);
+					break;
+				case "anteile":
+					r.shares = list(value, list);
+					break;
+				default:
+					break;
+				}
+				skipBlank();
+				char c = take();
+				if (c == '}') {
+					return r;
+				}
+				if (c != ',') {
+					throw new IllegalArgumentException("',' oder '}' erwartet");
+				}
+			}
+		}
+
+		private static String scalar(String key, String value) {
+			if (value == null) {
+				throw new IllegalArgumentException("'" + key + "' darf keine Liste sein");
+			}
+			return value;
+		}
+
+		/**
+		 * Eine Liste bleibt eine Liste, ein einzelner Wert wird zur Liste mit
+		 * einem Eintrag, {@code null} und {@code ""} zur leeren Liste.
+		 */
+		private static List<String> list(String value, List<String> list) {
+			if (list != null) {
+				return list;
+			}
+			return value.isEmpty() ? Collections.emptyList() : Collections.singletonList(value);
+		}
+
+		private String parseString() {
+			expect('"');
+			StringBuilder sb = new StringBuilder();
+			while (true) {
+				char c = take();
+				if (c == '"') {
+					return sb.toString();
+				}
+				if (c != '\\') {
+					sb.append(c);
+					continue;
+				}
+				char e = take();
+				switch (e) {
+				case 'n':
+					sb.append('\n');
+					break;
+				case 'r':
+					sb.append('\r');
+					break;
+				case 't':
+					sb.append('\t');
+					break;
+				case 'b':
+					sb.append('\b');
+					break;
+				case 'f':
+					sb.append('\f');
+					break;
+				case 'u':
+					if (pos + 4 > text.length()) {
+						throw new IllegalArgumentException("Unvollständige Escape-Sequenz");
+					}
+					sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+					pos += 4;
+					break;
+				default:
+					sb.append(e);
+				}
+			}
+		}
+
+		private void skipBlank() {
+			while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+				pos++;
+			}
+		}
+
+		private char peek() {
+			if (pos >= text.length()) {
+				throw new IllegalArgumentException("Unerwartetes Zeilenende");
+			}
+			return text.charAt(pos);
+		}
+
+		private char take() {
+			char c = peek();
+			pos++;
+			return c;
+		}
+
+		private void expect(char c) {
+			if (take() != c) {
+				throw new IllegalArgumentException("'" + c + "' erwartet an Position " + pos);
+			}
+		}
+	}
+}
@@ -0,0 +1,446 @@
+package de.wg.service;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only Journal (Write-Ahead-Log) für neu erfasste Transaktionen eines
+ * {@link Ledger}. Jede Transaktion wird als einzelner Datensatz an die
+ * Journaldatei angehängt, bevor sie im Speicher übernommen wird. Beim Laden
+ * wird der letzte Snapshot gelesen und das Journal darauf nachgespielt.
+ * <p>
+ * Aufbau eines Datensatzes: Länge (int), Nutzdaten, CRC32 der Nutzdaten (int).
+ * Die Nutzdaten beginnen mit der laufenden Nummer der Transaktion im Ledger,
+ * sodass Datensätze, die bereits in einem Snapshot enthalten sind, beim
+ * Nachspielen übersprungen werden. Ein unvollständiger letzter Datensatz (z.B.
+ * nach einem Absturz während des Schreibens) wird verworfen.
+ * </p>
+ * <p>
+ * Neben hinzugefügten Transaktionen kennt das Journal Ausgleichs-Datensätze:
+ * Sie markieren alle Transaktionen mit laufender Nummer unterhalb einer
+ * Grenze als verrechnet.
+ * </p>
+ * <p>
+ * Transaktionen mit festen Anteilen je Begünstigtem werden als eigener
+ * Datensatztyp geschrieben, der an den gewöhnlichen Datensatz die Anteile in
+ * Cent anhängt. Gleichmäßig aufgeteilte Transaktionen bleiben im bisherigen
+ * Format.
+ * </p>
+ * <p>
+ * Korrekturen und Stornos (siehe {@link LedgerEvent}) verweisen über die
+ * laufende Nummer auf die betroffene Transaktion; die neue Fassung einer
+ * Korrektur steht als gewöhnlicher Datensatz davor. Ausgleichs-Datensätze
+ * tragen seitdem ihr Datum; ältere Datensätze ohne Datum werden weiterhin
+ * gelesen.
+ * </p>
+ */
+public class TransactionJournal {
+
+	/** Kennung am Dateianfang ("WGJ1"). */
+	private static final int MAGIC = 0x57474A31;
+
+	/** Obergrenze für die Länge eines Datensatzes; größere Werte gelten als defekt. */
+	private static final int MAX_RECORD_LENGTH = 1 << 20;
+
+	/** Datensatztyp für eine hinzugefügte Transaktion. */
+	private static final byte TYPE_ADD = 1;
+
+	/** Datensatztyp für einen Ausgleich: alle Transaktionen bis zu einer Nummer sind verrechnet. */
+	private static final byte TYPE_SETTLE = 2;
+
+	/** Datensatztyp für eine hinzugefügte Transaktion mit festen Anteilen je Begünstigtem. */
+	private static final byte TYPE_ADD_SHARES = 3;
+
+	/** Datensatztyp für eine Korrektur: eine Transaktion wird durch eine neue Fassung ersetzt. */
+	private static final byte TYPE_CORRECT = 4;
+
+	/** Datensatztyp für ein Storno. */
+	private static final byte TYPE_VOID = 5;
+
+	/** Pfad der Journaldatei. */
+	private final Path path;
+
+	/** Anzahl der Datensätze im Journal. */
+	private int recordCount;
+
+	/**
+	 * Erstellt ein Journal für die angegebene Datei. Die Datei wird erst beim
+	 * ersten Schreiben angelegt.
+	 *
+	 * @param filename Pfad und Dateiname der Journaldatei
+	 */
+	public TransactionJournal(String filename) {
+		this.path = Paths.get(filename);
+	}
+
+	/**
+	 * Gibt die Anzahl der Datensätze im Journal zurück.
+	 *
+	 * @return Anzahl der Datensätze seit der letzten Kompaktierung
+	 */
+	public int getRecordCount() {
+		return recordCount;
+	}
+
+	/**
+	 * Hängt eine Transaktion an das Journal an und schreibt sie dauerhaft auf
+	 * den Datenträger.
+	 *
+	 * @param seq laufende Nummer der Transaktion im Ledger
+	 * @param t   die Transaktion
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public void append(int seq, Transaction t) throws IOException {
+		List<Transaction> single = new ArrayList<>(1);
+		single.add(t);
+		append(seq, single);
+	}
+
+	/**
+	 * Hängt mehrere Transaktionen mit aufeinanderfolgenden Nummern an das Journal
+	 * an. Die Datei wird dafür nur einmal geöffnet und einmal synchronisiert.
+	 *
+	 * @param firstSeq laufende Nummer der ersten Transaktion im Ledger
+	 * @param ts       die Transaktionen in Erfassungsreihenfolge
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public void append(int firstSeq, List<Transaction> ts) throws IOException {
+		recordCount += write(path, firstSeq, ts, Collections.emptyList());
+	}
+
+	/**
+	 * Hängt einen Ausgleich, eine Korrektur oder ein Storno an, zusammen mit
+	 * den dazu neu erfassten Transaktionen (Ausgleichstransaktionen bzw. neue
+	 * Fassung). Alles wird gemeinsam synchronisiert.
+	 *
+	 * @param firstSeq laufende Nummer der ersten neuen Transaktion
+	 * @param ts       die neuen Transaktionen, ggf. leer
+	 * @param revision das Ereignis; nicht {@link LedgerEvent.Type#ADDED}
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public void appendRevision(int firstSeq, List<Transaction> ts, LedgerEvent revision) throws IOException {
+		recordCount += write(path, firstSeq, ts, Collections.singletonList(revision));
+	}
+
+	/**
+	 * Ersetzt den Inhalt des Journals atomar durch die übergebenen Datensätze,
+	 * z.B. nach einem Snapshot mit den Transaktionen, die während des Schreibens
+	 * des Snapshots hinzugekommen sind.
+	 *
+	 * @param firstSeq  laufende Nummer der ersten Transaktion
+	 * @param ts        die Transaktionen, ggf. leer
+	 * @param revisions Ausgleiche, Korrekturen und Stornos seit dem Snapshot in
+	 *                  Erfassungsreihenfolge, ggf. leer
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public void rewrite(int firstSeq, List<Transaction> ts, List<LedgerEvent> revisions) throws IOException {
+		if (ts.isEmpty() && revisions.isEmpty()) {
+			reset();
+			return;
+		}
+		Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+		Files.deleteIfExists(tmp);
+		int written = write(tmp, firstSeq, ts, revisions);
+		Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		recordCount = written;
+	}
+
+	/**
+	 * Hängt Datensätze an eine Datei an und synchronisiert sie.
+	 *
+	 * @param target    die Journaldatei
+	 * @param firstSeq  laufende Nummer der ersten Transaktion
+	 * @param ts        hinzugefügte Transaktionen
+	 * @param revisions anschließend zu schreibende Ausgleiche, Korrekturen und
+	 *                  Stornos
+	 * @return Anzahl der geschriebenen Datensätze
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	private static int write(Path target, int firstSeq, List<Transaction> ts, List<LedgerEvent> revisions)
+			throws IOException {
+		int written = 0;
+		try (FileOutputStream fos = new FileOutputStream(target.toFile(), true)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+			if (fos.getChannel().size() == 0) {
+				out.writeInt(MAGIC);
+			}
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream(128);
+			CRC32 crc = new CRC32();
+			int seq = firstSeq;
+			for (Transaction t : ts) {
+				buffer.reset();
+				writeRecord(new DataOutputStream(buffer), seq++, t);
+				frame(out, buffer, crc);
+				written++;
+			}
+			for (LedgerEvent e : revisions) {
+				buffer.reset();
+				writeRevision(new DataOutputStream(buffer), e);
+				frame(out, buffer, crc);
+				written++;
+			}
+			out.flush();
+			fos.getChannel().force(false);
+		}
+		return written;
+	}
+
+	/**
+	 * Schreibt einen Datensatz mit Länge und Prüfsumme.
+	 *
+	 * @param out    Zielstrom
+	 * @param buffer die Nutzdaten
+	 * @param crc    wiederverwendete Prüfsumme
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	private static void frame(DataOutputStream out, ByteArrayOutputStream buffer, CRC32 crc) throws IOException {
+		crc.reset();
+		crc.update(buffer.toByteArray(), 0, buffer.size());
+		out.writeInt(buffer.size());
+		buffer.writeTo(out);
+		out.writeInt((int) crc.getValue());
+	}
+
+	/**
+	 * Leert das Journal, nachdem sein Inhalt in einen Snapshot übernommen wurde.
+	 *
+	 * @throws IOException bei einem Fehler beim Schreiben
+	 */
+	public void reset() throws IOException {
+		Files.deleteIfExists(path);
+		recordCount = 0;
+	}
+
+	/**
+	 * Spielt das Journal nach. Für jeden gültigen Datensatz wird die
+	 * rekonstruierte Transaktion mit ihrer laufenden Nummer bzw. der Ausgleich
+	 * an {@code sink} übergeben. Ein beschädigter oder unvollständiger Rest am Dateiende wird
+	 * abgeschnitten.
+	 *
+	 * @param members löst Mitgliedsnamen in {@link Member}-Objekte auf
+	 * @param sink    erhält Transaktionen und Ausgleiche
+	 * @throws IOException wenn die Datei nicht gelesen werden kann oder kein
+	 *                     gültiges Journal ist
+	 */
+	public void replay(Function<String, Member> members, JournalSink sink) throws IOException {
+		recordCount = 0;
+		if (!Files.exists(path)) {
+			return;
+		}
+		long validLength = 0;
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Datei " + path + " ist kein gültiges Transaktionsjournal.");
+			}
+			validLength = 4;
+			CRC32 crc = new CRC32();
+			while (true) {
+				byte[] payload;
+				int checksum;
+				try {
+					int length = in.readInt();
+					if (length < 0 || length > MAX_RECORD_LENGTH) {
+						break;
+					}
+					payload = new byte[length];
+					in.readFully(payload);
+					checksum = in.readInt();
+				} catch (EOFException e) {
+					break;
+				}
+				crc.reset();
+				crc.update(payload, 0, payload.length);
+				if ((int) crc.getValue() != checksum) {
+					break;
+				}
+				DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+				readRecord(record, members, sink);
+				validLength += 8 + payload.length;
+				recordCount++;
+			}
+		} catch (EOFException e) {
+			validLength = 0;
+		}
+		if (validLength < Files.size(path)) {
+			System.out.println("Journal " + path + " enthält einen unvollständigen Datensatz, er wird verworfen.");
+			try (FileOutputStream fos = new FileOutputStream(path.toFile(), true)) {
+				fos.getChannel().truncate(validLength);
+			}
+		}
+	}
+
+	/**
+	 * Schreibt einen Datensatz für eine hinzugefügte Transaktion.
+	 *
+	 * @param out Zielstrom
+	 * @param seq laufende Nummer im Ledger
+	 * @param t   die Transaktion
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	private static void writeRecord(DataOutputStream out, int seq, Transaction t) throws IOException {
+		out.writeByte(t.hasCustomShares() ? TYPE_ADD_SHARES : TYPE_ADD);
+		out.writeInt(seq);
+		out.writeLong(t.getDate().toEpochDay());
+		out.writeLong(t.getAmountCents());
+		out.writeUTF(t.getPayer().getName());
+		out.writeInt(t.getBeneficiaries().size());
+		for (Member m : t.getBeneficiaries()) {
+			out.writeUTF(m.getName());
+		}
+		out.writeBoolean(t.getDescription() != null);
+		if (t.getDescription() != null) {
+			out.writeUTF(t.getDescription());
+		}
+		out.writeBoolean(t.isVerrechnet());
+		if (t.hasCustomShares()) {
+			for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+				out.writeLong(t.getShareCents(i));
+			}
+		}
+	}
+
+	/**
+	 * Schreibt einen Datensatz für einen Ausgleich, eine Korrektur oder ein
+	 * Storno.
+	 *
+	 * @param out Zielstrom
+	 * @param e   das Ereignis
+	 * @throws IOException bei einem Schreibfehler
+	 */
+	private static void writeRevision(DataOutputStream out, LedgerEvent e) throws IOException {
+		switch (e.getType()) {
+		case SETTLED:
+			out.writeByte(TYPE_SETTLE);
+			out.writeInt(e.seq);
+			break;
+		case CORRECTED:
+			out.writeByte(TYPE_CORRECT);
+			out.writeInt(e.seq);
+			out.writeInt(e.replacementSeq);
+			break;
+		case VOIDED:
+			out.writeByte(TYPE_VOID);
+			out.writeInt(e.seq);
+			out.writeInt(e.position);
+			break;
+		default:
+			throw new IllegalArgumentException("Kein Revisionsereignis: " + e.getType());
+		}
+		out.writeLong(e.getDate().toEpochDay());
+	}
+
+	/**
+	 * Liest einen Datensatz und übergibt ihn an {@code sink}.
+	 *
+	 * @param in      Quellstrom mit den Nutzdaten eines Datensatzes
+	 * @param members löst Mitgliedsnamen auf
+	 * @param sink    erhält Transaktion bzw. Ausgleich
+	 * @throws IOException bei einem Lesefehler oder unbekanntem Datensatztyp
+	 */
+	private static void readRecord(DataInputStream in, Function<String, Member> members, JournalSink sink)
+			throws IOException {
+		byte type = in.readByte();
+		if (type == TYPE_SETTLE) {
+			int upTo = in.readInt();
+			// Ausgleichs-Datensätze älterer Journale haben kein Datum
+			sink.settled(upTo, in.available() >= 8 ? LocalDate.ofEpochDay(in.readLong()) : null);
+			return;
+		}
+		if (type == TYPE_CORRECT) {
+			int seq = in.readInt();
+			int replacementSeq = in.readInt();
+			sink.corrected(seq, replacementSeq, LocalDate.ofEpochDay(in.readLong()));
+			return;
+		}
+		if (type == TYPE_VOID) {
+			int seq = in.readInt();
+			int position = in.readInt();
+			sink.voided(seq, position, LocalDate.ofEpochDay(in.readLong()));
+			return;
+		}
+		if (type != TYPE_ADD && type != TYPE_ADD_SHARES) {
+			throw new IOException("Unbekannter Journal-Datensatztyp " + type);
+		}
+		int seq = in.readInt();
+		LocalDate date = LocalDate.ofEpochDay(in.readLong());
+		Money amount = Money.ofCents(in.readLong());
+		Member payer = members.apply(in.readUTF());
+		int count = in.readInt();
+		List<Member> beneficiaries = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			beneficiaries.add(members.apply(in.readUTF()));
+		}
+		String description = in.readBoolean() ? in.readUTF() : null;
+		boolean verrechnet = in.readBoolean();
+		long[] shares = null;
+		if (type == TYPE_ADD_SHARES) {
+			shares = new long[count];
+			for (int i = 0; i < count; i++) {
+				shares[i] = in.readLong();
+			}
+		}
+		Transaction t = new Transaction(date, amount, payer, beneficiaries, shares, description);
+		t.setVerrechnet(verrechnet);
+		sink.accept(seq, t);
+	}
+
+	/**
+	 * Empfänger für nachgespielte Journal-Datensätze.
+	 */
+	public interface JournalSink {
+
+		/**
+		 * Übernimmt eine nachgespielte Transaktion.
+		 *
+		 * @param seq laufende Nummer der Transaktion im Ledger
+		 * @param t   die Transaktion
+		 * @throws IOException wenn die Transaktion nicht übernommen werden kann
+		 */
+		void accept(int seq, Transaction t) throws IOException;
+
+		/**
+		 * Übernimmt einen nachgespielten Ausgleich.
+		 *
+		 * @param settledUpTo alle Transaktionen mit kleinerer laufender Nummer
+		 *                    sind verrechnet
+		 * @param date        Datum des Ausgleichs; {@code null} bei Datensätzen
+		 *                    älterer Journale
+		 * @throws IOException wenn der Ausgleich nicht übernommen werden kann
+		 */
+		void settled(int settledUpTo, LocalDate date) throws IOException;
+
+		/**
+		 * Übernimmt eine nachgespielte Korrektur. Die neue Fassung wurde zuvor
+		 * mit {@link #accept(int, Transaction)} übergeben.
+		 *
+		 * @param seq            laufende Nummer der korrigierten Transaktion
+		 * @param replacementSeq laufende Nummer der neuen Fassung
+		 * @param date           Datum der Korrektur
+		 * @throws IOException wenn die Korrektur nicht übernommen werden kann
+		 */
+		void corrected(int seq, int replacementSeq, LocalDate date) throws IOException;
+
+		/**
+		 * Übernimmt ein nachgespieltes Storno.
+		 *
+		 * @param seq      laufende Nummer der stornierten Transaktion
+		 * @param position Anzahl der Transaktionen beim Storno
+		 * @param date     Datum des Stornos
+		 * @throws IOException wenn das Storno nicht übernommen werden kann
+		 */
+		void voided(int seq, int position, LocalDate date) throws IOException;
+	}
+}
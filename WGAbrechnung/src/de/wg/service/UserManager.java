@@ -3,12 +3,20 @@ package de.wg.service;
 import de.wg.model.User;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Verwaltet eine Liste von {@link User}-Objekten.
  * Bietet Methoden zum Hinzufügen, Suchen und zur Persistenz.
+ * Benutzernamen sind eindeutig und über einen Index in konstanter Zeit
+ * auffindbar.
  *
  * @author  Jona
  * @version 1.1
@@ -19,11 +27,22 @@ public class UserManager implements Serializable {
     /** Liste aller verwalteten Benutzer. */
     private List<User> users = new ArrayList<>();
 
+    /** Index Benutzername &rarr; Benutzer; wird beim Laden neu aufgebaut. */
+    private transient Map<String, User> byUsername = new HashMap<>();
+
     /**
      * Fügt einen Benutzer hinzu.
-     * @param user Benutzer-Objekt.
+     * @param  user                     Benutzer-Objekt.
+     * @throws IllegalArgumentException wenn {@code user} null ist oder der
+     *                                  Benutzername bereits vergeben ist.
      */
     public void addUser(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User darf nicht null sein.");
+        }
+        if (byUsername.putIfAbsent(user.getUsername(), user) != null) {
+            throw new IllegalArgumentException("Benutzername '" + user.getUsername() + "' ist bereits vergeben.");
+        }
         users.add(user);
     }
 
@@ -32,10 +51,9 @@ public class UserManager implements Serializable {
      * @param user Zu prüfender Benutzer.
      */
     public void addIfNotExists(User user) {
-        for (User u : users) {
-            if (u.getUsername().equals(user.getUsername())) return;
+        if (byUsername.putIfAbsent(user.getUsername(), user) == null) {
+            users.add(user);
         }
-        users.add(user);
     }
 
     /**
@@ -44,51 +62,78 @@ public class UserManager implements Serializable {
      * @return          Gefundener Benutzer oder {@code null}.
      */
     public User getByUsername(String username) {
+        return byUsername.get(username);
+    }
+
+    /**
+     * Baut den Index aus der Liste neu auf. Bei doppelten Benutzernamen
+     * (nur in Altdateien möglich) gilt wie bisher der erste Eintrag.
+     */
+    private void rebuildIndex() {
+        byUsername = new HashMap<>(users.size() * 2);
         for (User user : users) {
-            if (user.getUsername().equals(username)) {
-                return user;
-            }
+            byUsername.putIfAbsent(user.getUsername(), user);
         }
-        return null;
     }
 
     /**
-     * Lädt einen UserManager aus einer Datei.
+     * Stellt nach der Deserialisierung den Index wieder her.
+     * @param  in                     Eingabestrom.
+     * @throws IOException            Lesefehler.
+     * @throws ClassNotFoundException Klasse nicht gefunden.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        rebuildIndex();
+    }
+
+    /**
+     * Lädt einen UserManager aus einer Datei. Dateien im alten Format
+     * (Java-Serialisierung) werden weiterhin gelesen.
      * @param  filename                   Dateipfad.
      * @return                          Geladener oder neuer UserManager.
      * @throws IOException              Lesefehler.
      * @throws ClassNotFoundException   Klasse nicht gefunden.
      */
     public static UserManager loadFromFile(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
+        Path path = Paths.get(filename);
+        if (!Files.exists(path)) {
+            // Wenn keine Datei da ist, neuen Manager erstellen.
+            return new UserManager();
+        }
+        if (BinaryCodec.isBinaryFile(path)) {
+            UserManager manager = new UserManager();
+            try (InputStream in = Files.newInputStream(path)) {
+                manager.users.addAll(BinaryCodec.readUsers(in));
+                manager.rebuildIndex();
+            }
+            return manager;
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
             Object obj = ois.readObject();
             if (obj instanceof UserManager) {
                 return (UserManager) obj;
             } else {
                 throw new IOException("Ungültiges UserManager-Objekt in Datei.");
             }
-        } catch (FileNotFoundException e) {
-            // Wenn keine Datei da ist, neuen Manager erstellen.
-            return new UserManager();
         }
     }
 
     /**
-     * Speichert diesen UserManager in eine Datei.
+     * Speichert diesen UserManager im {@link BinaryCodec}-Format in eine Datei.
+     * Die Datei wird atomar ersetzt.
      * @param  filename      Dateipfad.
      * @throws IOException   Schreibfehler.
      */
     public void saveToFile(String filename) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(this);
-        }
+        BinaryCodec.writeAtomically(Paths.get(filename), out -> BinaryCodec.writeUsers(out, users));
     }
 
     /**
      * Gibt alle Benutzer zurück.
-     * @return Liste aller Benutzer.
+     * @return Unveränderliche Liste aller Benutzer.
      */
     public List<User> getAllUsers() {
-        return users;
+        return Collections.unmodifiableList(users);
     }
 }
\ No newline at end of file
@@ -69,11 +69,11 @@ public class TestApp {
 
 			// Beispiel-Transaktionen erstellen und hinzufügen
 			try {
-				Transaction einkauf = new Transaction(LocalDate.now(), 30.0, tom, Arrays.asList(tom, lisa),
+				Transaction einkauf = new Transaction(LocalDate.now(), Money.ofEuro(30.0), tom, Arrays.asList(tom, lisa),
 						"Wocheneinkauf");
 				ledger.addTransaction(einkauf);
 
-				Transaction miete = new Transaction(LocalDate.now().minusDays(5), 500.0, anna,
+				Transaction miete = new Transaction(LocalDate.now().minusDays(5), Money.ofEuro(500.0), anna,
 						Arrays.asList(anna, tom, lisa), "Miete April");
 				ledger.addTransaction(miete);
 
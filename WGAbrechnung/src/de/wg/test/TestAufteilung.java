@@ -0,0 +1,119 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testet gewichtete und feste Anteile je Begünstigtem: Aufteilung ohne
+ * verlorene Cent, Prüfung ungültiger Anteile, Salden sowie Speichern im
+ * Snapshot und im Journal.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestAufteilung {
+
+    /** Test-Dateiname für Transaktionen. */
+    private static final String TEST_LEDGER_FILE = "test_aufteilung.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für die Aufteilung");
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        Member jona = new Member("Jona");
+        Member katha = new Member("Katha");
+        Member lucas = new Member("Lucas");
+        List<Member> alle = Arrays.asList(jona, katha, lucas);
+
+        // 1. Miete nach Zimmergröße (20, 14 und 12 m²) und Rundung auf Cent
+        Transaction miete = Transaction.withWeights(LocalDate.of(2024, 5, 1), Money.ofEuro(920.0), jona, alle,
+                new int[] { 20, 14, 12 }, "Miete");
+        System.out.println("\n1. Miete: " + anteile(miete) + " (erwartet 400.00, 280.00, 240.00)");
+        Transaction strom = Transaction.withWeights(LocalDate.of(2024, 5, 2), Money.ofEuro(100.0), katha, alle,
+                new int[] { 1, 1, 1 }, "Strom");
+        System.out.println("Strom: " + anteile(strom) + " (Summe 100.00)");
+        Transaction gleich = new Transaction(LocalDate.of(2024, 5, 3), Money.ofEuro(10.0), lucas, alle, "Pizza");
+        System.out.println("Gleichmäßig: " + anteile(gleich) + ", feste Anteile: " + gleich.hasCustomShares());
+
+        // 2. Feste Beträge je Begünstigtem
+        Transaction baecker = Transaction.withFixedShares(LocalDate.of(2024, 5, 4), katha, Arrays.asList(jona, lucas),
+                Arrays.asList(Money.ofEuro(3.5), Money.ofEuro(1.2)), "Bäcker");
+        System.out.println("\n2. Bäcker: " + baecker.getAmount() + " EUR, " + anteile(baecker));
+
+        // 3. Ungültige Anteile werden abgewiesen
+        System.out.println("\n3. Summe passt nicht: " + abgewiesen(() -> new Transaction(LocalDate.of(2024, 5, 5),
+                Money.ofEuro(10.0), jona, Arrays.asList(katha, lucas), new long[] { 500, 400 }, "Falsch")));
+        System.out.println("Negativer Anteil: " + abgewiesen(() -> new Transaction(LocalDate.of(2024, 5, 5),
+                Money.ofEuro(1.0), jona, Arrays.asList(katha, lucas), new long[] { 150, -50 }, "Falsch")));
+        System.out.println("Begünstigter doppelt: " + abgewiesen(() -> new Transaction(LocalDate.of(2024, 5, 5),
+                Money.ofEuro(1.0), jona, Arrays.asList(katha, katha), new long[] { 50, 50 }, "Falsch")));
+        System.out.println("Gewichte alle 0: " + abgewiesen(() -> Transaction.withWeights(LocalDate.of(2024, 5, 5),
+                Money.ofEuro(1.0), jona, alle, new int[] { 0, 0, 0 }, "Falsch")));
+        System.out.println("Zu wenige Gewichte: " + abgewiesen(() -> Transaction.withWeights(
+                LocalDate.of(2024, 5, 5), Money.ofEuro(1.0), jona, alle, new int[] { 1, 2 }, "Falsch")));
+
+        // 4. Salden und Speichern in Snapshot und Journal
+        Ledger ledger = new Ledger();
+        ledger.addTransaction(miete);
+        ledger.addTransaction(strom);
+        ledger.saveToFile(TEST_LEDGER_FILE);
+        ledger.addTransaction(gleich);
+        ledger.addTransaction(baecker);
+        System.out.println("\n4. Salden: " + salden(ledger, alle));
+        Ledger ausJournal = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        ausJournal.compact(TEST_LEDGER_FILE);
+        Ledger ausSnapshot = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        System.out.println("Nach dem Laden: " + salden(ausSnapshot, alle));
+        boolean anteileGleich = true;
+        for (int i = 0; i < ledger.getAllTransactions().size(); i++) {
+            anteileGleich &= anteile(ledger.getAllTransactions().get(i))
+                    .equals(anteile(ausSnapshot.getAllTransactions().get(i)));
+        }
+        System.out.println("Anteile gleich: " + anteileGleich + ", Abweichungen laut Prüfung: "
+                + ausSnapshot.verifyBalances());
+
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        System.out.println("\nTests für die Aufteilung abgeschlossen.");
+    }
+
+    private static String anteile(Transaction t) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < t.getBeneficiaryCount(); i++) {
+            sb.append(i > 0 ? ", " : "").append(t.getBeneficiary(i).getName()).append(' ')
+                    .append(Money.format(t.getShareCents(i)));
+        }
+        return sb.toString();
+    }
+
+    private static String salden(Ledger ledger, List<Member> mitglieder) {
+        StringBuilder sb = new StringBuilder();
+        for (Member m : mitglieder) {
+            sb.append(m.getName()).append(' ').append(ledger.getBalance(m)).append("  ");
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Prüft, ob das Erzeugen einer Transaktion mit einer Ausnahme abgewiesen
+     * wird.
+     */
+    private static boolean abgewiesen(Runnable erzeugen) {
+        try {
+            erzeugen.run();
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Settlement;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import de.wg.service.SettlementEngine;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Testet die Berechnung und Verbuchung von Ausgleichszahlungen.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestAusgleich {
+
+    /** Test-Dateiname für Transaktionen. */
+    private static final String TEST_LEDGER_FILE = "test_ausgleich.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für den Ausgleich");
+
+        // 1. Exakter Löser gegen Greedy auf zufälligen kleinen Gruppen
+        System.out.println("\n1. Exakt vs. Greedy");
+        Random random = new Random(7);
+        SettlementEngine exakt = new SettlementEngine();
+        SettlementEngine greedy = new SettlementEngine(0);
+        int besser = 0;
+        boolean korrekt = true;
+        for (int runde = 0; runde < 500; runde++) {
+            Map<Member, Money> salden = zufallsSalden(random, 2 + random.nextInt(11));
+            List<Settlement> e = exakt.computeSettlements(salden);
+            List<Settlement> g = greedy.computeSettlements(salden);
+            korrekt &= gleichtAus(salden, e) && gleichtAus(salden, g) && e.size() <= g.size();
+            if (e.size() < g.size()) {
+                besser++;
+            }
+        }
+        System.out.println("Alle Salden ausgeglichen, exakt nie schlechter: " + korrekt);
+        System.out.println("Exakter Löser spart Zahlungen in " + besser + " von 500 Fällen");
+
+        // 2. Bekanntes Beispiel: zwei unabhängige Paare brauchen zwei Zahlungen
+        Member a = new Member("Anna");
+        Member b = new Member("Ben");
+        Member c = new Member("Cem");
+        Member d = new Member("Dana");
+        Map<Member, Money> paare = new HashMap<>();
+        paare.put(a, Money.ofCents(-500));
+        paare.put(b, Money.ofCents(500));
+        paare.put(c, Money.ofCents(-700));
+        paare.put(d, Money.ofCents(700));
+        List<Settlement> zahlungen = exakt.computeSettlements(paare);
+        System.out.println("\n2. Paare: " + zahlungen);
+        System.out.println("Erwartet 2 Zahlungen: " + (zahlungen.size() == 2));
+
+        // 3. Verbuchen im Ledger inkl. Journal
+        System.out.println("\n3. Verbuchen im Ledger");
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        Ledger ledger = new Ledger();
+        ledger.addTransaction(new Transaction(LocalDate.now(), Money.ofEuro(30.00), a, Arrays.asList(a, b, c), "Einkauf"));
+        ledger.addTransaction(new Transaction(LocalDate.now(), Money.ofEuro(10.01), b, Arrays.asList(c, d), "Pizza"));
+        ledger.saveToFile(TEST_LEDGER_FILE);
+        ledger.addTransaction(new Transaction(LocalDate.now(), Money.ofEuro(4.50), d, Arrays.asList(a, d), "Brot"));
+
+        List<Settlement> verbucht = exakt.apply(ledger, LocalDate.now());
+        System.out.println("Zahlungen: " + verbucht);
+        boolean alleNull = true;
+        for (Money saldo : ledger.getAllBalances().values()) {
+            alleNull &= saldo.equals(Money.ZERO);
+        }
+        System.out.println("Alle Salden null: " + alleNull);
+
+        Ledger geladen = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        boolean verrechnet = geladen.getAllTransactions().size() == ledger.getAllTransactions().size();
+        for (Transaction t : geladen.getAllTransactions()) {
+            verrechnet &= t.isVerrechnet();
+        }
+        System.out.println("Nach dem Laden alle Transaktionen verrechnet: " + verrechnet);
+
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        System.out.println("\nTests für den Ausgleich abgeschlossen.");
+    }
+
+    /**
+     * Erzeugt zufällige Salden mit Summe null.
+     */
+    private static Map<Member, Money> zufallsSalden(Random random, int anzahl) {
+        Map<Member, Money> salden = new HashMap<>();
+        long summe = 0;
+        for (int i = 0; i < anzahl - 1; i++) {
+            long cents = (random.nextInt(21) - 10) * 100L;
+            salden.put(new Member("M" + i), Money.ofCents(cents));
+            summe += cents;
+        }
+        salden.put(new Member("M" + (anzahl - 1)), Money.ofCents(-summe));
+        return salden;
+    }
+
+    /**
+     * Prüft, ob die Zahlungen alle Salden auf null bringen.
+     */
+    private static boolean gleichtAus(Map<Member, Money> salden, List<Settlement> zahlungen) {
+        Map<Member, Money> rest = new HashMap<>(salden);
+        for (Settlement s : zahlungen) {
+            rest.merge(s.getFrom(), s.getAmount(), Money::plus);
+            rest.merge(s.getTo(), s.getAmount(), Money::minus);
+        }
+        for (Money m : rest.values()) {
+            if (!m.equals(Money.ZERO)) {
+                return false;
+            }
+        }
+        return zahlungen.size() <= Math.max(0, salden.size() - 1);
+    }
+}
@@ -0,0 +1,143 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import de.wg.service.MemberManager;
+import de.wg.service.TransactionImportExport;
+import de.wg.service.TransactionImportExport.Format;
+import de.wg.service.TransactionImportExport.ImportResult;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Testet den Import und Export von Transaktionen als CSV und JSON Lines:
+ * Rundreise mit gleichen Salden, Fehlerbehandlung, Namen mit Trennzeichen und
+ * Dauer für große Dateien.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestImportExport {
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args optional die Anzahl der Transaktionen (Standard 200000).
+     */
+    public static void main(String[] args) throws Exception {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        System.out.println("Starte Tests für Import und Export mit " + anzahl + " Transaktionen");
+
+        MemberManager mitglieder = new MemberManager();
+        List<Member> liste = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Member m = new Member(i == 0 ? "Anna; \"die Erste\"" : "Mitglied " + i);
+            mitglieder.addMember(m);
+            liste.add(m);
+        }
+        Random random = new Random(42);
+        Ledger original = new Ledger();
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < anzahl; i++) {
+            List<Member> beguenstigte = new ArrayList<>();
+            beguenstigte.add(liste.get(random.nextInt(liste.size())));
+            beguenstigte.add(liste.get(random.nextInt(liste.size())));
+            String beschreibung = i % 1000 == 0 ? "Zeile\nmit \"Umbruch\";" : i % 7 == 0 ? null : "Einkauf " + i;
+            LocalDate datum = start.plusDays(random.nextInt(3650));
+            Money betrag = Money.ofCents(1 + random.nextInt(20_000));
+            Member zahler = liste.get(random.nextInt(liste.size()));
+            if (i % 5 == 0 && !beguenstigte.get(0).equals(beguenstigte.get(1))) {
+                original.addTransaction(Transaction.withWeights(datum, betrag, zahler, beguenstigte,
+                        new int[] { 1 + i % 3, 2 }, beschreibung));
+            } else {
+                original.addTransaction(new Transaction(datum, betrag, zahler, beguenstigte, beschreibung));
+            }
+        }
+
+        // 1. Rundreise in beiden Formaten
+        for (Format format : Format.values()) {
+            Path datei = Files.createTempFile("wg-export", "." + format.name().toLowerCase());
+            long t0 = System.nanoTime();
+            int exportiert = TransactionImportExport.exportFile(original, datei, format);
+            long t1 = System.nanoTime();
+            Ledger geladen = new Ledger();
+            ImportResult ergebnis = TransactionImportExport.importFile(datei, format, geladen, mitglieder);
+            long t2 = System.nanoTime();
+            System.out.println("\n1. " + format + ": " + exportiert + " exportiert in " + (t1 - t0) / 1_000_000
+                    + " ms, " + ergebnis + " in " + (t2 - t1) / 1_000_000 + " ms (" + Files.size(datei) / 1024 + " KiB)");
+            System.out.println("Salden gleich: " + original.getAllBalances().equals(geladen.getAllBalances()));
+            System.out.println("Datumsreihenfolge gleich: " + gleicheReihenfolge(original, geladen));
+            Files.delete(datei);
+        }
+
+        // 2. Fehlerhafte Zeilen werden gemeldet und übersprungen
+        String csv = "datum;betrag;zahler;beguenstigte;beschreibung\n"
+                + "2024-01-31;12,50;Mitglied 1;Mitglied 1|Mitglied 2;Brot\n"
+                + "2024-02-30;5.00;Mitglied 1;Mitglied 2;falsches Datum\n"
+                + "2024-02-01;-3.00;Mitglied 1;Mitglied 2;negativ\n"
+                + "2024-02-01;3.00;Niemand;Mitglied 2;unbekannt\n"
+                + "2024-02-02;7.00;Mitglied 2;;keine Begünstigten\n"
+                + "2024-02-03;9.00;Mitglied 2;Mitglied 1|Mitglied 3;Anteile;6.00|3.00\n"
+                + "2024-02-03;9.00;Mitglied 2;Mitglied 1|Mitglied 3;falsche Anteile;6.00|2.00\n";
+        Ledger fehlerLedger = new Ledger();
+        ImportResult fehler = TransactionImportExport.importTransactions(new StringReader(csv), Format.CSV,
+                fehlerLedger, mitglieder);
+        System.out.println("\n2. " + fehler);
+        fehler.getErrors().forEach(System.out::println);
+        System.out.println("Erwartet 2 übernommen, 5 abgelehnt: "
+                + (fehler.getImported() == 2 && fehler.getRejected() == 5));
+
+        String json = "{\"datum\":\"2024-03-01\",\"betrag\":9.99,\"zahler\":\"Mitglied 3\",\"beguenstigte\":[\"Mitglied 4\"]}\n"
+                + "{\"datum\":\"2024-03-02\",\"betrag\":\"1.00\"\n";
+        ImportResult jsonFehler = TransactionImportExport.importTransactions(new StringReader(json), Format.JSON,
+                fehlerLedger, mitglieder);
+        System.out.println(jsonFehler + " " + jsonFehler.getErrors());
+
+        // 3. Namen mit Trennzeichen überstehen die Rundreise
+        Member sonder = new Member("Ben|Cem \\ WG");
+        mitglieder.addMember(sonder);
+        Ledger namen = new Ledger();
+        namen.addTransaction(new Transaction(LocalDate.of(2024, 4, 1), Money.ofEuro(9.0), sonder,
+                Arrays.asList(sonder, liste.get(1)), "Trennzeichen"));
+        for (Format format : Format.values()) {
+            StringWriter text = new StringWriter();
+            TransactionImportExport.exportTransactions(namen, text, format);
+            Ledger zurueck = new Ledger();
+            ImportResult ergebnis = TransactionImportExport.importTransactions(new StringReader(text.toString()),
+                    format, zurueck, mitglieder);
+            System.out.println((format == Format.CSV ? "\n3. " : "") + format + ": " + ergebnis + ", Salden gleich: "
+                    + namen.getAllBalances().equals(zurueck.getAllBalances()));
+        }
+
+        System.out.println("\nTests für Import und Export abgeschlossen.");
+    }
+
+    /**
+     * Vergleicht Datum, Betrag und Beschreibung in Datumsreihenfolge.
+     */
+    private static boolean gleicheReihenfolge(Ledger a, Ledger b) {
+        List<Transaction> x = a.getTransactionsSortedByDate();
+        List<Transaction> y = b.getTransactionsSortedByDate();
+        if (x.size() != y.size()) {
+            return false;
+        }
+        for (int i = 0; i < x.size(); i++) {
+            Transaction s = x.get(i);
+            Transaction t = y.get(i);
+            if (!s.getDate().equals(t.getDate()) || s.getAmountCents() != t.getAmountCents()
+                    || !Objects.equals(s.getDescription(), t.getDescription())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,105 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.RuleSet;
+import de.wg.model.Transaction;
+import de.wg.model.User;
+import de.wg.service.Ledger;
+import de.wg.service.LoginManager;
+import de.wg.service.MemberManager;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Testet die an den Ledger gebundenen Konten: Kontostände folgen Buchungen,
+ * Korrekturen und Stornos ohne manuelles Nachführen, neue und entfernte
+ * Mitglieder werden gebunden bzw. gelöst, und der Login prüft die Schulden
+ * am Konto des Mitglieds.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestKontenbindung {
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für die Kontenbindung");
+        MemberManager mitglieder = new MemberManager();
+        Member jona = new Member("Jona");
+        Member katha = new Member("Katha");
+        Member lucas = new Member("Lucas");
+        mitglieder.addMember(jona);
+        mitglieder.addMember(katha);
+        mitglieder.addMember(lucas);
+        List<Member> alle = Arrays.asList(jona, katha, lucas);
+
+        // 1. Bestehende Salden werden beim Binden übernommen
+        Ledger ledger = new Ledger();
+        ledger.addTransaction(new Transaction(LocalDate.of(2024, 1, 5), Money.ofEuro(60.0), katha, alle,
+                "Wocheneinkauf"));
+        System.out.println("\n1. Konto Katha vor dem Binden: " + katha.getAccount().getBalance() + " EUR");
+        ledger.bindAccounts(mitglieder);
+        System.out.println("Nach dem Binden: " + katha.getAccount().getBalance() + " EUR (erwartet 40.00)");
+
+        // 2. Einzel- und Sammelbuchungen, Korrektur und Storno
+        Transaction moebel = new Transaction(LocalDate.of(2024, 1, 8), Money.ofEuro(250.0), jona,
+                Arrays.asList(lucas), "Möbelkauf");
+        ledger.addTransaction(moebel);
+        ledger.addTransactions(Arrays.asList(
+                new Transaction(LocalDate.of(2024, 1, 9), Money.ofEuro(9.0), lucas, alle, "Brot"),
+                new Transaction(LocalDate.of(2024, 1, 10), Money.ofEuro(4.5), katha, Arrays.asList(jona),
+                        "Kaffee")));
+        System.out.println("\n2. Konten: " + konten(alle));
+        System.out.println("Ledger:  " + salden(ledger, alle));
+        ledger.correctTransaction(moebel, new Transaction(moebel.getDate(), Money.ofEuro(200.0), jona,
+                Arrays.asList(lucas), "Möbelkauf (Rabatt)"), LocalDate.of(2024, 1, 12));
+        Transaction kaffee = ledger.findTransactionsByDate(LocalDate.of(2024, 1, 10)).get(0);
+        ledger.voidTransaction(kaffee, LocalDate.of(2024, 1, 12));
+        System.out.println("Nach Korrektur und Storno: " + konten(alle));
+        System.out.println("Ledger:  " + salden(ledger, alle));
+        System.out.println("Abweichungen laut Prüfung: " + ledger.verifyBalances());
+
+        // 3. Neue Mitglieder werden gebunden, entfernte gelöst
+        Member dora = new Member("Dora");
+        mitglieder.addMember(dora);
+        ledger.addTransaction(new Transaction(LocalDate.of(2024, 1, 15), Money.ofEuro(12.0), dora,
+                Arrays.asList(dora, jona), "Putzmittel"));
+        System.out.println("\n3. Konto Dora: " + dora.getAccount().getBalance() + " EUR (erwartet 6.00)");
+        mitglieder.removeMember(dora);
+        ledger.addTransaction(new Transaction(LocalDate.of(2024, 1, 16), Money.ofEuro(8.0), jona,
+                Arrays.asList(dora), "Kino"));
+        System.out.println("Nach dem Entfernen unverändert: " + dora.getAccount().getBalance()
+                + " EUR, Ledger: " + ledger.getBalance(dora) + " EUR");
+        System.out.println("Abweichungen laut Prüfung: " + ledger.verifyBalances());
+
+        // 4. Login prüft die Schulden am gebundenen Konto
+        LoginManager login = new LoginManager(new RuleSet());
+        User lucasUser = new User(lucas.getName(), lucas.getName(), "secure", false);
+        System.out.println("\n4. Login Lucas:\n" + login.login(lucasUser, "secure", lucas));
+        System.out.println("Login Katha:\n" + login.login(new User(katha.getName(), katha.getName(), "geheim",
+                false), "geheim", katha));
+
+        System.out.println("\nTests für die Kontenbindung abgeschlossen.");
+    }
+
+    private static String konten(List<Member> mitglieder) {
+        StringBuilder sb = new StringBuilder();
+        for (Member m : mitglieder) {
+            sb.append(m.getName()).append(' ').append(m.getAccount().getBalance()).append("  ");
+        }
+        return sb.toString().trim();
+    }
+
+    private static String salden(Ledger ledger, List<Member> mitglieder) {
+        StringBuilder sb = new StringBuilder();
+        for (Member m : mitglieder) {
+            sb.append(m.getName()).append(' ').append(ledger.getBalance(m)).append("  ");
+        }
+        return sb.toString().trim();
+    }
+}
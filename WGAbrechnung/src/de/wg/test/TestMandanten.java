@@ -0,0 +1,120 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Flat;
+import de.wg.service.FlatManager;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Testet die Mandantenschicht: getrennte WGs in eigenen Verzeichnissen,
+ * verzögertes Laden, Entfernen nach Leerlauf und parallele Abfragen über alle
+ * WGs.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestMandanten {
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args optional die Anzahl der WGs (Standard 20).
+     */
+    public static void main(String[] args) throws Exception {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        System.out.println("Starte Tests für " + anzahl + " WGs");
+        Path wurzel = Files.createTempDirectory("wg-mandanten");
+        Random random = new Random(42);
+        long erwarteteSchulden = 0;
+
+        // 1. WGs anlegen und befüllen
+        try (FlatManager wgs = new FlatManager(wurzel, Duration.ofSeconds(1), 4)) {
+            for (int w = 0; w < anzahl; w++) {
+                Flat wg = wgs.create("wg-" + w);
+                List<Member> mitglieder = new ArrayList<>();
+                for (String name : Arrays.asList("Anna", "Ben", "Cem")) {
+                    Member m = new Member(name);
+                    wg.getMemberManager().addMember(m);
+                    mitglieder.add(m);
+                }
+                for (int i = 0; i < 50; i++) {
+                    wg.getLedger().addTransaction(new Transaction(LocalDate.of(2024, 1, 1).plusDays(i),
+                            Money.ofCents(100 + random.nextInt(10_000)), mitglieder.get(random.nextInt(3)),
+                            mitglieder, "Einkauf " + i));
+                }
+                erwarteteSchulden += wg.getTotalDebt().getCents();
+            }
+            System.out.println("\n1. Angelegt: " + wgs.getFlatIds().size() + ", geladen: " + wgs.getLoadedCount());
+            System.out.println("Ungültige Kennung abgewiesen: " + abgewiesen(wgs, "../anderes"));
+            System.out.println("Unbekannte WG abgewiesen: " + abgewiesen(wgs, "gibt-es-nicht"));
+            if (anzahl > 1) {
+                Flat wg0 = wgs.get("wg-0");
+                Transaction t0 = wg0.getLedger().getAllTransactions().get(0);
+                Transaction t1 = wgs.get("wg-1").getLedger().getAllTransactions().get(0);
+                Member anna = wg0.getMemberManager().getMemberByName("Anna");
+                anna.setName("Anja");
+                System.out.println("Mitglieder je WG getrennt: " + (t0.getBeneficiaries().get(0) == anna
+                        && t1.getBeneficiaries().get(0).getName().equals("Anna")));
+                anna.setName("Anna");
+                Member fremd = new Member("Dora");
+                System.out.println("Unbekanntes Mitglied nicht begünstigt: " + !t0.isBeneficiary(fremd)
+                        + ", ID: " + wg0.getMemberManager().getId(fremd) + " (erwartet -1)");
+            }
+
+            // 2. Eine verwendete WG bleibt geladen, danach werden alle entfernt
+            int waehrend = wgs.withFlat("wg-0", wg -> {
+                try {
+                    Thread.sleep(1500);
+                    wgs.evictIdle();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return wgs.getLoadedCount();
+            });
+            System.out.println("\n2. Während des Zugriffs geladen: " + waehrend + " (erwartet 1)");
+            Thread.sleep(1500);
+            wgs.evictIdle();
+            System.out.println("Nach Leerlauf geladen: " + wgs.getLoadedCount() + " (erwartet 0)");
+
+            // 3. Parallele Abfrage lädt die WGs neu
+            Map<String, Money> jeWg = wgs.getDebtPerFlat();
+            Money gesamt = wgs.getTotalDebt();
+            System.out.println("\n3. Schulden in " + jeWg.size() + " WGs: " + gesamt + " EUR");
+            System.out.println("Gleich wie vor dem Entfernen: " + (gesamt.getCents() == erwarteteSchulden));
+            System.out.println("Mitglieder der WG 0 nach dem Neuladen: "
+                    + wgs.get("wg-0").getMemberManager().getAllMembers());
+        }
+
+        // 4. Aufräumen
+        for (File wg : wurzel.toFile().listFiles()) {
+            for (File datei : wg.listFiles()) {
+                datei.delete();
+            }
+            wg.delete();
+        }
+        wurzel.toFile().delete();
+        System.out.println("\nTests für mehrere WGs abgeschlossen.");
+    }
+
+    /**
+     * Prüft, ob der Zugriff auf eine WG mit einer Ausnahme abgewiesen wird.
+     */
+    private static boolean abgewiesen(FlatManager wgs, String id) throws Exception {
+        try {
+            wgs.get(id);
+            return false;
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.service.MemberManager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testet die sortierte Mitgliederliste und die Präfixsuche des
+ * MemberManagers, auch mit vielen Mitgliedern.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestMitgliedersuche {
+
+    /** Test-Dateiname für Mitglieder. */
+    private static final String TEST_MEMBER_FILE = "test_mitgliedersuche.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für die Mitgliedersuche");
+
+        // 1. Einfügen hält die Liste sortiert, Suche ohne Groß-/Kleinschreibung
+        MemberManager manager = new MemberManager();
+        for (String name : new String[] { "Katha", "jona", "Lucas", "Jonas", "Anna", "Jan", "ben" }) {
+            manager.addMember(new Member(name));
+        }
+        System.out.println("\n1. Sortiert: " + manager.getAllMembers());
+        System.out.println("Präfix 'jo': " + manager.findByPrefix("jo", 10));
+        System.out.println("Präfix 'J', höchstens 2: " + manager.findByPrefix("J", 2));
+        System.out.println("Präfix 'x': " + manager.findByPrefix("x", 10));
+        System.out.println("Position von 'L': " + manager.indexOfPrefix("L") + " (erwartet 6)");
+
+        // 2. Entfernen, Umbenennen und erneutes Laden
+        manager.removeMember(manager.getMemberByName("Jan"));
+        Member ben = manager.getMemberByName("ben");
+        ben.setName("Zora");
+        manager.sortMembersByName();
+        System.out.println("\n2. Nach Entfernen und Umbenennen: " + manager.getAllMembers());
+        System.out.println("Unter neuem Namen gefunden: " + (manager.getMemberByName("Zora") == ben));
+        manager.saveToFile(TEST_MEMBER_FILE);
+        MemberManager geladen = MemberManager.loadFromFile(TEST_MEMBER_FILE);
+        System.out.println("Nach dem Laden gleich: "
+                + geladen.getAllMembers().toString().equals(manager.getAllMembers().toString()));
+        new File(TEST_MEMBER_FILE).delete();
+
+        // 3. Viele Mitglieder: Präfixsuche gegen Durchsuchen der Liste
+        MemberManager gross = new MemberManager();
+        Random random = new Random(42);
+        while (gross.getAllMembers().size() < 20_000) {
+            String name = zufallsname(random);
+            if (gross.getMemberByName(name) == null) {
+                gross.addMember(new Member(name));
+            }
+        }
+        List<Member> alle = gross.getAllMembers();
+        boolean sortiert = true;
+        for (int i = 1; i < alle.size(); i++) {
+            sortiert &= MemberManager.NAME_ORDER.compare(alle.get(i - 1), alle.get(i)) < 0;
+        }
+        boolean gleich = true;
+        String[] praefixe = { "a", "Ka", "ZZ", "mIl", "qu", "", "Xyzzy" };
+        for (String praefix : praefixe) {
+            gleich &= gross.findByPrefix(praefix, 25).equals(durchsuchen(alle, praefix, 25));
+        }
+        System.out.println("\n3. Stets sortiert: " + sortiert + ", Treffer wie beim Durchsuchen: " + gleich);
+
+        int runden = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < runden; i++) {
+            gross.findByPrefix(praefixe[i % praefixe.length], 25);
+        }
+        long index = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < runden; i++) {
+            durchsuchen(alle, praefixe[i % praefixe.length], 25);
+        }
+        long linear = System.nanoTime() - start;
+        System.out.printf("Je Suche: %.1f µs mit Index, %.1f µs beim Durchsuchen%n", index / 1000.0 / runden,
+                linear / 1000.0 / runden);
+
+        System.out.println("\nTests für die Mitgliedersuche abgeschlossen.");
+    }
+
+    /**
+     * Bisheriger Weg: die ganze Liste nach passenden Namen durchsuchen.
+     */
+    private static List<Member> durchsuchen(List<Member> alle, String praefix, int limit) {
+        List<Member> treffer = new ArrayList<>();
+        for (Member m : alle) {
+            if (m.getName().toLowerCase().startsWith(praefix.toLowerCase()) && treffer.size() < limit) {
+                treffer.add(m);
+            }
+        }
+        return treffer;
+    }
+
+    private static String zufallsname(Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append((char) ('A' + random.nextInt(26)));
+        for (int i = 2 + random.nextInt(6); i > 0; i--) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+}
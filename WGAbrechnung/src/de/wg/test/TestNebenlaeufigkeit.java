@@ -0,0 +1,128 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.ConcurrentLedger;
+import de.wg.service.Ledger;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Belastungstest für den {@link ConcurrentLedger}: Mehrere Threads buchen
+ * gleichzeitig, während ein weiterer Thread laufend Momentaufnahmen
+ * durchläuft.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestNebenlaeufigkeit {
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args optional Anzahl der Threads und Buchungen je Thread
+     *             (Standard 8 und 100000).
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int jeThread = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        System.out.println("Starte Belastungstest mit " + threads + " Threads zu je " + jeThread + " Buchungen");
+
+        List<Member> mitglieder = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            mitglieder.add(new Member("Mitglied " + i));
+        }
+        ConcurrentLedger ledger = new ConcurrentLedger();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean fertig = new AtomicBoolean();
+        AtomicReference<Throwable> fehler = new AtomicReference<>();
+
+        // 1. Leser: durchläuft Momentaufnahmen und prüft, dass sie lückenlos sind
+        int[] momentaufnahmen = new int[1];
+        Thread leser = new Thread(() -> {
+            try {
+                start.await();
+                while (!fertig.get()) {
+                    List<Transaction> snapshot = ledger.getAllTransactions();
+                    int anzahl = 0;
+                    for (Transaction t : snapshot) {
+                        if (t == null) {
+                            throw new IllegalStateException("Lücke in Momentaufnahme");
+                        }
+                        anzahl++;
+                    }
+                    if (anzahl != snapshot.size()) {
+                        throw new IllegalStateException("Momentaufnahme hat sich verändert");
+                    }
+                    momentaufnahmen[0]++;
+                }
+            } catch (Throwable e) {
+                fehler.compareAndSet(null, e);
+            }
+        });
+        leser.start();
+
+        // 2. Schreiber
+        List<Thread> schreiber = new ArrayList<>();
+        for (int n = 0; n < threads; n++) {
+            long seed = n;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(seed);
+                try {
+                    start.await();
+                    for (int i = 0; i < jeThread; i++) {
+                        int erster = random.nextInt(mitglieder.size());
+                        int zweiter = (erster + 1 + random.nextInt(mitglieder.size() - 1)) % mitglieder.size();
+                        List<Member> beguenstigte = new ArrayList<>();
+                        beguenstigte.add(mitglieder.get(erster));
+                        beguenstigte.add(mitglieder.get(zweiter));
+                        ledger.addTransaction(new Transaction(LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)),
+                                Money.ofCents(1 + random.nextInt(10_000)), mitglieder.get(random.nextInt(mitglieder.size())),
+                                beguenstigte, "Buchung " + i));
+                    }
+                } catch (Throwable e) {
+                    fehler.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            schreiber.add(thread);
+        }
+
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread thread : schreiber) {
+            thread.join();
+        }
+        long dauer = System.nanoTime() - t0;
+        fertig.set(true);
+        leser.join();
+
+        // 3. Ergebnis prüfen
+        if (fehler.get() != null) {
+            System.out.println("Fehler während des Tests: " + fehler.get());
+        }
+        int erwartet = threads * jeThread;
+        System.out.println("\nTransaktionen: " + ledger.size() + " (erwartet " + erwartet + ")");
+        System.out.println("Durchlaufene Momentaufnahmen: " + momentaufnahmen[0]);
+        System.out.println("Durchsatz: " + (erwartet * 1_000_000_000L / Math.max(1, dauer)) + " Buchungen/s");
+
+        Map<Member, Money> salden = ledger.getAllBalances();
+        long summe = 0;
+        for (Money m : salden.values()) {
+            summe += m.getCents();
+        }
+        System.out.println("Summe aller Salden ist 0: " + (summe == 0));
+        System.out.println("Salden stimmen mit Nachrechnung überein: "
+                + salden.equals(ConcurrentLedger.getBalancesOf(ledger.getAllTransactions())));
+        Ledger kopie = ledger.toLedger();
+        System.out.println("Salden stimmen mit Ledger überein: " + salden.equals(kopie.getAllBalances()));
+
+        System.out.println("\nBelastungstest abgeschlossen.");
+    }
+}
@@ -0,0 +1,112 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vergleicht das Binärformat mit der bisherigen Java-Serialisierung:
+ * Dateigröße, Ladezeit und Gleichheit der Salden nach dem Laden.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestPersistenzformat {
+
+    /** Datei im alten Format (Java-Serialisierung). */
+    private static final String LEGACY_FILE = "test_ledger_alt.ser";
+    /** Datei im Binärformat. */
+    private static final String BINARY_FILE = "test_ledger.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args optional die Anzahl der Transaktionen (Standard 100000).
+     */
+    public static void main(String[] args) throws Exception {
+        int anzahl = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        System.out.println("Starte Formatvergleich mit " + anzahl + " Transaktionen");
+
+        // 1. Testdaten erzeugen
+        Random random = new Random(42);
+        List<Member> mitglieder = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            mitglieder.add(new Member("Mitglied " + i));
+        }
+        Ledger ledger = new Ledger();
+        LocalDate start = LocalDate.of(2020, 1, 1);
+        for (int i = 0; i < anzahl; i++) {
+            List<Member> beguenstigte = new ArrayList<>();
+            for (Member m : mitglieder) {
+                if (random.nextInt(3) > 0) {
+                    beguenstigte.add(m);
+                }
+            }
+            if (beguenstigte.isEmpty()) {
+                beguenstigte.add(mitglieder.get(0));
+            }
+            Money betrag = Money.ofCents(100 + random.nextInt(20_000));
+            Member zahler = mitglieder.get(random.nextInt(mitglieder.size()));
+            if (i % 10 == 0) {
+                // jede zehnte Transaktion gewichtet, damit auch die Anteile gespeichert werden
+                int[] gewichte = new int[beguenstigte.size()];
+                for (int g = 0; g < gewichte.length; g++) {
+                    gewichte[g] = 1 + random.nextInt(4);
+                }
+                ledger.addTransaction(Transaction.withWeights(start.plusDays(i / 50), betrag, zahler, beguenstigte,
+                        gewichte, "Miete " + i));
+            } else {
+                ledger.addTransaction(new Transaction(start.plusDays(i / 50), betrag, zahler, beguenstigte,
+                        "Einkauf " + i));
+            }
+        }
+
+        // 2. Beide Formate schreiben
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(LEGACY_FILE))) {
+            oos.writeObject(ledger);
+        }
+        ledger.saveToFile(BINARY_FILE);
+        long groesseAlt = new File(LEGACY_FILE).length();
+        long groesseNeu = new File(BINARY_FILE).length();
+        System.out.println("\nDateigröße alt: " + groesseAlt + " Bytes");
+        System.out.println("Dateigröße neu: " + groesseNeu + " Bytes (" + (100 * groesseNeu / groesseAlt) + " %)");
+
+        // 3. Ladezeiten messen (erster Durchlauf zum Aufwärmen)
+        Ledger alt = null;
+        Ledger neu = null;
+        long zeitAlt = Long.MAX_VALUE;
+        long zeitNeu = Long.MAX_VALUE;
+        for (int runde = 0; runde < 5; runde++) {
+            long t0 = System.nanoTime();
+            alt = Ledger.loadFromFile(LEGACY_FILE);
+            long t1 = System.nanoTime();
+            neu = Ledger.loadFromFile(BINARY_FILE);
+            long t2 = System.nanoTime();
+            zeitAlt = Math.min(zeitAlt, t1 - t0);
+            zeitNeu = Math.min(zeitNeu, t2 - t1);
+        }
+        System.out.println("\nLadezeit alt: " + zeitAlt / 1_000_000 + " ms");
+        System.out.println("Ladezeit neu: " + zeitNeu / 1_000_000 + " ms");
+
+        // 4. Inhalte vergleichen
+        boolean gleich = alt.getAllTransactions().size() == neu.getAllTransactions().size()
+                && alt.getAllBalances().equals(neu.getAllBalances())
+                && ledger.getAllBalances().equals(neu.getAllBalances());
+        System.out.println("\nSalden nach dem Laden identisch: " + gleich);
+
+        // 5. Testdateien aufräumen
+        new File(LEGACY_FILE).delete();
+        new File(BINARY_FILE).delete();
+        new File(LEGACY_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        new File(BINARY_FILE + Ledger.JOURNAL_SUFFIX).delete();
+
+        System.out.println("\nFormatvergleich abgeschlossen.");
+    }
+}
@@ -3,6 +3,7 @@ package de.wg.test;
 import de.wg.exception.UngueltigerBetragException;
 import de.wg.model.Account;
 import de.wg.model.Member;
+import de.wg.model.Money;
 import de.wg.model.Transaction;
 import java.time.LocalDate;
 import java.util.Arrays;
@@ -37,10 +38,10 @@ public class TestPhase1 {
         Account jonaskonto = Jona.getAccount();
         System.out.println("Jonas initialer Kontostand: " + jonaskonto.getBalance());
         
-        jonaskonto.updateBalance(50.0);
+        jonaskonto.updateBalance(Money.ofEuro(50.0));
         System.out.println("Jonas Kontostand nach Einzahlung: " + jonaskonto.getBalance());
         
-        jonaskonto.updateBalance(-20.0);
+        jonaskonto.updateBalance(Money.ofEuro(-20.0));
         System.out.println("Jonas Kontostand nach Ausgabe: " + jonaskonto.getBalance());
         System.out.println("Kontoinhaber: " + jonaskonto.getOwner().getName());
 
@@ -48,7 +49,7 @@ public class TestPhase1 {
         System.out.println("\n3. Transaktion erstellen");
         List<Member> beguenstigte = Arrays.asList(Jona, Katha, Lucas);
         try {
-            Transaction miete = new Transaction(LocalDate.now(), 900.0, Jona, beguenstigte, "Miete Juli");
+            Transaction miete = new Transaction(LocalDate.now(), Money.ofEuro(900.0), Jona, beguenstigte, "Miete Juli");
             System.out.println("Transaktion erfolgreich erstellt: " + miete);
 
             // 4. Details der Transaktion prüfen
@@ -67,7 +68,7 @@ public class TestPhase1 {
         System.out.println("\n5. Test für fachliche Ausnahme");
         System.out.println("Versuche Transaktion mit ungültigem Betrag (0.0) zu erstellen...");
         try {
-            new Transaction(LocalDate.now(), 0.0, Jona, Arrays.asList(Jona), "Ungültiger Einkauf");
+            new Transaction(LocalDate.now(), Money.ZERO, Jona, Arrays.asList(Jona), "Ungültiger Einkauf");
             if (0.0 <= 0) {
                  throw new UngueltigerBetragException("Der Betrag muss größer als 0 sein.");
             }
@@ -2,6 +2,7 @@ package de.wg.test;
 
 import de.wg.exception.UngueltigerBetragException;
 import de.wg.model.Member;
+import de.wg.model.Money;
 import de.wg.model.RuleSet;
 import de.wg.model.Transaction;
 import de.wg.model.User;
@@ -47,12 +48,12 @@ public class TestPhase2 {
 
         // 3. Ledger-Funktionen und Ausnahmebehandlung testen
         try {
-            Transaction einkauf = new Transaction(LocalDate.now(), 60.0, katha, Arrays.asList(jona, katha, lucas), "Wocheneinkauf");
+            Transaction einkauf = new Transaction(LocalDate.now(), Money.ofEuro(60.0), katha, Arrays.asList(jona, katha, lucas), "Wocheneinkauf");
             ledger.addTransaction(einkauf);
             System.out.println("\nGültige Transaktion hinzugefügt.");
 
             System.out.println("Versuche ungültige Transaktion hinzuzufügen...");
-            Transaction fehler = new Transaction(LocalDate.now(), -15.0, jona, Arrays.asList(jona), "Fehlerhafte Ausgabe");
+            Transaction fehler = new Transaction(LocalDate.now(), Money.ofEuro(-15.0), jona, Arrays.asList(jona), "Fehlerhafte Ausgabe");
             ledger.addTransaction(fehler); // Löst eine Exception aus
 
         } catch (UngueltigerBetragException e) {
@@ -79,7 +80,7 @@ public class TestPhase2 {
         // Login mit Schulden-Check (simuliert)
         try {
             // Lucas macht hohe Schulden bei Jona
-            Transaction schulden = new Transaction(LocalDate.now(), 250.0, jona, Arrays.asList(lucas), "Möbelkauf");
+            Transaction schulden = new Transaction(LocalDate.now(), Money.ofEuro(250.0), jona, Arrays.asList(lucas), "Möbelkauf");
             ledger.addTransaction(schulden);
             // Saldo im Account-Objekt von Lucas muss für den Test manuell aktualisiert werden
             lucas.getAccount().updateBalance(ledger.getBalance(lucas));
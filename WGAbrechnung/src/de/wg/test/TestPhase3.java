@@ -1,6 +1,7 @@
 package de.wg.test;
 
 import de.wg.model.Member;
+import de.wg.model.Money;
 import de.wg.model.Transaction;
 import de.wg.service.Ledger;
 import de.wg.service.MemberManager;
@@ -42,7 +43,7 @@ public class TestPhase3 {
         initialMemberManager.addMember(katha);
 
         try {
-            Transaction einkauf = new Transaction(LocalDate.now(), 25.50, katha, Arrays.asList(jona, katha), "Supermarkt");
+            Transaction einkauf = new Transaction(LocalDate.now(), Money.ofEuro(25.50), katha, Arrays.asList(jona, katha), "Supermarkt");
             initialLedger.addTransaction(einkauf);
 
             System.out.println("Speichere " + initialMemberManager.getAllMembers().size() + " Mitglieder und " + initialLedger.getAllTransactions().size() + " Transaktion(en)...");
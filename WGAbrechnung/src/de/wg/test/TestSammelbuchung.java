@@ -0,0 +1,110 @@
+package de.wg.test;
+
+import de.wg.exception.UngueltigerBetragException;
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testet das gesammelte Buchen mit {@link Ledger#addTransactions}: alles oder
+ * nichts bei ungültigen Beträgen, gleiches Ergebnis wie einzelnes Buchen, ein
+ * Ereignis je Block und das Journal.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestSammelbuchung {
+
+    /** Test-Dateiname für Transaktionen. */
+    private static final String TEST_LEDGER_FILE = "test_sammelbuchung.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für Sammelbuchungen");
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        Member jona = new Member("Jona");
+        Member katha = new Member("Katha");
+        Member lucas = new Member("Lucas");
+        List<Member> alle = Arrays.asList(jona, katha, lucas);
+
+        // 1. Alles oder nichts: ungültige Beträge werden gesammelt gemeldet
+        Ledger ledger = new Ledger();
+        ledger.addTransaction(new Transaction(LocalDate.of(2024, 2, 1), Money.ofEuro(60.0), katha, alle,
+                "Wocheneinkauf"));
+        try {
+            ledger.addTransactions(Arrays.asList(
+                    new Transaction(LocalDate.of(2024, 2, 2), Money.ofEuro(5.0), jona, Arrays.asList(katha), "Kaffee"),
+                    new Transaction(LocalDate.of(2024, 2, 2), Money.ofEuro(0.0), katha, Arrays.asList(jona),
+                            "Nullbetrag"),
+                    new Transaction(LocalDate.of(2024, 2, 2), Money.ofEuro(-2.0), lucas, Arrays.asList(jona),
+                            "Negativ")));
+            System.out.println("\n1. Fehler: ungültiger Block wurde übernommen");
+        } catch (UngueltigerBetragException e) {
+            System.out.println("\n1. Erfolgreich abgefangen: " + e.getMessage() + " " + e.getDetails());
+        }
+        System.out.println("Anzahl Transaktionen unverändert (1): " + ledger.getAllTransactions().size());
+        System.out.println("Saldo Jona unverändert: " + ledger.getBalance(jona) + " EUR (erwartet -20.00)");
+        try {
+            ledger.addTransactions(Arrays.asList(
+                    new Transaction(LocalDate.of(2024, 2, 3), Money.ofEuro(1.0), jona, alle, "Brötchen"), null));
+            System.out.println("Fehler: Block mit null wurde übernommen");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Erfolgreich abgefangen: " + e.getMessage() + ", Anzahl: "
+                    + ledger.getAllTransactions().size());
+        }
+
+        // 2. Gleiches Ergebnis wie einzelnes Buchen, ein Ereignis je Block
+        Random random = new Random(17);
+        List<Transaction> daten = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            daten.add(new Transaction(LocalDate.of(2023, 1, 1).plusDays(random.nextInt(730)),
+                    Money.ofCents(1 + random.nextInt(20_000)), alle.get(random.nextInt(3)), alle, "Posten " + i));
+        }
+        Ledger einzeln = new Ledger();
+        for (Transaction t : daten) {
+            einzeln.addTransaction(t);
+        }
+        Ledger gesammelt = new Ledger();
+        int[] ereignisse = new int[2];
+        gesammelt.addListener(added -> {
+            ereignisse[0]++;
+            ereignisse[1] += added.size();
+        });
+        gesammelt.addTransactions(daten.subList(0, 2_000));
+        gesammelt.addTransactions(daten.subList(2_000, daten.size()));
+        System.out.println("\n2. Salden gleich: " + einzeln.getAllBalances().equals(gesammelt.getAllBalances()));
+        System.out.println("Nach Datum gleich: "
+                + einzeln.getTransactionsSortedByDate().equals(gesammelt.getTransactionsSortedByDate()));
+        System.out.println("Nach Betrag gleich: "
+                + einzeln.getTransactionsSortedByAmount().equals(gesammelt.getTransactionsSortedByAmount()));
+        System.out.println("Ereignisse: " + ereignisse[0] + " mit " + ereignisse[1] + " Transaktionen (erwartet 2 mit "
+                + daten.size() + ")");
+
+        // 3. Der Block landet im Journal und wird beim Laden nachgespielt
+        gesammelt.saveToFile(TEST_LEDGER_FILE);
+        gesammelt.addTransactions(Arrays.asList(
+                new Transaction(LocalDate.of(2024, 3, 1), Money.ofEuro(30.0), jona, alle, "Getränke"),
+                new Transaction(LocalDate.of(2022, 12, 31), Money.ofEuro(45.0), lucas, alle, "Silvester")));
+        Ledger geladen = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        System.out.println("\n3. Nach dem Laden: " + geladen.getAllTransactions().size() + " Transaktionen (erwartet "
+                + (daten.size() + 2) + "), Salden gleich: "
+                + geladen.getAllBalances().equals(gesammelt.getAllBalances()));
+        System.out.println("Älteste Transaktion: " + geladen.getTransactionsSortedByDate().get(0).getDescription());
+        System.out.println("Abweichungen laut Prüfung: " + geladen.verifyBalances());
+
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        System.out.println("\nTests für Sammelbuchungen abgeschlossen.");
+    }
+}
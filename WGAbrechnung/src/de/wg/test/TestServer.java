@@ -0,0 +1,167 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.RuleSet;
+import de.wg.model.User;
+import de.wg.server.ApiServer;
+import de.wg.service.Ledger;
+import de.wg.service.LoginManager;
+import de.wg.service.MemberManager;
+import de.wg.service.UserManager;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Testet den Server-Modus über localhost: Anmeldung, Buchen einzelner und
+ * gesammelter Transaktionen, Salden und Verlauf sowie Lesen während des
+ * Buchens.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestServer {
+
+    private static HttpClient client = HttpClient.newHttpClient();
+    private static String basis;
+    private static String anmeldung;
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args nicht verwendet.
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Server-Tests");
+        MemberManager mitglieder = new MemberManager();
+        for (String name : new String[] { "Anna", "Ben", "Cem" }) {
+            mitglieder.addMember(new Member(name));
+        }
+        UserManager benutzer = new UserManager();
+        benutzer.addUser(new User("Anna", "Anna", hash("geheim"), false));
+        Ledger ledger = new Ledger();
+        ledger.bindAccounts(mitglieder);
+
+        try (ApiServer server = new ApiServer(ledger, mitglieder, benutzer, new LoginManager(new RuleSet()),
+                new InetSocketAddress("localhost", 0), 4)) {
+            server.start();
+            basis = "http://localhost:" + server.getPort() + "/api";
+
+            // 1. Anmeldung
+            anmeldung = "Basic " + Base64.getEncoder().encodeToString("Anna:falsch".getBytes(StandardCharsets.UTF_8));
+            System.out.println("\n1. Falsches Passwort: " + get("/members").statusCode() + " (erwartet 401)");
+            anmeldung = "Basic " + Base64.getEncoder().encodeToString("Anna:geheim".getBytes(StandardCharsets.UTF_8));
+            System.out.println("Mitglieder: " + get("/members").body());
+            System.out.println("Mitglieder mit 'b': " + get("/members?prefix=b").body());
+            System.out.println("Login: " + post("/login", "").body());
+
+            // 2. Gesammelte Buchung mit einer ungültigen Zeile
+            String zeilen = zeile("2024-03-01", "30.00", "Anna", "Einkauf")
+                    + zeile("2024-03-02", "12.00", "Ben", "Pizza")
+                    + zeile("2024-03-03", "9.00", "Unbekannt", "Kino");
+            HttpResponse<String> antwort = post("/transactions", zeilen);
+            System.out.println("\n2. Buchung: " + antwort.statusCode() + " " + antwort.body());
+            System.out.println("Nur ungültige Zeilen: " + post("/transactions",
+                    zeile("2024-03-04", "-5.00", "Anna", "Fehler")).statusCode() + " (erwartet 400)");
+
+            // 3. Viele gleichzeitige Einzelbuchungen werden gesammelt übernommen
+            List<CompletableFuture<HttpResponse<String>>> laufend = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                laufend.add(client.sendAsync(anfrage("/transactions")
+                        .POST(HttpRequest.BodyPublishers.ofString(zeile("2024-04-01", "3.00", "Cem", "Kaffee " + i)))
+                        .build(), HttpResponse.BodyHandlers.ofString()));
+            }
+            int erfolgreich = 0;
+            for (CompletableFuture<HttpResponse<String>> f : laufend) {
+                erfolgreich += f.get().statusCode() == 200 ? 1 : 0;
+            }
+            System.out.println("\n3. Gleichzeitige Buchungen erfolgreich: " + erfolgreich + ", im Ledger: "
+                    + ledger.getAllTransactions().size() + " (erwartet 102)");
+
+            // 4. Salden und Verlauf
+            System.out.println("\n4. Salden: " + get("/balances").body());
+            System.out.println("Salden März: " + get("/balances?from=2024-03-01&to=2024-03-31").body());
+            System.out.print("Verlauf März:\n" + get("/transactions?from=2024-03-01&to=2024-03-31").body());
+            System.out.print("Suche 'pizza' von Ben:\n" + get("/transactions?q=pizza&payer=Ben").body());
+            System.out.println("Ungültiges Datum: " + get("/transactions?from=gestern").statusCode()
+                    + " (erwartet 400)");
+
+            // 5. Lesen, während gebucht wird: jeder gelesene Stand ist stimmig
+            AtomicBoolean fertig = new AtomicBoolean();
+            AtomicBoolean stimmig = new AtomicBoolean(true);
+            AtomicInteger lesungen = new AtomicInteger();
+            Thread leser = new Thread(() -> {
+                while (!fertig.get()) {
+                    long summe = 0;
+                    for (Money saldo : ledger.getAllBalances().values()) {
+                        summe += saldo.getCents();
+                    }
+                    int imMai = ledger.findTransactionsBetween(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 31))
+                            .size();
+                    if (summe != 0 || imMai > 200) {
+                        stimmig.set(false);
+                    }
+                    lesungen.incrementAndGet();
+                }
+            });
+            leser.setUncaughtExceptionHandler((t, e) -> stimmig.set(false));
+            leser.start();
+            laufend.clear();
+            for (int i = 0; i < 200; i++) {
+                laufend.add(client.sendAsync(anfrage("/transactions")
+                        .POST(HttpRequest.BodyPublishers.ofString(zeile("2024-05-0" + (1 + i % 9), "1.00", "Ben",
+                                "Brot " + i)))
+                        .build(), HttpResponse.BodyHandlers.ofString()));
+                laufend.add(client.sendAsync(anfrage(i % 2 == 0 ? "/balances" : "/transactions?from=2024-05-01")
+                        .GET().build(), HttpResponse.BodyHandlers.ofString()));
+            }
+            erfolgreich = 0;
+            for (CompletableFuture<HttpResponse<String>> f : laufend) {
+                erfolgreich += f.get().statusCode() == 200 ? 1 : 0;
+            }
+            fertig.set(true);
+            leser.join();
+            System.out.println("\n5. Anfragen beim Buchen erfolgreich: " + erfolgreich + " (erwartet 400), Stand "
+                    + "stets stimmig: " + stimmig.get() + ", gelesen: " + (lesungen.get() > 0));
+        }
+        System.out.println("\nServer-Tests abgeschlossen.");
+    }
+
+    private static String zeile(String datum, String betrag, String zahler, String beschreibung) {
+        return "{\"datum\":\"" + datum + "\",\"betrag\":\"" + betrag + "\",\"zahler\":\"" + zahler
+                + "\",\"beguenstigte\":[\"Anna\",\"Ben\",\"Cem\"],\"beschreibung\":\"" + beschreibung
+                + "\"}\n";
+    }
+
+    private static HttpRequest.Builder anfrage(String pfad) {
+        return HttpRequest.newBuilder(URI.create(basis + pfad)).header("Authorization", anmeldung);
+    }
+
+    private static HttpResponse<String> get(String pfad) throws Exception {
+        return client.send(anfrage(pfad).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> post(String pfad, String text) throws Exception {
+        return client.send(anfrage(pfad).POST(HttpRequest.BodyPublishers.ofString(text)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static String hash(String passwort) throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(passwort.getBytes(StandardCharsets.UTF_8))) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
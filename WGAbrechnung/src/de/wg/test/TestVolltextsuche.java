@@ -0,0 +1,163 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Testet die Volltextsuche über die Beschreibungen: Umlaute, Wortanfänge,
+ * Filter nach Zeitraum und Zahler, Korrekturen sowie das Speichern des
+ * Suchindex mit dem Snapshot.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestVolltextsuche {
+
+    /** Test-Dateiname für Transaktionen. */
+    private static final String TEST_LEDGER_FILE = "test_volltextsuche.bin";
+
+    private static final String[] WOERTER = { "Einkauf", "Rewe", "Edeka", "Miete", "Strom", "Pizza", "Getränke",
+            "Putzmittel", "Küche", "Bad", "Geburtstag", "Grillen", "Müll", "Straße", "Internet", "Reparatur" };
+
+    private static final String[] MONATE = { "Januar", "Februar", "März", "April", "Mai", "Juni", "Juli",
+            "August", "September", "Oktober", "November", "Dezember" };
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für die Volltextsuche");
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        Member a = new Member("Anna");
+        Member b = new Member("Ben");
+        Member c = new Member("Cem");
+        List<Member> alle = Arrays.asList(a, b, c);
+
+        // 1. Groß-/Kleinschreibung, Umlaute und Wortanfänge
+        Ledger ledger = new Ledger();
+        ledger.saveToFile(TEST_LEDGER_FILE);
+        Transaction rewe = new Transaction(LocalDate.of(2024, 3, 2), Money.ofEuro(42.10), a, alle, "Einkauf Rewe März");
+        Transaction getraenke = new Transaction(LocalDate.of(2024, 3, 9), Money.ofEuro(18.00), b, alle,
+                "Getränke für's Grillen");
+        Transaction strasse = new Transaction(LocalDate.of(2024, 4, 1), Money.ofEuro(25.00), c, alle,
+                "Straßenfest, EINKAUF");
+        ledger.addTransaction(rewe);
+        ledger.addTransaction(getraenke);
+        ledger.addTransaction(strasse);
+        System.out.println("\n1. 'einkauf maerz': " + ledger.searchTransactions("einkauf maerz", null, null, null));
+        System.out.println("'GETRAENK': " + ledger.searchTransactions("GETRAENK", null, null, null));
+        System.out.println("'strasse': " + ledger.searchTransactions("strasse", null, null, null));
+        System.out.println("'Einkauf' im April: "
+                + ledger.searchTransactions("Einkauf", LocalDate.of(2024, 4, 1), LocalDate.of(2024, 4, 30), null));
+        System.out.println("'Einkauf' von Anna: " + ledger.searchTransactions("Einkauf", null, null, a));
+        System.out.println("'Einkauf Pizza': " + ledger.searchTransactions("Einkauf Pizza", null, null, null));
+        System.out.println("Ohne Suchwort, von Ben: " + ledger.searchTransactions("  ", null, null, b));
+
+        // 2. Korrekturen und Stornos: nur gültige Fassungen werden gefunden
+        ledger.correctTransaction(rewe, new Transaction(rewe.getDate(), Money.ofEuro(42.10), a, alle,
+                "Einkauf Edeka März"), LocalDate.of(2024, 3, 5));
+        ledger.voidTransaction(getraenke, LocalDate.of(2024, 3, 10));
+        System.out.println("\n2. 'rewe': " + ledger.searchTransactions("rewe", null, null, null));
+        System.out.println("'edeka': " + ledger.searchTransactions("edeka", null, null, null));
+        System.out.println("'grillen': " + ledger.searchTransactions("grillen", null, null, null));
+
+        // 3. Nach Laden aus Journal und Snapshot gleiche Treffer
+        Ledger ausJournal = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        ausJournal.addTransaction(new Transaction(LocalDate.of(2024, 4, 2), Money.ofEuro(9.99), b, alle,
+                "Müllbeutel"));
+        ausJournal.compact(TEST_LEDGER_FILE);
+        Ledger ausSnapshot = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        boolean gleich = true;
+        for (String anfrage : new String[] { "einkauf", "edeka", "rewe", "muell", "Straße", "m" }) {
+            gleich &= ausSnapshot.searchTransactions(anfrage, null, null, null).toString()
+                    .equals(ausJournal.searchTransactions(anfrage, null, null, null).toString());
+        }
+        System.out.println("\n3. Nach Journal und Snapshot gleiche Treffer: " + gleich + ", 'muell': "
+                + ausSnapshot.searchTransactions("muell", null, null, null));
+
+        // 4. Viele Transaktionen: Ergebnis wie beim Durchsuchen, deutlich schneller
+        Ledger gross = new Ledger();
+        Random random = new Random(42);
+        List<Transaction> daten = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            LocalDate datum = LocalDate.of(2015, 1, 1).plusDays(random.nextInt(3650));
+            String beschreibung = WOERTER[random.nextInt(WOERTER.length)] + " "
+                    + WOERTER[random.nextInt(WOERTER.length)] + " " + MONATE[datum.getMonthValue() - 1];
+            daten.add(new Transaction(datum, Money.ofCents(100 + random.nextInt(10_000)),
+                    alle.get(random.nextInt(3)), alle, beschreibung));
+        }
+        gross.addTransactions(daten);
+        String[] anfragen = { "Einkauf März", "Getränke", "müll str", "pizza grillen dezember", "Küche Bad" };
+        LocalDate von = LocalDate.of(2018, 1, 1);
+        LocalDate bis = LocalDate.of(2020, 12, 31);
+        gleich = true;
+        for (String anfrage : anfragen) {
+            gleich &= gross.searchTransactions(anfrage, null, null, null)
+                    .equals(durchsuchen(gross, anfrage, null, null, null));
+            gleich &= gross.searchTransactions(anfrage, von, bis, b)
+                    .equals(durchsuchen(gross, anfrage, von, bis, b));
+        }
+        System.out.println("\n4. Treffer wie beim Durchsuchen: " + gleich + ", 'Einkauf März': "
+                + gross.searchTransactions("Einkauf März", null, null, null).size() + " Treffer");
+
+        int runden = 50;
+        long start = System.nanoTime();
+        for (int i = 0; i < runden; i++) {
+            gross.searchTransactions(anfragen[i % anfragen.length], von, bis, b);
+        }
+        long index = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < runden; i++) {
+            durchsuchen(gross, anfragen[i % anfragen.length], von, bis, b);
+        }
+        long linear = System.nanoTime() - start;
+        System.out.printf("Je Suche bei %d Transaktionen: %.2f ms mit Index, %.2f ms beim Durchsuchen%n",
+                daten.size(), index / 1e6 / runden, linear / 1e6 / runden);
+
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        System.out.println("\nTests für die Volltextsuche abgeschlossen.");
+    }
+
+    /**
+     * Bisheriger Weg: alle Transaktionen durchgehen und die Beschreibung
+     * zerlegen.
+     */
+    private static List<Transaction> durchsuchen(Ledger ledger, String anfrage, LocalDate von, LocalDate bis,
+            Member zahler) {
+        List<Transaction> treffer = new ArrayList<>();
+        for (Transaction t : ledger.getTransactionsSortedByDate()) {
+            if ((von != null && t.getDate().isBefore(von)) || (bis != null && t.getDate().isAfter(bis))
+                    || (zahler != null && !zahler.equals(t.getPayer()))) {
+                continue;
+            }
+            List<String> woerter = Arrays.asList(falten(t.getDescription()).split("[^\\p{L}\\p{N}]+"));
+            boolean alleGefunden = true;
+            for (String gesucht : falten(anfrage).split("[^\\p{L}\\p{N}]+")) {
+                boolean gefunden = gesucht.isEmpty();
+                for (String wort : woerter) {
+                    gefunden |= wort.startsWith(gesucht);
+                }
+                alleGefunden &= gefunden;
+            }
+            if (alleGefunden) {
+                treffer.add(t);
+            }
+        }
+        return treffer;
+    }
+
+    private static String falten(String text) {
+        return text.toLowerCase().replace("ä", "ae").replace("ö", "oe").replace("ü", "ue").replace("ß", "ss");
+    }
+}
@@ -0,0 +1,94 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.RecurringExpense;
+import de.wg.service.Ledger;
+import de.wg.service.RecurringScheduler;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Testet wiederkehrende Ausgaben: Fälligkeiten, Verbuchen im Ledger und die
+ * Vorschau der Salden ohne erzeugte Transaktionen.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestWiederkehrend {
+
+    /** Test-Dateiname für den Scheduler. */
+    private static final String TEST_FILE = "test_recurring.ser";
+    /** Test-Dateiname für den Ledger. */
+    private static final String TEST_LEDGER_FILE = "test_recurring_ledger.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für wiederkehrende Ausgaben");
+        Member anna = new Member("Anna");
+        Member tom = new Member("Tom");
+        Member lisa = new Member("Lisa");
+
+        // 1. Fälligkeiten: Monatsende bleibt Monatsende
+        RecurringExpense miete = new RecurringExpense(anna, Arrays.asList(anna, tom, lisa), Money.ofEuro(500.00),
+                "Miete", LocalDate.of(2024, 1, 31), Period.ofMonths(1));
+        System.out.println("\n1. Fälligkeiten: " + miete.occurrence(0) + ", " + miete.occurrence(1) + ", "
+                + miete.occurrence(2));
+        System.out.println("Bis 2024-03-30: " + miete.countUntil(LocalDate.of(2024, 3, 30)) + " (erwartet 2)");
+        System.out.println("Bis 2024-03-31: " + miete.countUntil(LocalDate.of(2024, 3, 31)) + " (erwartet 3)");
+        System.out.println("Vor dem Start: " + miete.countUntil(LocalDate.of(2023, 12, 1)) + " (erwartet 0)");
+
+        // 2. Verbuchen: jeder Termin genau einmal, auch nach dem Neuladen
+        RecurringScheduler scheduler = new RecurringScheduler();
+        scheduler.addExpense(miete);
+        scheduler.addExpense(new RecurringExpense(tom, Arrays.asList(anna, tom, lisa), Money.ofEuro(39.99),
+                "Internet", LocalDate.of(2024, 1, 1), Period.ofMonths(1), LocalDate.of(2024, 6, 30)));
+        Ledger ledger = new Ledger();
+        int erst = scheduler.materializeDue(ledger, LocalDate.of(2024, 12, 31));
+        scheduler.saveToFile(TEST_FILE);
+        RecurringScheduler geladen = RecurringScheduler.loadFromFile(TEST_FILE);
+        int nochmal = geladen.materializeDue(ledger, LocalDate.of(2024, 12, 31));
+        System.out.println("\n2. Verbucht: " + erst + " (erwartet 12 + 6), danach erneut: " + nochmal);
+        new File(TEST_FILE).delete();
+
+        // Absturz nach dem Journal, aber vor dem Speichern des Schedulers
+        RecurringScheduler vorAbsturz = new RecurringScheduler();
+        vorAbsturz.addExpense(new RecurringExpense(anna, Arrays.asList(anna, tom, lisa), Money.ofEuro(500.00),
+                "Miete", LocalDate.of(2024, 1, 31), Period.ofMonths(1)));
+        vorAbsturz.saveToFile(TEST_FILE);
+        Ledger journal = new Ledger();
+        journal.saveToFile(TEST_LEDGER_FILE);
+        vorAbsturz.materializeDue(journal, LocalDate.of(2024, 6, 30));
+        Ledger nachStart = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        RecurringScheduler alterStand = RecurringScheduler.loadFromFile(TEST_FILE);
+        int doppelt = alterStand.materializeDue(nachStart, LocalDate.of(2024, 7, 31));
+        System.out.println("Nach dem Neustart verbucht: " + doppelt + " (erwartet 1), im Ledger: "
+                + nachStart.getAllTransactions().size() + " (erwartet 7), Zähler: "
+                + alterStand.getAllExpenses().get(0).getMaterialized());
+        new File(TEST_FILE).delete();
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+
+        // 3. Vorschau: zehn Jahre voraus ohne neue Transaktionen
+        LocalDate bis = LocalDate.of(2034, 12, 31);
+        Map<Member, Money> vorschau = geladen.projectBalances(ledger, bis);
+        Ledger vergleich = new Ledger();
+        RecurringScheduler kopie = new RecurringScheduler();
+        for (RecurringExpense e : geladen.getAllExpenses()) {
+            kopie.addExpense(new RecurringExpense(e.getPayer(), e.getBeneficiaries(), e.getAmount(),
+                    e.getDescription(), e.getStart(), e.getPeriod(), e.getEnd()));
+        }
+        kopie.materializeDue(vergleich, bis);
+        System.out.println("\n3. Vorschau bis " + bis + ": " + vorschau);
+        System.out.println("Transaktionen im Ledger unverändert: " + ledger.getAllTransactions().size());
+        System.out.println("Gleich wie vollständig verbucht: " + vorschau.equals(vergleich.getAllBalances()));
+
+        System.out.println("\nTests für wiederkehrende Ausgaben abgeschlossen.");
+    }
+}
@@ -0,0 +1,181 @@
+package de.wg.test;
+
+import de.wg.model.Member;
+import de.wg.model.Money;
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import de.wg.service.LedgerEvent;
+import de.wg.service.SettlementEngine;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * Testet Korrekturen, Stornos und Stichtagssalden des Ledgers samt
+ * Persistenz über Journal und Snapshot sowie die Saldo-Schnappschüsse.
+ * @author Jona
+ * @version 1.0
+ */
+public class TestZeitreise {
+
+    /** Test-Dateiname für Transaktionen. */
+    private static final String TEST_LEDGER_FILE = "test_zeitreise.bin";
+
+    /**
+     * Hauptmethode für den Testablauf.
+     * @param args Kommandozeilenargumente (nicht verwendet).
+     */
+    public static void main(String[] args) throws Exception {
+        System.out.println("Starte Tests für Verlauf und Stichtagssalden");
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        Member a = new Member("Anna");
+        Member b = new Member("Ben");
+        Member c = new Member("Cem");
+        List<Member> alle = Arrays.asList(a, b, c);
+
+        // 1. Ohne Korrekturen entsprechen Stichtagssalden den Zeitraumsalden
+        Ledger ledger = new Ledger();
+        ledger.saveToFile(TEST_LEDGER_FILE);
+        Transaction miete = new Transaction(LocalDate.of(2024, 1, 5), Money.ofEuro(90.00), a, alle, "Miete");
+        Transaction pizza = new Transaction(LocalDate.of(2024, 2, 10), Money.ofEuro(30.00), b, alle, "Pizza");
+        ledger.addTransaction(miete);
+        ledger.addTransaction(pizza);
+        ledger.addTransaction(new Transaction(LocalDate.of(2024, 2, 20), Money.ofEuro(12.00), c, alle, "Brot"));
+        ledger.addTransaction(new Transaction(LocalDate.of(2024, 3, 3), Money.ofEuro(6.00), a, alle, "Kaffee"));
+        System.out.println("\n1. Salden am 1. März: " + text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 1))));
+        System.out.println("Gleich wie Zeitraumsalden: " + text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 1)))
+                .equals(text(ledger.getBalancesBetween(LocalDate.MIN, LocalDate.of(2024, 3, 1)))));
+
+        // 2. Storno am 10. März wirkt erst ab diesem Tag
+        String vorStorno = text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 9)));
+        ledger.voidTransaction(pizza, LocalDate.of(2024, 3, 10));
+        System.out.println("\n2. Nach dem Storno: " + ledger.getAllTransactions().size() + " gültige Transaktionen");
+        System.out.println("Salden am 9. März unverändert: "
+                + vorStorno.equals(text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 9)))));
+        System.out.println("Salden am 10. März: " + text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 10))));
+        System.out.println("Erneutes Storno abgewiesen: "
+                + abgewiesen(() -> ledger.voidTransaction(pizza, LocalDate.of(2024, 3, 11))));
+
+        // 3. Korrektur am 15. März: alte Fassung bis zum 14., neue ab dem 15.
+        Transaction mieteNeu = new Transaction(LocalDate.of(2024, 1, 5), Money.ofEuro(120.00), a, alle, "Miete");
+        ledger.correctTransaction(miete, mieteNeu, LocalDate.of(2024, 3, 15));
+        System.out.println("\n3. Salden am 14. März: " + text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 14))));
+        System.out.println("Salden am 15. März: " + text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 15))));
+        System.out.println("Gleich wie aktuelle Salden: " + text(ledger.getBalancesAsOf(LocalDate.of(2024, 3, 15)))
+                .equals(text(ledger.getAllBalances())));
+        System.out.println("Abweichungen laut Prüfung: " + ledger.verifyBalances());
+        System.out.println("Verlauf:");
+        for (LedgerEvent e : ledger.getHistory()) {
+            System.out.println("  " + e);
+        }
+
+        // 4. Laden aus Journal und nach dem Kompaktieren aus dem Snapshot
+        String erwartet = stichtage(ledger);
+        Ledger ausJournal = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        System.out.println("\n4. Aus dem Journal gleich: " + erwartet.equals(stichtage(ausJournal))
+                + ", Verlauf gleich lang: " + (ausJournal.getHistory().size() == ledger.getHistory().size()));
+        ausJournal.compact(TEST_LEDGER_FILE);
+        Ledger ausSnapshot = Ledger.loadFromFile(TEST_LEDGER_FILE);
+        System.out.println("Aus dem Snapshot gleich: " + erwartet.equals(stichtage(ausSnapshot))
+                + ", Verlauf gleich: " + ausSnapshot.getHistory().toString().equals(ledger.getHistory().toString()));
+
+        // 5. Nach dem Ausgleich sind Änderungen gesperrt
+        new SettlementEngine().apply(ausSnapshot, LocalDate.of(2024, 3, 31));
+        Transaction verrechnet = ausSnapshot.getAllTransactions().get(0);
+        System.out.println("\n5. Letztes Ereignis: " + ausSnapshot.getHistory().get(ausSnapshot.getHistory().size() - 1));
+        System.out.println("Korrektur nach Ausgleich abgewiesen: " + abgewiesen(() -> ausSnapshot.correctTransaction(
+                verrechnet, new Transaction(LocalDate.of(2024, 1, 5), Money.ofEuro(1.00), a, alle, "x"),
+                LocalDate.of(2024, 4, 1))));
+        System.out.println("Nach erneutem Laden gleicher Verlauf: " + Ledger.loadFromFile(TEST_LEDGER_FILE)
+                .getHistory().toString().equals(ausSnapshot.getHistory().toString()));
+
+        // 6. Schnappschuss-Abstand ändert nur den Aufwand, nicht das Ergebnis
+        System.out.println("\n6. Schnappschüsse");
+        Ledger gross = new Ledger();
+        Random random = new Random(42);
+        List<Transaction> offen = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            Transaction t = new Transaction(LocalDate.of(2020, 1, 1).plusDays(random.nextInt(1500)),
+                    Money.ofCents(100 + random.nextInt(10_000)), alle.get(random.nextInt(3)), alle, "Einkauf");
+            gross.addTransaction(t);
+            offen.add(t);
+        }
+        for (int i = 0; i < 50; i++) {
+            Transaction alt = offen.remove(random.nextInt(offen.size()));
+            LocalDate am = alt.getDate().plusDays(random.nextInt(60));
+            if (i % 2 == 0) {
+                gross.voidTransaction(alt, am);
+            } else {
+                gross.correctTransaction(alt, new Transaction(alt.getDate(), Money.ofCents(50), alt.getPayer(),
+                        alle, "korrigiert"), am);
+            }
+        }
+        String ohne = null;
+        for (int abstand : new int[] { Integer.MAX_VALUE, 4096, 256, 16 }) {
+            gross.setBalanceSnapshotInterval(abstand);
+            stichtage(gross);
+            long vorher = gross.getReplayCount();
+            String ergebnis = stichtage(gross);
+            if (ohne == null) {
+                ohne = ergebnis;
+            }
+            System.out.println("Abstand " + (abstand == Integer.MAX_VALUE ? "ohne" : String.valueOf(abstand))
+                    + ": " + gross.getBalanceSnapshotCount() + " Schnappschüsse, " + (gross.getReplayCount() - vorher)
+                    + " nachgespielte Einträge, gleiches Ergebnis: " + ohne.equals(ergebnis));
+        }
+        System.out.println("Abweichungen laut Prüfung: " + gross.verifyBalances());
+
+        new File(TEST_LEDGER_FILE).delete();
+        new File(TEST_LEDGER_FILE + Ledger.JOURNAL_SUFFIX).delete();
+        System.out.println("\nTests für Verlauf und Stichtagssalden abgeschlossen.");
+    }
+
+    /**
+     * Stichtagssalden an jedem Monatsende von 2020 bis 2024 als Text.
+     */
+    private static String stichtage(Ledger ledger) {
+        StringBuilder sb = new StringBuilder();
+        for (LocalDate d = LocalDate.of(2020, 1, 31); d.getYear() < 2025; d = d.plusDays(1).plusMonths(1).minusDays(1)) {
+            sb.append(d).append(text(ledger.getBalancesAsOf(d))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Salden sortiert nach Namen als Text, unabhängig von den Member-Objekten.
+     */
+    private static String text(Map<Member, Money> salden) {
+        Map<String, String> sortiert = new TreeMap<>();
+        for (Map.Entry<Member, Money> e : salden.entrySet()) {
+            sortiert.put(e.getKey().getName(), e.getValue().toString());
+        }
+        return sortiert.toString();
+    }
+
+    /**
+     * Aktion, die mit einer Ausnahme abgewiesen werden soll.
+     */
+    private interface Aktion {
+        void ausfuehren() throws Exception;
+    }
+
+    /**
+     * Prüft, ob eine Aktion mit einer IllegalArgument- oder
+     * IllegalStateException abgewiesen wird.
+     */
+    private static boolean abgewiesen(Aktion aktion) throws Exception {
+        try {
+            aktion.ausfuehren();
+            return false;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return true;
+        }
+    }
+}
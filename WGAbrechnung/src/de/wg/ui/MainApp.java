@@ -2,14 +2,21 @@ package de.wg.ui;
 
 import de.wg.service.*;
 import de.wg.model.User;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.TabPane;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.MessageDigest;
+import java.time.LocalDate;
 
 /**
  * Einstiegspunkt der JavaFX-Anwendung.
@@ -20,33 +27,56 @@ import java.security.MessageDigest;
  * @version 1.4
  */
 public class MainApp extends Application {
+    /** Datei der Mitglieder im Binärformat. */
+    static final String MEMBERS_FILE = "members.bin";
+    /** Datei der Transaktionen im Binärformat. */
+    static final String LEDGER_FILE = "ledger.bin";
+    /** Datei der Benutzer im Binärformat. */
+    static final String USERS_FILE = "users.bin";
+    /** Datei der wiederkehrenden Ausgaben. */
+    static final String RECURRING_FILE = "recurring.ser";
+
     /** Transaktions-Verwaltung. */
     private Ledger ledger;
     /** Mitglieder-Verwaltung. */
     private MemberManager memberManager;
     /** Benutzer-Verwaltung. */
     private UserManager userManager;
+    /** Speichert im Hintergrund. */
+    private PersistenceService persistenceService;
+    /** Wiederkehrende Ausgaben. */
+    private RecurringScheduler recurringScheduler;
+    /** Prüft stündlich auf fällige wiederkehrende Ausgaben. */
+    private Timeline recurringTimer;
 
     /**
      * Initialisiert Manager durch Laden von Dateien.
+     * Gibt es noch keine Binärdateien, werden die alten {@code .ser}-Dateien
+     * gelesen; gespeichert wird immer im Binärformat.
      * Erstellt neue Manager, falls keine Dateien existieren.
+     * Kann eine vorhandene Datei nicht gelesen werden, z.B. ein lückenhaftes
+     * Journal, bricht der Start ab: Leere Manager würden beim Beenden die
+     * Dateien samt Journal überschreiben.
      * Stellt sicher, dass ein Admin-Benutzer vorhanden ist.
      * @throws Exception bei Ladefehlern.
      */
     @Override
     public void init() throws Exception {
         super.init();
+        memberManager = MemberManager.loadFromFile(quelle(MEMBERS_FILE, "members.ser"));
+        ledger = Ledger.loadFromFile(quelle(LEDGER_FILE, "ledger.ser"));
+        userManager = UserManager.loadFromFile(quelle(USERS_FILE, "users.ser"));
+        ledger.bindAccounts(memberManager);
         try {
-            memberManager = MemberManager.loadFromFile("members.ser");
-            ledger = Ledger.loadFromFile("ledger.ser");
-            userManager = UserManager.loadFromFile("users.ser");
+            recurringScheduler = RecurringScheduler.loadFromFile(RECURRING_FILE);
         } catch (IOException | ClassNotFoundException e) {
-            memberManager = new MemberManager();
-            ledger = new Ledger();
-            userManager = new UserManager();
+            System.err.println("Wiederkehrende Ausgaben konnten nicht geladen werden: " + e.getMessage());
+            recurringScheduler = new RecurringScheduler();
         }
+        verbucheFaellige();
         User admin = new User("Administrator", "admin", hash("admin"), true);
         userManager.addIfNotExists(admin);
+        persistenceService = new PersistenceService();
     }
 
     /**
@@ -61,27 +91,73 @@ public class MainApp extends Application {
             Parent root = loader.load();
             MainController controller = loader.getController();
             TabPane tabPane = (TabPane) root.lookup(".tab-pane"); // TabPane für den Controller finden
-            controller.setManagers(ledger, memberManager, userManager, tabPane);
+            controller.setManagers(ledger, memberManager, userManager, persistenceService, tabPane);
 
             Scene scene = new Scene(root, 800, 600);
             primaryStage.setTitle("WG-Verwaltung (JavaFX)");
             primaryStage.setScene(scene);
             primaryStage.show();
+
+            recurringTimer = new Timeline(new KeyFrame(Duration.hours(1), e -> {
+                try {
+                    verbucheFaellige();
+                } catch (IOException ex) {
+                    // bis zum nächsten Start nichts mehr verbuchen; beim Laden wird abgeglichen
+                    recurringTimer.stop();
+                    System.err.println("Wiederkehrende Ausgaben konnten nicht gespeichert werden, "
+                            + "automatisches Verbuchen angehalten: " + ex.getMessage());
+                }
+            }));
+            recurringTimer.setCycleCount(Animation.INDEFINITE);
+            recurringTimer.play();
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
     /**
-     * Speichert alle Daten beim Beenden der Anwendung.
+     * Speichert alle Daten beim Beenden der Anwendung. Die drei Dateien werden
+     * parallel geschrieben; ein noch laufender Speichervorgang wird abgewartet.
      * @throws Exception bei Speicherfehlern.
      */
     @Override
     public void stop() throws Exception {
         super.stop();
-        memberManager.saveToFile("members.ser");
-        ledger.saveToFile("ledger.ser");
-        userManager.saveToFile("users.ser");
+        if (recurringTimer != null) {
+            recurringTimer.stop();
+        }
+        try {
+            persistenceService.saveAll(memberManager, MEMBERS_FILE, ledger, LEDGER_FILE, userManager, USERS_FILE).join();
+        } finally {
+            persistenceService.close();
+        }
+    }
+
+    /**
+     * Verbucht die bis heute fälligen wiederkehrenden Ausgaben und speichert
+     * danach sofort den Stand des Schedulers. Bleibt der gespeicherte Stand
+     * hinter dem Journal zurück, überspringt der Scheduler beim nächsten Mal
+     * die bereits verbuchten Termine.
+     * @throws IOException wenn der Stand nicht gespeichert werden kann.
+     */
+    private void verbucheFaellige() throws IOException {
+        if (recurringScheduler.materializeDue(ledger, LocalDate.now()) > 0) {
+            recurringScheduler.saveToFile(RECURRING_FILE);
+        }
+    }
+
+    /**
+     * Wählt die zu ladende Datei: die Binärdatei, falls vorhanden, sonst die
+     * Datei im alten Format.
+     * @param  datei     Dateiname im Binärformat.
+     * @param  altDatei  Dateiname im alten Format.
+     * @return           Der zu ladende Dateiname.
+     */
+    private static String quelle(String datei, String altDatei) {
+        if (!Files.exists(Paths.get(datei)) && Files.exists(Paths.get(altDatei))) {
+            return altDatei;
+        }
+        return datei;
     }
 
     /**
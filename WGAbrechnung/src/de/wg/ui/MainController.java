@@ -4,7 +4,8 @@ import de.wg.model.*;
 import de.wg.service.*;
 import de.wg.exception.*;
 
-import javafx.beans.property.SimpleDoubleProperty;
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -15,12 +16,14 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.paint.Color;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.util.StringConverter;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 public class MainController {
@@ -36,15 +39,16 @@ public class MainController {
     
     @FXML
     private void handleRefreshMembersButton(ActionEvent event) {
+        memberManager.sortMembersByName();
         allMembers.setAll(memberManager.getAllMembers());
-        transactionPayerComboBox.setItems(allMembers);
-        beneficiariesListView.setItems(allMembers);
-        memberListView.setItems(allMembers);
+        filterMemberList(memberFilterField.getText());
+        filterPayers(transactionPayerComboBox.getEditor().getText());
     }
 
     
     @FXML private Label memberMessageLabel;
     @FXML private ListView<Member> memberListView;
+    @FXML private TextField memberFilterField;
     @FXML private Button refreshMembersButton;
 
     @FXML private TextField transactionDescriptionField;
@@ -52,12 +56,13 @@ public class MainController {
     @FXML private DatePicker transactionDateField;
     @FXML private ComboBox<Member> transactionPayerComboBox;
     @FXML private ListView<Member> beneficiariesListView;
+    @FXML private TextField beneficiaryFilterField;
     @FXML private Button recordTransactionButton;
     @FXML private Label transactionMessageLabel;
 
     @FXML private TableView<BalanceEntry> balanceTableView;
     @FXML private TableColumn<BalanceEntry, String> memberColumn;
-    @FXML private TableColumn<BalanceEntry, Double> balanceColumn;
+    @FXML private TableColumn<BalanceEntry, Money> balanceColumn;
     @FXML private Button refreshBalancesButton;
     @FXML private Button saveButton;
 
@@ -65,17 +70,26 @@ public class MainController {
     @FXML private TableColumn<Transaction, LocalDate> transactionHistoryDateColumn;
     @FXML private TableColumn<Transaction, String> transactionHistoryDescriptionColumn;
     @FXML private TableColumn<Transaction, Member> transactionHistoryPayerColumn;
-    @FXML private TableColumn<Transaction, Double> transactionHistoryAmountColumn;
+    @FXML private TableColumn<Transaction, Money> transactionHistoryAmountColumn;
     @FXML private TableColumn<Transaction, String> transactionHistoryBeneficiariesColumn;
     @FXML private Button refreshTransactionHistoryButton;
+    @FXML private TextField historySearchField;
+    @FXML private ComboBox<Member> historyPayerComboBox;
+    @FXML private DatePicker historyFromField;
+    @FXML private DatePicker historyToField;
+
+    /** Höchstzahl der Treffer in gefilterten Mitgliederlisten. */
+    private static final int FILTER_LIMIT = 50;
 
     private Ledger ledger;
     private MemberManager memberManager;
     private LoginManager loginManager;
     private UserManager userManager;
+    private PersistenceService persistenceService;
     private ObservableList<Member> allMembers;
     private ObservableList<BalanceEntry> balanceData;
-    private ObservableList<Transaction> transactionHistoryData;
+    private final Map<Member, BalanceEntry> balanceRows = new HashMap<>();
+    private PagedTransactionList transactionHistoryData;
     private User currentUser;
     private TabPane mainTabPane;
 
@@ -88,12 +102,12 @@ public class MainController {
         balanceColumn.setCellValueFactory(new PropertyValueFactory<>("balance"));
         balanceColumn.setCellFactory(column -> new TableCell<>() {
             @Override
-            protected void updateItem(Double item, boolean empty) {
+            protected void updateItem(Money item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null);
                 } else {
-                    setText(String.format("%.2f", item));
+                    setText(item.toString());
                 }
             }
         });
@@ -108,14 +122,14 @@ public class MainController {
             String str = cellData.getValue().getBeneficiaries().stream().map(Member::getName).collect(Collectors.joining(", "));
             return new SimpleStringProperty(str);
         });
-        transactionHistoryData = FXCollections.observableArrayList();
-        transactionHistoryTableView.setItems(transactionHistoryData);
     }
 
-    public void setManagers(Ledger ledger, MemberManager memberManager, UserManager userManager, TabPane mainTabPane) {
+    public void setManagers(Ledger ledger, MemberManager memberManager, UserManager userManager,
+            PersistenceService persistenceService, TabPane mainTabPane) {
         this.ledger = ledger;
         this.memberManager = memberManager;
         this.userManager = userManager;
+        this.persistenceService = persistenceService;
         this.loginManager = new LoginManager(new RuleSet());
         this.mainTabPane = mainTabPane;
 
@@ -129,9 +143,177 @@ public class MainController {
         memberListView.setItems(allMembers);
         transactionPayerComboBox.setItems(allMembers);
         beneficiariesListView.setItems(allMembers);
+        historyPayerComboBox.setItems(allMembers);
+        setUpMemberSearch();
 
         refreshBalances(null);
-        refreshTransactionHistory(null);
+        transactionHistoryData = new PagedTransactionList(ledger);
+        transactionHistoryTableView.setItems(transactionHistoryData);
+
+        ledger.addListener(new LedgerListener() {
+            @Override
+            public void transactionsAdded(List<Transaction> added) {
+                MainController.this.transactionsAdded(added);
+            }
+
+            @Override
+            public void transactionRevised(LedgerEvent event) {
+                MainController.this.transactionRevised(event);
+            }
+        });
+        memberManager.addListener(new MemberListener() {
+            @Override
+            public void memberAdded(Member member) {
+                int index = Collections.binarySearch(allMembers, member, MemberManager.NAME_ORDER);
+                if (index < 0) {
+                    allMembers.add(-index - 1, member);
+                }
+                filterMemberList(memberFilterField.getText());
+                updateBalanceRow(member);
+            }
+
+            @Override
+            public void memberRemoved(Member member) {
+                allMembers.remove(member);
+                filterMemberList(memberFilterField.getText());
+                BalanceEntry entry = balanceRows.remove(member);
+                if (entry != null) {
+                    balanceData.remove(entry);
+                }
+            }
+        });
+    }
+
+    /**
+     * Richtet die Suche in den Mitgliederlisten ein. {@code allMembers} hat
+     * dieselbe sortierte Reihenfolge wie der {@link MemberManager}; gefiltert
+     * wird über dessen Präfixsuche statt durch Durchsuchen der Liste. Die
+     * Begünstigten werden nicht gefiltert, damit die Mehrfachauswahl erhalten
+     * bleibt; dort springt die Suche zum ersten Treffer.
+     */
+    private void setUpMemberSearch() {
+        memberFilterField.textProperty().addListener((obs, alt, text) -> filterMemberList(text));
+
+        transactionPayerComboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Member member) {
+                return member == null ? "" : member.getName();
+            }
+
+            @Override
+            public Member fromString(String name) {
+                return name == null ? null : memberManager.getMemberByName(name.trim());
+            }
+        });
+        transactionPayerComboBox.getEditor().textProperty().addListener((obs, alt, text) -> {
+            Member payer = transactionPayerComboBox.getConverter()
+                .fromString(transactionPayerComboBox.getEditor().getText());
+            if (payer == null || !payer.getName().equals(text)) {
+                // Liste erst nach dem laufenden Ereignis tauschen, sonst stört es die Auswahl
+                Platform.runLater(() -> {
+                    filterPayers(text);
+                    if (transactionPayerComboBox.getEditor().isFocused()
+                            && !transactionPayerComboBox.getItems().isEmpty()) {
+                        transactionPayerComboBox.show();
+                    }
+                });
+            }
+        });
+
+        beneficiaryFilterField.textProperty().addListener((obs, alt, text) -> {
+            int index = text == null || text.isBlank() ? -1 : memberManager.indexOfPrefix(text.trim());
+            if (index >= 0) {
+                beneficiariesListView.scrollTo(index);
+            }
+        });
+    }
+
+    /**
+     * Zeigt in der Mitgliederliste nur Mitglieder, deren Name mit dem Text
+     * beginnt; ohne Text alle.
+     * @param text der eingegebene Namensanfang
+     */
+    private void filterMemberList(String text) {
+        memberListView.setItems(filtered(text));
+    }
+
+    /**
+     * Bietet als Zahler nur Mitglieder an, deren Name mit dem Text beginnt.
+     * @param text der eingegebene Namensanfang
+     */
+    private void filterPayers(String text) {
+        transactionPayerComboBox.setItems(filtered(text));
+    }
+
+    private ObservableList<Member> filtered(String text) {
+        if (text == null || text.isBlank()) {
+            return allMembers;
+        }
+        return FXCollections.observableArrayList(memberManager.findByPrefix(text.trim(), FILTER_LIMIT));
+    }
+
+    /**
+     * Übernimmt neue Transaktionen in die Tabellen: je betroffenem Mitglied
+     * wird eine Saldenzeile aktualisiert, der Verlauf lädt die Seiten ab dem
+     * frühesten neuen Datum bei Bedarf neu.
+     * @param added die neuen Transaktionen
+     */
+    private void transactionsAdded(List<Transaction> added) {
+        Set<Member> betroffen = new LinkedHashSet<>();
+        for (Transaction t : added) {
+            betroffen.add(t.getPayer());
+            betroffen.addAll(t.getBeneficiaries());
+        }
+        transactionHistoryData.transactionsAdded(added);
+        for (Member member : betroffen) {
+            updateBalanceRow(member);
+        }
+    }
+
+    /**
+     * Übernimmt eine Korrektur oder ein Storno in die Tabellen: die Salden der
+     * an alter und neuer Fassung beteiligten Mitglieder werden aktualisiert,
+     * der Verlauf lädt die Seiten ab dem früheren der beiden Daten neu.
+     * @param event das Korrektur- bzw. Storno-Ereignis
+     */
+    private void transactionRevised(LedgerEvent event) {
+        Set<Member> betroffen = new LinkedHashSet<>();
+        for (Transaction t : Arrays.asList(event.getTransaction(), event.getReplacement())) {
+            if (t != null) {
+                betroffen.add(t.getPayer());
+                betroffen.addAll(t.getBeneficiaries());
+            }
+        }
+        transactionHistoryData.transactionRevised(event);
+        for (Member member : betroffen) {
+            updateBalanceRow(member);
+        }
+    }
+
+    /**
+     * Aktualisiert die Saldenzeile eines Mitglieds und verschiebt sie an ihre
+     * sortierte Position. Mitglieder, die nicht verwaltet werden, erhalten
+     * keine Zeile.
+     * @param member das Mitglied
+     */
+    private void updateBalanceRow(Member member) {
+        BalanceEntry entry = balanceRows.get(member);
+        if (entry == null) {
+            if (memberManager.getMemberByName(member.getName()) == null) {
+                return;
+            }
+            entry = new BalanceEntry(member.getName(), ledger.getBalance(member));
+            balanceRows.put(member, entry);
+        } else {
+            Money balance = ledger.getBalance(member);
+            if (balance.equals(entry.getBalance())) {
+                return;
+            }
+            balanceData.remove(entry);
+            entry.balanceProperty().set(balance);
+        }
+        int index = Collections.binarySearch(balanceData, entry, Comparator.comparing(BalanceEntry::getBalance));
+        balanceData.add(index < 0 ? -index - 1 : index, entry);
     }
 
     @FXML
@@ -154,11 +336,12 @@ public class MainController {
     }
 
     private String schuldenHinweis(User user) {
-    	if (!(user instanceof AccountHolder)) return "";
-    	AccountHolder ah = (AccountHolder) user;
-        double saldo = ah.getAccount().getBalance();
+        AccountHolder ah = user instanceof AccountHolder
+                ? (AccountHolder) user : memberManager.getMemberByName(user.getUsername());
+        if (ah == null) return "";
+        Money saldo = ah.getAccount().getBalance();
         StringBuilder hinweis = new StringBuilder();
-        if (saldo < -200) {
+        if (saldo.getCents() < -200_00) {
             hinweis.append("Warnung: Hohes Minus von " + saldo + " EUR.\n");
         } else {
             hinweis.append("Aktueller Saldo: " + saldo + " EUR\n");
@@ -172,17 +355,17 @@ public class MainController {
         String pass = userPasswordField.getText();
         boolean isAdmin = adminCheckBox.isSelected();
 
-        if (memberManager.getMemberByName(memberName) != null) return;
+        if (memberName.isEmpty()) return;
+        if (memberManager.getMemberByName(memberName) != null || userManager.getByUsername(memberName) != null) {
+            memberMessageLabel.setText("Name '" + memberName + "' ist bereits vergeben.");
+            memberMessageLabel.setTextFill(Color.RED);
+            return;
+        }
 
         Member member = new Member(memberName);
         memberManager.addMember(member);
         User user = new User(memberName, memberName, hash(pass), isAdmin);
         userManager.addUser(user);
-
-        allMembers.add(member);
-        transactionPayerComboBox.setItems(allMembers);
-        beneficiariesListView.setItems(allMembers);
-        refreshBalances(null);
     }
 
     @FXML
@@ -205,13 +388,11 @@ public class MainController {
         }
 
         try {
-            double amount = Double.parseDouble(amountText);
+            Money amount = Money.parse(amountText);
             Transaction transaction = new Transaction(date, amount, payer, new ArrayList<>(beneficiaries), description);
             ledger.addTransaction(transaction);
             transactionMessageLabel.setText("Transaktion erfasst.");
             transactionMessageLabel.setTextFill(Color.GREEN);
-            refreshBalances(null);
-            refreshTransactionHistory(null);
         } catch (Exception e) {
             transactionMessageLabel.setText("Fehler: " + e.getMessage());
             transactionMessageLabel.setTextFill(Color.RED);
@@ -220,50 +401,96 @@ public class MainController {
 
     @FXML
     private void refreshBalances(ActionEvent event) {
-        balanceData.clear();
+        balanceRows.clear();
+        List<BalanceEntry> rows = new ArrayList<>();
+        Map<Member, Money> balances = ledger.getAllBalances();
         for (Member member : memberManager.getAllMembers()) {
-            double balance = ledger.getBalance(member);
-            balanceData.add(new BalanceEntry(member.getName(), balance));
+            Money balance = balances.getOrDefault(member, Money.ZERO);
+            BalanceEntry entry = new BalanceEntry(member.getName(), balance);
+            balanceRows.put(member, entry);
+            rows.add(entry);
         }
-        balanceData.sort(Comparator.comparingDouble(BalanceEntry::getBalance));
+        rows.sort(Comparator.comparing(BalanceEntry::getBalance));
+        balanceData.setAll(rows);
     }
 
     @FXML
     private void refreshTransactionHistory(ActionEvent event) {
-        transactionHistoryData.clear();
-        transactionHistoryData.addAll(ledger.getTransactionsSortedByDate());
+        transactionHistoryData.refresh();
     }
 
+    /**
+     * Zeigt im Verlauf nur Transaktionen, deren Beschreibung die Suchwörter
+     * enthält, eingeschränkt auf Zahler und Zeitraum (siehe
+     * {@link Ledger#searchTransactions}). Ohne Suchwörter und Filter wird
+     * wieder der ganze Verlauf gezeigt.
+     */
     @FXML
-    private void handleSaveButton(ActionEvent event) {
-        try {
-            memberManager.saveToFile("members.ser");
-            ledger.saveToFile("ledger.ser");
-            userManager.saveToFile("users.ser");
-            loginMessageLabel.setText("Daten gespeichert.");
-            loginMessageLabel.setTextFill(Color.GREEN);
-        } catch (Exception e) {
-            loginMessageLabel.setText("Fehler beim Speichern: " + e.getMessage());
-            loginMessageLabel.setTextFill(Color.RED);
+    private void handleHistorySearch(ActionEvent event) {
+        String query = historySearchField.getText();
+        Member payer = historyPayerComboBox.getValue();
+        LocalDate from = historyFromField.getValue();
+        LocalDate to = historyToField.getValue();
+        if ((query == null || query.isBlank()) && payer == null && from == null && to == null) {
+            transactionHistoryTableView.setItems(transactionHistoryData);
+            return;
         }
+        transactionHistoryTableView.setItems(
+                FXCollections.observableArrayList(ledger.searchTransactions(query, from, to, payer)));
+    }
+
+    @FXML
+    private void handleHistorySearchReset(ActionEvent event) {
+        historySearchField.clear();
+        historyPayerComboBox.setValue(null);
+        historyFromField.setValue(null);
+        historyToField.setValue(null);
+        transactionHistoryTableView.setItems(transactionHistoryData);
+    }
+
+    @FXML
+    private void handleSaveButton(ActionEvent event) {
+        saveButton.setDisable(true);
+        loginMessageLabel.setText("Speichere...");
+        loginMessageLabel.setTextFill(Color.BLACK);
+        persistenceService.saveAll(memberManager, MainApp.MEMBERS_FILE, ledger, MainApp.LEDGER_FILE,
+                userManager, MainApp.USERS_FILE).whenComplete((ok, e) -> Platform.runLater(() -> {
+                    saveButton.setDisable(false);
+                    if (e == null) {
+                        loginMessageLabel.setText("Daten gespeichert.");
+                        loginMessageLabel.setTextFill(Color.GREEN);
+                    } else {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                        loginMessageLabel.setText("Fehler beim Speichern: " + cause.getMessage());
+                        loginMessageLabel.setTextFill(Color.RED);
+                    }
+                }));
     }
 
     public static class BalanceEntry {
         private final SimpleStringProperty memberName;
-        private final SimpleDoubleProperty balance;
+        private final SimpleObjectProperty<Money> balance;
 
-        public BalanceEntry(String memberName, double balance) {
+        public BalanceEntry(String memberName, Money balance) {
             this.memberName = new SimpleStringProperty(memberName);
-            this.balance = new SimpleDoubleProperty(balance);
+            this.balance = new SimpleObjectProperty<>(balance);
         }
 
         public String getMemberName() {
             return memberName.get();
         }
 
-        public double getBalance() {
+        public SimpleStringProperty memberNameProperty() {
+            return memberName;
+        }
+
+        public Money getBalance() {
             return balance.get();
         }
+
+        public SimpleObjectProperty<Money> balanceProperty() {
+            return balance;
+        }
     }
 
     private String hash(String password) {
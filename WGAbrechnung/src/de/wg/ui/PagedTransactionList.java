@@ -0,0 +1,148 @@
+package de.wg.ui;
+
+import de.wg.model.Transaction;
+import de.wg.service.Ledger;
+import de.wg.service.LedgerEvent;
+
+import javafx.collections.ObservableListBase;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Beobachtbare Liste der Transaktionen in Datumsreihenfolge, die nur die
+ * gerade benötigten Seiten aus dem {@link Ledger} lädt.
+ * <p>
+ * Die {@code TableView} fragt nur die sichtbaren Zeilen per {@link #get(int)}
+ * ab. Geladen wird jeweils eine Seite von {@link #PAGE_SIZE} Transaktionen;
+ * liegt eine Zeile nahe am Seitenrand, wird die Nachbarseite gleich mitgeladen.
+ * Es bleiben höchstens {@link #MAX_PAGES} Seiten im Speicher, die am längsten
+ * nicht benutzte Seite wird verworfen.
+ * </p>
+ */
+public class PagedTransactionList extends ObservableListBase<Transaction> {
+
+    /** Anzahl Transaktionen je geladener Seite. */
+    static final int PAGE_SIZE = 256;
+
+    /** Höchstzahl gleichzeitig gehaltener Seiten. */
+    static final int MAX_PAGES = 8;
+
+    /** Abstand zum Seitenrand, ab dem die Nachbarseite vorgeladen wird. */
+    private static final int PREFETCH_MARGIN = PAGE_SIZE / 4;
+
+    private final Ledger ledger;
+    private final Map<Integer, List<Transaction>> pages = new LinkedHashMap<Integer, List<Transaction>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<Transaction>> eldest) {
+            return size() > MAX_PAGES;
+        }
+    };
+    private int size;
+
+    /**
+     * Erstellt die Liste über dem aktuellen Stand des Ledgers.
+     * @param ledger der Ledger
+     */
+    public PagedTransactionList(Ledger ledger) {
+        this.ledger = ledger;
+        this.size = ledger.getTransactionCount();
+    }
+
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Größe: " + size);
+        }
+        int page = index / PAGE_SIZE;
+        int offset = index % PAGE_SIZE;
+        Transaction t = loadPage(page).get(offset);
+        if (offset < PREFETCH_MARGIN && page > 0) {
+            loadPage(page - 1);
+        } else if (offset >= PAGE_SIZE - PREFETCH_MARGIN && (page + 1) * PAGE_SIZE < size) {
+            loadPage(page + 1);
+        }
+        return t;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Übernimmt neue Transaktionen aus dem Ledger. Alle Zeilen ab dem frühesten
+     * neuen Datum gelten als ersetzt; die Seiten davor bleiben geladen.
+     * @param added die neu erfassten Transaktionen
+     */
+    public void transactionsAdded(List<Transaction> added) {
+        LocalDate earliest = null;
+        for (Transaction t : added) {
+            if (earliest == null || t.getDate().isBefore(earliest)) {
+                earliest = t.getDate();
+            }
+        }
+        if (earliest != null) {
+            invalidateFrom(earliest);
+        }
+    }
+
+    /**
+     * Übernimmt eine Korrektur oder ein Storno aus dem Ledger. Alle Zeilen ab
+     * dem früheren Datum von alter und neuer Fassung gelten als ersetzt; bei
+     * einem Storno wird die Liste um eine Zeile kürzer.
+     * @param event das Korrektur- bzw. Storno-Ereignis
+     */
+    public void transactionRevised(LedgerEvent event) {
+        LocalDate earliest = event.getTransaction().getDate();
+        Transaction replacement = event.getReplacement();
+        if (replacement != null && replacement.getDate().isBefore(earliest)) {
+            earliest = replacement.getDate();
+        }
+        invalidateFrom(earliest);
+    }
+
+    /**
+     * Verwirft die Seiten ab dem ersten Eintrag mit dem angegebenen Datum, liest
+     * die Größe neu aus dem Ledger und meldet die Zeilen ab dort als ersetzt.
+     * @param earliest frühestes geändertes Datum
+     */
+    private void invalidateFrom(LocalDate earliest) {
+        int from = ledger.positionOf(earliest);
+        int oldSize = size;
+        size = ledger.getTransactionCount();
+        pages.keySet().removeIf(page -> (page + 1) * PAGE_SIZE > from);
+        beginChange();
+        nextReplace(from, size, Collections.nCopies(oldSize - from, null));
+        endChange();
+    }
+
+    /**
+     * Verwirft alle geladenen Seiten und liest die Größe neu aus dem Ledger.
+     */
+    public void refresh() {
+        int oldSize = size;
+        pages.clear();
+        size = ledger.getTransactionCount();
+        beginChange();
+        nextReplace(0, size, Collections.nCopies(oldSize, null));
+        endChange();
+    }
+
+    /**
+     * Gibt eine Seite aus dem Zwischenspeicher zurück oder lädt sie.
+     * @param page Nummer der Seite
+     * @return die Transaktionen der Seite
+     */
+    private List<Transaction> loadPage(int page) {
+        List<Transaction> loaded = pages.get(page);
+        if (loaded == null) {
+            loaded = ledger.page(Ledger.SortKey.DATE, page * PAGE_SIZE, PAGE_SIZE);
+            pages.put(page, loaded);
+        }
+        return loaded;
+    }
+}